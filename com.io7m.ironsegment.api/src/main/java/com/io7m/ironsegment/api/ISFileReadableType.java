@@ -17,10 +17,20 @@
 package com.io7m.ironsegment.api;
 
 import java.io.Closeable;
+import java.io.IOException;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * A readable file.
+ *
+ * <p>Readable files are safe for use from multiple threads: any number of
+ * threads may open and read sections of the same file concurrently, and the
+ * data delivered by one section is never affected by reads of another.
+ * Individual sections, and the channels they return, are not themselves
+ * safe for concurrent use and should be confined to a single thread.</p>
  */
 
 public interface ISFileReadableType extends Closeable
@@ -31,6 +41,15 @@ public interface ISFileReadableType extends Closeable
 
   List<ISFileSectionDescription> sections();
 
+  /**
+   * @param identifier The section identifier
+   *
+   * @return The list of sections in the file with the given identifier
+   */
+
+  List<ISFileSectionDescription> sectionsWithIdentifier(
+    long identifier);
+
   /**
    * @return The file version
    */
@@ -48,6 +67,74 @@ public interface ISFileReadableType extends Closeable
   ISSectionReadableType openSection(
     ISFileSectionDescription description);
 
+  /**
+   * Find the section that contains the image with the given ID. The image IDs
+   * of all image sections are read and indexed the first time that an image
+   * is looked up; subsequent lookups do not perform any I/O.
+   *
+   * @param imageId The image ID
+   *
+   * @return The section containing the image, if any
+   *
+   * @throws IOException On errors
+   */
+
+  Optional<ISFileSectionDescription> sectionForImage(
+    ISImageID imageId)
+    throws IOException;
+
+  /**
+   * Open the section that contains the image with the given ID.
+   *
+   * @param imageId The image ID
+   *
+   * @return A readable image section
+   *
+   * @throws IOException On errors, or if the file does not contain the image
+   * @see #sectionForImage(ISImageID)
+   */
+
+  ISSectionReadableImageType openImage(
+    ISImageID imageId)
+    throws IOException;
+
+  /**
+   * Verify the checksums of all sections that have checksums, using the
+   * common fork-join pool.
+   *
+   * @return The results of verification, in file order
+   *
+   * @throws IOException On errors
+   *
+   * @see #verifyChecksums(ExecutorService)
+   */
+
+  default List<ISSectionChecksumResult> verifyChecksums()
+    throws IOException
+  {
+    return this.verifyChecksums(ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Verify the checksums of all sections that have checksums. Sections are
+   * verified in parallel by submitting one task per section to the given
+   * executor. A checksum mismatch is reported in the returned results rather
+   * than raised as an exception, so that all damaged sections can be
+   * identified in a single pass. The results of successful verifications
+   * are remembered, and the sections are not verified again on access.
+   *
+   * @param executor The executor used to run verification tasks
+   *
+   * @return The results of verification, in file order; the list is empty
+   * if the file does not contain checksums
+   *
+   * @throws IOException On errors
+   */
+
+  List<ISSectionChecksumResult> verifyChecksums(
+    ExecutorService executor)
+    throws IOException;
+
   /**
    * Obtain the number of trailing octets in the file. This value should always
    * be zero for valid files.
@@ -21,7 +21,10 @@ import java.io.IOException;
 import java.util.List;
 
 import static com.io7m.ironsegment.api.ISIdentifiers.sectionEndIdentifier;
+import static com.io7m.ironsegment.api.ISIdentifiers.sectionImageEncodedIdentifier;
 import static com.io7m.ironsegment.api.ISIdentifiers.sectionImageIdentifier;
+import static com.io7m.ironsegment.api.ISIdentifiers.sectionImageTiledIdentifier;
+import static com.io7m.ironsegment.api.ISIdentifiers.sectionManifestBinaryIdentifier;
 import static com.io7m.ironsegment.api.ISIdentifiers.sectionManifestIdentifier;
 
 /**
@@ -45,6 +48,12 @@ public interface ISFileWritableType extends Closeable
 
   ISVersion version();
 
+  /**
+   * @return The statistics gathered for the sections closed so far
+   */
+
+  ISFileWriteStatistics statistics();
+
   /**
    * Create a new section with the given identifier.
    *
@@ -58,6 +67,39 @@ public interface ISFileWritableType extends Closeable
   ISSectionWritableType createSection(long identifier)
     throws IOException;
 
+  /**
+   * Reserve an uncompressed image section large enough to hold the given
+   * image, and return an interface that can be used to fill in the pixel
+   * data later. The reserved section is complete as far as the file is
+   * concerned, so other sections (including further reservations) can be
+   * created immediately, while other threads write pixel data into the
+   * reserved sections concurrently. Pixel data is written with positional
+   * writes, so reservations require the underlying channel to be a
+   * {@link java.nio.channels.FileChannel}.
+   *
+   * If any images have been reserved and the file is closed without an end
+   * section having been created, an end section is created automatically.
+   * Closing the file while another section is still open is then an error,
+   * because the end section cannot be written.
+   *
+   * @param imageId  The image ID
+   * @param width    The image width
+   * @param height   The image height
+   * @param semantic The image semantic
+   *
+   * @return The reserved image data
+   *
+   * @throws IOException On errors, or if the channel does not support
+   *                     positional writes
+   */
+
+  ISWritableImageReservedType reserveImage(
+    ISImageID imageId,
+    long width,
+    long height,
+    ISImageSemantic semantic)
+    throws IOException;
+
   /**
    * Create a new end section.
    *
@@ -88,6 +130,22 @@ public interface ISFileWritableType extends Closeable
       this.createSection(sectionManifestIdentifier());
   }
 
+  /**
+   * Create a new info section that stores the manifest using the compact
+   * binary encoding instead of XML.
+   *
+   * @return A new section
+   *
+   * @throws IOException On errors
+   */
+
+  default ISSectionWritableInfoType createSectionInfoBinary()
+    throws IOException
+  {
+    return (ISSectionWritableInfoType)
+      this.createSection(sectionManifestBinaryIdentifier());
+  }
+
   /**
    * Create a new image section.
    *
@@ -102,4 +160,45 @@ public interface ISFileWritableType extends Closeable
     return (ISSectionWritableImageType)
       this.createSection(sectionImageIdentifier());
   }
+
+  /**
+   * Create a new image section that stores pixel data using an
+   * {@link ISImageCodec}.
+   *
+   * @return A new section
+   *
+   * @throws IOException On errors
+   *
+   * @see ISSectionWritableImageType#createImageData(ISImageID, long, long, ISImageSemantic, ISImageCodec)
+   */
+
+  default ISSectionWritableImageType createSectionImageEncoded()
+    throws IOException
+  {
+    return (ISSectionWritableImageType)
+      this.createSection(sectionImageEncodedIdentifier());
+  }
+
+  /**
+   * Create a new image section that divides pixel data into tiles, each of
+   * which is stored using an {@link ISImageCodec} independently of the
+   * others. Rectangular regions of tiled images can be read without decoding
+   * the entire image.
+   *
+   * @return A new section
+   *
+   * @throws IOException On errors
+   *
+   * @see ISSectionWritableImageType#createImageDataTiled(ISImageID, long,
+   * long, ISImageSemantic, ISImageCodec, long, long)
+   * @see ISSectionReadableImageType#imageDataDecodeRegion(ISImageRegion,
+   * java.nio.ByteBuffer, java.util.concurrent.ExecutorService)
+   */
+
+  default ISSectionWritableImageType createSectionImageTiled()
+    throws IOException
+  {
+    return (ISSectionWritableImageType)
+      this.createSection(sectionImageTiledIdentifier());
+  }
 }
@@ -16,6 +16,7 @@
 
 package com.io7m.ironsegment.api;
 
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -32,6 +33,45 @@ public final class ISIdentifiers
     0x4972_535F_494D_4744L;
   private static final long SECTION_END_IDENTIFIER =
     0x4972_535F_454E_4421L;
+  private static final long SECTION_TABLE_OF_CONTENTS_IDENTIFIER =
+    0x4972_535F_544F_4353L;
+  private static final long SECTION_MANIFEST_BINARY_IDENTIFIER =
+    0x4972_535F_4D4E_4642L;
+  private static final long SECTION_IMAGE_ENCODED_IDENTIFIER =
+    0x4972_535F_494D_4745L;
+  private static final long SECTION_IMAGE_TILED_IDENTIFIER =
+    0x4972_535F_494D_4754L;
+  private static final long SECTION_CHECKSUMS_IDENTIFIER =
+    0x4972_535F_4352_4353L;
+  private static final long SHARD_IDENTIFIER =
+    0x8949_7248_0D0A_1A0AL;
+  private static final long SHARD_MEMBER_IDENTIFIER =
+    0x4972_485F_4D45_4D42L;
+  private static final long SHARD_INDEX_IDENTIFIER =
+    0x4972_485F_494E_4458L;
+  private static final long SHARD_END_IDENTIFIER =
+    0x4972_485F_454E_4421L;
+
+  private static final Map<Long, String> NAMES =
+    Map.ofEntries(
+      Map.entry(Long.valueOf(SECTION_MANIFEST_IDENTIFIER), "MANIFEST"),
+      Map.entry(Long.valueOf(SECTION_IMAGE_IDENTIFIER), "IMAGE"),
+      Map.entry(Long.valueOf(SECTION_END_IDENTIFIER), "END"),
+      Map.entry(
+        Long.valueOf(SECTION_TABLE_OF_CONTENTS_IDENTIFIER),
+        "TABLE_OF_CONTENTS"),
+      Map.entry(
+        Long.valueOf(SECTION_MANIFEST_BINARY_IDENTIFIER),
+        "MANIFEST_BINARY"),
+      Map.entry(
+        Long.valueOf(SECTION_IMAGE_ENCODED_IDENTIFIER),
+        "IMAGE_ENCODED"),
+      Map.entry(Long.valueOf(SECTION_IMAGE_TILED_IDENTIFIER), "IMAGE_TILED"),
+      Map.entry(Long.valueOf(SECTION_CHECKSUMS_IDENTIFIER), "CHECKSUMS"),
+      Map.entry(Long.valueOf(SHARD_MEMBER_IDENTIFIER), "SHARD_MEMBER"),
+      Map.entry(Long.valueOf(SHARD_INDEX_IDENTIFIER), "SHARD_INDEX"),
+      Map.entry(Long.valueOf(SHARD_END_IDENTIFIER), "SHARD_END")
+    );
 
   private ISIdentifiers()
   {
@@ -65,6 +105,16 @@ public final class ISIdentifiers
     return SECTION_MANIFEST_IDENTIFIER;
   }
 
+  /**
+   * @return The identifier used to identify binary-encoded {@code manifest}
+   * sections
+   */
+
+  public static long sectionManifestBinaryIdentifier()
+  {
+    return SECTION_MANIFEST_BINARY_IDENTIFIER;
+  }
+
   /**
    * @return The identifier used to identify {@code image} sections
    */
@@ -74,6 +124,83 @@ public final class ISIdentifiers
     return SECTION_IMAGE_IDENTIFIER;
   }
 
+  /**
+   * @return The identifier used to identify {@code image} sections whose
+   * pixel data is stored using an {@link ISImageCodec}
+   */
+
+  public static long sectionImageEncodedIdentifier()
+  {
+    return SECTION_IMAGE_ENCODED_IDENTIFIER;
+  }
+
+  /**
+   * @return The identifier used to identify {@code image} sections whose
+   * pixel data is divided into independently encoded tiles
+   */
+
+  public static long sectionImageTiledIdentifier()
+  {
+    return SECTION_IMAGE_TILED_IDENTIFIER;
+  }
+
+  /**
+   * @return The identifier used to identify {@code table of contents} sections
+   */
+
+  public static long sectionTableOfContentsIdentifier()
+  {
+    return SECTION_TABLE_OF_CONTENTS_IDENTIFIER;
+  }
+
+  /**
+   * @return The identifier used to identify {@code checksums} sections
+   */
+
+  public static long sectionChecksumsIdentifier()
+  {
+    return SECTION_CHECKSUMS_IDENTIFIER;
+  }
+
+  /**
+   * @return The identifier used to identify shard files
+   */
+
+  public static long shardIdentifier()
+  {
+    return SHARD_IDENTIFIER;
+  }
+
+  /**
+   * @return The identifier used to identify {@code member} sections of
+   * shard files
+   */
+
+  public static long shardMemberIdentifier()
+  {
+    return SHARD_MEMBER_IDENTIFIER;
+  }
+
+  /**
+   * @return The identifier used to identify {@code index} sections of
+   * shard files
+   */
+
+  public static long shardIndexIdentifier()
+  {
+    return SHARD_INDEX_IDENTIFIER;
+  }
+
+  /**
+   * @return The identifier used to identify {@code end} sections of
+   * shard files
+   */
+
+  public static long shardEndIdentifier()
+  {
+    return SHARD_END_IDENTIFIER;
+  }
+
   /**
    * Determine a humanly-readable name of an identifier.
    *
@@ -85,15 +212,6 @@ public final class ISIdentifiers
   public static Optional<String> nameOf(
     final long identifier)
   {
-    if (identifier == SECTION_MANIFEST_IDENTIFIER) {
-      return Optional.of("MANIFEST");
-    }
-    if (identifier == SECTION_IMAGE_IDENTIFIER) {
-      return Optional.of("IMAGE");
-    }
-    if (identifier == SECTION_END_IDENTIFIER) {
-      return Optional.of("END");
-    }
-    return Optional.empty();
+    return Optional.ofNullable(NAMES.get(Long.valueOf(identifier)));
   }
 }
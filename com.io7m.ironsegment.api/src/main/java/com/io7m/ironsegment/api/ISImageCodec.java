@@ -0,0 +1,112 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.ironsegment.api;
+
+import java.util.Optional;
+
+/**
+ * The means by which the pixel data of an image is encoded within an
+ * encoded image section.
+ */
+
+public enum ISImageCodec
+{
+  /**
+   * The pixel data is stored uncompressed.
+   */
+
+  RAW(0),
+
+  /**
+   * The pixel data is compressed using the LZ4 block format. LZ4 trades
+   * compression ratio for very fast decompression.
+   */
+
+  LZ4(1),
+
+  /**
+   * The pixel data is run-length encoded. Each row is stored independently
+   * as a sequence of runs of whole pixels, so the encoding suits images that
+   * consist of large areas of identical values, such as
+   * {@link ISImageSemantic#OBJECT_ID_32} and
+   * {@link ISImageSemantic#MONOCHROME_LINES_8} images.
+   *
+   * @see ISSectionReadableImageType#imageDataVisitRuns(ISImageRunVisitorType)
+   */
+
+  RLE(2),
+
+  /**
+   * Each row of pixel data is transformed by a PNG-style predictive filter
+   * that operates on whole samples, and the result is compressed using the
+   * LZ4 block format. Prediction turns smooth fields, such as
+   * {@link ISImageSemantic#DEPTH_16} and {@link ISImageSemantic#DEPTH_32}
+   * images, into small residuals that compress far better than the raw
+   * samples.
+   */
+
+  FILTERED_LZ4(3),
+
+  /**
+   * The distinct pixel values of the image are stored once in a palette,
+   * and each pixel is stored as an index into the palette using 8, 16, or 32
+   * bits, whichever is the narrowest that can address every entry. Images
+   * such as {@link ISImageSemantic#OBJECT_ID_32} images typically contain
+   * far fewer distinct values than their pixel size can represent, so this
+   * reduces their size by a factor of two to four.
+   *
+   * @see ISSectionReadableImageType#imageDataPalette()
+   */
+
+  PALETTE(4);
+
+  private final int code;
+
+  ISImageCodec(
+    final int inCode)
+  {
+    this.code = inCode;
+  }
+
+  /**
+   * @return The code used to identify the codec within files
+   */
+
+  public int code()
+  {
+    return this.code;
+  }
+
+  /**
+   * Find the codec with the given code.
+   *
+   * @param code The code
+   *
+   * @return The codec, if the code is recognized
+   */
+
+  public static Optional<ISImageCodec> ofCode(
+    final int code)
+  {
+    for (final var codec : values()) {
+      if (codec.code == code) {
+        return Optional.of(codec);
+      }
+    }
+    return Optional.empty();
+  }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.ironsegment.api;
+
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The codec that was used to store the pixel data of an image section.
+ *
+ * @param sectionOffset The file offset of the section
+ * @param imageId       The image ID
+ * @param codec         The codec
+ * @param adaptive      {@code true} if the codec was selected by an
+ *                      {@link ISImageCodecPolicy}
+ * @param decodedSize   The size of the decoded pixel data
+ * @param encodedSize   The size of the encoded pixel data
+ * @param trialSizes    The encoded sizes of the sampled rows for each
+ *                      candidate codec, if the codec was selected adaptively
+ */
+
+public record ISImageCodecChoice(
+  long sectionOffset,
+  ISImageID imageId,
+  ISImageCodec codec,
+  boolean adaptive,
+  long decodedSize,
+  long encodedSize,
+  Map<ISImageCodec, Long> trialSizes)
+{
+  /**
+   * The codec that was used to store the pixel data of an image section.
+   *
+   * @param sectionOffset The file offset of the section
+   * @param imageId       The image ID
+   * @param codec         The codec
+   * @param adaptive      {@code true} if the codec was selected by an
+   *                      {@link ISImageCodecPolicy}
+   * @param decodedSize   The size of the decoded pixel data
+   * @param encodedSize   The size of the encoded pixel data
+   * @param trialSizes    The encoded sizes of the sampled rows for each
+   *                      candidate codec, if the codec was selected adaptively
+   */
+
+  public ISImageCodecChoice
+  {
+    Objects.requireNonNull(imageId, "imageId");
+    Objects.requireNonNull(codec, "codec");
+    trialSizes = Map.copyOf(trialSizes);
+  }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.ironsegment.api;
+
+/**
+ * The goal used to select a codec for an image adaptively.
+ *
+ * @see ISImageCodecPolicy
+ */
+
+public enum ISImageCodecGoal
+{
+  /**
+   * Select the codec that produces the smallest output.
+   */
+
+  SMALLEST_OUTPUT,
+
+  /**
+   * Select the codec that is cheapest to decode, out of those codecs that
+   * produce output within the size budget of the policy. If no codec fits
+   * within the budget, the codec that produces the smallest output is
+   * selected instead.
+   */
+
+  FASTEST_DECODE
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.ironsegment.api;
+
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A policy used to select a codec for an image adaptively. The writer
+ * trial-encodes evenly spaced bands of rows, totalling {@code sampleRows}
+ * rows, with each of the candidate codecs, and then selects a codec according
+ * to the goal of the policy.
+ *
+ * @param goal       The selection goal
+ * @param codecs     The candidate codecs
+ * @param sizeBudget The largest acceptable ratio of encoded size to decoded
+ *                   size, used by {@link ISImageCodecGoal#FASTEST_DECODE}
+ * @param sampleRows The number of rows that are trial-encoded
+ *
+ * @see ISSectionWritableImageType#createImageDataAdaptive(ISImageID, long, long, ISImageSemantic, ISImageCodecPolicy)
+ */
+
+public record ISImageCodecPolicy(
+  ISImageCodecGoal goal,
+  Set<ISImageCodec> codecs,
+  double sizeBudget,
+  long sampleRows)
+{
+  /**
+   * The number of rows that are trial-encoded by default.
+   */
+
+  public static final long DEFAULT_SAMPLE_ROWS = 32L;
+
+  /**
+   * A policy used to select a codec for an image adaptively.
+   *
+   * @param goal       The selection goal
+   * @param codecs     The candidate codecs
+   * @param sizeBudget The largest acceptable ratio of encoded size to decoded
+   *                   size, used by {@link ISImageCodecGoal#FASTEST_DECODE}
+   * @param sampleRows The number of rows that are trial-encoded
+   */
+
+  public ISImageCodecPolicy
+  {
+    Objects.requireNonNull(goal, "goal");
+    Objects.requireNonNull(codecs, "codecs");
+
+    if (codecs.isEmpty()) {
+      throw new IllegalArgumentException(
+        "At least one candidate codec must be provided"
+      );
+    }
+    codecs = Set.copyOf(EnumSet.copyOf(codecs));
+
+    if (!(sizeBudget > 0.0 && Double.isFinite(sizeBudget))) {
+      throw new IllegalArgumentException(
+        "Size budget %s must be a positive finite value"
+          .formatted(Double.valueOf(sizeBudget))
+      );
+    }
+
+    if (!(sampleRows >= 1L && sampleRows <= 4294967295L)) {
+      throw new IllegalArgumentException(
+        "Sample rows %s must be in the range [1, 4294967295]"
+          .formatted(Long.toUnsignedString(sampleRows))
+      );
+    }
+  }
+
+  /**
+   * @return A policy that selects the codec that produces the smallest output
+   */
+
+  public static ISImageCodecPolicy smallest()
+  {
+    return new ISImageCodecPolicy(
+      ISImageCodecGoal.SMALLEST_OUTPUT,
+      EnumSet.allOf(ISImageCodec.class),
+      1.0,
+      DEFAULT_SAMPLE_ROWS
+    );
+  }
+
+  /**
+   * @param sizeBudget The largest acceptable ratio of encoded size to decoded
+   *                   size
+   *
+   * @return A policy that selects the codec that is cheapest to decode
+   * within the given size budget
+   */
+
+  public static ISImageCodecPolicy fastestDecode(
+    final double sizeBudget)
+  {
+    return new ISImageCodecPolicy(
+      ISImageCodecGoal.FASTEST_DECODE,
+      EnumSet.allOf(ISImageCodec.class),
+      sizeBudget,
+      DEFAULT_SAMPLE_ROWS
+    );
+  }
+}
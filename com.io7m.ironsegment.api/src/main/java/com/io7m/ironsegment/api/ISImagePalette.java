@@ -0,0 +1,102 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.ironsegment.api;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * The palette of an image stored using {@link ISImageCodec#PALETTE}. Each
+ * pixel of the image is stored as an index into the palette, and each
+ * palette entry holds a complete pixel value.
+ *
+ * @param semantic        The image semantic
+ * @param indexSizeOctets The size of each stored index in octets; one of
+ *                        {@code 1}, {@code 2}, or {@code 4}
+ * @param values          The pixel values, as unsigned big-endian integers
+ */
+
+public record ISImagePalette(
+  ISImageSemantic semantic,
+  int indexSizeOctets,
+  List<Long> values)
+{
+  /**
+   * The palette of an image stored using {@link ISImageCodec#PALETTE}.
+   *
+   * @param semantic        The image semantic
+   * @param indexSizeOctets The size of each stored index in octets; one of
+   *                        {@code 1}, {@code 2}, or {@code 4}
+   * @param values          The pixel values, as unsigned big-endian integers
+   */
+
+  public ISImagePalette
+  {
+    Objects.requireNonNull(semantic, "semantic");
+    values = List.copyOf(values);
+
+    if (!(indexSizeOctets == 1 || indexSizeOctets == 2 || indexSizeOctets == 4)) {
+      throw new IllegalArgumentException(
+        "Index size %d must be one of 1, 2, or 4"
+          .formatted(Integer.valueOf(indexSizeOctets))
+      );
+    }
+  }
+
+  /**
+   * @return The number of entries in the palette
+   */
+
+  public int size()
+  {
+    return this.values.size();
+  }
+
+  /**
+   * @param index The palette index
+   *
+   * @return The pixel value at the given index
+   */
+
+  public long value(
+    final int index)
+  {
+    return this.values.get(index).longValue();
+  }
+
+  /**
+   * Interpret the given palette entry as an object ID. This is only
+   * meaningful for images with the {@link ISImageSemantic#OBJECT_ID_32}
+   * semantic.
+   *
+   * @param index The palette index
+   *
+   * @return The object ID at the given index, or nothing if the entry is
+   * {@code 0} (no object)
+   */
+
+  public Optional<ISObjectID> objectId(
+    final int index)
+  {
+    final var value = this.value(index);
+    if (value == 0L) {
+      return Optional.empty();
+    }
+    return Optional.of(new ISObjectID(value));
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.ironsegment.api;
+
+/**
+ * A rectangular region of an image.
+ *
+ * @param x      The X coordinate of the left edge of the region
+ * @param y      The Y coordinate of the top edge of the region
+ * @param width  The region width
+ * @param height The region height
+ */
+
+public record ISImageRegion(
+  long x,
+  long y,
+  long width,
+  long height)
+{
+  /**
+   * A rectangular region of an image.
+   *
+   * @param x      The X coordinate of the left edge of the region
+   * @param y      The Y coordinate of the top edge of the region
+   * @param width  The region width
+   * @param height The region height
+   */
+
+  public ISImageRegion
+  {
+    if (!(x >= 0L && x <= 4294967295L)) {
+      throw new IllegalArgumentException(
+        "X %s must be in the range [0, 4294967295]"
+          .formatted(Long.toUnsignedString(x))
+      );
+    }
+
+    if (!(y >= 0L && y <= 4294967295L)) {
+      throw new IllegalArgumentException(
+        "Y %s must be in the range [0, 4294967295]"
+          .formatted(Long.toUnsignedString(y))
+      );
+    }
+
+    if (!(width >= 1L && width <= 4294967295L)) {
+      throw new IllegalArgumentException(
+        "Width %s must be in the range [1, 4294967295]"
+          .formatted(Long.toUnsignedString(width))
+      );
+    }
+
+    if (!(height >= 1L && height <= 4294967295L)) {
+      throw new IllegalArgumentException(
+        "Height %s must be in the range [1, 4294967295]"
+          .formatted(Long.toUnsignedString(height))
+      );
+    }
+  }
+
+  /**
+   * @return The number of pixels in the region
+   */
+
+  public long pixelCount()
+  {
+    return Math.multiplyExact(this.width, this.height);
+  }
+
+  /**
+   * @param info The image
+   *
+   * @return {@code true} if the region lies entirely within the image
+   */
+
+  public boolean isWithin(
+    final ISImageInfo info)
+  {
+    return this.x + this.width <= info.width()
+           && this.y + this.height <= info.height();
+  }
+}
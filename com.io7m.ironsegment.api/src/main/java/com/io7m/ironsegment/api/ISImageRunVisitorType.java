@@ -0,0 +1,49 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.ironsegment.api;
+
+/**
+ * A visitor that receives the pixel data of an image as horizontal runs of
+ * identical pixels. Runs never span more than one row. For images stored
+ * using {@link ISImageCodec#RLE}, runs are delivered directly from the
+ * encoded data and the image is never expanded into pixels.
+ *
+ * <p>Pixel values are delivered as the big-endian interpretation of the
+ * octets of a single pixel. For example, the value of an
+ * {@link ISImageSemantic#OBJECT_ID_32} pixel is the object ID, and the value
+ * of an {@link ISImageSemantic#MONOCHROME_LINES_8} pixel is the line
+ * intensity.</p>
+ */
+
+@FunctionalInterface
+public interface ISImageRunVisitorType
+{
+  /**
+   * A run of identical pixels.
+   *
+   * @param x      The X coordinate of the first pixel in the run
+   * @param y      The Y coordinate of the row containing the run
+   * @param length The number of pixels in the run
+   * @param value  The value of every pixel in the run
+   */
+
+  void onRun(
+    long x,
+    long y,
+    long length,
+    long value);
+}
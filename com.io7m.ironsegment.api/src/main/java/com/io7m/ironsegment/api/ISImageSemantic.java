@@ -51,6 +51,20 @@ public enum ISImageSemantic
 
   DENOISE_RGBA8,
 
+  /**
+   * The image is the source for denoising. RGBA, 16 bits per channel,
+   * IEEE 754 binary16 floating-point.
+   */
+
+  DENOISE_RGBAF16,
+
+  /**
+   * The image is the source for denoising. RGB, 16 bits per channel,
+   * IEEE 754 binary16 floating-point.
+   */
+
+  DENOISE_RGBF16,
+
   /**
    * The image is a depth map, 16 bits per pixel,
    * unsigned normalized fixed-point.
@@ -65,6 +79,13 @@ public enum ISImageSemantic
 
   DEPTH_32,
 
+  /**
+   * The image is a depth map, 16 bits per pixel,
+   * IEEE 754 binary16 floating-point.
+   */
+
+  DEPTHF16,
+
   /**
    * The image is a monochrome lines image, 8 bits per pixel,
    * unsigned normalized fixed-point.
@@ -89,8 +110,11 @@ public enum ISImageSemantic
       case DENOISE_RGB8 -> 3L;
       case DENOISE_RGBA16 -> 4L * 2L;
       case DENOISE_RGBA8 -> 4L;
+      case DENOISE_RGBAF16 -> 4L * 2L;
+      case DENOISE_RGBF16 -> 3L * 2L;
       case DEPTH_16 -> 2L;
       case DEPTH_32 -> 4L;
+      case DEPTHF16 -> 2L;
       case MONOCHROME_LINES_8 -> 1L;
       case OBJECT_ID_32 -> 4L;
     };
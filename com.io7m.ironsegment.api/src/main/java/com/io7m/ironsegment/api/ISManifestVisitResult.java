@@ -1,5 +1,5 @@
 /*
- * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
  *
  * Permission to use, copy, modify, and/or distribute this software for any
  * purpose with or without fee is hereby granted, provided that the above
@@ -14,34 +14,26 @@
  * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
  */
 
-
-package com.io7m.ironsegment.basic.internal;
-
-import com.io7m.blackthorne.core.BTQualifiedName;
+package com.io7m.ironsegment.api;
 
 /**
- * Qualified names.
+ * The result of a manifest visitor callback.
+ *
+ * @see ISManifestVisitorType
  */
 
-public final class IS1Names
+public enum ISManifestVisitResult
 {
-  private IS1Names()
-  {
+  /**
+   * Continue visiting the manifest.
+   */
 
-  }
+  CONTINUE,
 
   /**
-   * @param name The local name
-   *
-   * @return A qualified name in the configuration 1 namespace
+   * Stop visiting the manifest. No further callbacks are made, and the
+   * remainder of the manifest is not decoded.
    */
 
-  public static BTQualifiedName qName(
-    final String name)
-  {
-    return BTQualifiedName.of(
-      "urn:com.io7m.ironsegment:manifest:1",
-      name
-    );
-  }
+  STOP
 }
@@ -0,0 +1,118 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.ironsegment.api;
+
+import com.io7m.lanark.core.RDottedName;
+
+import static com.io7m.ironsegment.api.ISManifestVisitResult.CONTINUE;
+
+/**
+ * A visitor that receives the contents of a manifest as it is decoded. The
+ * callbacks are made in manifest order: images, then objects, then metadata.
+ * Any callback may return {@link ISManifestVisitResult#STOP} to stop decoding
+ * early; the parts of the manifest that follow are then never decoded. The
+ * full maps of an {@link ISManifest} are never constructed.
+ *
+ * <p>All methods have default implementations that ignore their arguments
+ * and continue.</p>
+ */
+
+public interface ISManifestVisitorType
+{
+  /**
+   * The image list is starting.
+   *
+   * @param width  The width of all images
+   * @param height The height of all images
+   *
+   * @return The visit result
+   */
+
+  default ISManifestVisitResult onImagesStart(
+    final long width,
+    final long height)
+  {
+    return CONTINUE;
+  }
+
+  /**
+   * An image was decoded.
+   *
+   * @param image The image
+   *
+   * @return The visit result
+   */
+
+  default ISManifestVisitResult onImage(
+    final ISImage image)
+  {
+    return CONTINUE;
+  }
+
+  /**
+   * The object list is starting. A visitor that only requires images can
+   * return {@link ISManifestVisitResult#STOP} here.
+   *
+   * @return The visit result
+   */
+
+  default ISManifestVisitResult onObjectsStart()
+  {
+    return CONTINUE;
+  }
+
+  /**
+   * An object was decoded.
+   *
+   * @param object The object
+   *
+   * @return The visit result
+   */
+
+  default ISManifestVisitResult onObject(
+    final ISObject object)
+  {
+    return CONTINUE;
+  }
+
+  /**
+   * The metadata list is starting.
+   *
+   * @return The visit result
+   */
+
+  default ISManifestVisitResult onMetadataStart()
+  {
+    return CONTINUE;
+  }
+
+  /**
+   * A metadata entry was decoded.
+   *
+   * @param name  The name
+   * @param value The value
+   *
+   * @return The visit result
+   */
+
+  default ISManifestVisitResult onMetadata(
+    final RDottedName name,
+    final String value)
+  {
+    return CONTINUE;
+  }
+}
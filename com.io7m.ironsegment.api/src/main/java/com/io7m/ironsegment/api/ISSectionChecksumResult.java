@@ -0,0 +1,55 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.ironsegment.api;
+
+import java.util.Objects;
+
+/**
+ * The result of verifying the checksum of a section.
+ *
+ * @param section  The section
+ * @param expected The CRC32C checksum recorded in the file
+ * @param computed The CRC32C checksum computed from the section data
+ */
+
+public record ISSectionChecksumResult(
+  ISFileSectionDescription section,
+  long expected,
+  long computed)
+{
+  /**
+   * The result of verifying the checksum of a section.
+   *
+   * @param section  The section
+   * @param expected The CRC32C checksum recorded in the file
+   * @param computed The CRC32C checksum computed from the section data
+   */
+
+  public ISSectionChecksumResult
+  {
+    Objects.requireNonNull(section, "section");
+  }
+
+  /**
+   * @return {@code true} if the computed checksum matches the recorded one
+   */
+
+  public boolean isValid()
+  {
+    return this.expected == this.computed;
+  }
+}
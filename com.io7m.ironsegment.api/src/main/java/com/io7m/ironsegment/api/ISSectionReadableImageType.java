@@ -0,0 +1,264 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.ironsegment.api;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * A readable image section. The semantic and dimensions of the image are
+ * taken from the file's manifest.
+ */
+
+public non-sealed interface ISSectionReadableImageType
+  extends ISSectionReadableStandardType
+{
+  /**
+   * @return Information about the image contained within the section
+   *
+   * @throws IOException On errors, or if the manifest does not describe the
+   *                     image
+   */
+
+  ISImageInfo info()
+    throws IOException;
+
+  /**
+   * @return The codec with which the pixel data is stored
+   *
+   * @throws IOException On errors
+   */
+
+  ISImageCodec codec()
+    throws IOException;
+
+  /**
+   * Decode the pixel data of the image into the given buffer, decoding the
+   * tiles of tiled images using the common fork-join pool.
+   *
+   * @param target The target buffer
+   *
+   * @throws IOException On errors, or if the buffer does not have enough
+   *                     space remaining
+   *
+   * @see #imageDataDecode(ByteBuffer, ExecutorService)
+   */
+
+  default void imageDataDecode(
+    final ByteBuffer target)
+    throws IOException
+  {
+    this.imageDataDecode(target, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Decode the pixel data of the image into the given buffer. Exactly
+   * {@link ISImageInfo#dataSizeOctets()} octets are written starting at the
+   * buffer's current position, and the position is advanced past them.
+   * Callers that read many images of the same size can therefore reuse a
+   * single buffer and avoid allocating per image. The tiles of tiled images
+   * are decoded in parallel by submitting one task per tile to the given
+   * executor.
+   *
+   * @param target   The target buffer
+   * @param executor The executor used to run tile decoding tasks
+   *
+   * @throws IOException On errors, or if the buffer does not have enough
+   *                     space remaining
+   */
+
+  void imageDataDecode(
+    ByteBuffer target,
+    ExecutorService executor)
+    throws IOException;
+
+  /**
+   * Decode the pixel data of a rectangular region of the image into the
+   * given buffer, decoding tiles using the common fork-join pool.
+   *
+   * @param region The region
+   * @param target The target buffer
+   *
+   * @throws IOException On errors, or if the buffer does not have enough
+   *                     space remaining
+   * @throws IllegalArgumentException If the region does not lie within the
+   *                                  image
+   *
+   * @see #imageDataDecodeRegion(ISImageRegion, ByteBuffer, ExecutorService)
+   */
+
+  default void imageDataDecodeRegion(
+    final ISImageRegion region,
+    final ByteBuffer target)
+    throws IOException
+  {
+    this.imageDataDecodeRegion(region, target, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Decode the pixel data of a rectangular region of the image into the
+   * given buffer. The region is written as tightly packed rows, starting at
+   * the buffer's current position, and the position is advanced past it.
+   * For tiled images, only the tiles that intersect the region are read and
+   * decoded, and tiles are decoded in parallel by submitting one task per
+   * tile to the given executor. Each task performs blocking reads of the
+   * underlying file, so callers reading through channels will usually want
+   * to supply an executor intended for I/O. For uncompressed images, only
+   * the rows that intersect the region are read.
+   *
+   * @param region   The region
+   * @param target   The target buffer
+   * @param executor The executor used to run tile decoding tasks
+   *
+   * @throws IOException On errors, or if the buffer does not have enough
+   *                     space remaining
+   * @throws IllegalArgumentException If the region does not lie within the
+   *                                  image
+   */
+
+  void imageDataDecodeRegion(
+    ISImageRegion region,
+    ByteBuffer target,
+    ExecutorService executor)
+    throws IOException;
+
+  /**
+   * Deliver the pixel data of the image to the given visitor as runs of
+   * identical pixels. Runs are delivered in row-major order; for tiled
+   * images, runs are delivered in row-major order within each tile, and
+   * tiles are visited in row-major order. If the image is stored using
+   * {@link ISImageCodec#RLE}, the runs are read directly from the encoded
+   * data. Otherwise, the image is decoded and runs are computed from the
+   * decoded pixels.
+   *
+   * @param visitor The visitor
+   *
+   * @throws IOException On errors
+   */
+
+  void imageDataVisitRuns(ISImageRunVisitorType visitor)
+    throws IOException;
+
+  /**
+   * Decode the pixel data of the image and expand every sample (channel) to
+   * a floating-point value, writing the values into {@code target} starting
+   * at {@code offset}. Exactly {@code pixelCount * channels} values are
+   * written. Samples of the {@code F16} semantics, such as
+   * {@link ISImageSemantic#DEPTHF16}, are converted exactly from IEEE 754
+   * binary16. Samples of the unsigned normalized semantics are mapped to the
+   * range {@code [0, 1]}.
+   *
+   * @param target The target array
+   * @param offset The offset of the first target element
+   *
+   * @throws IOException               On errors
+   * @throws IllegalArgumentException  If the image has the
+   *                                   {@link ISImageSemantic#OBJECT_ID_32}
+   *                                   semantic
+   * @throws IndexOutOfBoundsException If the target array is too small
+   */
+
+  void imageDataExpandFloats(
+    float[] target,
+    int offset)
+    throws IOException;
+
+  /**
+   * Decode the pixel data of the image and copy every 16-bit sample
+   * (channel) into {@code target} starting at {@code offset}, converting
+   * from the big-endian file representation to native values. Samples of
+   * the {@code F16} semantics are delivered as raw binary16 bit patterns,
+   * suitable for uploading directly to half-float textures.
+   *
+   * @param target The target array
+   * @param offset The offset of the first target element
+   *
+   * @throws IOException               On errors
+   * @throws IllegalArgumentException  If the image does not have 16-bit
+   *                                   samples
+   * @throws IndexOutOfBoundsException If the target array is too small
+   */
+
+  void imageDataExpandShorts(
+    short[] target,
+    int offset)
+    throws IOException;
+
+  /**
+   * @return The palette of the image, if the image is stored using
+   * {@link ISImageCodec#PALETTE} in an encoded (non-tiled) image section
+   *
+   * @throws IOException On errors
+   */
+
+  Optional<ISImagePalette> imageDataPalette()
+    throws IOException;
+
+  /**
+   * Copy the palette indices of the image into the given buffer, without
+   * widening them to pixel values. Exactly {@code pixelCount} indices of
+   * {@link ISImagePalette#indexSizeOctets()} octets each are written in
+   * row-major order, using the byte order of the buffer, starting at the
+   * buffer's current position, and the position is advanced past them.
+   *
+   * @param target The target buffer
+   *
+   * @throws IOException On errors, if the image does not have a palette,
+   *                     or if the buffer does not have enough space remaining
+   *
+   * @see #imageDataPalette()
+   */
+
+  void imageDataPaletteIndices(ByteBuffer target)
+    throws IOException;
+
+  /**
+   * Obtain a readable channel that delivers the pixel data of the image. The
+   * channel is bounded to exactly the size of the pixel data, and is
+   * positioned at the first pixel. If the pixel data is not stored
+   * using {@link ISImageCodec#RAW}, the data is decoded in full before the
+   * channel is returned.
+   *
+   * @return A readable channel
+   *
+   * @throws IOException On errors
+   */
+
+  SeekableByteChannel imageDataChannel()
+    throws IOException;
+
+  /**
+   * Obtain a read-only buffer that contains the pixel data of the image. If
+   * the pixel data is not stored using {@link ISImageCodec#RAW}, the data is
+   * decoded into a new buffer, and the tiles of tiled images are decoded
+   * using the common fork-join pool.
+   *
+   * @return A read-only buffer
+   *
+   * @throws IOException On errors
+   *
+   * @see ISSectionReadableType#sectionData()
+   * @see #imageDataDecode(ByteBuffer, ExecutorService)
+   */
+
+  ByteBuffer imageData()
+    throws IOException;
+}
@@ -33,4 +33,18 @@ public non-sealed interface ISSectionReadableManifestType
 
   ISManifest manifest()
     throws IOException;
+
+  /**
+   * Decode the manifest incrementally, passing each part of it to the given
+   * visitor. Decoding stops as soon as the visitor requests it, and the
+   * manifest is never fully materialized.
+   *
+   * @param visitor The visitor
+   *
+   * @throws IOException On errors
+   */
+
+  void manifestVisit(
+    ISManifestVisitorType visitor)
+    throws IOException;
 }
@@ -22,7 +22,9 @@ package com.io7m.ironsegment.api;
 
 public sealed interface ISSectionReadableStandardType
   extends ISSectionReadableType
-  permits ISSectionReadableEndType, ISSectionReadableManifestType
+  permits ISSectionReadableEndType,
+  ISSectionReadableImageType,
+  ISSectionReadableManifestType
 {
 
 }
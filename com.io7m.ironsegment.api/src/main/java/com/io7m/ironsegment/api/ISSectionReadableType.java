@@ -18,6 +18,7 @@ package com.io7m.ironsegment.api;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.channels.SeekableByteChannel;
 
 /**
@@ -49,4 +50,19 @@ public interface ISSectionReadableType extends Closeable
 
   SeekableByteChannel sectionDataChannel()
     throws IOException;
+
+  /**
+   * Obtain a read-only buffer that contains the data contained within the
+   * section. If the file was opened in a memory-mapped mode, the returned
+   * buffer is a view of the mapped file and no data is copied. Otherwise, the
+   * section data is read into a new buffer.
+   *
+   * @return A read-only buffer
+   *
+   * @throws IOException On errors, or if the section is too large to be
+   *                     represented as a single buffer
+   */
+
+  ByteBuffer sectionData()
+    throws IOException;
 }
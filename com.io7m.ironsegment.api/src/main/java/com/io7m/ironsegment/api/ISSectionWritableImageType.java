@@ -38,10 +38,109 @@ public non-sealed interface ISSectionWritableImageType
    * @throws IOException On errors
    */
 
+  default ISWritableImageDataType createImageData(
+    final ISImageID imageId,
+    final long width,
+    final long height,
+    final ISImageSemantic semantic)
+    throws IOException
+  {
+    return this.createImageData(
+      imageId,
+      width,
+      height,
+      semantic,
+      ISImageCodec.RAW
+    );
+  }
+
+  /**
+   * Create a section of writable image data, stored using the given codec.
+   * Pixel data written to the returned channel is buffered in memory, and is
+   * encoded when the section is closed. Sections created with
+   * {@link ISFileWritableType#createSectionImage()} only support
+   * {@link ISImageCodec#RAW}; other codecs require a section created with
+   * {@link ISFileWritableType#createSectionImageEncoded()}. Sections created
+   * with {@link ISFileWritableType#createSectionImageTiled()} use tiles of
+   * {@code 256x256} pixels.
+   *
+   * @param imageId  The image ID
+   * @param width    The image width
+   * @param height   The image height
+   * @param semantic The image semantic
+   * @param codec    The image codec
+   *
+   * @return A writable image data
+   *
+   * @throws IOException On errors
+   */
+
   ISWritableImageDataType createImageData(
     ISImageID imageId,
     long width,
     long height,
-    ISImageSemantic semantic)
+    ISImageSemantic semantic,
+    ISImageCodec codec)
+    throws IOException;
+
+  /**
+   * Create a section of writable image data, divided into tiles of the given
+   * size and stored using the given codec. Tiles at the right and bottom
+   * edges of the image are clipped to the image bounds. Pixel data written to
+   * the returned channel is buffered in memory, and is encoded when the
+   * section is closed. This method requires a section created with
+   * {@link ISFileWritableType#createSectionImageTiled()}.
+   *
+   * @param imageId    The image ID
+   * @param width      The image width
+   * @param height     The image height
+   * @param semantic   The image semantic
+   * @param codec      The codec used for each tile
+   * @param tileWidth  The tile width
+   * @param tileHeight The tile height
+   *
+   * @return A writable image data
+   *
+   * @throws IOException On errors
+   */
+
+  ISWritableImageDataType createImageDataTiled(
+    ISImageID imageId,
+    long width,
+    long height,
+    ISImageSemantic semantic,
+    ISImageCodec codec,
+    long tileWidth,
+    long tileHeight)
+    throws IOException;
+
+  /**
+   * Create a section of writable image data, stored using a codec selected
+   * by the given policy. The codec is selected when the section is closed,
+   * based on trial encodings of a sample of the rows of the image, and the
+   * choice is reported in {@link ISFileWritableType#statistics()}. This
+   * method requires a section created with
+   * {@link ISFileWritableType#createSectionImageEncoded()} or
+   * {@link ISFileWritableType#createSectionImageTiled()}. For tiled sections,
+   * a single codec is selected for all tiles, and tiles of {@code 256x256}
+   * pixels are used.
+   *
+   * @param imageId  The image ID
+   * @param width    The image width
+   * @param height   The image height
+   * @param semantic The image semantic
+   * @param policy   The codec selection policy
+   *
+   * @return A writable image data
+   *
+   * @throws IOException On errors
+   */
+
+  ISWritableImageDataType createImageDataAdaptive(
+    ISImageID imageId,
+    long width,
+    long height,
+    ISImageSemantic semantic,
+    ISImageCodecPolicy policy)
     throws IOException;
 }
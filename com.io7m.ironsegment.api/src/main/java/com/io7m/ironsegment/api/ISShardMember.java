@@ -0,0 +1,54 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package com.io7m.ironsegment.api;
+
+/**
+ * A member file of a shard.
+ *
+ * @param index  The index of the member within the shard, starting at zero
+ * @param offset The absolute shard offset of the first octet of the member
+ * @param size   The size of the member file in octets
+ */
+
+public record ISShardMember(
+  int index,
+  long offset,
+  long size)
+{
+  /**
+   * A member file of a shard.
+   *
+   * @param index  The index of the member within the shard, starting at zero
+   * @param offset The absolute shard offset of the first octet of the member
+   * @param size   The size of the member file in octets
+   */
+
+  public ISShardMember
+  {
+    if (index < 0) {
+      throw new IllegalArgumentException(
+        "Index %d must be non-negative".formatted(index));
+    }
+    if (offset < 0L) {
+      throw new IllegalArgumentException(
+        "Offset %d must be non-negative".formatted(offset));
+    }
+    if (size < 0L) {
+      throw new IllegalArgumentException(
+        "Size %d must be non-negative".formatted(size));
+    }
+  }
+}
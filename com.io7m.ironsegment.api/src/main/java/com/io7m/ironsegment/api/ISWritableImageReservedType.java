@@ -0,0 +1,73 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.ironsegment.api;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Image data stored in a section whose extent was reserved in advance. The
+ * section header and image ID are already written, and the pixel data may be
+ * written from any number of threads concurrently using positional writes.
+ * All writes must complete before the end section of the file is created.
+ *
+ * @see ISFileWritableType#reserveImage(ISImageID, long, long, ISImageSemantic)
+ */
+
+public interface ISWritableImageReservedType extends ISWritableImageDataType
+{
+  /**
+   * @return The image information
+   */
+
+  ISImageInfo info();
+
+  /**
+   * @return The reserved section
+   */
+
+  ISFileSectionDescription section();
+
+  /**
+   * Write the whole of the given buffer to the image data, starting at the
+   * given octet offset from the start of the pixel data. This method may be
+   * called concurrently from multiple threads, provided that the written
+   * ranges do not overlap.
+   *
+   * @param offset The octet offset within the pixel data
+   * @param data   The data
+   *
+   * @throws IOException On errors
+   */
+
+  void write(
+    long offset,
+    ByteBuffer data)
+    throws IOException;
+
+  /**
+   * Create a new channel that writes pixel data sequentially from the start of
+   * the image data. Each call returns a new channel with its own position;
+   * a single channel must not be used by multiple threads at once.
+   *
+   * @return A bounded writable channel
+   */
+
+  @Override
+  WritableByteChannel channel();
+}
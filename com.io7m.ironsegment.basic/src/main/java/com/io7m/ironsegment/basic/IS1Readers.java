@@ -17,14 +17,24 @@
 package com.io7m.ironsegment.basic;
 
 
+import com.io7m.ironsegment.basic.internal.IS1DataSourceType;
 import com.io7m.ironsegment.basic.internal.IS1Parser;
+import com.io7m.ironsegment.basic.internal.IS1ShardReadable;
+import com.io7m.ironsegment.basic.internal.IS1ShardStreamParser;
+import com.io7m.ironsegment.basic.internal.IS1StreamParser;
+import com.io7m.ironsegment.parser.api.ISManifestCacheType;
 import com.io7m.ironsegment.parser.api.ISParseRequest;
 import com.io7m.ironsegment.parser.api.ISParserFactoryType;
 import com.io7m.ironsegment.parser.api.ISParserType;
+import com.io7m.ironsegment.parser.api.ISShardReadableType;
+import com.io7m.ironsegment.parser.api.ISShardStreamParserType;
+import com.io7m.ironsegment.parser.api.ISStreamParseRequest;
+import com.io7m.ironsegment.parser.api.ISStreamParserType;
 import com.io7m.jbssio.api.BSSReaderProviderType;
 
 import java.io.IOException;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.ServiceConfigurationError;
 import java.util.ServiceLoader;
 
@@ -35,6 +45,7 @@ import java.util.ServiceLoader;
 public final class IS1Readers implements ISParserFactoryType
 {
   private final BSSReaderProviderType readers;
+  private final ISManifestCacheType manifestCache;
 
   /**
    * A parser factory supporting major version 1.
@@ -54,7 +65,47 @@ public final class IS1Readers implements ISParserFactoryType
   public IS1Readers(
     final BSSReaderProviderType inReaders)
   {
-    this.readers = Objects.requireNonNull(inReaders, "readers");
+    this(inReaders, ISManifestCaches.disabled());
+  }
+
+  /**
+   * A parser factory supporting major version 1. Parsed manifests are
+   * stored in the given cache, and files that are opened repeatedly without
+   * having been modified will reuse the cached manifests.
+   *
+   * @param inManifestCache The manifest cache
+   */
+
+  public IS1Readers(
+    final ISManifestCacheType inManifestCache)
+  {
+    this(loadReadersFromServiceLoader(), inManifestCache);
+  }
+
+  /**
+   * A parser factory supporting major version 1.
+   *
+   * @param inReaders       A provider of readers
+   * @param inManifestCache The manifest cache
+   */
+
+  public IS1Readers(
+    final BSSReaderProviderType inReaders,
+    final ISManifestCacheType inManifestCache)
+  {
+    this.readers =
+      Objects.requireNonNull(inReaders, "readers");
+    this.manifestCache =
+      Objects.requireNonNull(inManifestCache, "manifestCache");
+  }
+
+  /**
+   * @return The manifest cache used by parsers created by this factory
+   */
+
+  public ISManifestCacheType manifestCache()
+  {
+    return this.manifestCache;
   }
 
   private static BSSReaderProviderType loadReadersFromServiceLoader()
@@ -88,7 +139,48 @@ public final class IS1Readers implements ISParserFactoryType
       this.readers.createReaderFromChannel(
         request.source(),
         request.channel(),
-        "root")
+        "root"),
+      this.manifestCache
     );
   }
+
+  private ISParserType createMemberParser(
+    final ISParseRequest request,
+    final IS1DataSourceType source)
+    throws IOException
+  {
+    return new IS1Parser(
+      request,
+      this.readers.createReaderFromChannel(
+        request.source(),
+        request.channel(),
+        "root"),
+      this.manifestCache,
+      Optional.of(source)
+    );
+  }
+
+  @Override
+  public ISStreamParserType createStreamParser(
+    final ISStreamParseRequest request)
+    throws IOException
+  {
+    return IS1StreamParser.create(request);
+  }
+
+  @Override
+  public ISShardReadableType openShard(
+    final ISParseRequest request)
+    throws IOException
+  {
+    return IS1ShardReadable.open(request, this::createMemberParser);
+  }
+
+  @Override
+  public ISShardStreamParserType createShardStreamParser(
+    final ISStreamParseRequest request)
+    throws IOException
+  {
+    return IS1ShardStreamParser.create(request, this::createMemberParser);
+  }
 }
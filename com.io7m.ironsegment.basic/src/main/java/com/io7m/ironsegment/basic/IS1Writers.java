@@ -17,13 +17,24 @@
 
 package com.io7m.ironsegment.basic;
 
+import com.io7m.ironsegment.api.ISFileSectionDescription;
+import com.io7m.ironsegment.api.ISManifest;
+import com.io7m.ironsegment.basic.internal.IS1BulkWriter;
+import com.io7m.ironsegment.basic.internal.IS1ShardWriter;
+import com.io7m.ironsegment.basic.internal.IS1StreamWriter;
 import com.io7m.ironsegment.basic.internal.IS1Writer;
+import com.io7m.ironsegment.writer.api.ISBulkImage;
+import com.io7m.ironsegment.writer.api.ISShardWriteRequest;
+import com.io7m.ironsegment.writer.api.ISShardWriterType;
+import com.io7m.ironsegment.writer.api.ISStreamWriteRequest;
+import com.io7m.ironsegment.writer.api.ISStreamWriterType;
 import com.io7m.ironsegment.writer.api.ISWriteRequest;
 import com.io7m.ironsegment.writer.api.ISWriterFactoryType;
 import com.io7m.ironsegment.writer.api.ISWriterType;
 import com.io7m.jbssio.api.BSSWriterProviderType;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Objects;
 import java.util.ServiceConfigurationError;
 import java.util.ServiceLoader;
@@ -92,4 +103,30 @@ public final class IS1Writers implements ISWriterFactoryType
 
     return new IS1Writer(this.writers, request, rootWriter);
   }
+
+  @Override
+  public List<ISFileSectionDescription> writeBulk(
+    final ISWriteRequest request,
+    final ISManifest manifest,
+    final List<ISBulkImage> images)
+    throws IOException
+  {
+    return IS1BulkWriter.write(request, manifest, images);
+  }
+
+  @Override
+  public ISStreamWriterType createStreamWriter(
+    final ISStreamWriteRequest request)
+    throws IOException
+  {
+    return IS1StreamWriter.create(request);
+  }
+
+  @Override
+  public ISShardWriterType createShardWriter(
+    final ISShardWriteRequest request)
+    throws IOException
+  {
+    return IS1ShardWriter.create(request);
+  }
 }
@@ -0,0 +1,57 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.ironsegment.basic;
+
+import com.io7m.ironsegment.basic.internal.IS1ManifestCacheDisabled;
+import com.io7m.ironsegment.basic.internal.IS1ManifestCacheLRU;
+import com.io7m.ironsegment.parser.api.ISManifestCacheType;
+
+/**
+ * Functions to create manifest caches.
+ */
+
+public final class ISManifestCaches
+{
+  private ISManifestCaches()
+  {
+
+  }
+
+  /**
+   * Create a bounded cache that evicts the least recently used manifest when
+   * full.
+   *
+   * @param maximumSize The maximum number of cached manifests
+   *
+   * @return A new cache
+   */
+
+  public static ISManifestCacheType createLRU(
+    final int maximumSize)
+  {
+    return new IS1ManifestCacheLRU(maximumSize);
+  }
+
+  /**
+   * @return A cache that never caches anything
+   */
+
+  public static ISManifestCacheType disabled()
+  {
+    return IS1ManifestCacheDisabled.get();
+  }
+}
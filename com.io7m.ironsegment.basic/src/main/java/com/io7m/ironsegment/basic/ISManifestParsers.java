@@ -25,7 +25,6 @@ import com.io7m.ironsegment.parser.api.ISManifestParserType;
 
 import java.io.InputStream;
 import java.net.URI;
-import java.util.Objects;
 import java.util.function.Consumer;
 
 /**
@@ -50,15 +49,12 @@ public final class ISManifestParsers implements ISManifestParserFactoryType
     final InputStream stream,
     final Consumer<ParseStatus> statusConsumer)
   {
-    return new ISManifestParser(
-      Objects.requireNonNullElse(
-        context,
-        BTPreserveLexical.PRESERVE_LEXICAL_INFORMATION
-      ),
-      source,
-      stream,
-      statusConsumer
-    );
+    /*
+     * Parsed manifests do not carry lexical information, and so the
+     * context has no effect on the result.
+     */
+
+    return new ISManifestParser(source, stream, statusConsumer);
   }
 
   @Override
@@ -36,9 +36,18 @@ public final class ISManifestSchemas
       .setNamespace(URI.create("urn:com.io7m.ironsegment:manifest:1"))
       .build();
 
+  private static final JXESchemaDefinition SCHEMA_1_1 =
+    JXESchemaDefinition.builder()
+      .setFileIdentifier("manifest-1.1.xsd")
+      .setLocation(ISManifestSchemas.class.getResource(
+        "/com/io7m/ironsegment/basic/manifest-1.1.xsd"))
+      .setNamespace(URI.create("urn:com.io7m.ironsegment:manifest:1.1"))
+      .build();
+
   private static final JXESchemaResolutionMappings SCHEMA_MAPPINGS =
     JXESchemaResolutionMappings.builder()
       .putMappings(SCHEMA_1.namespace(), SCHEMA_1)
+      .putMappings(SCHEMA_1_1.namespace(), SCHEMA_1_1)
       .build();
 
   /**
@@ -50,6 +59,18 @@ public final class ISManifestSchemas
     return SCHEMA_1;
   }
 
+  /**
+   * The v1.1 schema. Version 1.1 adds the binary16 image semantics, and
+   * manifests are only written in this version if they use one of them.
+   *
+   * @return The v1.1 schema
+   */
+
+  public static JXESchemaDefinition schema1p1()
+  {
+    return SCHEMA_1_1;
+  }
+
   /**
    * @return The set of supported schemas.
    */
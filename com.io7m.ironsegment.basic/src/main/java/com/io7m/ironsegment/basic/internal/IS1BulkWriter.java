@@ -0,0 +1,322 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.ironsegment.basic.internal;
+
+import com.io7m.ironsegment.api.ISFileSectionDescription;
+import com.io7m.ironsegment.api.ISIdentifiers;
+import com.io7m.ironsegment.api.ISManifest;
+import com.io7m.ironsegment.api.ISSectionDescription;
+import com.io7m.ironsegment.writer.api.ISBulkImage;
+import com.io7m.ironsegment.writer.api.ISChecksumMode;
+import com.io7m.ironsegment.writer.api.ISWriteRequest;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.SequencedMap;
+import java.util.TreeMap;
+import java.util.zip.CRC32C;
+
+import static com.io7m.ironsegment.api.ISIdentifiers.sectionEndIdentifier;
+import static com.io7m.ironsegment.api.ISIdentifiers.sectionImageIdentifier;
+import static com.io7m.ironsegment.api.ISIdentifiers.sectionManifestIdentifier;
+import static com.io7m.ironsegment.basic.internal.IS1TableOfContents.END_SECTION_DATA_SIZE;
+
+/**
+ * A writer that produces a complete file in a single pass from data that is
+ * already in memory. The offset of every section is computed before
+ * anything is written, so no section sizes need to be patched afterwards.
+ * The file header and manifest share one buffer, each image contributes a
+ * small header buffer followed by its pixel data (which is never copied),
+ * and the checksum, table of contents, and end sections share a final
+ * buffer. The buffers are then written with gathering writes.
+ */
+
+public final class IS1BulkWriter
+{
+  private static final ByteBuffer ZEROES =
+    ByteBuffer.allocate(16).asReadOnlyBuffer();
+
+  private IS1BulkWriter()
+  {
+
+  }
+
+  /**
+   * Write a complete file.
+   *
+   * @param request  The request
+   * @param manifest The manifest
+   * @param images   The images
+   *
+   * @return The sections of the written file
+   *
+   * @throws IOException On errors
+   */
+
+  public static List<ISFileSectionDescription> write(
+    final ISWriteRequest request,
+    final ISManifest manifest,
+    final List<ISBulkImage> images)
+    throws IOException
+  {
+    Objects.requireNonNull(request, "request");
+    Objects.requireNonNull(manifest, "manifest");
+    Objects.requireNonNull(images, "images");
+
+    final var version = request.version();
+    if (version.major() != 1L) {
+      throw new IOException(
+        errorUnsupportedMajorVersion(request, version.major()));
+    }
+
+    final var checksummed =
+      request.checksumMode() == ISChecksumMode.CHECKSUMS_CRC32C;
+    final var buffers =
+      new ArrayList<ByteBuffer>(2 + (images.size() * 3));
+    final var sections =
+      new ArrayList<ISFileSectionDescription>(images.size() + 4);
+    final var checksums =
+      new TreeMap<Long, Long>();
+
+    /*
+     * The file header and the manifest section.
+     */
+
+    final var manifestData =
+      IS1SectionWritableManifest.encode(sectionManifestIdentifier(), manifest);
+    final var manifestSize =
+      alignUp(4L + manifestData.length);
+    final var head =
+      ByteBuffer.allocate(Math.toIntExact(32L + manifestSize));
+
+    head.putLong(ISIdentifiers.fileIdentifier());
+    head.putInt(version.major());
+    head.putInt(version.minor());
+    head.putLong(sectionManifestIdentifier());
+    head.putLong(manifestSize);
+    head.putInt(manifestData.length);
+    head.put(manifestData);
+    head.clear();
+    buffers.add(head);
+
+    final var manifestSection =
+      new ISFileSectionDescription(
+        16L,
+        new ISSectionDescription(sectionManifestIdentifier(), manifestSize)
+      );
+    sections.add(manifestSection);
+    if (checksummed) {
+      checksums.put(
+        Long.valueOf(manifestSection.fileOffset()),
+        Long.valueOf(checksumOf(head.duplicate().position(32)))
+      );
+    }
+
+    /*
+     * The image sections.
+     */
+
+    var offset = 32L + manifestSize;
+    for (final var image : images) {
+      final var info =
+        image.info();
+      final var dataSize =
+        info.dataSizeOctets();
+      final var sectionSize =
+        alignUp(Math.addExact(4L, dataSize));
+      final var padding =
+        (int) (sectionSize - (4L + dataSize));
+
+      final var header = ByteBuffer.allocate(20);
+      header.putLong(sectionImageIdentifier());
+      header.putLong(sectionSize);
+      header.putInt((int) info.imageId().value());
+      header.clear();
+
+      final var data = image.data().duplicate();
+      final var pad = ZEROES.duplicate().limit(padding);
+
+      buffers.add(header);
+      buffers.add(data);
+      if (padding > 0) {
+        buffers.add(pad);
+      }
+
+      final var section =
+        new ISFileSectionDescription(
+          offset,
+          new ISSectionDescription(sectionImageIdentifier(), sectionSize)
+        );
+      sections.add(section);
+      if (checksummed) {
+        checksums.put(
+          Long.valueOf(offset),
+          Long.valueOf(
+            checksumOf(
+              header.duplicate().position(16),
+              data.duplicate(),
+              pad.duplicate()))
+        );
+      }
+      offset = Math.addExact(offset, 16L + sectionSize);
+    }
+
+    /*
+     * The closing sections. These mirror what the sequential writer produces
+     * when the end section is created.
+     */
+
+    final var closing =
+      encodeClosingSections(offset, sections, checksummed ? checksums : null);
+    buffers.add(closing);
+
+    writeAll(request.channel(), buffers.toArray(new ByteBuffer[0]));
+    return List.copyOf(sections);
+  }
+
+  /**
+   * Encode the sections that close a file: the checksum section (if
+   * checksums are provided), the table of contents, and the end section.
+   * The descriptions of the encoded sections are appended to the given
+   * section list.
+   *
+   * @param offset    The file offset at which the sections will be written
+   * @param sections  The sections written so far
+   * @param checksums The checksums of the sections written so far, or
+   *                  {@code null} if no checksum section is to be written
+   *
+   * @return A buffer containing the closing sections
+   */
+
+  public static ByteBuffer encodeClosingSections(
+    final long offset,
+    final List<ISFileSectionDescription> sections,
+    final SequencedMap<Long, Long> checksums)
+  {
+    Objects.requireNonNull(sections, "sections");
+
+    var current = offset;
+    final var tail = new ArrayList<ByteBuffer>(3);
+    if (checksums != null) {
+      final var checksumSection = IS1SectionChecksums.encode(checksums);
+      sections.add(sectionAt(current, checksumSection));
+      tail.add(checksumSection);
+      current += checksumSection.capacity();
+    }
+
+    final var tableOfContents =
+      IS1TableOfContents.encode(sections);
+    final var tableOfContentsSection =
+      sectionAt(current, tableOfContents);
+    sections.add(tableOfContentsSection);
+    tail.add(tableOfContents);
+    current += tableOfContents.capacity();
+
+    final var end = ByteBuffer.allocate((int) (16L + END_SECTION_DATA_SIZE));
+    end.putLong(sectionEndIdentifier());
+    end.putLong(END_SECTION_DATA_SIZE);
+    end.putLong(tableOfContentsSection.fileOffset());
+    end.putLong(tableOfContentsSection.description().size());
+    end.clear();
+    sections.add(sectionAt(current, end));
+    tail.add(end);
+
+    final var tailSize =
+      tail.stream().mapToInt(ByteBuffer::capacity).sum();
+    final var closing =
+      ByteBuffer.allocate(tailSize);
+    for (final var buffer : tail) {
+      closing.put(buffer);
+    }
+    return closing.clear();
+  }
+
+  private static void writeAll(
+    final SeekableByteChannel channel,
+    final ByteBuffer[] buffers)
+    throws IOException
+  {
+    channel.position(0L);
+
+    if (channel instanceof final GatheringByteChannel gathering) {
+      var index = 0;
+      while (index < buffers.length) {
+        gathering.write(buffers, index, buffers.length - index);
+        while (index < buffers.length && !buffers[index].hasRemaining()) {
+          ++index;
+        }
+      }
+      return;
+    }
+
+    for (final var buffer : buffers) {
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+    }
+  }
+
+  private static ISFileSectionDescription sectionAt(
+    final long offset,
+    final ByteBuffer section)
+  {
+    return new ISFileSectionDescription(
+      offset,
+      new ISSectionDescription(section.getLong(0), section.getLong(8))
+    );
+  }
+
+  private static long checksumOf(
+    final ByteBuffer... buffers)
+  {
+    final var crc = new CRC32C();
+    for (final var buffer : buffers) {
+      crc.update(buffer);
+    }
+    return crc.getValue();
+  }
+
+  private static long alignUp(
+    final long size)
+  {
+    return Math.addExact(size, 15L) & ~15L;
+  }
+
+  private static String errorUnsupportedMajorVersion(
+    final ISWriteRequest request,
+    final long major)
+  {
+    final var lineSeparator = System.lineSeparator();
+    return new StringBuilder(64)
+      .append("Unsupported major version.")
+      .append(lineSeparator)
+      .append("  File: ")
+      .append(request.target())
+      .append(lineSeparator)
+      .append("  Received: Major version ")
+      .append(Long.toUnsignedString(major))
+      .append(lineSeparator)
+      .append("  Expected: Major version 1")
+      .append(lineSeparator)
+      .toString();
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.ironsegment.basic.internal;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.util.Objects;
+
+/**
+ * A read-only seekable channel that delivers the contents of a buffer.
+ */
+
+public final class IS1ByteBufferChannel implements SeekableByteChannel
+{
+  private final ByteBuffer buffer;
+  private long position;
+  private boolean closed;
+
+  /**
+   * A read-only seekable channel that delivers the contents of a buffer. The
+   * channel covers the range {@code [0, buffer.limit())} of the buffer.
+   *
+   * @param inBuffer The buffer
+   */
+
+  public IS1ByteBufferChannel(
+    final ByteBuffer inBuffer)
+  {
+    this.buffer = Objects.requireNonNull(inBuffer, "buffer");
+  }
+
+  @Override
+  public int read(
+    final ByteBuffer dst)
+    throws ClosedChannelException
+  {
+    this.checkNotClosed();
+
+    final var limit = this.buffer.limit();
+    if (this.position >= limit) {
+      return -1;
+    }
+
+    final var start = (int) this.position;
+    final var count = Math.min(dst.remaining(), limit - start);
+    dst.put(dst.position(), this.buffer, start, count);
+    dst.position(dst.position() + count);
+    this.position += count;
+    return count;
+  }
+
+  @Override
+  public int write(
+    final ByteBuffer src)
+  {
+    throw new NonWritableChannelException();
+  }
+
+  @Override
+  public long position()
+    throws ClosedChannelException
+  {
+    this.checkNotClosed();
+    return this.position;
+  }
+
+  @Override
+  public SeekableByteChannel position(
+    final long newPosition)
+    throws ClosedChannelException
+  {
+    this.checkNotClosed();
+
+    if (newPosition < 0L) {
+      throw new IllegalArgumentException(
+        "Position %d must be non-negative".formatted(newPosition));
+    }
+    this.position = newPosition;
+    return this;
+  }
+
+  @Override
+  public long size()
+    throws ClosedChannelException
+  {
+    this.checkNotClosed();
+    return this.buffer.limit();
+  }
+
+  @Override
+  public SeekableByteChannel truncate(
+    final long size)
+  {
+    throw new NonWritableChannelException();
+  }
+
+  @Override
+  public boolean isOpen()
+  {
+    return !this.closed;
+  }
+
+  @Override
+  public void close()
+  {
+    this.closed = true;
+  }
+
+  private void checkNotClosed()
+    throws ClosedChannelException
+  {
+    if (this.closed) {
+      throw new ClosedChannelException();
+    }
+  }
+}
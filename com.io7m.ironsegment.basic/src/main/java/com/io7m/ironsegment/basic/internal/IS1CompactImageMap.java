@@ -0,0 +1,147 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.ironsegment.basic.internal;
+
+import com.io7m.ironsegment.api.ISImage;
+import com.io7m.ironsegment.api.ISImageID;
+import com.io7m.ironsegment.api.ISImageSemantic;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.SortedMap;
+
+/**
+ * A compact immutable map of images, stored as a sorted array of IDs and a
+ * parallel array of semantic ordinals.
+ */
+
+public final class IS1CompactImageMap
+  extends IS1CompactSortedMap<ISImageID, ISImage>
+{
+  private static final ISImageSemantic[] SEMANTICS =
+    ISImageSemantic.values();
+
+  private final long[] ids;
+  private final byte[] semantics;
+
+  private IS1CompactImageMap(
+    final long[] inIds,
+    final byte[] inSemantics,
+    final int inFrom,
+    final int inTo)
+  {
+    super(inFrom, inTo);
+    this.ids = inIds;
+    this.semantics = inSemantics;
+  }
+
+  /**
+   * Create a map from the given images.
+   *
+   * @param images The images
+   *
+   * @return A compact map
+   */
+
+  public static IS1CompactImageMap copyOf(
+    final SortedMap<ISImageID, ISImage> images)
+  {
+    Objects.requireNonNull(images, "images");
+
+    final var size = images.size();
+    final var ids = new long[size];
+    final var semantics = new byte[size];
+
+    var index = 0;
+    for (final var image : images.values()) {
+      ids[index] = image.imageId().value();
+      semantics[index] = (byte) image.semantic().ordinal();
+      ++index;
+    }
+    return new IS1CompactImageMap(ids, semantics, 0, size);
+  }
+
+  /**
+   * Create a map from the given arrays. The IDs must be strictly ascending;
+   * this is checked.
+   *
+   * @param ids       The IDs
+   * @param semantics The semantic ordinals
+   * @param count     The number of entries in the arrays that are used
+   *
+   * @return A compact map, or {@code null} if the IDs are not strictly
+   * ascending
+   */
+
+  public static IS1CompactImageMap ofSorted(
+    final long[] ids,
+    final byte[] semantics,
+    final int count)
+  {
+    for (int index = 1; index < count; ++index) {
+      if (ids[index - 1] >= ids[index]) {
+        return null;
+      }
+    }
+    return new IS1CompactImageMap(
+      Arrays.copyOf(ids, count),
+      Arrays.copyOf(semantics, count),
+      0,
+      count
+    );
+  }
+
+  @Override
+  protected ISImageID keyAt(
+    final int index)
+  {
+    return new ISImageID(this.ids[index]);
+  }
+
+  @Override
+  protected ISImage valueAt(
+    final int index)
+  {
+    return new ISImage(
+      new ISImageID(this.ids[index]),
+      SEMANTICS[this.semantics[index]]
+    );
+  }
+
+  @Override
+  protected int compareAt(
+    final int index,
+    final ISImageID key)
+  {
+    return Long.compareUnsigned(this.ids[index], key.value());
+  }
+
+  @Override
+  protected ISImageID asKey(
+    final Object key)
+  {
+    return key instanceof final ISImageID id ? id : null;
+  }
+
+  @Override
+  protected IS1CompactImageMap view(
+    final int newFrom,
+    final int newTo)
+  {
+    return new IS1CompactImageMap(this.ids, this.semantics, newFrom, newTo);
+  }
+}
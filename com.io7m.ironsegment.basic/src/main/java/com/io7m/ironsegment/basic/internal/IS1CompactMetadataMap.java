@@ -0,0 +1,139 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.ironsegment.basic.internal;
+
+import com.io7m.lanark.core.RDottedName;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.SortedMap;
+
+/**
+ * A compact immutable map of metadata, stored as a sorted array of names and
+ * a parallel array of values.
+ */
+
+public final class IS1CompactMetadataMap
+  extends IS1CompactSortedMap<RDottedName, String>
+{
+  private final RDottedName[] names;
+  private final String[] values;
+
+  private IS1CompactMetadataMap(
+    final RDottedName[] inNames,
+    final String[] inValues,
+    final int inFrom,
+    final int inTo)
+  {
+    super(inFrom, inTo);
+    this.names = inNames;
+    this.values = inValues;
+  }
+
+  /**
+   * Create a map from the given metadata.
+   *
+   * @param metadata The metadata
+   *
+   * @return A compact map
+   */
+
+  public static IS1CompactMetadataMap copyOf(
+    final SortedMap<RDottedName, String> metadata)
+  {
+    Objects.requireNonNull(metadata, "metadata");
+
+    final var size = metadata.size();
+    final var names = new RDottedName[size];
+    final var values = new String[size];
+
+    var index = 0;
+    for (final var entry : metadata.entrySet()) {
+      names[index] = entry.getKey();
+      values[index] = entry.getValue();
+      ++index;
+    }
+    return new IS1CompactMetadataMap(names, values, 0, size);
+  }
+
+  /**
+   * Create a map from the given arrays. The names must be strictly
+   * ascending; this is checked.
+   *
+   * @param names  The names
+   * @param values The values
+   * @param count  The number of entries in the arrays that are used
+   *
+   * @return A compact map, or {@code null} if the names are not strictly
+   * ascending
+   */
+
+  public static IS1CompactMetadataMap ofSorted(
+    final RDottedName[] names,
+    final String[] values,
+    final int count)
+  {
+    for (int index = 1; index < count; ++index) {
+      if (names[index - 1].compareTo(names[index]) >= 0) {
+        return null;
+      }
+    }
+    return new IS1CompactMetadataMap(
+      Arrays.copyOf(names, count),
+      Arrays.copyOf(values, count),
+      0,
+      count
+    );
+  }
+
+  @Override
+  protected RDottedName keyAt(
+    final int index)
+  {
+    return this.names[index];
+  }
+
+  @Override
+  protected String valueAt(
+    final int index)
+  {
+    return this.values[index];
+  }
+
+  @Override
+  protected int compareAt(
+    final int index,
+    final RDottedName key)
+  {
+    return this.names[index].compareTo(key);
+  }
+
+  @Override
+  protected RDottedName asKey(
+    final Object key)
+  {
+    return key instanceof final RDottedName name ? name : null;
+  }
+
+  @Override
+  protected IS1CompactMetadataMap view(
+    final int newFrom,
+    final int newTo)
+  {
+    return new IS1CompactMetadataMap(this.names, this.values, newFrom, newTo);
+  }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.ironsegment.basic.internal;
+
+import com.io7m.ironsegment.api.ISObject;
+import com.io7m.ironsegment.api.ISObjectID;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.SortedMap;
+
+/**
+ * A compact immutable map of objects, stored as a sorted array of IDs and a
+ * parallel array of descriptions.
+ */
+
+public final class IS1CompactObjectMap
+  extends IS1CompactSortedMap<ISObjectID, ISObject>
+{
+  private final long[] ids;
+  private final String[] descriptions;
+
+  private IS1CompactObjectMap(
+    final long[] inIds,
+    final String[] inDescriptions,
+    final int inFrom,
+    final int inTo)
+  {
+    super(inFrom, inTo);
+    this.ids = inIds;
+    this.descriptions = inDescriptions;
+  }
+
+  /**
+   * Create a map from the given objects.
+   *
+   * @param objects The objects
+   *
+   * @return A compact map
+   */
+
+  public static IS1CompactObjectMap copyOf(
+    final SortedMap<ISObjectID, ISObject> objects)
+  {
+    Objects.requireNonNull(objects, "objects");
+
+    final var size = objects.size();
+    final var ids = new long[size];
+    final var descriptions = new String[size];
+
+    var index = 0;
+    for (final var object : objects.values()) {
+      ids[index] = object.objectId().value();
+      descriptions[index] = object.description();
+      ++index;
+    }
+    return new IS1CompactObjectMap(ids, descriptions, 0, size);
+  }
+
+  /**
+   * Create a map from the given arrays. The IDs must be strictly ascending;
+   * this is checked.
+   *
+   * @param ids          The IDs
+   * @param descriptions The descriptions
+   * @param count        The number of entries in the arrays that are used
+   *
+   * @return A compact map, or {@code null} if the IDs are not strictly
+   * ascending
+   */
+
+  public static IS1CompactObjectMap ofSorted(
+    final long[] ids,
+    final String[] descriptions,
+    final int count)
+  {
+    for (int index = 1; index < count; ++index) {
+      if (ids[index - 1] >= ids[index]) {
+        return null;
+      }
+    }
+    return new IS1CompactObjectMap(
+      Arrays.copyOf(ids, count),
+      Arrays.copyOf(descriptions, count),
+      0,
+      count
+    );
+  }
+
+  @Override
+  protected ISObjectID keyAt(
+    final int index)
+  {
+    return new ISObjectID(this.ids[index]);
+  }
+
+  @Override
+  protected ISObject valueAt(
+    final int index)
+  {
+    return new ISObject(
+      new ISObjectID(this.ids[index]),
+      this.descriptions[index]
+    );
+  }
+
+  @Override
+  protected int compareAt(
+    final int index,
+    final ISObjectID key)
+  {
+    return Long.compareUnsigned(this.ids[index], key.value());
+  }
+
+  @Override
+  protected ISObjectID asKey(
+    final Object key)
+  {
+    return key instanceof final ISObjectID id ? id : null;
+  }
+
+  @Override
+  protected IS1CompactObjectMap view(
+    final int newFrom,
+    final int newTo)
+  {
+    return new IS1CompactObjectMap(
+      this.ids,
+      this.descriptions,
+      newFrom,
+      newTo
+    );
+  }
+}
@@ -0,0 +1,261 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.ironsegment.basic.internal;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.SortedMap;
+
+/**
+ * The base class of compact, immutable sorted maps. Subclasses store keys and
+ * values in sorted parallel arrays, and lookups are performed by binary
+ * search. Key and value objects are constructed on demand. A map may be a
+ * view of a range {@code [from, to)} of the underlying arrays.
+ *
+ * @param <K> The type of keys
+ * @param <V> The type of values
+ */
+
+abstract class IS1CompactSortedMap<K extends Comparable<K>, V>
+  extends AbstractMap<K, V>
+  implements SortedMap<K, V>
+{
+  private final int from;
+  private final int to;
+
+  protected IS1CompactSortedMap(
+    final int inFrom,
+    final int inTo)
+  {
+    if (inFrom < 0 || inTo < inFrom) {
+      throw new IllegalArgumentException(
+        "Invalid range [%d, %d)".formatted(inFrom, inTo));
+    }
+    this.from = inFrom;
+    this.to = inTo;
+  }
+
+  /**
+   * @param index The array index
+   *
+   * @return The key at the given index
+   */
+
+  protected abstract K keyAt(int index);
+
+  /**
+   * @param index The array index
+   *
+   * @return The value at the given index
+   */
+
+  protected abstract V valueAt(int index);
+
+  /**
+   * Compare the key at the given index to the given key.
+   *
+   * @param index The array index
+   * @param key   The key
+   *
+   * @return The result of comparing the key at {@code index} to {@code key}
+   */
+
+  protected abstract int compareAt(
+    int index,
+    K key);
+
+  /**
+   * @param key An arbitrary object
+   *
+   * @return {@code key} as a key, or {@code null} if it is not of the key type
+   */
+
+  protected abstract K asKey(Object key);
+
+  /**
+   * @param newFrom The start index (inclusive)
+   * @param newTo   The end index (exclusive)
+   *
+   * @return A view of the given range of this map's arrays
+   */
+
+  protected abstract IS1CompactSortedMap<K, V> view(
+    int newFrom,
+    int newTo);
+
+  private int search(
+    final K key)
+  {
+    var low = this.from;
+    var high = this.to - 1;
+    while (low <= high) {
+      final var middle = (low + high) >>> 1;
+      final var c = this.compareAt(middle, key);
+      if (c < 0) {
+        low = middle + 1;
+      } else if (c > 0) {
+        high = middle - 1;
+      } else {
+        return middle;
+      }
+    }
+    return -(low + 1);
+  }
+
+  private int lowerBound(
+    final K key)
+  {
+    final var index = this.search(key);
+    return index >= 0 ? index : -(index + 1);
+  }
+
+  @Override
+  public final int size()
+  {
+    return this.to - this.from;
+  }
+
+  @Override
+  public final boolean containsKey(
+    final Object key)
+  {
+    final var k = this.asKey(key);
+    return k != null && this.search(k) >= 0;
+  }
+
+  @Override
+  public final V get(
+    final Object key)
+  {
+    final var k = this.asKey(key);
+    if (k == null) {
+      return null;
+    }
+    final var index = this.search(k);
+    return index >= 0 ? this.valueAt(index) : null;
+  }
+
+  @Override
+  public final Comparator<? super K> comparator()
+  {
+    return null;
+  }
+
+  @Override
+  public final SortedMap<K, V> subMap(
+    final K fromKey,
+    final K toKey)
+  {
+    if (fromKey.compareTo(toKey) > 0) {
+      throw new IllegalArgumentException("fromKey > toKey");
+    }
+    return this.view(this.lowerBound(fromKey), this.lowerBound(toKey));
+  }
+
+  @Override
+  public final SortedMap<K, V> headMap(
+    final K toKey)
+  {
+    return this.view(this.from, this.lowerBound(toKey));
+  }
+
+  @Override
+  public final SortedMap<K, V> tailMap(
+    final K fromKey)
+  {
+    return this.view(this.lowerBound(fromKey), this.to);
+  }
+
+  @Override
+  public final K firstKey()
+  {
+    if (this.isEmpty()) {
+      throw new NoSuchElementException();
+    }
+    return this.keyAt(this.from);
+  }
+
+  @Override
+  public final K lastKey()
+  {
+    if (this.isEmpty()) {
+      throw new NoSuchElementException();
+    }
+    return this.keyAt(this.to - 1);
+  }
+
+  @Override
+  public final Set<Entry<K, V>> entrySet()
+  {
+    return new EntrySet();
+  }
+
+  private final class EntrySet extends AbstractSet<Entry<K, V>>
+  {
+    EntrySet()
+    {
+
+    }
+
+    @Override
+    public Iterator<Entry<K, V>> iterator()
+    {
+      return new EntryIterator();
+    }
+
+    @Override
+    public int size()
+    {
+      return IS1CompactSortedMap.this.size();
+    }
+  }
+
+  private final class EntryIterator implements Iterator<Entry<K, V>>
+  {
+    private int index;
+
+    EntryIterator()
+    {
+      this.index = IS1CompactSortedMap.this.from;
+    }
+
+    @Override
+    public boolean hasNext()
+    {
+      return this.index < IS1CompactSortedMap.this.to;
+    }
+
+    @Override
+    public Entry<K, V> next()
+    {
+      if (!this.hasNext()) {
+        throw new NoSuchElementException();
+      }
+      final var current = this.index;
+      ++this.index;
+      return Map.entry(
+        IS1CompactSortedMap.this.keyAt(current),
+        IS1CompactSortedMap.this.valueAt(current)
+      );
+    }
+  }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.ironsegment.basic.internal;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.util.Objects;
+
+/**
+ * A data source that reads data from a channel.
+ *
+ * <p>All reads are positional: if the underlying channel is a
+ * {@link FileChannel}, reads are issued with
+ * {@link FileChannel#read(ByteBuffer, long)} and can proceed concurrently.
+ * Otherwise, each read positions and reads the underlying channel while
+ * holding a lock on it, and so concurrent reads are serialized.</p>
+ */
+
+public final class IS1DataSourceChannel implements IS1DataSourceType
+{
+  private final SeekableByteChannel channel;
+  private final FileChannel fileChannel;
+
+  /**
+   * A data source that reads data from a channel.
+   *
+   * @param inChannel The underlying channel
+   */
+
+  public IS1DataSourceChannel(
+    final SeekableByteChannel inChannel)
+  {
+    this.channel =
+      Objects.requireNonNull(inChannel, "channel");
+    this.fileChannel =
+      inChannel instanceof final FileChannel c ? c : null;
+  }
+
+  @Override
+  public long size()
+    throws IOException
+  {
+    return this.channel.size();
+  }
+
+  @Override
+  public ByteBuffer slice(
+    final long offset,
+    final long size)
+    throws IOException
+  {
+    IS1DataSources.checkBufferRange(offset, size, this.channel.size());
+
+    final var buffer = ByteBuffer.allocate((int) size);
+    while (buffer.hasRemaining()) {
+      final var position = offset + buffer.position();
+      if (this.readAt(buffer, position) == -1) {
+        throw new EOFException(
+          "Unexpected EOF reading %s octets at offset 0x%s"
+            .formatted(
+              Long.toUnsignedString(size),
+              Long.toUnsignedString(offset, 16))
+        );
+      }
+    }
+    return buffer.flip().asReadOnlyBuffer();
+  }
+
+  @Override
+  public SeekableByteChannel channel(
+    final long offset,
+    final long size)
+    throws IOException
+  {
+    IS1DataSources.checkRange(offset, size, this.channel.size());
+    return new IS1RangeChannel(this, offset, size);
+  }
+
+  /**
+   * Read data from the given absolute file offset into the given buffer,
+   * without affecting the position of the underlying channel as observed by
+   * other readers.
+   *
+   * @param dst      The destination buffer
+   * @param position The absolute file offset
+   *
+   * @return The number of octets read, or {@code -1} on EOF
+   *
+   * @throws IOException On errors
+   */
+
+  int readAt(
+    final ByteBuffer dst,
+    final long position)
+    throws IOException
+  {
+    if (this.fileChannel != null) {
+      return this.fileChannel.read(dst, position);
+    }
+
+    synchronized (this.channel) {
+      this.channel.position(position);
+      return this.channel.read(dst);
+    }
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.ironsegment.basic.internal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.util.Objects;
+
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+
+/**
+ * A data source that exposes data as read-only views of a memory-mapped file.
+ * Files small enough to be represented as a single buffer are mapped in their
+ * entirety when the source is created; larger files have each requested range
+ * mapped on demand.
+ */
+
+public final class IS1DataSourceMapped implements IS1DataSourceType
+{
+  private final FileChannel channel;
+  private final long fileSize;
+  private final MappedByteBuffer whole;
+
+  private IS1DataSourceMapped(
+    final FileChannel inChannel,
+    final long inFileSize,
+    final MappedByteBuffer inWhole)
+  {
+    this.channel =
+      Objects.requireNonNull(inChannel, "channel");
+    this.fileSize =
+      inFileSize;
+    this.whole =
+      inWhole;
+  }
+
+  /**
+   * Map the given file.
+   *
+   * @param channel The file channel
+   *
+   * @return A data source
+   *
+   * @throws IOException On errors
+   */
+
+  public static IS1DataSourceMapped map(
+    final FileChannel channel)
+    throws IOException
+  {
+    Objects.requireNonNull(channel, "channel");
+
+    final var size = channel.size();
+    if (size <= Integer.MAX_VALUE) {
+      return new IS1DataSourceMapped(
+        channel,
+        size,
+        channel.map(READ_ONLY, 0L, size)
+      );
+    }
+    return new IS1DataSourceMapped(channel, size, null);
+  }
+
+  @Override
+  public long size()
+  {
+    return this.fileSize;
+  }
+
+  @Override
+  public ByteBuffer slice(
+    final long offset,
+    final long size)
+    throws IOException
+  {
+    IS1DataSources.checkBufferRange(offset, size, this.fileSize);
+
+    if (this.whole != null) {
+      return this.whole.slice((int) offset, (int) size);
+    }
+    return this.channel.map(READ_ONLY, offset, size);
+  }
+
+  @Override
+  public SeekableByteChannel channel(
+    final long offset,
+    final long size)
+    throws IOException
+  {
+    return new IS1ByteBufferChannel(this.slice(offset, size));
+  }
+}
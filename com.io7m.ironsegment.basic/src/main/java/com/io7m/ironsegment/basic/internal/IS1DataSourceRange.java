@@ -0,0 +1,86 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.ironsegment.basic.internal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.util.Objects;
+
+/**
+ * A data source that exposes a range of another data source as if it were
+ * an entire file. Requests are translated and passed to the underlying
+ * source, so a range of a memory-mapped source yields views of the same
+ * mapping rather than copies.
+ */
+
+public final class IS1DataSourceRange implements IS1DataSourceType
+{
+  private final IS1DataSourceType source;
+  private final long offset;
+  private final long size;
+
+  /**
+   * A data source that exposes a range of another data source.
+   *
+   * @param inSource The underlying source
+   * @param inOffset The offset of the range within the underlying source
+   * @param inSize   The size of the range
+   *
+   * @throws IOException If the range lies outside of the underlying source
+   */
+
+  public IS1DataSourceRange(
+    final IS1DataSourceType inSource,
+    final long inOffset,
+    final long inSize)
+    throws IOException
+  {
+    this.source =
+      Objects.requireNonNull(inSource, "source");
+
+    IS1DataSources.checkRange(inOffset, inSize, inSource.size());
+    this.offset = inOffset;
+    this.size = inSize;
+  }
+
+  @Override
+  public long size()
+  {
+    return this.size;
+  }
+
+  @Override
+  public ByteBuffer slice(
+    final long rangeOffset,
+    final long rangeSize)
+    throws IOException
+  {
+    IS1DataSources.checkBufferRange(rangeOffset, rangeSize, this.size);
+    return this.source.slice(this.offset + rangeOffset, rangeSize);
+  }
+
+  @Override
+  public SeekableByteChannel channel(
+    final long rangeOffset,
+    final long rangeSize)
+    throws IOException
+  {
+    IS1DataSources.checkRange(rangeOffset, rangeSize, this.size);
+    return this.source.channel(this.offset + rangeOffset, rangeSize);
+  }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.ironsegment.basic.internal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+
+/**
+ * A source of file data used by readable files and sections.
+ */
+
+public interface IS1DataSourceType
+{
+  /**
+   * @return The total size of the underlying file
+   *
+   * @throws IOException On errors
+   */
+
+  long size()
+    throws IOException;
+
+  /**
+   * Obtain a read-only buffer containing the data in the given range of the
+   * file. The returned buffer has a position of zero, a limit equal to
+   * {@code size}, and big-endian byte order.
+   *
+   * @param offset The absolute file offset
+   * @param size   The size of the range
+   *
+   * @return A read-only buffer
+   *
+   * @throws IOException On errors
+   */
+
+  ByteBuffer slice(
+    long offset,
+    long size)
+    throws IOException;
+
+  /**
+   * Obtain a read-only channel that delivers the data in the given range
+   * of the file. Closing the returned channel does not close the underlying
+   * file.
+   *
+   * @param offset The absolute file offset
+   * @param size   The size of the range
+   *
+   * @return A read-only channel positioned at the start of the range
+   *
+   * @throws IOException On errors
+   */
+
+  SeekableByteChannel channel(
+    long offset,
+    long size)
+    throws IOException;
+}
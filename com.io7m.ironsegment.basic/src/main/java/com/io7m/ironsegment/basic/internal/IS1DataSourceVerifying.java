@@ -0,0 +1,88 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.ironsegment.basic.internal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.util.Objects;
+
+/**
+ * A data source that runs a verification operation the first time that any
+ * data is requested from it. The verification is retried on subsequent
+ * accesses if it fails.
+ */
+
+public final class IS1DataSourceVerifying implements IS1DataSourceType
+{
+  private final IS1DataSourceType delegate;
+  private final ISIOOperationType<?> verification;
+  private volatile boolean verified;
+
+  /**
+   * A data source that runs a verification operation on first access.
+   *
+   * @param inDelegate     The underlying data source
+   * @param inVerification The verification operation
+   */
+
+  public IS1DataSourceVerifying(
+    final IS1DataSourceType inDelegate,
+    final ISIOOperationType<?> inVerification)
+  {
+    this.delegate =
+      Objects.requireNonNull(inDelegate, "delegate");
+    this.verification =
+      Objects.requireNonNull(inVerification, "verification");
+  }
+
+  private void verify()
+    throws IOException
+  {
+    if (!this.verified) {
+      this.verification.execute();
+      this.verified = true;
+    }
+  }
+
+  @Override
+  public long size()
+    throws IOException
+  {
+    return this.delegate.size();
+  }
+
+  @Override
+  public ByteBuffer slice(
+    final long offset,
+    final long size)
+    throws IOException
+  {
+    this.verify();
+    return this.delegate.slice(offset, size);
+  }
+
+  @Override
+  public SeekableByteChannel channel(
+    final long offset,
+    final long size)
+    throws IOException
+  {
+    this.verify();
+    return this.delegate.channel(offset, size);
+  }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.ironsegment.basic.internal;
+
+import com.io7m.ironsegment.parser.api.ISParseRequest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.channels.FileChannel;
+import java.util.Objects;
+
+/**
+ * Functions to create data sources.
+ */
+
+public final class IS1DataSources
+{
+  private IS1DataSources()
+  {
+
+  }
+
+  /**
+   * Create a data source for the given parse request.
+   *
+   * @param request The request
+   *
+   * @return A data source
+   *
+   * @throws IOException On errors
+   */
+
+  public static IS1DataSourceType open(
+    final ISParseRequest request)
+    throws IOException
+  {
+    Objects.requireNonNull(request, "request");
+
+    final var channel = request.channel();
+    return switch (request.readMode()) {
+      case READ_VIA_CHANNEL -> {
+        yield new IS1DataSourceChannel(channel);
+      }
+      case READ_VIA_MEMORY_MAP -> {
+        if (channel instanceof final FileChannel fileChannel) {
+          yield IS1DataSourceMapped.map(fileChannel);
+        }
+        throw new IOException(errorNotMappable(request.source(), channel));
+      }
+    };
+  }
+
+  /**
+   * Check that the given range lies within a file of the given size, and
+   * that the range can be represented as a single buffer.
+   *
+   * @param offset   The offset
+   * @param size     The size
+   * @param fileSize The file size
+   *
+   * @throws IOException If the range is not valid
+   */
+
+  static void checkBufferRange(
+    final long offset,
+    final long size,
+    final long fileSize)
+    throws IOException
+  {
+    if (Long.compareUnsigned(size, Integer.MAX_VALUE) > 0) {
+      throw new IOException(
+        "Range of size %s exceeds the maximum buffer size %s"
+          .formatted(
+            Long.toUnsignedString(size),
+            Integer.toUnsignedString(Integer.MAX_VALUE))
+      );
+    }
+    checkRange(offset, size, fileSize);
+  }
+
+  /**
+   * Check that the given range lies within a file of the given size.
+   *
+   * @param offset   The offset
+   * @param size     The size
+   * @param fileSize The file size
+   *
+   * @throws IOException If the range is not valid
+   */
+
+  static void checkRange(
+    final long offset,
+    final long size,
+    final long fileSize)
+    throws IOException
+  {
+    if (offset < 0L || size < 0L || offset > fileSize - size) {
+      throw new IOException(
+        "Range [0x%s, +0x%s] lies outside of a file of size 0x%s"
+          .formatted(
+            Long.toUnsignedString(offset, 16),
+            Long.toUnsignedString(size, 16),
+            Long.toUnsignedString(fileSize, 16))
+      );
+    }
+  }
+
+  private static String errorNotMappable(
+    final URI source,
+    final Object channel)
+  {
+    final var lineSeparator = System.lineSeparator();
+    return new StringBuilder(64)
+      .append("Memory-mapped reading is not supported for this channel.")
+      .append(lineSeparator)
+      .append("  File: ")
+      .append(source)
+      .append(lineSeparator)
+      .append("  Channel: ")
+      .append(channel.getClass().getCanonicalName())
+      .append(lineSeparator)
+      .append("  Expected: A channel of type ")
+      .append(FileChannel.class.getCanonicalName())
+      .append(lineSeparator)
+      .toString();
+  }
+}
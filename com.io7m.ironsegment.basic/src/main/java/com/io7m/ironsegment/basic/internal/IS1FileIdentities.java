@@ -0,0 +1,133 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.ironsegment.basic.internal;
+
+import com.io7m.ironsegment.parser.api.ISFileIdentity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Functions to determine file identities.
+ */
+
+public final class IS1FileIdentities
+{
+  private static final Logger LOG =
+    LoggerFactory.getLogger(IS1FileIdentities.class);
+
+  private IS1FileIdentities()
+  {
+
+  }
+
+  /**
+   * Determine the identity of the file with the given URI. An identity can
+   * only be determined for {@code file} URIs. If the size of the file on the
+   * filesystem does not match the size of the opened channel, the file has
+   * been replaced or modified since it was opened and no identity is
+   * returned.
+   *
+   * <p>The identity describes whatever file is at the path when this method
+   * is called, not the file that the channel was opened on. If the file at
+   * the path was swapped for another file of the same size after the
+   * channel was opened but before parsing began, the identity describes the
+   * new file while the channel still reads the old one, and nothing here
+   * can detect that. Callers that need that guarantee must not share a
+   * manifest cache between such files.</p>
+   *
+   * @param source      The file URI
+   * @param channelSize The size of the opened channel
+   *
+   * @return The identity of the file, if it can be determined
+   */
+
+  public static Optional<ISFileIdentity> identityOf(
+    final URI source,
+    final long channelSize)
+  {
+    Objects.requireNonNull(source, "source");
+
+    if (!"file".equals(source.getScheme())) {
+      return Optional.empty();
+    }
+
+    try {
+      final var path =
+        Path.of(source).toAbsolutePath().normalize();
+      final var identity = identityOfPath(path);
+
+      if (identity.size() != channelSize) {
+        return Optional.empty();
+      }
+      return Optional.of(identity);
+    } catch (final IOException
+                   | IllegalArgumentException
+                   | FileSystemNotFoundException e) {
+      LOG.debug("{}: unable to determine file identity: ", source, e);
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Determine if the file at the path of the given identity still has that
+   * identity. A file that is rewritten in place without changing its size
+   * keeps its path and file key, but its modification time changes; data
+   * read from the file while that happened must not be associated with the
+   * identity.
+   *
+   * @param identity The identity taken earlier
+   *
+   * @return {@code true} if the file still has the given identity
+   */
+
+  public static boolean isUnchanged(
+    final ISFileIdentity identity)
+  {
+    Objects.requireNonNull(identity, "identity");
+
+    try {
+      return identityOfPath(identity.path()).equals(identity);
+    } catch (final IOException e) {
+      LOG.debug("{}: unable to determine file identity: ", identity.path(), e);
+      return false;
+    }
+  }
+
+  private static ISFileIdentity identityOfPath(
+    final Path path)
+    throws IOException
+  {
+    final var attributes =
+      Files.readAttributes(path, BasicFileAttributes.class);
+
+    return new ISFileIdentity(
+      path,
+      Optional.ofNullable(attributes.fileKey()),
+      attributes.size(),
+      attributes.lastModifiedTime()
+    );
+  }
+}
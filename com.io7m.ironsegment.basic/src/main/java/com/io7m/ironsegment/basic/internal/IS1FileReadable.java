@@ -19,17 +19,40 @@ package com.io7m.ironsegment.basic.internal;
 
 import com.io7m.ironsegment.api.ISFileReadableType;
 import com.io7m.ironsegment.api.ISFileSectionDescription;
+import com.io7m.ironsegment.api.ISImageID;
+import com.io7m.ironsegment.api.ISManifest;
+import com.io7m.ironsegment.api.ISSectionChecksumResult;
+import com.io7m.ironsegment.api.ISSectionReadableImageType;
 import com.io7m.ironsegment.api.ISSectionReadableType;
 import com.io7m.ironsegment.api.ISVersion;
+import com.io7m.ironsegment.parser.api.ISFileIdentity;
+import com.io7m.ironsegment.parser.api.ISManifestCacheType;
 import com.io7m.ironsegment.parser.api.ISParseRequest;
 import com.io7m.jbssio.api.BSSReaderRandomAccessType;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Stream;
 
+import static com.io7m.ironsegment.api.ISIdentifiers.sectionChecksumsIdentifier;
 import static com.io7m.ironsegment.api.ISIdentifiers.sectionEndIdentifier;
+import static com.io7m.ironsegment.api.ISIdentifiers.sectionImageEncodedIdentifier;
+import static com.io7m.ironsegment.api.ISIdentifiers.sectionImageIdentifier;
+import static com.io7m.ironsegment.api.ISIdentifiers.sectionImageTiledIdentifier;
+import static com.io7m.ironsegment.api.ISIdentifiers.sectionManifestBinaryIdentifier;
+import static com.io7m.ironsegment.api.ISIdentifiers.sectionManifestIdentifier;
 
 
 /**
@@ -39,35 +62,63 @@ import static com.io7m.ironsegment.api.ISIdentifiers.sectionEndIdentifier;
 public final class IS1FileReadable implements ISFileReadableType
 {
   private final BSSReaderRandomAccessType reader;
+  private final IS1DataSourceType source;
   private final ISParseRequest request;
   private final ISVersion version;
-  private final List<ISFileSectionDescription> fileSections;
+  private final IS1SectionIndex index;
   private final long remainingOctets;
+  private final Object lock;
+  private final ISManifestCacheType manifestCache;
+  private final Optional<ISFileIdentity> identity;
+  private volatile ISManifest manifest;
+  private volatile Map<ISImageID, ISFileSectionDescription> imageIndex;
+  private volatile Map<Long, Long> checksums;
+  private final Set<Long> checksumsVerified;
 
   IS1FileReadable(
     final BSSReaderRandomAccessType inReader,
+    final IS1DataSourceType inSource,
     final ISParseRequest inRequest,
     final ISVersion inVersion,
-    final ArrayList<ISFileSectionDescription> inFileSections,
-    final long inRemainingOctets)
+    final List<ISFileSectionDescription> inFileSections,
+    final long inRemainingOctets,
+    final ISManifestCacheType inManifestCache,
+    final Optional<ISFileIdentity> inIdentity)
   {
     this.reader =
       Objects.requireNonNull(inReader, "reader");
+    this.source =
+      Objects.requireNonNull(inSource, "source");
     this.request =
       Objects.requireNonNull(inRequest, "request");
     this.version =
       Objects.requireNonNull(inVersion, "version");
-    this.fileSections =
-      List.copyOf(
+    this.index =
+      new IS1SectionIndex(
         Objects.requireNonNull(inFileSections, "fileSections"));
     this.remainingOctets = inRemainingOctets;
+    this.lock = new Object();
+    this.manifestCache =
+      Objects.requireNonNull(inManifestCache, "manifestCache");
+    this.identity =
+      Objects.requireNonNull(inIdentity, "identity");
+    this.checksumsVerified =
+      ConcurrentHashMap.newKeySet();
   }
 
   @Override
   public List<ISFileSectionDescription> sections()
   {
     this.checkNotClosed();
-    return this.fileSections;
+    return this.index.sections();
+  }
+
+  @Override
+  public List<ISFileSectionDescription> sectionsWithIdentifier(
+    final long identifier)
+  {
+    this.checkNotClosed();
+    return this.index.withIdentifier(identifier);
   }
 
   @Override
@@ -89,23 +140,334 @@ public final class IS1FileReadable implements ISFileReadableType
   {
     this.checkNotClosed();
 
-    if (!this.fileSections.contains(description)) {
+    if (!this.index.contains(description)) {
       throw new IllegalArgumentException(
         "File does not contain the provided section.");
     }
 
+    return switch (this.request.checksumVerification()) {
+      case CHECKSUMS_UNVERIFIED -> {
+        yield this.openSectionWithSource(description, this.source);
+      }
+      case CHECKSUMS_VERIFIED_ON_ACCESS -> {
+        yield this.openSectionWithSource(
+          description,
+          new IS1DataSourceVerifying(
+            this.source,
+            () -> this.verifyOnAccess(description))
+        );
+      }
+    };
+  }
+
+  private ISSectionReadableType openSectionWithSource(
+    final ISFileSectionDescription description,
+    final IS1DataSourceType sectionSource)
+  {
     final var identifier =
       description.description().identifier();
 
     if (identifier == sectionEndIdentifier()) {
       return new IS1SectionReadableEnd(
         this.reader,
+        sectionSource,
         this.request,
         description
       );
     }
 
-    return new IS1SectionReadableOther(this.reader, this.request, description);
+    if (identifier == sectionManifestIdentifier()
+        || identifier == sectionManifestBinaryIdentifier()) {
+      return new IS1SectionReadableManifest(
+        this.reader,
+        sectionSource,
+        this.request,
+        description,
+        this.manifestCache,
+        this.identity
+      );
+    }
+
+    if (identifier == sectionImageIdentifier()
+        || identifier == sectionImageEncodedIdentifier()
+        || identifier == sectionImageTiledIdentifier()) {
+      return new IS1SectionReadableImage(
+        this.reader,
+        sectionSource,
+        this.request,
+        description,
+        this::manifest
+      );
+    }
+
+    return new IS1SectionReadableOther(
+      this.reader,
+      sectionSource,
+      this.request,
+      description
+    );
+  }
+
+  @Override
+  public Optional<ISFileSectionDescription> sectionForImage(
+    final ISImageID imageId)
+    throws IOException
+  {
+    Objects.requireNonNull(imageId, "imageId");
+    this.checkNotClosed();
+    return Optional.ofNullable(this.imageIndex().get(imageId));
+  }
+
+  @Override
+  public ISSectionReadableImageType openImage(
+    final ISImageID imageId)
+    throws IOException
+  {
+    final var section =
+      this.sectionForImage(imageId)
+        .orElseThrow(() -> new IOException(this.errorNoSuchImage(imageId)));
+
+    return (ISSectionReadableImageType) this.openSection(section);
+  }
+
+  private Map<ISImageID, ISFileSectionDescription> imageIndex()
+    throws IOException
+  {
+    var result = this.imageIndex;
+    if (result == null) {
+      synchronized (this.lock) {
+        result = this.imageIndex;
+        if (result == null) {
+          result = this.loadImageIndex();
+          this.imageIndex = result;
+        }
+      }
+    }
+    return result;
+  }
+
+  private Map<ISImageID, ISFileSectionDescription> loadImageIndex()
+    throws IOException
+  {
+    final var imageSections =
+      Stream.of(
+          sectionImageIdentifier(),
+          sectionImageEncodedIdentifier(),
+          sectionImageTiledIdentifier())
+        .flatMap(identifier -> this.index.withIdentifier(identifier).stream())
+        .sorted(Comparator.comparingLong(ISFileSectionDescription::fileOffset))
+        .toList();
+    final var results =
+      HashMap.<ISImageID, ISFileSectionDescription>newHashMap(
+        imageSections.size());
+
+    /*
+     * Only the image IDs are read here, so the sections are opened without
+     * checksum verification; verifying every image section merely to build
+     * the index would read the entire file.
+     */
+
+    for (final var section : imageSections) {
+      try (var imageSection =
+             (IS1SectionReadableImage)
+               this.openSectionWithSource(section, this.source)) {
+        results.putIfAbsent(imageSection.imageId(), section);
+      }
+    }
+    return Map.copyOf(results);
+  }
+
+  private ISManifest manifest()
+    throws IOException
+  {
+    var result = this.manifest;
+    if (result == null) {
+      synchronized (this.lock) {
+        result = this.manifest;
+        if (result == null) {
+          result = this.loadManifest();
+          this.manifest = result;
+        }
+      }
+    }
+    return result;
+  }
+
+  private ISManifest loadManifest()
+    throws IOException
+  {
+    final var section =
+      Stream.concat(
+          this.index.withIdentifier(sectionManifestIdentifier()).stream(),
+          this.index.withIdentifier(sectionManifestBinaryIdentifier()).stream())
+        .min(Comparator.comparingLong(ISFileSectionDescription::fileOffset))
+        .orElseThrow(() -> new IOException(this.errorNoManifest()));
+
+    try (var manifestSection =
+           (IS1SectionReadableManifest) this.openSection(section)) {
+      return manifestSection.manifest();
+    }
+  }
+
+  @Override
+  public List<ISSectionChecksumResult> verifyChecksums(
+    final ExecutorService executor)
+    throws IOException
+  {
+    Objects.requireNonNull(executor, "executor");
+    this.checkNotClosed();
+
+    final var expected = this.checksums();
+    final var tasks = new ArrayList<Callable<ISSectionChecksumResult>>();
+    for (final var section : this.index.sections()) {
+      final var checksum = expected.get(Long.valueOf(section.fileOffset()));
+      if (checksum != null) {
+        tasks.add(() -> this.verifySection(section, checksum.longValue()));
+      }
+    }
+
+    final var results = new ArrayList<ISSectionChecksumResult>(tasks.size());
+    try {
+      for (final var future : executor.invokeAll(tasks)) {
+        results.add(future.get());
+      }
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException(e.getMessage());
+    } catch (final ExecutionException e) {
+      final var cause = e.getCause();
+      if (cause instanceof final IOException x) {
+        throw x;
+      }
+      if (cause instanceof final RuntimeException x) {
+        throw x;
+      }
+      throw new IOException(cause);
+    }
+    return List.copyOf(results);
+  }
+
+  private ISSectionChecksumResult verifySection(
+    final ISFileSectionDescription section,
+    final long expected)
+    throws IOException
+  {
+    final var computed =
+      IS1SectionChecksums.ofSource(
+        this.source,
+        section.fileOffsetData(),
+        section.description().size()
+      );
+
+    final var result =
+      new ISSectionChecksumResult(section, expected, computed);
+    if (result.isValid()) {
+      this.checksumsVerified.add(Long.valueOf(section.fileOffset()));
+    }
+    return result;
+  }
+
+  private Void verifyOnAccess(
+    final ISFileSectionDescription section)
+    throws IOException
+  {
+    final var offset = Long.valueOf(section.fileOffset());
+    if (this.checksumsVerified.contains(offset)) {
+      return null;
+    }
+
+    final var expected = this.checksums().get(offset);
+    if (expected == null) {
+      return null;
+    }
+
+    final var result = this.verifySection(section, expected.longValue());
+    if (!result.isValid()) {
+      throw new IOException(this.errorChecksum(result));
+    }
+    return null;
+  }
+
+  private Map<Long, Long> checksums()
+    throws IOException
+  {
+    var result = this.checksums;
+    if (result == null) {
+      synchronized (this.lock) {
+        result = this.checksums;
+        if (result == null) {
+          result = this.loadChecksums();
+          this.checksums = result;
+        }
+      }
+    }
+    return result;
+  }
+
+  private Map<Long, Long> loadChecksums()
+    throws IOException
+  {
+    final var sections =
+      this.index.withIdentifier(sectionChecksumsIdentifier());
+
+    if (sections.isEmpty()) {
+      return Map.of();
+    }
+    return IS1SectionChecksums.read(
+      this.request.source(),
+      this.source,
+      sections.get(sections.size() - 1)
+    );
+  }
+
+  private String errorChecksum(
+    final ISSectionChecksumResult result)
+  {
+    final var lineSeparator = System.lineSeparator();
+    return new StringBuilder(64)
+      .append("Section checksum does not match the section data.")
+      .append(lineSeparator)
+      .append("  File: ")
+      .append(this.request.source())
+      .append(lineSeparator)
+      .append("  Section: ")
+      .append(result.section().show())
+      .append(lineSeparator)
+      .append("  Expected: CRC32C 0x")
+      .append(Long.toUnsignedString(result.expected(), 16))
+      .append(lineSeparator)
+      .append("  Received: CRC32C 0x")
+      .append(Long.toUnsignedString(result.computed(), 16))
+      .append(lineSeparator)
+      .toString();
+  }
+
+  private String errorNoSuchImage(
+    final ISImageID imageId)
+  {
+    final var lineSeparator = System.lineSeparator();
+    return new StringBuilder(64)
+      .append("File does not contain an image section for the given image.")
+      .append(lineSeparator)
+      .append("  File: ")
+      .append(this.request.source())
+      .append(lineSeparator)
+      .append("  Image ID: ")
+      .append(imageId)
+      .append(lineSeparator)
+      .toString();
+  }
+
+  private String errorNoManifest()
+  {
+    final var lineSeparator = System.lineSeparator();
+    return new StringBuilder(64)
+      .append("File does not contain a manifest section.")
+      .append(lineSeparator)
+      .append("  File: ")
+      .append(this.request.source())
+      .append(lineSeparator)
+      .toString();
   }
 
   @Override
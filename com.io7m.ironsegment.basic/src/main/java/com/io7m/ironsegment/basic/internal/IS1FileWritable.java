@@ -19,8 +19,17 @@ package com.io7m.ironsegment.basic.internal;
 
 import com.io7m.ironsegment.api.ISFileSectionDescription;
 import com.io7m.ironsegment.api.ISFileWritableType;
+import com.io7m.ironsegment.api.ISFileWriteStatistics;
+import com.io7m.ironsegment.api.ISImageCodec;
+import com.io7m.ironsegment.api.ISImageCodecChoice;
+import com.io7m.ironsegment.api.ISImageID;
+import com.io7m.ironsegment.api.ISImageInfo;
+import com.io7m.ironsegment.api.ISImageSemantic;
+import com.io7m.ironsegment.api.ISSectionDescription;
 import com.io7m.ironsegment.api.ISSectionWritableType;
 import com.io7m.ironsegment.api.ISVersion;
+import com.io7m.ironsegment.api.ISWritableImageReservedType;
+import com.io7m.ironsegment.writer.api.ISChecksumMode;
 import com.io7m.ironsegment.writer.api.ISWriteRequest;
 import com.io7m.jaffirm.core.Preconditions;
 import com.io7m.jbssio.api.BSSWriterProviderType;
@@ -29,11 +38,19 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.io7m.ironsegment.api.ISIdentifiers.sectionEndIdentifier;
+import static com.io7m.ironsegment.api.ISIdentifiers.sectionImageEncodedIdentifier;
 import static com.io7m.ironsegment.api.ISIdentifiers.sectionImageIdentifier;
+import static com.io7m.ironsegment.api.ISIdentifiers.sectionImageTiledIdentifier;
+import static com.io7m.ironsegment.api.ISIdentifiers.sectionManifestBinaryIdentifier;
 import static com.io7m.ironsegment.api.ISIdentifiers.sectionManifestIdentifier;
 
 /**
@@ -48,8 +65,15 @@ public final class IS1FileWritable implements ISFileWritableType
   private final BSSWriterRandomAccessType writer;
   private final ISWriteRequest request;
   private final BSSWriterProviderType writers;
+  private final ArrayList<ISFileSectionDescription> sectionsClosed;
+  private final ArrayList<ISImageCodecChoice> imageCodecChoices;
+  private final TreeMap<Long, Long> checksums;
+  private final ArrayList<ISFileSectionDescription> sectionsReserved;
+  private final AtomicBoolean finished;
   private ISSectionWritableType sectionOpen;
+  private long sectionOpenOffset;
   private long sectionLastClosed;
+  private ISFileSectionDescription tableOfContents;
 
   IS1FileWritable(
     final BSSWriterProviderType inWriters,
@@ -62,13 +86,22 @@ public final class IS1FileWritable implements ISFileWritableType
       Objects.requireNonNull(inWriter, "writer");
     this.request =
       Objects.requireNonNull(inRequest, "request");
+    this.sectionsClosed =
+      new ArrayList<>();
+    this.imageCodecChoices =
+      new ArrayList<>();
+    this.checksums =
+      new TreeMap<>();
+    this.sectionsReserved =
+      new ArrayList<>();
+    this.finished =
+      new AtomicBoolean(false);
   }
 
   @Override
   public List<ISFileSectionDescription> sections()
-    throws IOException
   {
-    throw new IOException();
+    return List.copyOf(this.sectionsClosed);
   }
 
   @Override
@@ -77,10 +110,54 @@ public final class IS1FileWritable implements ISFileWritableType
     return this.request.version();
   }
 
+  @Override
+  public ISFileWriteStatistics statistics()
+  {
+    return new ISFileWriteStatistics(this.imageCodecChoices);
+  }
+
   @Override
   public ISSectionWritableType createSection(
     final long identifier)
     throws IOException
+  {
+    this.checkCanCreateSection();
+
+    /*
+     * The table of contents is written immediately before the end section,
+     * and the end section records its location. If checksums are enabled,
+     * the checksum section is written directly before the table of contents
+     * so that the table of contents describes it.
+     */
+
+    if (identifier == sectionEndIdentifier()) {
+      this.finished.set(true);
+      if (this.request.checksumMode() == ISChecksumMode.CHECKSUMS_CRC32C) {
+        this.checksumReservedSections();
+        this.sectionsClosed.add(
+          IS1SectionChecksums.write(this.writer, this.checksums));
+      }
+      this.tableOfContents =
+        IS1TableOfContents.write(this.writer, this.sectionsClosed);
+      this.sectionsClosed.add(this.tableOfContents);
+      this.sectionLastClosed = this.writer.offsetCurrentAbsolute();
+    }
+
+    final var section =
+      this.openTypedSection(identifier);
+
+    this.sectionOpenOffset = this.writer.offsetCurrentAbsolute();
+    this.writer.writeU64BE(identifier);
+    this.writer.writeU64BE(0L);
+    this.sectionOpen = section;
+
+    if (section instanceof final IS1SectionWritableEnd end) {
+      end.writeTableOfContentsLocation(this.tableOfContents);
+    }
+    return section;
+  }
+
+  private void checkCanCreateSection()
   {
     if (this.sectionOpen != null) {
       throw new IllegalStateException(
@@ -102,13 +179,99 @@ public final class IS1FileWritable implements ISFileWritableType
       Long.toUnsignedString(offsetCurrentAbsolute),
       Long.toUnsignedString(this.sectionLastClosed)
     );
+  }
 
-    final var section =
-      this.openTypedSection(identifier);
+  @Override
+  public ISWritableImageReservedType reserveImage(
+    final ISImageID imageId,
+    final long width,
+    final long height,
+    final ISImageSemantic semantic)
+    throws IOException
+  {
+    Objects.requireNonNull(imageId, "imageId");
+    Objects.requireNonNull(semantic, "semantic");
 
-    this.writer.writeU64BE(identifier);
-    this.writer.writeU64BE(0L);
-    return section;
+    if (!(this.request.channel() instanceof final FileChannel fileChannel)) {
+      throw new IOException(this.errorNotPositional());
+    }
+
+    this.checkCanCreateSection();
+    if (this.finished.get()) {
+      throw new IllegalStateException(
+        "The end section of the file has already been created.");
+    }
+
+    final var info =
+      new ISImageInfo(imageId, semantic, width, height);
+    final var dataSize =
+      info.dataSizeOctets();
+    final var sectionSize =
+      alignUp(Math.addExact(4L, dataSize));
+
+    /*
+     * The header, image ID, and final octet of the section are written
+     * now so that the file has its final length and every later section
+     * lands after the reserved extent. The pixel data in between is filled
+     * in by positional writes.
+     */
+
+    final var offset = this.writer.offsetCurrentAbsolute();
+    this.writer.writeU64BE(sectionImageIdentifier());
+    this.writer.writeU64BE(sectionSize);
+    this.writer.writeU32BE(imageId.value());
+    this.writer.skip(sectionSize - 5L);
+    this.writer.writeU8(0);
+    this.sectionLastClosed = this.writer.offsetCurrentAbsolute();
+
+    final var description =
+      new ISFileSectionDescription(
+        offset,
+        new ISSectionDescription(sectionImageIdentifier(), sectionSize)
+      );
+
+    this.sectionsClosed.add(description);
+    this.sectionsReserved.add(description);
+    this.imageCodecChoices.add(
+      new ISImageCodecChoice(
+        offset,
+        imageId,
+        ISImageCodec.RAW,
+        false,
+        dataSize,
+        dataSize,
+        Map.of()
+      )
+    );
+
+    return new IS1WritableImageReserved(
+      fileChannel,
+      description,
+      info,
+      this.finished
+    );
+  }
+
+  private static long alignUp(
+    final long size)
+  {
+    return Math.addExact(size, 15L) & ~15L;
+  }
+
+  private void checksumReservedSections()
+    throws IOException
+  {
+    for (final var section : this.sectionsReserved) {
+      this.checksums.put(
+        Long.valueOf(section.fileOffset()),
+        Long.valueOf(
+          IS1SectionChecksums.ofChannel(
+            this.request.target(),
+            this.request.channel(),
+            section.fileOffsetData(),
+            section.description().size()))
+      );
+    }
   }
 
   private IS1SectionWritableAbstract openTypedSection(
@@ -116,6 +279,7 @@ public final class IS1FileWritable implements ISFileWritableType
   {
     if (identifier == sectionEndIdentifier()) {
       return new IS1SectionWritableEnd(
+        this.writers,
         this.writer,
         this.request,
         identifier,
@@ -123,7 +287,8 @@ public final class IS1FileWritable implements ISFileWritableType
       );
     }
 
-    if (identifier == sectionManifestIdentifier()) {
+    if (identifier == sectionManifestIdentifier()
+        || identifier == sectionManifestBinaryIdentifier()) {
       return new IS1SectionWritableManifest(
         this.writers,
         this.writer,
@@ -133,7 +298,8 @@ public final class IS1FileWritable implements ISFileWritableType
       );
     }
 
-    if (identifier == sectionImageIdentifier()) {
+    if (identifier == sectionImageIdentifier()
+        || identifier == sectionImageEncodedIdentifier()) {
       return new IS1SectionWritableImage(
         this.writers,
         this.writer,
@@ -143,6 +309,15 @@ public final class IS1FileWritable implements ISFileWritableType
       );
     }
 
+    if (identifier == sectionImageTiledIdentifier()) {
+      return new IS1SectionWritableImageTiled(
+        this.writer,
+        this.request,
+        identifier,
+        this::onSectionClosed
+      );
+    }
+
     return new IS1SectionWritableOther(
       this.writer,
       this.request,
@@ -153,6 +328,7 @@ public final class IS1FileWritable implements ISFileWritableType
 
   private void onSectionClosed(
     final ISSectionWritableType section)
+    throws IOException
   {
     if (LOG.isTraceEnabled()) {
       LOG.trace(
@@ -163,13 +339,94 @@ public final class IS1FileWritable implements ISFileWritableType
     }
 
     this.sectionLastClosed = this.writer.offsetCurrentAbsolute();
+
+    final var description =
+      new ISFileSectionDescription(
+        this.sectionOpenOffset,
+        new ISSectionDescription(
+          section.identifier(),
+          this.sectionLastClosed - (this.sectionOpenOffset + 16L))
+      );
+
+    this.sectionsClosed.add(description);
     this.sectionOpen = null;
+
+    /*
+     * The section data is read back immediately after the section is
+     * closed, while it is still likely to be in the page cache, so that
+     * sections written via positioned writes are checksummed correctly.
+     */
+
+    if (this.request.checksumMode() == ISChecksumMode.CHECKSUMS_CRC32C
+        && section.identifier() != sectionEndIdentifier()) {
+      this.checksums.put(
+        Long.valueOf(description.fileOffset()),
+        Long.valueOf(
+          IS1SectionChecksums.ofChannel(
+            this.request.target(),
+            this.request.channel(),
+            description.fileOffsetData(),
+            description.description().size()))
+      );
+    }
+
+    if (section instanceof final IS1SectionWritableImage image) {
+      image.codecChoice().ifPresent(this.imageCodecChoices::add);
+    }
+    if (section instanceof final IS1SectionWritableImageTiled image) {
+      image.codecChoice().ifPresent(this.imageCodecChoices::add);
+    }
   }
 
   @Override
   public void close()
     throws IOException
   {
-    this.writer.close();
+    try {
+      if (!this.sectionsReserved.isEmpty() && !this.finished.get()) {
+        if (this.sectionOpen != null) {
+          throw new IllegalStateException(this.errorSectionOpenAtClose());
+        }
+        this.createSectionEnd().close();
+      }
+    } finally {
+      this.writer.close();
+    }
+  }
+
+  private String errorNotPositional()
+  {
+    final var lineSeparator = System.lineSeparator();
+    return new StringBuilder(64)
+      .append("Reserving images is not supported for this channel.")
+      .append(lineSeparator)
+      .append("  File: ")
+      .append(this.request.target())
+      .append(lineSeparator)
+      .append("  Channel: ")
+      .append(this.request.channel().getClass().getCanonicalName())
+      .append(lineSeparator)
+      .append("  Expected: A channel of type ")
+      .append(FileChannel.class.getCanonicalName())
+      .append(lineSeparator)
+      .toString();
+  }
+
+  private String errorSectionOpenAtClose()
+  {
+    final var lineSeparator = System.lineSeparator();
+    return new StringBuilder(64)
+      .append("The file was closed while a section was still open.")
+      .append(lineSeparator)
+      .append("  File: ")
+      .append(this.request.target())
+      .append(lineSeparator)
+      .append("  Section: ")
+      .append(this.sectionOpen)
+      .append(lineSeparator)
+      .append("  Problem: No end section can be written, so the images ")
+      .append("reserved in this file are not reachable.")
+      .append(lineSeparator)
+      .toString();
   }
 }
@@ -0,0 +1,311 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.ironsegment.basic.internal;
+
+import com.io7m.ironsegment.api.ISImageCodec;
+import com.io7m.ironsegment.api.ISImageInfo;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * The {@link ISImageCodec#FILTERED_LZ4} codec.
+ *
+ * <p>Each row of the image is transformed with one of the PNG prediction
+ * filters ({@code None}, {@code Sub}, {@code Up}, {@code Average},
+ * {@code Paeth}), chosen per row as the filter that minimizes the sum of the
+ * absolute residuals. Unlike PNG, prediction operates on whole samples
+ * (for example, 16-bit depth values) rather than octets, and arithmetic is
+ * performed modulo the sample size. Each filtered row is stored as a single
+ * filter type octet followed by the residuals split into octet planes, most
+ * significant plane first, so that the mostly-zero high octets of small
+ * residuals form long runs. The filtered rows are then compressed as a
+ * single LZ4 block.</p>
+ */
+
+public final class IS1ImageCodecFilteredLZ4 implements IS1ImageCodecType
+{
+  private static final IS1ImageCodecFilteredLZ4 INSTANCE =
+    new IS1ImageCodecFilteredLZ4();
+
+  private static final int FILTER_NONE = 0;
+  private static final int FILTER_SUB = 1;
+  private static final int FILTER_UP = 2;
+  private static final int FILTER_AVERAGE = 3;
+  private static final int FILTER_PAETH = 4;
+  private static final int FILTER_COUNT = 5;
+
+  private IS1ImageCodecFilteredLZ4()
+  {
+
+  }
+
+  /**
+   * @return The codec instance
+   */
+
+  public static IS1ImageCodecFilteredLZ4 get()
+  {
+    return INSTANCE;
+  }
+
+  @Override
+  public ISImageCodec codec()
+  {
+    return ISImageCodec.FILTERED_LZ4;
+  }
+
+  @Override
+  public ByteBuffer encode(
+    final ISImageInfo info,
+    final ByteBuffer data)
+    throws IOException
+  {
+    final var format = new RowFormat(info);
+    final var filtered =
+      ByteBuffer.allocate(format.filteredSize());
+
+    final var previous = new long[format.samples];
+    final var current = new long[format.samples];
+    final var residuals = new long[FILTER_COUNT][format.samples];
+
+    var index = data.position();
+    for (long y = 0L; y < info.height(); ++y) {
+      for (int sample = 0; sample < format.samples; ++sample) {
+        current[sample] = format.read(data, index);
+        index += format.sampleSize;
+      }
+
+      int best = FILTER_NONE;
+      long bestCost = Long.MAX_VALUE;
+      for (int filter = 0; filter < FILTER_COUNT; ++filter) {
+        final var cost =
+          format.filter(filter, previous, current, residuals[filter]);
+        if (cost < bestCost) {
+          bestCost = cost;
+          best = filter;
+        }
+      }
+
+      filtered.put((byte) best);
+      format.writePlanes(filtered, residuals[best]);
+      System.arraycopy(current, 0, previous, 0, format.samples);
+    }
+
+    return IS1ImageCodecLZ4.get().compress(filtered.flip());
+  }
+
+  @Override
+  public void decode(
+    final ISImageInfo info,
+    final ByteBuffer data,
+    final ByteBuffer target)
+    throws IOException
+  {
+    final var format = new RowFormat(info);
+    final var filtered =
+      ByteBuffer.allocate(format.filteredSize());
+
+    IS1ImageCodecLZ4.get()
+      .decompress(data, filtered, format.filteredSize());
+
+    final var previous = new long[format.samples];
+    final var current = new long[format.samples];
+    final var residuals = new long[format.samples];
+    final var base = target.position();
+
+    var index = 0;
+    var output = base;
+    for (long y = 0L; y < info.height(); ++y) {
+      final var filter = filtered.get(index) & 0xff;
+      if (filter >= FILTER_COUNT) {
+        throw new IOException(
+          "Unrecognized filter type %d at row %d"
+            .formatted(Integer.valueOf(filter), Long.valueOf(y))
+        );
+      }
+      index = format.readPlanes(filtered, index + 1, residuals);
+      format.unfilter(filter, previous, residuals, current);
+
+      for (int sample = 0; sample < format.samples; ++sample) {
+        format.write(target, output, current[sample]);
+        output += format.sampleSize;
+      }
+      System.arraycopy(current, 0, previous, 0, format.samples);
+    }
+
+    target.position(output);
+  }
+
+  /**
+   * The shape of the rows of an image in terms of samples.
+   */
+
+  private static final class RowFormat
+  {
+    private final ISImageInfo info;
+    private final int sampleSize;
+    private final int samples;
+    private final int distance;
+    private final long mask;
+    private final int signShift;
+
+    RowFormat(
+      final ISImageInfo inInfo)
+    {
+      this.info = inInfo;
+
+      final var semantic = inInfo.semantic();
+      final var pixelSize = (int) semantic.pixelSizeOctets();
+      this.sampleSize = IS1ImageSamples.sampleSizeOf(semantic);
+      this.distance = pixelSize / this.sampleSize;
+      this.samples = Math.toIntExact(inInfo.width() * this.distance);
+      this.mask = (1L << (this.sampleSize * 8)) - 1L;
+      this.signShift = 64 - (this.sampleSize * 8);
+    }
+
+    int filteredSize()
+    {
+      return Math.toIntExact(
+        Math.multiplyExact(
+          this.info.height(),
+          1L + ((long) this.samples * this.sampleSize))
+      );
+    }
+
+    long read(
+      final ByteBuffer data,
+      final int index)
+    {
+      return switch (this.sampleSize) {
+        case 1 -> data.get(index) & 0xffL;
+        case 2 -> data.getShort(index) & 0xffffL;
+        default -> data.getInt(index) & 0xffff_ffffL;
+      };
+    }
+
+    void write(
+      final ByteBuffer target,
+      final int index,
+      final long value)
+    {
+      for (int octet = 0; octet < this.sampleSize; ++octet) {
+        final var shift = (this.sampleSize - 1 - octet) * 8;
+        target.put(index + octet, (byte) (value >>> shift));
+      }
+    }
+
+    long filter(
+      final int filter,
+      final long[] previous,
+      final long[] current,
+      final long[] residuals)
+    {
+      long cost = 0L;
+      for (int sample = 0; sample < this.samples; ++sample) {
+        final var residual =
+          (current[sample] - this.predict(filter, previous, current, sample))
+            & this.mask;
+        residuals[sample] = residual;
+        cost += Math.abs((residual << this.signShift) >> this.signShift);
+      }
+      return cost;
+    }
+
+    void unfilter(
+      final int filter,
+      final long[] previous,
+      final long[] residuals,
+      final long[] current)
+    {
+      for (int sample = 0; sample < this.samples; ++sample) {
+        current[sample] =
+          (residuals[sample] + this.predict(filter, previous, current, sample))
+            & this.mask;
+      }
+    }
+
+    private long predict(
+      final int filter,
+      final long[] previous,
+      final long[] current,
+      final int sample)
+    {
+      final var hasLeft = sample >= this.distance;
+      final var a = hasLeft ? current[sample - this.distance] : 0L;
+      final var b = previous[sample];
+      final var c = hasLeft ? previous[sample - this.distance] : 0L;
+
+      return switch (filter) {
+        case FILTER_SUB -> a;
+        case FILTER_UP -> b;
+        case FILTER_AVERAGE -> (a + b) >>> 1;
+        case FILTER_PAETH -> paeth(a, b, c);
+        default -> 0L;
+      };
+    }
+
+    private static long paeth(
+      final long a,
+      final long b,
+      final long c)
+    {
+      final var p = a + b - c;
+      final var pa = Math.abs(p - a);
+      final var pb = Math.abs(p - b);
+      final var pc = Math.abs(p - c);
+      if (pa <= pb && pa <= pc) {
+        return a;
+      }
+      if (pb <= pc) {
+        return b;
+      }
+      return c;
+    }
+
+    void writePlanes(
+      final ByteBuffer output,
+      final long[] residuals)
+    {
+      for (int plane = 0; plane < this.sampleSize; ++plane) {
+        final var shift = (this.sampleSize - 1 - plane) * 8;
+        for (int sample = 0; sample < this.samples; ++sample) {
+          output.put((byte) (residuals[sample] >>> shift));
+        }
+      }
+    }
+
+    int readPlanes(
+      final ByteBuffer input,
+      final int start,
+      final long[] residuals)
+    {
+      Arrays.fill(residuals, 0L);
+
+      var index = start;
+      for (int plane = 0; plane < this.sampleSize; ++plane) {
+        for (int sample = 0; sample < this.samples; ++sample) {
+          residuals[sample] =
+            (residuals[sample] << 8) | (input.get(index) & 0xffL);
+          ++index;
+        }
+      }
+      return index;
+    }
+  }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.ironsegment.basic.internal;
+
+import com.io7m.ironsegment.api.ISImageCodec;
+import com.io7m.ironsegment.api.ISImageInfo;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * The {@link ISImageCodec#LZ4} codec. The encoded data is a single LZ4
+ * block. Compressors and decompressors are stateless and are shared between
+ * threads.
+ */
+
+public final class IS1ImageCodecLZ4 implements IS1ImageCodecType
+{
+  private static final IS1ImageCodecLZ4 INSTANCE =
+    new IS1ImageCodecLZ4();
+
+  private final LZ4Compressor compressor;
+  private final LZ4SafeDecompressor decompressor;
+
+  private IS1ImageCodecLZ4()
+  {
+    final var factory = LZ4Factory.fastestInstance();
+    this.compressor = factory.fastCompressor();
+    this.decompressor = factory.safeDecompressor();
+  }
+
+  /**
+   * @return The codec instance
+   */
+
+  public static IS1ImageCodecLZ4 get()
+  {
+    return INSTANCE;
+  }
+
+  @Override
+  public ISImageCodec codec()
+  {
+    return ISImageCodec.LZ4;
+  }
+
+  @Override
+  public ByteBuffer encode(
+    final ISImageInfo info,
+    final ByteBuffer data)
+    throws IOException
+  {
+    return this.compress(data);
+  }
+
+  @Override
+  public void decode(
+    final ISImageInfo info,
+    final ByteBuffer data,
+    final ByteBuffer target)
+    throws IOException
+  {
+    this.decompress(data, target, Math.toIntExact(info.dataSizeOctets()));
+  }
+
+  /**
+   * Compress the given data into a single LZ4 block. The data is read from
+   * the buffer's position to its limit, and the buffer's position is not
+   * changed.
+   *
+   * @param data The data
+   *
+   * @return A buffer containing the compressed data between position zero
+   * and the buffer's limit
+   *
+   * @throws IOException On errors
+   */
+
+  public ByteBuffer compress(
+    final ByteBuffer data)
+    throws IOException
+  {
+    final var inputSize =
+      data.remaining();
+    final var output =
+      ByteBuffer.allocate(this.compressor.maxCompressedLength(inputSize));
+
+    try {
+      final var outputSize =
+        this.compressor.compress(
+          data,
+          data.position(),
+          inputSize,
+          output,
+          0,
+          output.capacity()
+        );
+      return output.limit(outputSize);
+    } catch (final LZ4Exception e) {
+      throw new IOException(e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Decompress a single LZ4 block that must decompress to exactly
+   * {@code size} octets. The compressed data is read from the buffer's
+   * position to its limit, and the buffer's position is not changed. The
+   * decompressed data is written to {@code target} starting at its position,
+   * and the position is advanced past it.
+   *
+   * @param data   The compressed data
+   * @param target The target buffer
+   * @param size   The expected decompressed size
+   *
+   * @throws IOException On errors, or if the data is malformed
+   */
+
+  public void decompress(
+    final ByteBuffer data,
+    final ByteBuffer target,
+    final int size)
+    throws IOException
+  {
+    final var targetPosition =
+      target.position();
+
+    final int outputSize;
+    try {
+      outputSize =
+        this.decompressor.decompress(
+          data,
+          data.position(),
+          data.remaining(),
+          target,
+          targetPosition,
+          size
+        );
+    } catch (final LZ4Exception e) {
+      throw new IOException(e.getMessage(), e);
+    }
+
+    if (outputSize != size) {
+      throw new IOException(
+        "Decompressed size %d does not match the expected size %d"
+          .formatted(Integer.valueOf(outputSize), Integer.valueOf(size))
+      );
+    }
+    target.position(targetPosition + size);
+  }
+}
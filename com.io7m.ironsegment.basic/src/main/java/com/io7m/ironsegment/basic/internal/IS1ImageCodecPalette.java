@@ -0,0 +1,387 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.ironsegment.basic.internal;
+
+import com.io7m.ironsegment.api.ISImageCodec;
+import com.io7m.ironsegment.api.ISImageInfo;
+import com.io7m.ironsegment.api.ISImagePalette;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * The {@link ISImageCodec#PALETTE} codec.
+ *
+ * <p>The encoded data consists of a small header, the palette of distinct
+ * pixel values, and then one index per pixel in row-major order. Indices
+ * use the narrowest of 8, 16, or 32 bits that can address every palette
+ * entry.</p>
+ *
+ * <pre>
+ *   u32 paletteSize
+ *   u32 indexSize
+ *   u8  palette[paletteSize * pixelSize]
+ *   u8  indices[pixelCount * indexSize]
+ * </pre>
+ */
+
+public final class IS1ImageCodecPalette implements IS1ImageCodecType
+{
+  private static final IS1ImageCodecPalette INSTANCE =
+    new IS1ImageCodecPalette();
+
+  private static final int HEADER_SIZE = 8;
+
+  private IS1ImageCodecPalette()
+  {
+
+  }
+
+  /**
+   * @return The codec instance
+   */
+
+  public static IS1ImageCodecPalette get()
+  {
+    return INSTANCE;
+  }
+
+  @Override
+  public ISImageCodec codec()
+  {
+    return ISImageCodec.PALETTE;
+  }
+
+  @Override
+  public ByteBuffer encode(
+    final ISImageInfo info,
+    final ByteBuffer data)
+    throws IOException
+  {
+    final var pixelSize =
+      (int) info.semantic().pixelSizeOctets();
+    final var pixelCount =
+      Math.toIntExact(info.pixelCount());
+    final var base =
+      data.position();
+
+    final var pixels = new long[pixelCount];
+    for (int index = 0; index < pixelCount; ++index) {
+      pixels[index] = readPixel(data, base + (index * pixelSize), pixelSize);
+    }
+
+    final var palette = distinct(pixels);
+    final var indexSize = indexSizeFor(palette.length);
+    final var encodedSize =
+      HEADER_SIZE
+      + ((long) palette.length * pixelSize)
+      + ((long) pixelCount * indexSize);
+
+    if (encodedSize > Integer.MAX_VALUE) {
+      throw new IOException(
+        "Palette-encoded size %d exceeds the maximum size %d"
+          .formatted(
+            Long.valueOf(encodedSize),
+            Integer.valueOf(Integer.MAX_VALUE))
+      );
+    }
+
+    final var output = ByteBuffer.allocate((int) encodedSize);
+    output.putInt(palette.length);
+    output.putInt(indexSize);
+    for (final var value : palette) {
+      writePixel(output, value, pixelSize);
+    }
+
+    /*
+     * Neighbouring pixels are very often identical, so the most recent
+     * lookup is remembered to avoid most of the searches.
+     */
+
+    long lastValue = pixels.length > 0 ? ~pixels[0] : 0L;
+    int lastIndex = -1;
+    for (final var value : pixels) {
+      if (value != lastValue) {
+        lastValue = value;
+        lastIndex = Arrays.binarySearch(palette, value);
+      }
+      switch (indexSize) {
+        case 1 -> output.put((byte) lastIndex);
+        case 2 -> output.putShort((short) lastIndex);
+        default -> output.putInt(lastIndex);
+      }
+    }
+    return output.flip();
+  }
+
+  @Override
+  public void decode(
+    final ISImageInfo info,
+    final ByteBuffer data,
+    final ByteBuffer target)
+    throws IOException
+  {
+    final var layout =
+      Layout.of(info, data);
+    final var pixelSize =
+      layout.pixelSize;
+    final var paletteSize =
+      layout.paletteSize;
+    final var paletteBase =
+      data.position() + HEADER_SIZE;
+
+    var output = target.position();
+    var input = layout.indicesOffset;
+    for (int pixel = 0; pixel < layout.pixelCount; ++pixel) {
+      final var index = readIndex(data, input, layout.indexSize);
+      if (Integer.compareUnsigned(index, paletteSize) >= 0) {
+        throw new IOException(
+          "Palette index %s at pixel %d exceeds the palette size %d"
+            .formatted(
+              Integer.toUnsignedString(index),
+              Integer.valueOf(pixel),
+              Integer.valueOf(paletteSize))
+        );
+      }
+      target.put(output, data, paletteBase + (index * pixelSize), pixelSize);
+      output += pixelSize;
+      input += layout.indexSize;
+    }
+    target.position(output);
+  }
+
+  /**
+   * Read the palette of an encoded image.
+   *
+   * @param info The image
+   * @param data The encoded data
+   *
+   * @return The palette
+   *
+   * @throws IOException If the data is malformed
+   */
+
+  public static ISImagePalette paletteOf(
+    final ISImageInfo info,
+    final ByteBuffer data)
+    throws IOException
+  {
+    final var layout =
+      Layout.of(info, data);
+    final var paletteBase =
+      data.position() + HEADER_SIZE;
+
+    final var values = new ArrayList<Long>(layout.paletteSize);
+    for (int index = 0; index < layout.paletteSize; ++index) {
+      values.add(
+        Long.valueOf(
+          readPixel(
+            data,
+            paletteBase + (index * layout.pixelSize),
+            layout.pixelSize))
+      );
+    }
+    return new ISImagePalette(info.semantic(), layout.indexSize, values);
+  }
+
+  /**
+   * Copy the palette indices of an encoded image into the given buffer,
+   * using the byte order of the buffer.
+   *
+   * @param info   The image
+   * @param data   The encoded data
+   * @param target The target buffer
+   *
+   * @throws IOException If the data is malformed
+   */
+
+  public static void decodeIndices(
+    final ISImageInfo info,
+    final ByteBuffer data,
+    final ByteBuffer target)
+    throws IOException
+  {
+    final var layout =
+      Layout.of(info, data);
+    final var indexSize =
+      layout.indexSize;
+    final var size =
+      layout.pixelCount * indexSize;
+
+    if (indexSize == 1 || target.order() == ByteOrder.BIG_ENDIAN) {
+      target.put(target.position(), data, layout.indicesOffset, size);
+      target.position(target.position() + size);
+      return;
+    }
+
+    var input = layout.indicesOffset;
+    for (int pixel = 0; pixel < layout.pixelCount; ++pixel) {
+      final var index = readIndex(data, input, indexSize);
+      if (indexSize == 2) {
+        target.putShort((short) index);
+      } else {
+        target.putInt(index);
+      }
+      input += indexSize;
+    }
+  }
+
+  private static long[] distinct(
+    final long[] pixels)
+  {
+    final var sorted = pixels.clone();
+    Arrays.sort(sorted);
+
+    int count = 0;
+    for (int index = 0; index < sorted.length; ++index) {
+      if (count == 0 || sorted[count - 1] != sorted[index]) {
+        sorted[count] = sorted[index];
+        ++count;
+      }
+    }
+    return Arrays.copyOf(sorted, count);
+  }
+
+  private static int indexSizeFor(
+    final int paletteSize)
+  {
+    if (paletteSize <= 0x100) {
+      return 1;
+    }
+    if (paletteSize <= 0x1_0000) {
+      return 2;
+    }
+    return 4;
+  }
+
+  private static int readIndex(
+    final ByteBuffer data,
+    final int offset,
+    final int indexSize)
+  {
+    return switch (indexSize) {
+      case 1 -> data.get(offset) & 0xff;
+      case 2 -> data.getShort(offset) & 0xffff;
+      default -> data.getInt(offset);
+    };
+  }
+
+  private static long readPixel(
+    final ByteBuffer data,
+    final int offset,
+    final int pixelSize)
+  {
+    long value = 0L;
+    for (int octet = 0; octet < pixelSize; ++octet) {
+      value = (value << 8) | (data.get(offset + octet) & 0xffL);
+    }
+    return value;
+  }
+
+  private static void writePixel(
+    final ByteBuffer output,
+    final long value,
+    final int pixelSize)
+  {
+    for (int octet = 0; octet < pixelSize; ++octet) {
+      output.put((byte) (value >>> ((pixelSize - 1 - octet) * 8)));
+    }
+  }
+
+  /**
+   * The validated structure of encoded data.
+   */
+
+  private static final class Layout
+  {
+    private final int pixelSize;
+    private final int pixelCount;
+    private final int paletteSize;
+    private final int indexSize;
+    private final int indicesOffset;
+
+    private Layout(
+      final int inPixelSize,
+      final int inPixelCount,
+      final int inPaletteSize,
+      final int inIndexSize,
+      final int inIndicesOffset)
+    {
+      this.pixelSize = inPixelSize;
+      this.pixelCount = inPixelCount;
+      this.paletteSize = inPaletteSize;
+      this.indexSize = inIndexSize;
+      this.indicesOffset = inIndicesOffset;
+    }
+
+    static Layout of(
+      final ISImageInfo info,
+      final ByteBuffer data)
+      throws IOException
+    {
+      if (data.remaining() < HEADER_SIZE) {
+        throw new IOException(
+          "Encoded data size %d is smaller than the palette header size %d"
+            .formatted(
+              Integer.valueOf(data.remaining()),
+              Integer.valueOf(HEADER_SIZE))
+        );
+      }
+
+      final var base =
+        data.position();
+      final var paletteSize =
+        Integer.toUnsignedLong(data.getInt(base));
+      final var indexSize =
+        data.getInt(base + 4);
+
+      if (!(indexSize == 1 || indexSize == 2 || indexSize == 4)) {
+        throw new IOException(
+          "Palette index size %s must be one of 1, 2, or 4"
+            .formatted(Integer.toUnsignedString(indexSize))
+        );
+      }
+
+      final var pixelSize =
+        info.semantic().pixelSizeOctets();
+      final var pixelCount =
+        info.pixelCount();
+      final var expected =
+        HEADER_SIZE + (paletteSize * pixelSize) + (pixelCount * indexSize);
+
+      if (expected != data.remaining()) {
+        throw new IOException(
+          "Encoded data size %d does not match the expected size %d"
+            .formatted(
+              Integer.valueOf(data.remaining()),
+              Long.valueOf(expected))
+        );
+      }
+
+      return new Layout(
+        (int) pixelSize,
+        (int) pixelCount,
+        (int) paletteSize,
+        indexSize,
+        (int) (base + HEADER_SIZE + (paletteSize * pixelSize))
+      );
+    }
+  }
+}
@@ -0,0 +1,302 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.ironsegment.basic.internal;
+
+import com.io7m.ironsegment.api.ISImageCodec;
+import com.io7m.ironsegment.api.ISImageInfo;
+import com.io7m.ironsegment.api.ISImageRunVisitorType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * The {@link ISImageCodec#RLE} codec. Each row of the image is encoded as a
+ * sequence of runs, and runs never cross row boundaries. A run consists of
+ * an unsigned LEB128 run length, followed by the octets of a single pixel.
+ */
+
+public final class IS1ImageCodecRLE implements IS1ImageCodecType
+{
+  private static final IS1ImageCodecRLE INSTANCE =
+    new IS1ImageCodecRLE();
+
+  private IS1ImageCodecRLE()
+  {
+
+  }
+
+  /**
+   * @return The codec instance
+   */
+
+  public static IS1ImageCodecRLE get()
+  {
+    return INSTANCE;
+  }
+
+  @Override
+  public ISImageCodec codec()
+  {
+    return ISImageCodec.RLE;
+  }
+
+  @Override
+  public ByteBuffer encode(
+    final ISImageInfo info,
+    final ByteBuffer data)
+  {
+    final var pixelSize =
+      (int) info.semantic().pixelSizeOctets();
+    final var output =
+      new ByteArrayOutputStream(Math.max(64, data.remaining() / 16));
+
+    visitRunsDecoded(info, data, 0L, 0L, (x, y, length, value) -> {
+      writeVarint(output, length);
+      for (int shift = (pixelSize - 1) * 8; shift >= 0; shift -= 8) {
+        output.write((int) (value >>> shift));
+      }
+    });
+
+    return ByteBuffer.wrap(output.toByteArray());
+  }
+
+  @Override
+  public void decode(
+    final ISImageInfo info,
+    final ByteBuffer data,
+    final ByteBuffer target)
+    throws IOException
+  {
+    final var pixelSize =
+      (int) info.semantic().pixelSizeOctets();
+    final var base =
+      target.position();
+    final var width =
+      info.width();
+
+    if (Long.compareUnsigned(info.dataSizeOctets(), target.remaining()) > 0) {
+      throw new IOException(
+        "Target buffer has %d octets remaining but requires %d"
+          .formatted(
+            Integer.valueOf(target.remaining()),
+            Long.valueOf(info.dataSizeOctets()))
+      );
+    }
+
+    /*
+     * Runs are expanded directly into the target using absolute operations.
+     * Pixel values are big-endian regardless of the byte order the caller
+     * has set on the target buffer.
+     */
+
+    final var swap = target.order() != ByteOrder.BIG_ENDIAN;
+
+    visitRuns(info, data, 0L, 0L, (x, y, length, value) -> {
+      var index = (int) (base + (((y * width) + x) * pixelSize));
+      for (long pixel = 0L; pixel < length; ++pixel) {
+        switch (pixelSize) {
+          case 1 -> {
+            target.put(index, (byte) value);
+          }
+          case 2 -> {
+            final var v = (short) value;
+            target.putShort(index, swap ? Short.reverseBytes(v) : v);
+          }
+          case 4 -> {
+            final var v = (int) value;
+            target.putInt(index, swap ? Integer.reverseBytes(v) : v);
+          }
+          case 8 -> {
+            target.putLong(index, swap ? Long.reverseBytes(value) : value);
+          }
+          default -> {
+            for (int octet = 0; octet < pixelSize; ++octet) {
+              final var shift = (pixelSize - 1 - octet) * 8;
+              target.put(index + octet, (byte) (value >>> shift));
+            }
+          }
+        }
+        index += pixelSize;
+      }
+    });
+
+    target.position(base + (int) info.dataSizeOctets());
+  }
+
+  /**
+   * Deliver the runs of RLE-encoded data to the given visitor without
+   * expanding them. The data is read from the buffer's position to its
+   * limit, and the buffer's position is not changed.
+   *
+   * @param info    The image
+   * @param data    The encoded data
+   * @param offsetX The value added to the X coordinate of each run
+   * @param offsetY The value added to the Y coordinate of each run
+   * @param visitor The visitor
+   *
+   * @throws IOException If the encoded data is malformed
+   */
+
+  public static void visitRuns(
+    final ISImageInfo info,
+    final ByteBuffer data,
+    final long offsetX,
+    final long offsetY,
+    final ISImageRunVisitorType visitor)
+    throws IOException
+  {
+    final var pixelSize =
+      (int) info.semantic().pixelSizeOctets();
+    final var width =
+      info.width();
+    final var limit =
+      data.limit();
+
+    var index = data.position();
+    for (long y = 0L; y < info.height(); ++y) {
+      long x = 0L;
+      while (x < width) {
+        long length = 0L;
+        int shift = 0;
+        while (true) {
+          if (index >= limit || shift > 28) {
+            throw new IOException(
+              "Malformed run length at row %d, column %d"
+                .formatted(Long.valueOf(y), Long.valueOf(x))
+            );
+          }
+          final var octet = data.get(index) & 0xff;
+          ++index;
+          length |= (long) (octet & 0x7f) << shift;
+          if ((octet & 0x80) == 0) {
+            break;
+          }
+          shift += 7;
+        }
+
+        if (length == 0L || length > width - x) {
+          throw new IOException(
+            "Run of length %d at row %d, column %d exceeds the row width %d"
+              .formatted(
+                Long.valueOf(length),
+                Long.valueOf(y),
+                Long.valueOf(x),
+                Long.valueOf(width))
+          );
+        }
+        if (limit - index < pixelSize) {
+          throw new IOException(
+            "Truncated run value at row %d, column %d"
+              .formatted(Long.valueOf(y), Long.valueOf(x))
+          );
+        }
+
+        final var value = pixelAt(data, index, pixelSize);
+        index += pixelSize;
+        visitor.onRun(offsetX + x, offsetY + y, length, value);
+        x += length;
+      }
+    }
+
+    if (index != limit) {
+      throw new IOException(
+        "%d octets of trailing data follow the final run"
+          .formatted(Integer.valueOf(limit - index))
+      );
+    }
+  }
+
+  /**
+   * Deliver the runs of identical pixels in decoded pixel data to the given
+   * visitor. The data is read from the buffer's position, and the buffer's
+   * position is not changed.
+   *
+   * @param info    The image
+   * @param data    The pixel data
+   * @param offsetX The value added to the X coordinate of each run
+   * @param offsetY The value added to the Y coordinate of each run
+   * @param visitor The visitor
+   */
+
+  public static void visitRunsDecoded(
+    final ISImageInfo info,
+    final ByteBuffer data,
+    final long offsetX,
+    final long offsetY,
+    final ISImageRunVisitorType visitor)
+  {
+    final var pixelSize =
+      (int) info.semantic().pixelSizeOctets();
+    final var width =
+      (int) info.width();
+
+    var index = data.position();
+    for (long y = 0L; y < info.height(); ++y) {
+      int x = 0;
+      while (x < width) {
+        final var value = pixelAt(data, index, pixelSize);
+        int length = 1;
+        index += pixelSize;
+        while (x + length < width && pixelAt(data, index, pixelSize) == value) {
+          ++length;
+          index += pixelSize;
+        }
+        visitor.onRun(offsetX + x, offsetY + y, length, value);
+        x += length;
+      }
+    }
+  }
+
+  /*
+   * The data buffers passed to this codec are always created internally,
+   * and so always have big-endian byte order.
+   */
+
+  private static long pixelAt(
+    final ByteBuffer data,
+    final int index,
+    final int pixelSize)
+  {
+    return switch (pixelSize) {
+      case 1 -> data.get(index) & 0xffL;
+      case 2 -> data.getShort(index) & 0xffffL;
+      case 4 -> data.getInt(index) & 0xffff_ffffL;
+      case 8 -> data.getLong(index);
+      default -> {
+        long value = 0L;
+        for (int octet = 0; octet < pixelSize; ++octet) {
+          value = (value << 8) | (data.get(index + octet) & 0xffL);
+        }
+        yield value;
+      }
+    };
+  }
+
+  private static void writeVarint(
+    final ByteArrayOutputStream output,
+    final long value)
+  {
+    var remaining = value;
+    while ((remaining & ~0x7fL) != 0L) {
+      output.write((int) ((remaining & 0x7fL) | 0x80L));
+      remaining >>>= 7;
+    }
+    output.write((int) remaining);
+  }
+}
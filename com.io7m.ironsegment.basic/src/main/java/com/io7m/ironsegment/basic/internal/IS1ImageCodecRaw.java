@@ -0,0 +1,78 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.ironsegment.basic.internal;
+
+import com.io7m.ironsegment.api.ISImageCodec;
+import com.io7m.ironsegment.api.ISImageInfo;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * The {@link ISImageCodec#RAW} codec.
+ */
+
+public final class IS1ImageCodecRaw implements IS1ImageCodecType
+{
+  private static final IS1ImageCodecRaw INSTANCE =
+    new IS1ImageCodecRaw();
+
+  private IS1ImageCodecRaw()
+  {
+
+  }
+
+  /**
+   * @return The codec instance
+   */
+
+  public static IS1ImageCodecRaw get()
+  {
+    return INSTANCE;
+  }
+
+  @Override
+  public ISImageCodec codec()
+  {
+    return ISImageCodec.RAW;
+  }
+
+  @Override
+  public ByteBuffer encode(
+    final ISImageInfo info,
+    final ByteBuffer data)
+  {
+    return data.slice();
+  }
+
+  @Override
+  public void decode(
+    final ISImageInfo info,
+    final ByteBuffer data,
+    final ByteBuffer target)
+    throws IOException
+  {
+    final var size = info.dataSizeOctets();
+    if (data.remaining() != size) {
+      throw new IOException(
+        "Encoded data size %d does not match the image data size %d"
+          .formatted(Integer.valueOf(data.remaining()), Long.valueOf(size))
+      );
+    }
+    target.put(data.duplicate());
+  }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.ironsegment.basic.internal;
+
+import com.io7m.ironsegment.api.ISImageCodec;
+
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The result of selecting a codec adaptively.
+ *
+ * @param codec      The selected codec
+ * @param trialSizes The encoded sizes of the sampled rows for each candidate
+ */
+
+public record IS1ImageCodecSelection(
+  ISImageCodec codec,
+  Map<ISImageCodec, Long> trialSizes)
+{
+  /**
+   * The result of selecting a codec adaptively.
+   *
+   * @param codec      The selected codec
+   * @param trialSizes The encoded sizes of the sampled rows for each candidate
+   */
+
+  public IS1ImageCodecSelection
+  {
+    Objects.requireNonNull(codec, "codec");
+    trialSizes = Map.copyOf(trialSizes);
+  }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.ironsegment.basic.internal;
+
+import com.io7m.ironsegment.api.ISImageCodec;
+import com.io7m.ironsegment.api.ISImageCodecPolicy;
+import com.io7m.ironsegment.api.ISImageInfo;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.EnumMap;
+import java.util.Objects;
+
+/**
+ * Functions to select image codecs adaptively.
+ */
+
+public final class IS1ImageCodecSelector
+{
+  /**
+   * The number of contiguous rows in each sampled band. Filters such as
+   * {@code Up} and {@code Paeth} need vertical context to be effective, so
+   * rows are not sampled individually.
+   */
+
+  private static final long BAND_ROWS = 8L;
+
+  private IS1ImageCodecSelector()
+  {
+
+  }
+
+  /**
+   * Select a codec for the given image.
+   *
+   * @param info   The image
+   * @param data   The image data
+   * @param policy The selection policy
+   *
+   * @return The selected codec
+   *
+   * @throws IOException On errors
+   */
+
+  public static IS1ImageCodecSelection select(
+    final ISImageInfo info,
+    final ByteBuffer data,
+    final ISImageCodecPolicy policy)
+    throws IOException
+  {
+    Objects.requireNonNull(info, "info");
+    Objects.requireNonNull(data, "data");
+    Objects.requireNonNull(policy, "policy");
+
+    final var sample =
+      sampleOf(info, data, policy.sampleRows());
+    final var sampleInfo =
+      new ISImageInfo(
+        info.imageId(),
+        info.semantic(),
+        info.width(),
+        sample.capacity() / (info.width() * info.semantic().pixelSizeOctets())
+      );
+
+    final var sizes = new EnumMap<ISImageCodec, Long>(ISImageCodec.class);
+    for (final var codec : IS1ImageCodecs.DECODE_COST_ORDER) {
+      if (policy.codecs().contains(codec)) {
+        final var encoded =
+          IS1ImageCodecs.forCodec(codec)
+            .encode(sampleInfo, sample.duplicate());
+        sizes.put(codec, Long.valueOf(encoded.remaining()));
+      }
+    }
+
+    final var smallest = smallestOf(sizes);
+    return switch (policy.goal()) {
+      case SMALLEST_OUTPUT -> {
+        yield new IS1ImageCodecSelection(smallest, sizes);
+      }
+      case FASTEST_DECODE -> {
+        final var budget =
+          policy.sizeBudget() * (double) sample.capacity();
+
+        ISImageCodec selected = smallest;
+        for (final var codec : IS1ImageCodecs.DECODE_COST_ORDER) {
+          final var size = sizes.get(codec);
+          if (size != null && (double) size.longValue() <= budget) {
+            selected = codec;
+            break;
+          }
+        }
+        yield new IS1ImageCodecSelection(selected, sizes);
+      }
+    };
+  }
+
+  private static ISImageCodec smallestOf(
+    final EnumMap<ISImageCodec, Long> sizes)
+  {
+    /*
+     * Codecs are examined in ascending order of decoding cost, so ties
+     * are resolved in favour of the codec that is cheaper to decode.
+     */
+
+    ISImageCodec smallest = null;
+    long smallestSize = Long.MAX_VALUE;
+    for (final var codec : IS1ImageCodecs.DECODE_COST_ORDER) {
+      final var size = sizes.get(codec);
+      if (size != null && size.longValue() < smallestSize) {
+        smallest = codec;
+        smallestSize = size.longValue();
+      }
+    }
+    return smallest;
+  }
+
+  private static ByteBuffer sampleOf(
+    final ISImageInfo info,
+    final ByteBuffer data,
+    final long sampleRows)
+  {
+    final var height =
+      info.height();
+    final var stride =
+      (int) (info.width() * info.semantic().pixelSizeOctets());
+
+    if (height <= sampleRows || height <= BAND_ROWS) {
+      return data.duplicate().position(0).limit((int) (height * stride)).slice();
+    }
+
+    /*
+     * Take evenly spaced bands of rows, so that the sample is representative
+     * of the whole image rather than just the top of it.
+     */
+
+    final var bands =
+      Math.max(1L, Math.min(height / BAND_ROWS, Math.ceilDiv(sampleRows, BAND_ROWS)));
+    final var sample =
+      ByteBuffer.allocate((int) (bands * BAND_ROWS * stride));
+
+    for (long band = 0L; band < bands; ++band) {
+      final var row =
+        bands == 1L ? 0L : (band * (height - BAND_ROWS)) / (bands - 1L);
+      sample.put(
+        (int) (band * BAND_ROWS * stride),
+        data,
+        (int) (row * stride),
+        (int) (BAND_ROWS * stride)
+      );
+    }
+    return sample;
+  }
+}
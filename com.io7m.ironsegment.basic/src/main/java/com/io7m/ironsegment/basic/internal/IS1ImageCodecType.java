@@ -0,0 +1,74 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.ironsegment.basic.internal;
+
+import com.io7m.ironsegment.api.ISImageCodec;
+import com.io7m.ironsegment.api.ISImageInfo;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * An implementation of an image codec.
+ */
+
+public interface IS1ImageCodecType
+{
+  /**
+   * @return The codec implemented
+   */
+
+  ISImageCodec codec();
+
+  /**
+   * Encode the pixel data of an image. The data is read from the buffer's
+   * position to its limit, and the buffer's position is not changed.
+   *
+   * @param info The image
+   * @param data The pixel data
+   *
+   * @return A buffer containing the encoded data between position zero and
+   * the buffer's limit
+   *
+   * @throws IOException On errors
+   */
+
+  ByteBuffer encode(
+    ISImageInfo info,
+    ByteBuffer data)
+    throws IOException;
+
+  /**
+   * Decode the pixel data of an image. The encoded data is read from the
+   * buffer's position to its limit, and the buffer's position is not
+   * changed. Exactly {@link ISImageInfo#dataSizeOctets()} octets are written
+   * to {@code target} starting at its position, and the position is advanced
+   * past them.
+   *
+   * @param info   The image
+   * @param data   The encoded data
+   * @param target The target buffer
+   *
+   * @throws IOException On errors, or if the encoded data is malformed
+   */
+
+  void decode(
+    ISImageInfo info,
+    ByteBuffer data,
+    ByteBuffer target)
+    throws IOException;
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.ironsegment.basic.internal;
+
+import com.io7m.ironsegment.api.ISImageCodec;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Functions over image codecs.
+ *
+ * <p>Encoded image sections begin with a fixed-size header:</p>
+ *
+ * <pre>
+ *   u32 imageId
+ *   u32 codec
+ *   u64 decodedSize
+ *   u64 encodedSize
+ *   u8  data[encodedSize]
+ * </pre>
+ *
+ * <p>Tiled image sections begin with a fixed-size header, followed by a table
+ * of tile offsets relative to the end of the table, and then the encoded
+ * tiles in row-major order. The table contains one more entry than there are
+ * tiles, and tile {@code i} occupies the range
+ * {@code [offsets[i], offsets[i + 1])}.</p>
+ *
+ * <pre>
+ *   u32 imageId
+ *   u32 codec
+ *   u32 tileWidth
+ *   u32 tileHeight
+ *   u64 offsets[tileCount + 1]
+ *   u8  tiles[offsets[tileCount]]
+ * </pre>
+ */
+
+public final class IS1ImageCodecs
+{
+  /**
+   * The size of the header of encoded image sections.
+   */
+
+  public static final long ENCODED_HEADER_SIZE = 24L;
+
+  /**
+   * The largest image that can be encoded. Encoded images are buffered in
+   * memory, and LZ4 cannot compress blocks larger than this.
+   */
+
+  public static final long ENCODED_MAXIMUM_SIZE = 0x7E00_0000L;
+
+  /**
+   * The size of the header of tiled image sections.
+   */
+
+  public static final long TILED_HEADER_SIZE = 16L;
+
+  /**
+   * The tile size used when none is specified.
+   */
+
+  public static final long TILED_DEFAULT_TILE_SIZE = 256L;
+
+  /**
+   * The codecs in ascending order of the cost of decoding. Raw data is
+   * simply copied, LZ4 decompression is native and branch-light, palette
+   * decoding performs one table lookup per pixel, run-length decoding does
+   * a small amount of work per run, and filtered data must be both
+   * decompressed and then unfiltered sample by sample.
+   */
+
+  public static final List<ISImageCodec> DECODE_COST_ORDER =
+    List.of(
+      ISImageCodec.RAW,
+      ISImageCodec.LZ4,
+      ISImageCodec.PALETTE,
+      ISImageCodec.RLE,
+      ISImageCodec.FILTERED_LZ4
+    );
+
+  private IS1ImageCodecs()
+  {
+
+  }
+
+  /**
+   * @param codec The codec
+   *
+   * @return The implementation of the given codec
+   */
+
+  public static IS1ImageCodecType forCodec(
+    final ISImageCodec codec)
+  {
+    Objects.requireNonNull(codec, "codec");
+
+    return switch (codec) {
+      case RAW -> IS1ImageCodecRaw.get();
+      case LZ4 -> IS1ImageCodecLZ4.get();
+      case RLE -> IS1ImageCodecRLE.get();
+      case FILTERED_LZ4 -> IS1ImageCodecFilteredLZ4.get();
+      case PALETTE -> IS1ImageCodecPalette.get();
+    };
+  }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.ironsegment.basic.internal;
+
+import com.io7m.ironsegment.api.ISImageCodec;
+import com.io7m.ironsegment.api.ISImageInfo;
+import com.io7m.ironsegment.api.ISWritableImageDataType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Objects;
+
+/**
+ * Image data that is buffered in memory and encoded when the owning section
+ * is closed. Pixels that are never written are zero.
+ */
+
+public final class IS1ImageDataBuffered
+  implements ISWritableImageDataType, WritableByteChannel
+{
+  private final ISImageInfo info;
+  private final ISImageCodec codec;
+  private final ByteBuffer buffer;
+
+  /**
+   * Image data that is buffered in memory.
+   *
+   * @param inInfo   The image
+   * @param inCodec  The codec with which the image will be encoded, unless
+   *                 a codec is selected adaptively
+   * @param inBuffer A buffer large enough to hold the image data
+   */
+
+  public IS1ImageDataBuffered(
+    final ISImageInfo inInfo,
+    final ISImageCodec inCodec,
+    final ByteBuffer inBuffer)
+  {
+    this.info =
+      Objects.requireNonNull(inInfo, "info");
+    this.codec =
+      Objects.requireNonNull(inCodec, "codec");
+    this.buffer =
+      Objects.requireNonNull(inBuffer, "buffer");
+  }
+
+  /**
+   * @return The image
+   */
+
+  public ISImageInfo info()
+  {
+    return this.info;
+  }
+
+  /**
+   * @return The codec with which the image will be encoded, unless a codec
+   * is selected adaptively
+   */
+
+  public ISImageCodec codec()
+  {
+    return this.codec;
+  }
+
+  /**
+   * @return A view of the complete image data
+   */
+
+  public ByteBuffer data()
+  {
+    return this.buffer.duplicate().clear();
+  }
+
+  @Override
+  public WritableByteChannel channel()
+  {
+    return this;
+  }
+
+  @Override
+  public int write(
+    final ByteBuffer src)
+    throws IOException
+  {
+    final var size = src.remaining();
+    if (size > this.buffer.remaining()) {
+      throw new IOException(
+        "Write of %d octets would exceed the image data size %d"
+          .formatted(
+            Integer.valueOf(size),
+            Long.valueOf(this.info.dataSizeOctets()))
+      );
+    }
+    this.buffer.put(src);
+    return size;
+  }
+
+  @Override
+  public boolean isOpen()
+  {
+    return true;
+  }
+
+  @Override
+  public void close()
+  {
+
+  }
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.ironsegment.basic.internal;
+
+import com.io7m.ironsegment.api.ISImageSemantic;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Objects;
+
+/**
+ * Functions over the individual samples (channels) of image pixels.
+ */
+
+public final class IS1ImageSamples
+{
+  /**
+   * The number of samples converted per bulk transfer. Samples are copied
+   * out of the source buffer in blocks so that the conversion loop runs over
+   * a plain array, which the JIT compiler can unroll and vectorize.
+   */
+
+  private static final int BLOCK_SIZE = 4096;
+
+  private IS1ImageSamples()
+  {
+
+  }
+
+  /**
+   * @param semantic The image semantic
+   *
+   * @return The size in octets of a single sample (channel) of a pixel
+   */
+
+  public static int sampleSizeOf(
+    final ISImageSemantic semantic)
+  {
+    return switch (semantic) {
+      case DENOISE_RGB16,
+           DENOISE_RGBA16,
+           DENOISE_RGBAF16,
+           DENOISE_RGBF16,
+           DEPTH_16,
+           DEPTHF16 -> 2;
+      case DENOISE_RGB8, DENOISE_RGBA8, MONOCHROME_LINES_8 -> 1;
+      case DEPTH_32, OBJECT_ID_32 -> 4;
+    };
+  }
+
+  /**
+   * Expand the big-endian samples in {@code source} into floating-point
+   * values. Binary16 samples are converted exactly; unsigned normalized
+   * samples are mapped to the range {@code [0, 1]}.
+   *
+   * @param semantic The image semantic
+   * @param source   The source samples
+   * @param target   The target array
+   * @param offset   The offset of the first target element
+   *
+   * @throws IllegalArgumentException If the semantic does not have
+   *                                  floating-point or normalized samples
+   */
+
+  public static void expandFloats(
+    final ISImageSemantic semantic,
+    final ByteBuffer source,
+    final float[] target,
+    final int offset)
+  {
+    Objects.requireNonNull(semantic, "semantic");
+    Objects.requireNonNull(source, "source");
+    Objects.requireNonNull(target, "target");
+
+    final var count =
+      checkTarget(semantic, source, target.length, offset);
+
+    switch (semantic) {
+      case DENOISE_RGBAF16, DENOISE_RGBF16, DEPTHF16 -> {
+        expandFloat16(source, target, offset, count);
+      }
+      case DENOISE_RGB16, DENOISE_RGBA16, DEPTH_16 -> {
+        expandUnorm16(source, target, offset, count);
+      }
+      case DENOISE_RGB8, DENOISE_RGBA8, MONOCHROME_LINES_8 -> {
+        expandUnorm8(source, target, offset, count);
+      }
+      case DEPTH_32 -> {
+        expandUnorm32(source, target, offset, count);
+      }
+      case OBJECT_ID_32 -> {
+        throw new IllegalArgumentException(
+          "Images with semantic %s cannot be expanded to floating-point"
+            .formatted(semantic)
+        );
+      }
+    }
+  }
+
+  /**
+   * Copy the big-endian 16-bit samples in {@code source} into the target
+   * array. Binary16 samples are delivered as their raw bit patterns.
+   *
+   * @param semantic The image semantic
+   * @param source   The source samples
+   * @param target   The target array
+   * @param offset   The offset of the first target element
+   *
+   * @throws IllegalArgumentException If the semantic does not have 16-bit
+   *                                  samples
+   */
+
+  public static void expandShorts(
+    final ISImageSemantic semantic,
+    final ByteBuffer source,
+    final short[] target,
+    final int offset)
+  {
+    Objects.requireNonNull(semantic, "semantic");
+    Objects.requireNonNull(source, "source");
+    Objects.requireNonNull(target, "target");
+
+    if (sampleSizeOf(semantic) != 2) {
+      throw new IllegalArgumentException(
+        "Images with semantic %s do not have 16-bit samples"
+          .formatted(semantic)
+      );
+    }
+
+    final var count =
+      checkTarget(semantic, source, target.length, offset);
+
+    source.duplicate()
+      .order(ByteOrder.BIG_ENDIAN)
+      .asShortBuffer()
+      .get(target, offset, count);
+  }
+
+  private static int checkTarget(
+    final ISImageSemantic semantic,
+    final ByteBuffer source,
+    final int targetLength,
+    final int offset)
+  {
+    final var count =
+      source.remaining() / sampleSizeOf(semantic);
+
+    Objects.checkFromIndexSize(offset, count, targetLength);
+    return count;
+  }
+
+  private static void expandFloat16(
+    final ByteBuffer source,
+    final float[] target,
+    final int offset,
+    final int count)
+  {
+    final var shorts =
+      source.duplicate().order(ByteOrder.BIG_ENDIAN).asShortBuffer();
+    final var block =
+      new short[Math.min(count, BLOCK_SIZE)];
+
+    for (int base = 0; base < count; base += block.length) {
+      final var size = Math.min(block.length, count - base);
+      shorts.get(block, 0, size);
+      for (int index = 0; index < size; ++index) {
+        target[offset + base + index] = Float.float16ToFloat(block[index]);
+      }
+    }
+  }
+
+  private static void expandUnorm16(
+    final ByteBuffer source,
+    final float[] target,
+    final int offset,
+    final int count)
+  {
+    final var shorts =
+      source.duplicate().order(ByteOrder.BIG_ENDIAN).asShortBuffer();
+    final var block =
+      new short[Math.min(count, BLOCK_SIZE)];
+
+    for (int base = 0; base < count; base += block.length) {
+      final var size = Math.min(block.length, count - base);
+      shorts.get(block, 0, size);
+      for (int index = 0; index < size; ++index) {
+        target[offset + base + index] =
+          (float) (block[index] & 0xffff) / 65535.0f;
+      }
+    }
+  }
+
+  private static void expandUnorm8(
+    final ByteBuffer source,
+    final float[] target,
+    final int offset,
+    final int count)
+  {
+    final var bytes =
+      source.duplicate();
+    final var block =
+      new byte[Math.min(count, BLOCK_SIZE)];
+
+    for (int base = 0; base < count; base += block.length) {
+      final var size = Math.min(block.length, count - base);
+      bytes.get(block, 0, size);
+      for (int index = 0; index < size; ++index) {
+        target[offset + base + index] =
+          (float) (block[index] & 0xff) / 255.0f;
+      }
+    }
+  }
+
+  private static void expandUnorm32(
+    final ByteBuffer source,
+    final float[] target,
+    final int offset,
+    final int count)
+  {
+    final var ints =
+      source.duplicate().order(ByteOrder.BIG_ENDIAN).asIntBuffer();
+    final var block =
+      new int[Math.min(count, BLOCK_SIZE)];
+
+    for (int base = 0; base < count; base += block.length) {
+      final var size = Math.min(block.length, count - base);
+      ints.get(block, 0, size);
+      for (int index = 0; index < size; ++index) {
+        target[offset + base + index] =
+          (float) ((double) Integer.toUnsignedLong(block[index])
+                   / 4294967295.0);
+      }
+    }
+  }
+}
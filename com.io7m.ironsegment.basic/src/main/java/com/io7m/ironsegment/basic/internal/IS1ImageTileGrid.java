@@ -0,0 +1,159 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.ironsegment.basic.internal;
+
+import com.io7m.ironsegment.api.ISImageInfo;
+
+import java.util.Objects;
+
+/**
+ * The division of an image into a row-major grid of tiles. Tiles at the
+ * right and bottom edges of the image are clipped to the image bounds.
+ *
+ * @param image      The image
+ * @param tileWidth  The width of unclipped tiles
+ * @param tileHeight The height of unclipped tiles
+ */
+
+public record IS1ImageTileGrid(
+  ISImageInfo image,
+  long tileWidth,
+  long tileHeight)
+{
+  /**
+   * The division of an image into a row-major grid of tiles.
+   *
+   * @param image      The image
+   * @param tileWidth  The width of unclipped tiles
+   * @param tileHeight The height of unclipped tiles
+   */
+
+  public IS1ImageTileGrid
+  {
+    Objects.requireNonNull(image, "image");
+
+    if (!(tileWidth >= 1L && tileWidth <= 4294967295L)) {
+      throw new IllegalArgumentException(
+        "Tile width %s must be in the range [1, 4294967295]"
+          .formatted(Long.toUnsignedString(tileWidth))
+      );
+    }
+
+    if (!(tileHeight >= 1L && tileHeight <= 4294967295L)) {
+      throw new IllegalArgumentException(
+        "Tile height %s must be in the range [1, 4294967295]"
+          .formatted(Long.toUnsignedString(tileHeight))
+      );
+    }
+  }
+
+  /**
+   * @param image The image
+   *
+   * @return A grid consisting of a single tile that covers the image
+   */
+
+  public static IS1ImageTileGrid untiled(
+    final ISImageInfo image)
+  {
+    return new IS1ImageTileGrid(image, image.width(), image.height());
+  }
+
+  /**
+   * @return The number of tiles in each row of the grid
+   */
+
+  public long tilesAcross()
+  {
+    return Math.ceilDiv(this.image.width(), this.tileWidth);
+  }
+
+  /**
+   * @return The number of tiles in each column of the grid
+   */
+
+  public long tilesDown()
+  {
+    return Math.ceilDiv(this.image.height(), this.tileHeight);
+  }
+
+  /**
+   * @return The number of tiles in the grid
+   */
+
+  public long tileCount()
+  {
+    return Math.multiplyExact(this.tilesAcross(), this.tilesDown());
+  }
+
+  /**
+   * @param tileX The tile column
+   * @param tileY The tile row
+   *
+   * @return The index of the given tile
+   */
+
+  public long tileIndex(
+    final long tileX,
+    final long tileY)
+  {
+    return (tileY * this.tilesAcross()) + tileX;
+  }
+
+  /**
+   * @param index The tile index
+   *
+   * @return The X coordinate of the left edge of the tile in pixels
+   */
+
+  public long tilePixelX(
+    final long index)
+  {
+    return (index % this.tilesAcross()) * this.tileWidth;
+  }
+
+  /**
+   * @param index The tile index
+   *
+   * @return The Y coordinate of the top edge of the tile in pixels
+   */
+
+  public long tilePixelY(
+    final long index)
+  {
+    return (index / this.tilesAcross()) * this.tileHeight;
+  }
+
+  /**
+   * @param index The tile index
+   *
+   * @return The tile, treated as an image in its own right
+   */
+
+  public ISImageInfo tileInfo(
+    final long index)
+  {
+    final var x = this.tilePixelX(index);
+    final var y = this.tilePixelY(index);
+    return new ISImageInfo(
+      this.image.imageId(),
+      this.image.semantic(),
+      Math.min(this.tileWidth, this.image.width() - x),
+      Math.min(this.tileHeight, this.image.height() - y)
+    );
+  }
+}
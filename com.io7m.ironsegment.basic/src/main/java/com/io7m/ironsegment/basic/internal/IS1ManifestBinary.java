@@ -0,0 +1,354 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.ironsegment.basic.internal;
+
+import com.io7m.ironsegment.api.ISImage;
+import com.io7m.ironsegment.api.ISImageID;
+import com.io7m.ironsegment.api.ISImageSemantic;
+import com.io7m.ironsegment.api.ISManifest;
+import com.io7m.ironsegment.api.ISManifestVisitResult;
+import com.io7m.ironsegment.api.ISManifestVisitorType;
+import com.io7m.ironsegment.api.ISObject;
+import com.io7m.ironsegment.api.ISObjectID;
+import com.io7m.lanark.core.RDottedName;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CodingErrorAction;
+import java.util.Objects;
+
+import static com.io7m.ironsegment.api.ISManifestVisitResult.CONTINUE;
+import static com.io7m.ironsegment.api.ISManifestVisitResult.STOP;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * The compact binary manifest encoding.
+ *
+ * <p>All integers are big-endian. Strings are encoded as an unsigned 32-bit
+ * octet count followed by that many octets of UTF-8. The encoding is:</p>
+ *
+ * <pre>
+ *   width       : u32
+ *   height      : u32
+ *   imageCount  : u32
+ *   images      : (id : u32, semantic : u32) * imageCount
+ *   objectCount : u32
+ *   objects     : (id : u32, description : string) * objectCount
+ *   metaCount   : u32
+ *   metadata    : (name : string, value : string) * metaCount
+ * </pre>
+ */
+
+public final class IS1ManifestBinary
+{
+  private IS1ManifestBinary()
+  {
+
+  }
+
+  /**
+   * Encode a manifest.
+   *
+   * @param manifest The manifest
+   *
+   * @return The encoded manifest
+   */
+
+  public static byte[] encode(
+    final ISManifest manifest)
+  {
+    Objects.requireNonNull(manifest, "manifest");
+
+    final var images = manifest.images();
+    final var objects = manifest.objects();
+    final var metadata = manifest.metadata();
+
+    final var objectText =
+      new byte[objects.size()][];
+    final var metaText =
+      new byte[metadata.size() * 2][];
+
+    long size = 4L + 4L + 4L + (8L * images.images().size()) + 4L + 4L;
+
+    var index = 0;
+    for (final var object : objects.values()) {
+      objectText[index] = object.description().getBytes(UTF_8);
+      size += 4L + 4L + objectText[index].length;
+      ++index;
+    }
+
+    index = 0;
+    for (final var entry : metadata.entrySet()) {
+      metaText[index] = entry.getKey().value().getBytes(UTF_8);
+      metaText[index + 1] = entry.getValue().getBytes(UTF_8);
+      size += 4L + metaText[index].length + 4L + metaText[index + 1].length;
+      index += 2;
+    }
+
+    final var buffer = ByteBuffer.allocate(Math.toIntExact(size));
+    buffer.putInt((int) images.width());
+    buffer.putInt((int) images.height());
+    buffer.putInt(images.images().size());
+    for (final var image : images.images().values()) {
+      buffer.putInt((int) image.imageId().value());
+      buffer.putInt(semanticCode(image.semantic()));
+    }
+
+    buffer.putInt(objects.size());
+    index = 0;
+    for (final var object : objects.values()) {
+      buffer.putInt((int) object.objectId().value());
+      putString(buffer, objectText[index]);
+      ++index;
+    }
+
+    buffer.putInt(metadata.size());
+    for (index = 0; index < metaText.length; ++index) {
+      putString(buffer, metaText[index]);
+    }
+    return buffer.array();
+  }
+
+  /**
+   * Decode a manifest, passing each part of it to the given visitor.
+   * Decoding stops as soon as the visitor requests it.
+   *
+   * @param source  The source URI, for diagnostics
+   * @param data    The encoded manifest
+   * @param visitor The visitor
+   *
+   * @throws IOException If the data is malformed
+   */
+
+  public static void decode(
+    final URI source,
+    final ByteBuffer data,
+    final ISManifestVisitorType visitor)
+    throws IOException
+  {
+    Objects.requireNonNull(source, "source");
+    Objects.requireNonNull(data, "data");
+    Objects.requireNonNull(visitor, "visitor");
+
+    final var buffer = data.duplicate();
+    try {
+      decodeWith(buffer, visitor);
+    } catch (final BufferUnderflowException
+                   | CharacterCodingException
+                   | IllegalArgumentException e) {
+      throw new IOException(errorMalformed(source, buffer.position(), e), e);
+    }
+  }
+
+  private static void decodeWith(
+    final ByteBuffer buffer,
+    final ISManifestVisitorType visitor)
+    throws CharacterCodingException
+  {
+    if (decodeImages(buffer, visitor) == STOP) {
+      return;
+    }
+    if (decodeObjects(buffer, visitor) == STOP) {
+      return;
+    }
+    decodeMetadata(buffer, visitor);
+  }
+
+  private static ISManifestVisitResult decodeImages(
+    final ByteBuffer buffer,
+    final ISManifestVisitorType visitor)
+  {
+    final var width =
+      Integer.toUnsignedLong(buffer.getInt());
+    final var height =
+      Integer.toUnsignedLong(buffer.getInt());
+
+    if (visitor.onImagesStart(width, height) == STOP) {
+      return STOP;
+    }
+
+    final var imageCount = count(buffer, 8L);
+    for (long index = 0L; index < imageCount; ++index) {
+      final var id =
+        new ISImageID(Integer.toUnsignedLong(buffer.getInt()));
+      final var semantic =
+        semanticOfCode(buffer.getInt());
+      if (visitor.onImage(new ISImage(id, semantic)) == STOP) {
+        return STOP;
+      }
+    }
+    return CONTINUE;
+  }
+
+  private static ISManifestVisitResult decodeObjects(
+    final ByteBuffer buffer,
+    final ISManifestVisitorType visitor)
+    throws CharacterCodingException
+  {
+    if (visitor.onObjectsStart() == STOP) {
+      return STOP;
+    }
+
+    final var objectCount = count(buffer, 8L);
+    for (long index = 0L; index < objectCount; ++index) {
+      final var id =
+        new ISObjectID(Integer.toUnsignedLong(buffer.getInt()));
+      if (visitor.onObject(new ISObject(id, getString(buffer))) == STOP) {
+        return STOP;
+      }
+    }
+    return CONTINUE;
+  }
+
+  private static void decodeMetadata(
+    final ByteBuffer buffer,
+    final ISManifestVisitorType visitor)
+    throws CharacterCodingException
+  {
+    if (visitor.onMetadataStart() == STOP) {
+      return;
+    }
+
+    final var metaCount = count(buffer, 8L);
+    for (long index = 0L; index < metaCount; ++index) {
+      final var name = new RDottedName(getString(buffer));
+      if (visitor.onMetadata(name, getString(buffer)) == STOP) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * @param semantic The image semantic
+   *
+   * @return The binary code of the semantic
+   */
+
+  public static int semanticCode(
+    final ISImageSemantic semantic)
+  {
+    return switch (semantic) {
+      case DENOISE_RGB16 -> 1;
+      case DENOISE_RGB8 -> 2;
+      case DENOISE_RGBA16 -> 3;
+      case DENOISE_RGBA8 -> 4;
+      case DEPTH_16 -> 5;
+      case DEPTH_32 -> 6;
+      case MONOCHROME_LINES_8 -> 7;
+      case OBJECT_ID_32 -> 8;
+      case DENOISE_RGBF16 -> 9;
+      case DENOISE_RGBAF16 -> 10;
+      case DEPTHF16 -> 11;
+    };
+  }
+
+  /**
+   * @param code The binary code of a semantic
+   *
+   * @return The image semantic
+   *
+   * @throws IllegalArgumentException If the code is not recognized
+   */
+
+  public static ISImageSemantic semanticOfCode(
+    final int code)
+  {
+    return switch (code) {
+      case 1 -> ISImageSemantic.DENOISE_RGB16;
+      case 2 -> ISImageSemantic.DENOISE_RGB8;
+      case 3 -> ISImageSemantic.DENOISE_RGBA16;
+      case 4 -> ISImageSemantic.DENOISE_RGBA8;
+      case 5 -> ISImageSemantic.DEPTH_16;
+      case 6 -> ISImageSemantic.DEPTH_32;
+      case 7 -> ISImageSemantic.MONOCHROME_LINES_8;
+      case 8 -> ISImageSemantic.OBJECT_ID_32;
+      case 9 -> ISImageSemantic.DENOISE_RGBF16;
+      case 10 -> ISImageSemantic.DENOISE_RGBAF16;
+      case 11 -> ISImageSemantic.DEPTHF16;
+      default -> {
+        throw new IllegalArgumentException(
+          "Unrecognized image semantic code %s"
+            .formatted(Integer.toUnsignedString(code))
+        );
+      }
+    };
+  }
+
+  private static long count(
+    final ByteBuffer buffer,
+    final long minimumEntrySize)
+  {
+    final var count = Integer.toUnsignedLong(buffer.getInt());
+    if (count * minimumEntrySize > buffer.remaining()) {
+      throw new BufferUnderflowException();
+    }
+    return count;
+  }
+
+  private static void putString(
+    final ByteBuffer buffer,
+    final byte[] text)
+  {
+    buffer.putInt(text.length);
+    buffer.put(text);
+  }
+
+  private static String getString(
+    final ByteBuffer buffer)
+    throws CharacterCodingException
+  {
+    final var length = Integer.toUnsignedLong(buffer.getInt());
+    if (length > buffer.remaining()) {
+      throw new BufferUnderflowException();
+    }
+
+    final var text = buffer.slice(buffer.position(), (int) length);
+    buffer.position(buffer.position() + (int) length);
+    return UTF_8.newDecoder()
+      .onMalformedInput(CodingErrorAction.REPORT)
+      .onUnmappableCharacter(CodingErrorAction.REPORT)
+      .decode(text)
+      .toString();
+  }
+
+  private static String errorMalformed(
+    final URI source,
+    final int position,
+    final Exception e)
+  {
+    final var lineSeparator = System.lineSeparator();
+    return new StringBuilder(64)
+      .append("Malformed binary manifest.")
+      .append(lineSeparator)
+      .append("  File: ")
+      .append(source)
+      .append(lineSeparator)
+      .append("  Manifest offset: ")
+      .append(Integer.toUnsignedString(position))
+      .append(lineSeparator)
+      .append("  Problem: ")
+      .append(
+        Objects.requireNonNullElse(
+          e.getMessage(),
+          e.getClass().getSimpleName()))
+      .append(lineSeparator)
+      .toString();
+  }
+}
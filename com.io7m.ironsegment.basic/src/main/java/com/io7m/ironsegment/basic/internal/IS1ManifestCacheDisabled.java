@@ -0,0 +1,78 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.ironsegment.basic.internal;
+
+import com.io7m.ironsegment.api.ISManifest;
+import com.io7m.ironsegment.parser.api.ISManifestCacheKey;
+import com.io7m.ironsegment.parser.api.ISManifestCacheStatistics;
+import com.io7m.ironsegment.parser.api.ISManifestCacheType;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * A manifest cache that never caches anything.
+ */
+
+public final class IS1ManifestCacheDisabled implements ISManifestCacheType
+{
+  private static final IS1ManifestCacheDisabled INSTANCE =
+    new IS1ManifestCacheDisabled();
+
+  private IS1ManifestCacheDisabled()
+  {
+
+  }
+
+  /**
+   * @return The disabled cache
+   */
+
+  public static IS1ManifestCacheDisabled get()
+  {
+    return INSTANCE;
+  }
+
+  @Override
+  public Optional<ISManifest> get(
+    final ISManifestCacheKey key)
+  {
+    Objects.requireNonNull(key, "key");
+    return Optional.empty();
+  }
+
+  @Override
+  public void put(
+    final ISManifestCacheKey key,
+    final ISManifest manifest)
+  {
+    Objects.requireNonNull(key, "key");
+    Objects.requireNonNull(manifest, "manifest");
+  }
+
+  @Override
+  public void clear()
+  {
+
+  }
+
+  @Override
+  public ISManifestCacheStatistics statistics()
+  {
+    return new ISManifestCacheStatistics(0L, 0L, 0L, 0, 0);
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.ironsegment.basic.internal;
+
+import com.io7m.ironsegment.api.ISManifest;
+import com.io7m.ironsegment.parser.api.ISManifestCacheKey;
+import com.io7m.ironsegment.parser.api.ISManifestCacheStatistics;
+import com.io7m.ironsegment.parser.api.ISManifestCacheType;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * A bounded manifest cache with least-recently-used eviction.
+ */
+
+public final class IS1ManifestCacheLRU implements ISManifestCacheType
+{
+  private final int maximumSize;
+  private final LinkedHashMap<ISManifestCacheKey, ISManifest> entries;
+  private long hits;
+  private long misses;
+  private long evictions;
+
+  /**
+   * A bounded manifest cache with least-recently-used eviction.
+   *
+   * @param inMaximumSize The maximum number of cached manifests
+   */
+
+  public IS1ManifestCacheLRU(
+    final int inMaximumSize)
+  {
+    if (inMaximumSize < 1) {
+      throw new IllegalArgumentException(
+        "Maximum size %d must be positive".formatted(inMaximumSize));
+    }
+
+    this.maximumSize = inMaximumSize;
+    this.entries = new LinkedHashMap<>(16, 0.75f, true)
+    {
+      @Override
+      protected boolean removeEldestEntry(
+        final Map.Entry<ISManifestCacheKey, ISManifest> eldest)
+      {
+        final var evict = this.size() > IS1ManifestCacheLRU.this.maximumSize;
+        if (evict) {
+          ++IS1ManifestCacheLRU.this.evictions;
+        }
+        return evict;
+      }
+    };
+  }
+
+  @Override
+  public synchronized Optional<ISManifest> get(
+    final ISManifestCacheKey key)
+  {
+    Objects.requireNonNull(key, "key");
+
+    final var manifest = this.entries.get(key);
+    if (manifest == null) {
+      ++this.misses;
+      return Optional.empty();
+    }
+    ++this.hits;
+    return Optional.of(manifest);
+  }
+
+  @Override
+  public synchronized void put(
+    final ISManifestCacheKey key,
+    final ISManifest manifest)
+  {
+    Objects.requireNonNull(key, "key");
+    Objects.requireNonNull(manifest, "manifest");
+    this.entries.put(key, manifest);
+  }
+
+  @Override
+  public synchronized void clear()
+  {
+    this.entries.clear();
+  }
+
+  @Override
+  public synchronized ISManifestCacheStatistics statistics()
+  {
+    return new ISManifestCacheStatistics(
+      this.hits,
+      this.misses,
+      this.evictions,
+      this.entries.size(),
+      this.maximumSize
+    );
+  }
+
+  @Override
+  public String toString()
+  {
+    return "[IS1ManifestCacheLRU %s]".formatted(this.statistics());
+  }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.ironsegment.basic.internal;
+
+import com.io7m.ironsegment.api.ISImage;
+import com.io7m.ironsegment.api.ISImageID;
+import com.io7m.ironsegment.api.ISImageSemantic;
+import com.io7m.ironsegment.api.ISImages;
+import com.io7m.ironsegment.api.ISManifest;
+import com.io7m.ironsegment.api.ISManifestVisitResult;
+import com.io7m.ironsegment.api.ISManifestVisitorType;
+import com.io7m.ironsegment.api.ISObject;
+import com.io7m.ironsegment.api.ISObjectID;
+import com.io7m.lanark.core.RDottedName;
+
+import java.util.Arrays;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import static com.io7m.ironsegment.api.ISManifestVisitResult.CONTINUE;
+
+/**
+ * A manifest visitor that collects a complete manifest. Entries are
+ * accumulated in primitive arrays, and the resulting manifest uses compact
+ * array-backed maps rather than trees.
+ */
+
+public final class IS1ManifestCollector implements ISManifestVisitorType
+{
+  private long[] imageIds;
+  private byte[] imageSemantics;
+  private int imageCount;
+  private long[] objectIds;
+  private String[] objectDescriptions;
+  private int objectCount;
+  private RDottedName[] metaNames;
+  private String[] metaValues;
+  private int metaCount;
+  private long width;
+  private long height;
+
+  /**
+   * A manifest visitor that collects a complete manifest.
+   */
+
+  public IS1ManifestCollector()
+  {
+    this.imageIds = new long[8];
+    this.imageSemantics = new byte[8];
+    this.objectIds = new long[16];
+    this.objectDescriptions = new String[16];
+    this.metaNames = new RDottedName[8];
+    this.metaValues = new String[8];
+  }
+
+  @Override
+  public ISManifestVisitResult onImagesStart(
+    final long inWidth,
+    final long inHeight)
+  {
+    this.width = inWidth;
+    this.height = inHeight;
+    return CONTINUE;
+  }
+
+  @Override
+  public ISManifestVisitResult onImage(
+    final ISImage image)
+  {
+    if (this.imageCount == this.imageIds.length) {
+      final var newSize = this.imageCount * 2;
+      this.imageIds = Arrays.copyOf(this.imageIds, newSize);
+      this.imageSemantics = Arrays.copyOf(this.imageSemantics, newSize);
+    }
+    this.imageIds[this.imageCount] = image.imageId().value();
+    this.imageSemantics[this.imageCount] = (byte) image.semantic().ordinal();
+    ++this.imageCount;
+    return CONTINUE;
+  }
+
+  @Override
+  public ISManifestVisitResult onObject(
+    final ISObject object)
+  {
+    if (this.objectCount == this.objectIds.length) {
+      final var newSize = this.objectCount * 2;
+      this.objectIds = Arrays.copyOf(this.objectIds, newSize);
+      this.objectDescriptions = Arrays.copyOf(this.objectDescriptions, newSize);
+    }
+    this.objectIds[this.objectCount] = object.objectId().value();
+    this.objectDescriptions[this.objectCount] = object.description();
+    ++this.objectCount;
+    return CONTINUE;
+  }
+
+  @Override
+  public ISManifestVisitResult onMetadata(
+    final RDottedName name,
+    final String value)
+  {
+    if (this.metaCount == this.metaNames.length) {
+      final var newSize = this.metaCount * 2;
+      this.metaNames = Arrays.copyOf(this.metaNames, newSize);
+      this.metaValues = Arrays.copyOf(this.metaValues, newSize);
+    }
+    this.metaNames[this.metaCount] = name;
+    this.metaValues[this.metaCount] = value;
+    ++this.metaCount;
+    return CONTINUE;
+  }
+
+  /**
+   * @return The collected manifest
+   */
+
+  public ISManifest toManifest()
+  {
+    return new ISManifest(
+      new ISImages(this.images(), this.width, this.height),
+      this.objects(),
+      this.metadata()
+    );
+  }
+
+  /*
+   * Manifests are written in sorted order, so the arrays are normally already
+   * sorted. Otherwise, fall back to sorting through a tree map, which also
+   * resolves duplicate keys in favour of the last entry.
+   */
+
+  private SortedMap<ISImageID, ISImage> images()
+  {
+    final var map =
+      IS1CompactImageMap.ofSorted(
+        this.imageIds, this.imageSemantics, this.imageCount);
+    if (map != null) {
+      return map;
+    }
+
+    final var semantics = ISImageSemantic.values();
+    final var sorted = new TreeMap<ISImageID, ISImage>();
+    for (int index = 0; index < this.imageCount; ++index) {
+      final var id = new ISImageID(this.imageIds[index]);
+      sorted.put(id, new ISImage(id, semantics[this.imageSemantics[index]]));
+    }
+    return IS1CompactImageMap.copyOf(sorted);
+  }
+
+  private SortedMap<ISObjectID, ISObject> objects()
+  {
+    final var map =
+      IS1CompactObjectMap.ofSorted(
+        this.objectIds, this.objectDescriptions, this.objectCount);
+    if (map != null) {
+      return map;
+    }
+
+    final var sorted = new TreeMap<ISObjectID, ISObject>();
+    for (int index = 0; index < this.objectCount; ++index) {
+      final var id = new ISObjectID(this.objectIds[index]);
+      sorted.put(id, new ISObject(id, this.objectDescriptions[index]));
+    }
+    return IS1CompactObjectMap.copyOf(sorted);
+  }
+
+  private SortedMap<RDottedName, String> metadata()
+  {
+    final var map =
+      IS1CompactMetadataMap.ofSorted(
+        this.metaNames, this.metaValues, this.metaCount);
+    if (map != null) {
+      return map;
+    }
+
+    final var sorted = new TreeMap<RDottedName, String>();
+    for (int index = 0; index < this.metaCount; ++index) {
+      sorted.put(this.metaNames[index], this.metaValues[index]);
+    }
+    return IS1CompactMetadataMap.copyOf(sorted);
+  }
+}
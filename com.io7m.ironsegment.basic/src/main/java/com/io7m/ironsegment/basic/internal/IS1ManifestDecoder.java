@@ -0,0 +1,561 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.ironsegment.basic.internal;
+
+import com.io7m.anethum.api.ParseSeverity;
+import com.io7m.anethum.api.ParseStatus;
+import com.io7m.anethum.api.ParsingException;
+import com.io7m.ironsegment.api.ISImage;
+import com.io7m.ironsegment.api.ISImageID;
+import com.io7m.ironsegment.api.ISImageSemantic;
+import com.io7m.ironsegment.api.ISManifestVisitResult;
+import com.io7m.ironsegment.api.ISManifestVisitorType;
+import com.io7m.ironsegment.api.ISObject;
+import com.io7m.ironsegment.api.ISObjectID;
+import com.io7m.ironsegment.parser.api.ISManifestMode;
+import com.io7m.jlexing.core.LexicalPosition;
+import com.io7m.lanark.core.RDottedName;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.Locator;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static com.io7m.ironsegment.api.ISManifestVisitResult.STOP;
+
+/**
+ * A lean SAX-based manifest decoder. In validated mode, the document is
+ * passed through a validator for the (cached) manifest schema on its way to
+ * the decoder, so the manifest is validated and decoded in a single pass.
+ * Manifests in any supported minor version of the v1 schema are accepted,
+ * but an image semantic that is newer than the manifest's minor version is
+ * rejected in either mode.
+ *
+ * <p>Because decoding is not deferred until the whole document has been
+ * validated, a visitor may receive the parts of a manifest that precede a
+ * validation error. Once an error has been reported, nothing further is
+ * passed to the visitor, and decoding fails when the document ends.</p>
+ */
+
+public final class IS1ManifestDecoder extends DefaultHandler
+{
+  /*
+   * Parser factories are expensive to create as they perform a service
+   * lookup. The factory is never reconfigured after creation, and so it is
+   * safe to share between threads.
+   */
+
+  private static final SAXParserFactory PARSERS =
+    createParserFactory();
+
+  private final URI source;
+  private final ISManifestVisitorType visitor;
+  private final List<ParseStatus> statuses;
+  private final Consumer<ParseStatus> statusConsumer;
+  private final StringBuilder text;
+  private Locator locator;
+  private String namespace;
+  private int minorVersion;
+  private Element current;
+  private int manifestChildren;
+  private boolean failed;
+  private ISObjectID objectId;
+  private RDottedName metaName;
+
+  private enum Element
+  {
+    DOCUMENT,
+    MANIFEST,
+    IMAGES,
+    IMAGE,
+    OBJECTS,
+    OBJECT,
+    METADATA,
+    META
+  }
+
+  private IS1ManifestDecoder(
+    final URI inSource,
+    final ISManifestVisitorType inVisitor,
+    final Consumer<ParseStatus> inStatusConsumer)
+  {
+    this.source =
+      Objects.requireNonNull(inSource, "source");
+    this.visitor =
+      Objects.requireNonNull(inVisitor, "visitor");
+    this.statusConsumer =
+      Objects.requireNonNull(inStatusConsumer, "statusConsumer");
+    this.statuses =
+      new ArrayList<>();
+    this.text =
+      new StringBuilder(64);
+    this.current =
+      Element.DOCUMENT;
+  }
+
+  private static SAXParserFactory createParserFactory()
+  {
+    final var factory = SAXParserFactory.newInstance();
+    factory.setNamespaceAware(true);
+    factory.setValidating(false);
+    factory.setXIncludeAware(false);
+
+    try {
+      factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+      factory.setFeature(
+        "http://apache.org/xml/features/disallow-doctype-decl", true);
+    } catch (final ParserConfigurationException | SAXException e) {
+      throw new IllegalStateException(e);
+    }
+    return factory;
+  }
+
+  /**
+   * Decode a manifest, passing each part of it to the given visitor.
+   * Decoding stops as soon as the visitor requests it. In
+   * {@link ISManifestMode#MANIFEST_VALIDATED} mode, the manifest is
+   * validated against the manifest schema as it is decoded.
+   *
+   * @param source  The source URI, for diagnostics
+   * @param stream  The input stream
+   * @param mode    The manifest mode
+   * @param visitor The visitor
+   *
+   * @throws ParsingException If the manifest is malformed or invalid
+   */
+
+  public static void decode(
+    final URI source,
+    final InputStream stream,
+    final ISManifestMode mode,
+    final ISManifestVisitorType visitor)
+    throws ParsingException
+  {
+    decode(source, stream, mode, visitor, status -> { });
+  }
+
+  /**
+   * Decode a manifest, passing each part of it to the given visitor, and
+   * each diagnostic to the given status consumer as it is produced.
+   *
+   * @param source         The source URI, for diagnostics
+   * @param stream         The input stream
+   * @param mode           The manifest mode
+   * @param visitor        The visitor
+   * @param statusConsumer The status consumer
+   *
+   * @throws ParsingException If the manifest is malformed or invalid
+   *
+   * @see #decode(URI, InputStream, ISManifestMode, ISManifestVisitorType)
+   */
+
+  public static void decode(
+    final URI source,
+    final InputStream stream,
+    final ISManifestMode mode,
+    final ISManifestVisitorType visitor,
+    final Consumer<ParseStatus> statusConsumer)
+    throws ParsingException
+  {
+    Objects.requireNonNull(source, "source");
+    Objects.requireNonNull(stream, "stream");
+    Objects.requireNonNull(mode, "mode");
+    Objects.requireNonNull(visitor, "visitor");
+
+    final var decoder =
+      new IS1ManifestDecoder(source, visitor, statusConsumer);
+    decoder.run(stream, mode);
+
+    if (decoder.failed) {
+      throw new ParsingException(
+        "Manifest could not be decoded.",
+        List.copyOf(decoder.statuses)
+      );
+    }
+  }
+
+  private void run(
+    final InputStream stream,
+    final ISManifestMode mode)
+  {
+    try {
+      final var reader = PARSERS.newSAXParser().getXMLReader();
+      reader.setErrorHandler(this);
+
+      switch (mode) {
+        case MANIFEST_VALIDATED -> {
+          final var validator = IS1ManifestSchemaCache.newValidatorHandler1();
+          validator.setErrorHandler(this);
+          validator.setContentHandler(this);
+          reader.setContentHandler(validator);
+        }
+        case MANIFEST_TRUSTED -> {
+          reader.setContentHandler(this);
+        }
+      }
+
+      final var input = new InputSource(stream);
+      input.setSystemId(this.source.toString());
+      reader.parse(input);
+    } catch (final StopException e) {
+      // The visitor asked for decoding to stop.
+    } catch (final SAXParseException e) {
+      this.addStatus(e, ParseSeverity.PARSE_ERROR);
+    } catch (final SAXException | IOException e) {
+      this.addStatus(
+        ParseStatus.builder("parse-error", messageOf(e))
+          .withSeverity(ParseSeverity.PARSE_ERROR)
+          .build()
+      );
+    } catch (final ParserConfigurationException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  @Override
+  public void setDocumentLocator(
+    final Locator inLocator)
+  {
+    this.locator = inLocator;
+  }
+
+  @Override
+  public void startElement(
+    final String uri,
+    final String localName,
+    final String qName,
+    final Attributes attributes)
+    throws SAXException
+  {
+    if (this.failed) {
+      return;
+    }
+
+    try {
+      final var element = this.elementOf(uri, localName);
+      switch (element) {
+        case MANIFEST -> this.startManifest(uri);
+        case IMAGES -> this.startImages(attributes);
+        case IMAGE -> this.startImage(attributes);
+        case OBJECTS -> this.startObjects();
+        case OBJECT -> this.startObject(attributes);
+        case METADATA -> this.startMetadata();
+        case META -> this.startMeta(attributes);
+        case DOCUMENT -> throw new IllegalStateException("Unreachable code.");
+      }
+    } catch (final IllegalArgumentException e) {
+      throw this.error(messageOf(e));
+    }
+  }
+
+  @Override
+  public void endElement(
+    final String uri,
+    final String localName,
+    final String qName)
+    throws SAXException
+  {
+    if (this.failed) {
+      return;
+    }
+
+    switch (this.current) {
+      case MANIFEST -> {
+        if (this.manifestChildren != 3) {
+          throw this.error("The manifest is missing required elements.");
+        }
+      }
+      case OBJECT -> {
+        this.result(
+          this.visitor.onObject(
+            new ISObject(this.objectId, this.text.toString())));
+      }
+      case META -> {
+        this.result(
+          this.visitor.onMetadata(this.metaName, this.text.toString()));
+      }
+      default -> {
+
+      }
+    }
+    this.current = parentOf(this.current);
+  }
+
+  @Override
+  public void characters(
+    final char[] ch,
+    final int start,
+    final int length)
+  {
+    if (this.current == Element.OBJECT || this.current == Element.META) {
+      this.text.append(ch, start, length);
+    }
+  }
+
+  @Override
+  public void warning(
+    final SAXParseException exception)
+  {
+    this.addStatus(exception, ParseSeverity.PARSE_WARNING);
+  }
+
+  @Override
+  public void error(
+    final SAXParseException exception)
+  {
+    this.addStatus(exception, ParseSeverity.PARSE_ERROR);
+  }
+
+  @Override
+  public void fatalError(
+    final SAXParseException exception)
+    throws SAXParseException
+  {
+    throw exception;
+  }
+
+  private void startManifest(
+    final String uri)
+    throws SAXParseException
+  {
+    this.enter(Element.DOCUMENT, Element.MANIFEST);
+    this.namespace = uri;
+    this.minorVersion =
+      IS1ManifestVersions.minorVersionOfNamespace(uri)
+        .orElseThrow(() -> this.error(
+          "Unsupported manifest namespace '%s'.".formatted(uri)));
+  }
+
+  private void startImages(
+    final Attributes attributes)
+    throws SAXException
+  {
+    this.enterManifestChild(0, Element.IMAGES);
+    this.result(
+      this.visitor.onImagesStart(
+        Long.parseUnsignedLong(this.attribute(attributes, "Width")),
+        Long.parseUnsignedLong(this.attribute(attributes, "Height"))
+      )
+    );
+  }
+
+  private void startImage(
+    final Attributes attributes)
+    throws SAXException
+  {
+    this.enter(Element.IMAGES, Element.IMAGE);
+
+    final var id =
+      new ISImageID(Long.parseUnsignedLong(this.attribute(attributes, "ID")));
+    final var semantic =
+      ISImageSemantic.valueOf(this.attribute(attributes, "Semantic"));
+    if (IS1ManifestVersions.minorVersionOf(semantic) > this.minorVersion) {
+      throw this.error(
+        "Image semantic %s is not permitted in manifest version 1.%d."
+          .formatted(semantic, Integer.valueOf(this.minorVersion)));
+    }
+
+    this.result(this.visitor.onImage(new ISImage(id, semantic)));
+  }
+
+  private void startObjects()
+    throws SAXException
+  {
+    this.enterManifestChild(1, Element.OBJECTS);
+    this.result(this.visitor.onObjectsStart());
+  }
+
+  private void startObject(
+    final Attributes attributes)
+    throws SAXException
+  {
+    this.enter(Element.OBJECTS, Element.OBJECT);
+    this.objectId =
+      new ISObjectID(Long.parseUnsignedLong(this.attribute(attributes, "ID")));
+    this.text.setLength(0);
+  }
+
+  private void startMetadata()
+    throws SAXException
+  {
+    this.enterManifestChild(2, Element.METADATA);
+    this.result(this.visitor.onMetadataStart());
+  }
+
+  private void startMeta(
+    final Attributes attributes)
+    throws SAXException
+  {
+    this.enter(Element.METADATA, Element.META);
+    this.metaName = new RDottedName(this.attribute(attributes, "Name"));
+    this.text.setLength(0);
+  }
+
+  private Element elementOf(
+    final String uri,
+    final String localName)
+    throws SAXParseException
+  {
+    final var expected =
+      this.namespace == null
+        ? IS1ManifestVersions.minorVersionOfNamespace(uri).isPresent()
+        : this.namespace.equals(uri);
+
+    if (!expected) {
+      throw this.error(
+        "Unexpected element '{%s}%s'.".formatted(uri, localName));
+    }
+
+    return switch (localName) {
+      case "Manifest" -> Element.MANIFEST;
+      case "Images" -> Element.IMAGES;
+      case "Image" -> Element.IMAGE;
+      case "Objects" -> Element.OBJECTS;
+      case "Object" -> Element.OBJECT;
+      case "Metadata" -> Element.METADATA;
+      case "Meta" -> Element.META;
+      default -> throw this.error(
+        "Unexpected element '{%s}%s'.".formatted(uri, localName));
+    };
+  }
+
+  private static Element parentOf(
+    final Element element)
+  {
+    return switch (element) {
+      case DOCUMENT, MANIFEST -> Element.DOCUMENT;
+      case IMAGES, OBJECTS, METADATA -> Element.MANIFEST;
+      case IMAGE -> Element.IMAGES;
+      case OBJECT -> Element.OBJECTS;
+      case META -> Element.METADATA;
+    };
+  }
+
+  private void enter(
+    final Element parent,
+    final Element element)
+    throws SAXParseException
+  {
+    if (this.current != parent) {
+      throw this.error(
+        "Element %s is not permitted here.".formatted(element));
+    }
+    this.current = element;
+  }
+
+  private void enterManifestChild(
+    final int index,
+    final Element element)
+    throws SAXParseException
+  {
+    if (this.manifestChildren != index) {
+      throw this.error(
+        "Element %s is not permitted here.".formatted(element));
+    }
+    this.enter(Element.MANIFEST, element);
+    this.manifestChildren = index + 1;
+  }
+
+  private void result(
+    final ISManifestVisitResult result)
+    throws StopException
+  {
+    if (result == STOP) {
+      throw new StopException();
+    }
+  }
+
+  private String attribute(
+    final Attributes attributes,
+    final String name)
+    throws SAXParseException
+  {
+    final var value = attributes.getValue("", name);
+    if (value == null) {
+      throw this.error(
+        "Missing required attribute '%s' on element %s."
+          .formatted(name, this.current));
+    }
+    return value;
+  }
+
+  private SAXParseException error(
+    final String message)
+  {
+    return new SAXParseException(message, this.locator);
+  }
+
+  private void addStatus(
+    final SAXParseException exception,
+    final ParseSeverity severity)
+  {
+    this.addStatus(
+      ParseStatus.builder("parse-error", messageOf(exception))
+        .withSeverity(severity)
+        .withLexical(
+          LexicalPosition.of(
+            exception.getLineNumber(),
+            exception.getColumnNumber(),
+            Optional.of(this.source))
+        )
+        .build()
+    );
+  }
+
+  private void addStatus(
+    final ParseStatus status)
+  {
+    if (status.severity() == ParseSeverity.PARSE_ERROR) {
+      this.failed = true;
+    }
+    this.statuses.add(status);
+    this.statusConsumer.accept(status);
+  }
+
+  private static String messageOf(
+    final Exception e)
+  {
+    return Objects.requireNonNullElse(e.getMessage(), e.getClass().getName());
+  }
+
+  /**
+   * Thrown to abandon parsing when the visitor asks for decoding to stop.
+   */
+
+  private static final class StopException extends SAXException
+  {
+    private static final long serialVersionUID = 1L;
+
+    StopException()
+    {
+      super("Decoding stopped by the visitor.");
+    }
+  }
+}
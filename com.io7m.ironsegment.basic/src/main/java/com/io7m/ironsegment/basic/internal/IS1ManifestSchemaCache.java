@@ -0,0 +1,104 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.ironsegment.basic.internal;
+
+import com.io7m.ironsegment.basic.ISManifestSchemas;
+import com.io7m.jxe.core.JXESchemaDefinition;
+import org.xml.sax.SAXException;
+
+import javax.xml.XMLConstants;
+import javax.xml.transform.Source;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+import javax.xml.validation.ValidatorHandler;
+
+/**
+ * Compiled manifest schemas. The schema is compiled once, on first use, and
+ * shared between all parses; compiled schemas are immutable and thread-safe.
+ */
+
+public final class IS1ManifestSchemaCache
+{
+  private IS1ManifestSchemaCache()
+  {
+
+  }
+
+  private static final class Holder
+  {
+    private static final Schema SCHEMA_1 = compile();
+
+    private Holder()
+    {
+
+    }
+
+    private static Schema compile()
+    {
+      final var factory =
+        SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+
+      try {
+        factory.setProperty(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+        return factory.newSchema(new Source[]{
+          sourceOf(ISManifestSchemas.schema1()),
+          sourceOf(ISManifestSchemas.schema1p1()),
+        });
+      } catch (final SAXException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+  }
+
+  private static Source sourceOf(
+    final JXESchemaDefinition schema)
+  {
+    return new StreamSource(schema.location().toString());
+  }
+
+  /**
+   * @return The compiled v1 manifest schema, covering every minor version
+   */
+
+  public static Schema schema1()
+  {
+    return Holder.SCHEMA_1;
+  }
+
+  /**
+   * Create a new validator handler for the v1 manifest schema. A validator
+   * handler validates a document as SAX events pass through it, so that a
+   * manifest can be validated and decoded in a single pass. Validator
+   * handlers are not thread-safe, but are cheap to create from the compiled
+   * schema.
+   *
+   * @return A new validator handler
+   */
+
+  public static ValidatorHandler newValidatorHandler1()
+  {
+    final var validator = schema1().newValidatorHandler();
+    try {
+      validator.setProperty(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+      validator.setProperty(XMLConstants.ACCESS_EXTERNAL_SCHEMA, "");
+    } catch (final SAXException e) {
+      throw new IllegalStateException(e);
+    }
+    return validator;
+  }
+}
@@ -23,7 +23,6 @@ import com.io7m.ironsegment.api.ISImages;
 import com.io7m.ironsegment.api.ISManifest;
 import com.io7m.ironsegment.api.ISObject;
 import com.io7m.ironsegment.api.ISObjectID;
-import com.io7m.ironsegment.basic.ISManifestSchemas;
 import com.io7m.ironsegment.parser.api.ISManifestSerializerType;
 import com.io7m.lanark.core.RDottedName;
 
@@ -35,12 +34,23 @@ import java.util.Objects;
 import java.util.SortedMap;
 
 /**
- * A manifest serializer.
+ * A manifest serializer. The XML is written directly to the output stream
+ * as it is produced, and the stream is flushed (but not closed) once the
+ * document is complete. The manifest is written in the lowest minor version
+ * of the schema that can represent all of its images.
  */
 
 public final class IS1ManifestSerializer implements ISManifestSerializerType
 {
-  private final XMLOutputFactory factory;
+  /*
+   * Output factories are expensive to create as they perform a service
+   * lookup. The factory is never reconfigured after creation, and so it is
+   * safe to share between threads.
+   */
+
+  private static final XMLOutputFactory FACTORY =
+    XMLOutputFactory.newFactory();
+
   private final OutputStream stream;
   private final XMLStreamWriter writer;
 
@@ -55,12 +65,10 @@ public final class IS1ManifestSerializer implements ISManifestSerializerType
   {
     this.stream =
       Objects.requireNonNull(inStream, "stream");
-    this.factory =
-      XMLOutputFactory.newFactory();
 
     try {
       this.writer =
-        this.factory.createXMLStreamWriter(this.stream, "UTF-8");
+        FACTORY.createXMLStreamWriter(this.stream, "UTF-8");
     } catch (final XMLStreamException e) {
       throw new IllegalStateException(e);
     }
@@ -130,9 +138,11 @@ public final class IS1ManifestSerializer implements ISManifestSerializerType
     this.writer.writeEndElement();
   }
 
-  private static String findNS()
+  private static String findNS(
+    final ISManifest info)
   {
-    return ISManifestSchemas.schema1().namespace().toString();
+    return IS1ManifestVersions.namespaceOf(
+      IS1ManifestVersions.minorVersionOf(info));
   }
 
   @Override
@@ -143,7 +153,7 @@ public final class IS1ManifestSerializer implements ISManifestSerializerType
     try {
       this.writer.writeStartDocument("UTF-8", "1.0");
       this.writer.writeStartElement("Manifest");
-      this.writer.writeDefaultNamespace(findNS());
+      this.writer.writeDefaultNamespace(findNS(info));
 
       this.writeImages(info.images());
       this.writeObjects(info.objects());
@@ -151,6 +161,7 @@ public final class IS1ManifestSerializer implements ISManifestSerializerType
 
       this.writer.writeEndElement();
       this.writer.writeEndDocument();
+      this.writer.flush();
     } catch (final XMLStreamException e) {
       throw new SerializationException(e.getMessage(), e);
     }
@@ -0,0 +1,119 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.ironsegment.basic.internal;
+
+import com.io7m.ironsegment.api.ISImageSemantic;
+import com.io7m.ironsegment.api.ISManifest;
+import com.io7m.ironsegment.basic.ISManifestSchemas;
+
+import java.util.OptionalInt;
+
+/**
+ * The minor versions of the v1 XML manifest format. Each minor version has
+ * its own schema namespace, and minor versions only ever add image
+ * semantics. A manifest is written in the lowest minor version that can
+ * represent all of its images, so that readers that only understand older
+ * minor versions can still read manifests that do not use newer semantics.
+ */
+
+public final class IS1ManifestVersions
+{
+  private static final String NAMESPACE_1_0 =
+    ISManifestSchemas.schema1().namespace().toString();
+  private static final String NAMESPACE_1_1 =
+    ISManifestSchemas.schema1p1().namespace().toString();
+
+  private IS1ManifestVersions()
+  {
+
+  }
+
+  /**
+   * @param semantic The image semantic
+   *
+   * @return The minor version in which the semantic was introduced
+   */
+
+  public static int minorVersionOf(
+    final ISImageSemantic semantic)
+  {
+    return switch (semantic) {
+      case DENOISE_RGB16,
+           DENOISE_RGB8,
+           DENOISE_RGBA16,
+           DENOISE_RGBA8,
+           DEPTH_16,
+           DEPTH_32,
+           MONOCHROME_LINES_8,
+           OBJECT_ID_32 -> 0;
+      case DENOISE_RGBAF16,
+           DENOISE_RGBF16,
+           DEPTHF16 -> 1;
+    };
+  }
+
+  /**
+   * @param manifest The manifest
+   *
+   * @return The lowest minor version that can represent the manifest
+   */
+
+  public static int minorVersionOf(
+    final ISManifest manifest)
+  {
+    var minor = 0;
+    for (final var image : manifest.images().images().values()) {
+      minor = Math.max(minor, minorVersionOf(image.semantic()));
+    }
+    return minor;
+  }
+
+  /**
+   * @param minor The minor version
+   *
+   * @return The schema namespace of the given minor version
+   */
+
+  public static String namespaceOf(
+    final int minor)
+  {
+    return switch (minor) {
+      case 0 -> NAMESPACE_1_0;
+      case 1 -> NAMESPACE_1_1;
+      default -> throw new IllegalArgumentException(
+        "Unsupported manifest minor version: %d".formatted(minor));
+    };
+  }
+
+  /**
+   * @param namespace The schema namespace
+   *
+   * @return The minor version of the given namespace, if it is supported
+   */
+
+  public static OptionalInt minorVersionOfNamespace(
+    final String namespace)
+  {
+    if (NAMESPACE_1_0.equals(namespace)) {
+      return OptionalInt.of(0);
+    }
+    if (NAMESPACE_1_1.equals(namespace)) {
+      return OptionalInt.of(1);
+    }
+    return OptionalInt.empty();
+  }
+}
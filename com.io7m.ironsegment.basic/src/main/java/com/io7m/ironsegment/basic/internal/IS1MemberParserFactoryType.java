@@ -0,0 +1,47 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.ironsegment.basic.internal;
+
+import com.io7m.ironsegment.parser.api.ISParseRequest;
+import com.io7m.ironsegment.parser.api.ISParserType;
+
+import java.io.IOException;
+
+/**
+ * A factory of parsers that read from an existing data source instead of
+ * opening one for the request. This is used to parse the members of a shard
+ * directly from the data source of the shard.
+ */
+
+public interface IS1MemberParserFactoryType
+{
+  /**
+   * Create a parser.
+   *
+   * @param request The request
+   * @param source  The data source covering exactly the file to be parsed
+   *
+   * @return A parser
+   *
+   * @throws IOException On errors
+   */
+
+  ISParserType createParser(
+    ISParseRequest request,
+    IS1DataSourceType source)
+    throws IOException;
+}
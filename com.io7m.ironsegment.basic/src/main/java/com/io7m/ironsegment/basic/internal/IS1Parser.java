@@ -22,6 +22,8 @@ import com.io7m.ironsegment.api.ISFileSectionDescription;
 import com.io7m.ironsegment.api.ISIdentifiers;
 import com.io7m.ironsegment.api.ISSectionDescription;
 import com.io7m.ironsegment.api.ISVersion;
+import com.io7m.ironsegment.parser.api.ISFileIdentity;
+import com.io7m.ironsegment.parser.api.ISManifestCacheType;
 import com.io7m.ironsegment.parser.api.ISParseRequest;
 import com.io7m.ironsegment.parser.api.ISParserType;
 import com.io7m.jbssio.api.BSSReaderRandomAccessType;
@@ -31,6 +33,7 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
@@ -45,17 +48,40 @@ public final class IS1Parser implements ISParserType
   private final ISParseRequest request;
   private final BSSReaderRandomAccessType reader;
   private final AtomicBoolean closed;
+  private final ISManifestCacheType manifestCache;
+  private final Optional<IS1DataSourceType> existingSource;
 
   /**
    * The main parser implementation.
    *
    * @param inRequest The read request
    * @param inReader  A reader
+   * @param inManifestCache The manifest cache
    */
 
   public IS1Parser(
     final ISParseRequest inRequest,
-    final BSSReaderRandomAccessType inReader)
+    final BSSReaderRandomAccessType inReader,
+    final ISManifestCacheType inManifestCache)
+  {
+    this(inRequest, inReader, inManifestCache, Optional.empty());
+  }
+
+  /**
+   * The main parser implementation. File data is read from the given
+   * source rather than from a source opened for the request.
+   *
+   * @param inRequest       The read request
+   * @param inReader        A reader
+   * @param inManifestCache The manifest cache
+   * @param inSource        The data source, if one has already been opened
+   */
+
+  public IS1Parser(
+    final ISParseRequest inRequest,
+    final BSSReaderRandomAccessType inReader,
+    final ISManifestCacheType inManifestCache,
+    final Optional<IS1DataSourceType> inSource)
   {
     this.request =
       Objects.requireNonNull(inRequest, "request");
@@ -63,6 +89,10 @@ public final class IS1Parser implements ISParserType
       Objects.requireNonNull(inReader, "reader");
     this.closed =
       new AtomicBoolean(false);
+    this.manifestCache =
+      Objects.requireNonNull(inManifestCache, "manifestCache");
+    this.existingSource =
+      Objects.requireNonNull(inSource, "source");
   }
 
   @Override
@@ -85,6 +115,39 @@ public final class IS1Parser implements ISParserType
       throw new IOException(this.errorUnsupportedMajorVersion(major));
     }
 
+    final var version =
+      new ISVersion((int) major, (int) minor);
+    final var source =
+      this.existingSource.isPresent()
+        ? this.existingSource.get()
+        : IS1DataSources.open(this.request);
+    final var identity =
+      this.identityOf(source);
+
+    /*
+     * If the file has a table of contents, then the entire section list can
+     * be obtained with two reads instead of walking every section header.
+     */
+
+    final var tableOfContents =
+      IS1TableOfContents.read(this.request.source(), source);
+
+    if (tableOfContents.isPresent()) {
+      this.closed.set(true);
+      return new IS1FileReadable(
+        this.reader,
+        source,
+        this.request,
+        version,
+        tableOfContents.get(),
+        0L,
+        this.manifestCache,
+        identity
+      );
+    }
+
+    this.reader.seekTo(16L);
+
     final var fileSections =
       new ArrayList<ISFileSectionDescription>();
 
@@ -120,13 +183,31 @@ public final class IS1Parser implements ISParserType
     this.closed.set(true);
     return new IS1FileReadable(
       this.reader,
+      source,
       this.request,
-      new ISVersion((int) major, (int) minor),
+      version,
       fileSections,
-      this.reader.bytesRemaining().orElse(0L)
+      this.reader.bytesRemaining().orElse(0L),
+      this.manifestCache,
+      identity
     );
   }
 
+  private Optional<ISFileIdentity> identityOf(
+    final IS1DataSourceType source)
+    throws IOException
+  {
+    /*
+     * Determining a file identity costs a filesystem metadata query, so
+     * don't bother if nothing will ever be cached.
+     */
+
+    if (this.manifestCache == IS1ManifestCacheDisabled.get()) {
+      return Optional.empty();
+    }
+    return IS1FileIdentities.identityOf(this.request.source(), source.size());
+  }
+
   private String errorUnsupportedMajorVersion(
     final long major)
   {
@@ -0,0 +1,153 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.ironsegment.basic.internal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.util.Objects;
+
+/**
+ * A read-only seekable channel that delivers a range of a data source using
+ * positional reads. The channel maintains its own position, and never
+ * changes the position of the underlying channel, so any number of range
+ * channels over the same source may be used concurrently from different
+ * threads. A single range channel is not safe for concurrent use.
+ */
+
+public final class IS1RangeChannel implements SeekableByteChannel
+{
+  private final IS1DataSourceChannel source;
+  private final long offset;
+  private final long size;
+  private long position;
+  private boolean closed;
+
+  /**
+   * A read-only seekable channel that delivers a range of a data source.
+   *
+   * @param inSource The data source
+   * @param inOffset The absolute file offset of the start of the range
+   * @param inSize   The size of the range
+   */
+
+  public IS1RangeChannel(
+    final IS1DataSourceChannel inSource,
+    final long inOffset,
+    final long inSize)
+  {
+    this.source = Objects.requireNonNull(inSource, "source");
+    this.offset = inOffset;
+    this.size = inSize;
+  }
+
+  @Override
+  public int read(
+    final ByteBuffer dst)
+    throws IOException
+  {
+    this.checkNotClosed();
+
+    if (this.position >= this.size) {
+      return -1;
+    }
+
+    final var available = this.size - this.position;
+    final int count;
+    if (dst.remaining() > available) {
+      final var view = dst.slice().limit((int) available);
+      count = this.source.readAt(view, this.offset + this.position);
+      if (count > 0) {
+        dst.position(dst.position() + count);
+      }
+    } else {
+      count = this.source.readAt(dst, this.offset + this.position);
+    }
+
+    if (count > 0) {
+      this.position += count;
+    }
+    return count;
+  }
+
+  @Override
+  public int write(
+    final ByteBuffer src)
+  {
+    throw new NonWritableChannelException();
+  }
+
+  @Override
+  public long position()
+    throws ClosedChannelException
+  {
+    this.checkNotClosed();
+    return this.position;
+  }
+
+  @Override
+  public SeekableByteChannel position(
+    final long newPosition)
+    throws ClosedChannelException
+  {
+    this.checkNotClosed();
+
+    if (newPosition < 0L) {
+      throw new IllegalArgumentException(
+        "Position %d must be non-negative".formatted(newPosition));
+    }
+    this.position = newPosition;
+    return this;
+  }
+
+  @Override
+  public long size()
+    throws ClosedChannelException
+  {
+    this.checkNotClosed();
+    return this.size;
+  }
+
+  @Override
+  public SeekableByteChannel truncate(
+    final long newSize)
+  {
+    throw new NonWritableChannelException();
+  }
+
+  @Override
+  public boolean isOpen()
+  {
+    return !this.closed;
+  }
+
+  @Override
+  public void close()
+  {
+    this.closed = true;
+  }
+
+  private void checkNotClosed()
+    throws ClosedChannelException
+  {
+    if (this.closed) {
+      throw new ClosedChannelException();
+    }
+  }
+}
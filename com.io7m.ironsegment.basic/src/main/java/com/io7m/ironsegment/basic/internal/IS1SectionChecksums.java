@@ -0,0 +1,275 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.ironsegment.basic.internal;
+
+import com.io7m.ironsegment.api.ISFileSectionDescription;
+import com.io7m.ironsegment.api.ISSectionDescription;
+import com.io7m.jbssio.api.BSSWriterRandomAccessType;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.NonReadableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SequencedMap;
+import java.util.zip.CRC32C;
+
+import static com.io7m.ironsegment.api.ISIdentifiers.sectionChecksumsIdentifier;
+
+/**
+ * Functions to compute section checksums, and to read and write checksum
+ * sections.
+ *
+ * <p>A checksum section contains an unsigned 64-bit count of entries,
+ * followed by that many entries of the form
+ * {@code (offset : u64, crc32c : u32, reserved : u32)}, in file order. Each
+ * entry holds the CRC32C checksum of the data of the section that begins at
+ * the given file offset; the 16 octet section header is not included. The
+ * checksum section is written directly before the table of contents, and
+ * covers every section that precedes it.</p>
+ */
+
+public final class IS1SectionChecksums
+{
+  private static final long ENTRY_SIZE = 16L;
+  private static final int CHUNK_SIZE = 1 << 20;
+
+  private IS1SectionChecksums()
+  {
+
+  }
+
+  /**
+   * Compute the checksum of a range of a channel. The position of the
+   * channel is restored afterwards.
+   *
+   * @param file    The file URI, for diagnostics
+   * @param channel The channel
+   * @param offset  The offset of the range
+   * @param size    The size of the range
+   *
+   * @return The CRC32C checksum of the range
+   *
+   * @throws IOException On errors, or if the channel is not readable
+   */
+
+  public static long ofChannel(
+    final URI file,
+    final SeekableByteChannel channel,
+    final long offset,
+    final long size)
+    throws IOException
+  {
+    final var crc = new CRC32C();
+    final var buffer =
+      ByteBuffer.allocate((int) Math.min(size, CHUNK_SIZE));
+    final var positionSaved = channel.position();
+
+    try {
+      channel.position(offset);
+
+      var remaining = size;
+      while (remaining > 0L) {
+        buffer.clear();
+        buffer.limit((int) Math.min(remaining, buffer.capacity()));
+        final var count = channel.read(buffer);
+        if (count < 0) {
+          throw new IOException(
+            "Unexpected EOF computing the checksum of %s at offset %s"
+              .formatted(file, Long.toUnsignedString(offset))
+          );
+        }
+        crc.update(buffer.flip());
+        remaining -= count;
+      }
+    } catch (final NonReadableChannelException e) {
+      throw new IOException(
+        "Writing checksums requires a channel that is open for reading: %s"
+          .formatted(file),
+        e
+      );
+    } finally {
+      channel.position(positionSaved);
+    }
+    return crc.getValue();
+  }
+
+  /**
+   * Compute the checksum of a range of a data source.
+   *
+   * @param source The data source
+   * @param offset The offset of the range
+   * @param size   The size of the range
+   *
+   * @return The CRC32C checksum of the range
+   *
+   * @throws IOException On errors
+   */
+
+  public static long ofSource(
+    final IS1DataSourceType source,
+    final long offset,
+    final long size)
+    throws IOException
+  {
+    final var crc = new CRC32C();
+
+    var position = offset;
+    var remaining = size;
+    while (remaining > 0L) {
+      final var chunk = Math.min(remaining, CHUNK_SIZE);
+      crc.update(source.slice(position, chunk));
+      position += chunk;
+      remaining -= chunk;
+    }
+    return crc.getValue();
+  }
+
+  /**
+   * Write a checksum section at the writer's current offset. The section is
+   * written with a single write.
+   *
+   * @param writer    The writer
+   * @param checksums The checksums of each section by file offset, in file
+   *                  order
+   *
+   * @return The description of the checksum section
+   *
+   * @throws IOException On errors
+   */
+
+  public static ISFileSectionDescription write(
+    final BSSWriterRandomAccessType writer,
+    final SequencedMap<Long, Long> checksums)
+    throws IOException
+  {
+    final var offset =
+      writer.offsetCurrentAbsolute();
+    final var buffer =
+      encode(checksums);
+
+    writer.writeBytes(buffer.array());
+    return new ISFileSectionDescription(
+      offset,
+      new ISSectionDescription(
+        sectionChecksumsIdentifier(),
+        buffer.capacity() - 16L)
+    );
+  }
+
+  /**
+   * Encode a complete checksum section, including the section header.
+   *
+   * @param checksums The checksums of each section by file offset, in file
+   *                  order
+   *
+   * @return A buffer containing the section
+   */
+
+  public static ByteBuffer encode(
+    final SequencedMap<Long, Long> checksums)
+  {
+    final var count =
+      checksums.size();
+    final var dataSize =
+      alignUp(8L + (ENTRY_SIZE * count));
+
+    final var buffer = ByteBuffer.allocate(Math.toIntExact(16L + dataSize));
+    buffer.putLong(sectionChecksumsIdentifier());
+    buffer.putLong(dataSize);
+    buffer.putLong(count);
+    for (final var entry : checksums.entrySet()) {
+      buffer.putLong(entry.getKey().longValue());
+      buffer.putInt((int) entry.getValue().longValue());
+      buffer.putInt(0);
+    }
+    return buffer.clear();
+  }
+
+  /**
+   * Read a checksum section.
+   *
+   * @param file    The file URI, for diagnostics
+   * @param source  The data source
+   * @param section The checksum section
+   *
+   * @return The checksums of each section by file offset
+   *
+   * @throws IOException On errors, or if the section is malformed
+   */
+
+  public static Map<Long, Long> read(
+    final URI file,
+    final IS1DataSourceType source,
+    final ISFileSectionDescription section)
+    throws IOException
+  {
+    final var size = section.description().size();
+    if (size < 8L) {
+      throw new IOException(errorMalformed(file, section, "section too small"));
+    }
+
+    final var data =
+      source.slice(section.fileOffsetData(), size);
+    final var count =
+      data.getLong(0);
+
+    if (count < 0L || count > (size - 8L) / ENTRY_SIZE) {
+      throw new IOException(
+        errorMalformed(file, section, "entry count out of range"));
+    }
+
+    final var results = HashMap.<Long, Long>newHashMap((int) count);
+    for (int index = 0; index < (int) count; ++index) {
+      final var base = 8 + (index * (int) ENTRY_SIZE);
+      results.put(
+        Long.valueOf(data.getLong(base)),
+        Long.valueOf(Integer.toUnsignedLong(data.getInt(base + 8)))
+      );
+    }
+    return Map.copyOf(results);
+  }
+
+  private static String errorMalformed(
+    final URI file,
+    final ISFileSectionDescription section,
+    final String message)
+  {
+    final var lineSeparator = System.lineSeparator();
+    return new StringBuilder(64)
+      .append("Checksum section is malformed.")
+      .append(lineSeparator)
+      .append("  File: ")
+      .append(file)
+      .append(lineSeparator)
+      .append("  Section: ")
+      .append(section.show())
+      .append(lineSeparator)
+      .append("  Problem: ")
+      .append(message)
+      .append(lineSeparator)
+      .toString();
+  }
+
+  private static long alignUp(
+    final long size)
+  {
+    return (size + 15L) & ~15L;
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.ironsegment.basic.internal;
+
+import com.io7m.ironsegment.api.ISFileSectionDescription;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * An immutable index of the sections in a file, built once when the file is
+ * opened.
+ */
+
+public final class IS1SectionIndex
+{
+  private final List<ISFileSectionDescription> sections;
+  private final Map<ISFileSectionDescription, Integer> ordinals;
+  private final Map<Long, List<ISFileSectionDescription>> byIdentifier;
+
+  /**
+   * Build an index of the given sections.
+   *
+   * @param inSections The sections, in file order
+   */
+
+  public IS1SectionIndex(
+    final List<ISFileSectionDescription> inSections)
+  {
+    this.sections =
+      List.copyOf(Objects.requireNonNull(inSections, "sections"));
+
+    final var size = this.sections.size();
+    final var ordinalsMut =
+      HashMap.<ISFileSectionDescription, Integer>newHashMap(size);
+    final var byIdentifierMut =
+      new HashMap<Long, List<ISFileSectionDescription>>();
+
+    for (int index = 0; index < size; ++index) {
+      final var section = this.sections.get(index);
+      ordinalsMut.putIfAbsent(section, Integer.valueOf(index));
+      byIdentifierMut.computeIfAbsent(
+        Long.valueOf(section.description().identifier()),
+        k -> new ArrayList<>()
+      ).add(section);
+    }
+
+    byIdentifierMut.replaceAll((k, v) -> List.copyOf(v));
+    this.ordinals = Map.copyOf(ordinalsMut);
+    this.byIdentifier = Map.copyOf(byIdentifierMut);
+  }
+
+  /**
+   * @return The sections, in file order
+   */
+
+  public List<ISFileSectionDescription> sections()
+  {
+    return this.sections;
+  }
+
+  /**
+   * @param section The section
+   *
+   * @return {@code true} if the file contains the section
+   */
+
+  public boolean contains(
+    final ISFileSectionDescription section)
+  {
+    return this.ordinals.containsKey(section);
+  }
+
+  /**
+   * @param identifier The section identifier
+   *
+   * @return The sections with the given identifier, in file order
+   */
+
+  public List<ISFileSectionDescription> withIdentifier(
+    final long identifier)
+  {
+    return this.byIdentifier.getOrDefault(Long.valueOf(identifier), List.of());
+  }
+}
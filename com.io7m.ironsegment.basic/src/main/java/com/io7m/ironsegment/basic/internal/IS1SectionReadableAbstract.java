@@ -22,10 +22,9 @@ import com.io7m.ironsegment.api.ISSectionDescription;
 import com.io7m.ironsegment.api.ISSectionReadableType;
 import com.io7m.ironsegment.parser.api.ISParseRequest;
 import com.io7m.jbssio.api.BSSReaderRandomAccessType;
-import com.io7m.wendover.core.ReadOnlySeekableByteChannel;
-import com.io7m.wendover.core.SubrangeSeekableByteChannel;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.channels.SeekableByteChannel;
 import java.util.Objects;
 
@@ -37,16 +36,20 @@ public abstract class IS1SectionReadableAbstract
   implements ISSectionReadableType
 {
   private final BSSReaderRandomAccessType reader;
+  private final IS1DataSourceType source;
   private final ISParseRequest request;
   private final ISFileSectionDescription description;
 
   protected IS1SectionReadableAbstract(
     final BSSReaderRandomAccessType inReader,
+    final IS1DataSourceType inSource,
     final ISParseRequest inRequest,
     final ISFileSectionDescription inDescription)
   {
     this.reader =
       Objects.requireNonNull(inReader, "reader");
+    this.source =
+      Objects.requireNonNull(inSource, "source");
     this.request =
       Objects.requireNonNull(inRequest, "request");
     this.description =
@@ -69,6 +72,11 @@ public abstract class IS1SectionReadableAbstract
     return this.reader;
   }
 
+  protected final IS1DataSourceType source()
+  {
+    return this.source;
+  }
+
   @Override
   public final ISSectionDescription description()
   {
@@ -79,18 +87,20 @@ public abstract class IS1SectionReadableAbstract
   public final SeekableByteChannel sectionDataChannel()
     throws IOException
   {
-    final var baseReadable =
-      new ReadOnlySeekableByteChannel(this.request.channel());
-
-    final var channel =
-      new SubrangeSeekableByteChannel(
-        baseReadable,
-        this.description.fileOffsetData(),
-        this.description.description().size()
-      );
-
-    channel.position(0L);
-    return channel;
+    return this.source.channel(
+      this.description.fileOffsetData(),
+      this.description.description().size()
+    );
+  }
+
+  @Override
+  public final ByteBuffer sectionData()
+    throws IOException
+  {
+    return this.source.slice(
+      this.description.fileOffsetData(),
+      this.description.description().size()
+    );
   }
 
   @Override
@@ -110,7 +120,7 @@ public abstract class IS1SectionReadableAbstract
     text.append(lineSeparator);
     text.append("  At file offset 0x");
     text.append(Long.toUnsignedString(
-      this.reader().offsetCurrentAbsolute(),
+      this.description.fileOffsetData(),
       16));
     text.append(" we encountered data with a size specified as ");
     text.append(Long.toUnsignedString(length));
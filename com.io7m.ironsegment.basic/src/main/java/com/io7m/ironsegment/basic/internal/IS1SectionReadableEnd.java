@@ -34,14 +34,16 @@ public final class IS1SectionReadableEnd
    *
    * @param inDescription The description
    * @param inReader      The reader
+   * @param inSource      The data source
    * @param inRequest     The request
    */
 
   public IS1SectionReadableEnd(
     final BSSReaderRandomAccessType inReader,
+    final IS1DataSourceType inSource,
     final ISParseRequest inRequest,
     final ISFileSectionDescription inDescription)
   {
-    super(inReader, inRequest, inDescription);
+    super(inReader, inSource, inRequest, inDescription);
   }
 }
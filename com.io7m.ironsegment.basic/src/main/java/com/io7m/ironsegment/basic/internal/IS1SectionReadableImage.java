@@ -0,0 +1,961 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.ironsegment.basic.internal;
+
+import com.io7m.ironsegment.api.ISFileSectionDescription;
+import com.io7m.ironsegment.api.ISImageCodec;
+import com.io7m.ironsegment.api.ISImageID;
+import com.io7m.ironsegment.api.ISImageInfo;
+import com.io7m.ironsegment.api.ISImagePalette;
+import com.io7m.ironsegment.api.ISImageRegion;
+import com.io7m.ironsegment.api.ISImageRunVisitorType;
+import com.io7m.ironsegment.api.ISManifest;
+import com.io7m.ironsegment.api.ISSectionReadableImageType;
+import com.io7m.ironsegment.parser.api.ISParseRequest;
+import com.io7m.jbssio.api.BSSReaderRandomAccessType;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.util.ArrayList;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+
+import static com.io7m.ironsegment.api.ISIdentifiers.sectionImageEncodedIdentifier;
+import static com.io7m.ironsegment.api.ISIdentifiers.sectionImageTiledIdentifier;
+import static com.io7m.ironsegment.basic.internal.IS1ImageCodecs.ENCODED_HEADER_SIZE;
+import static com.io7m.ironsegment.basic.internal.IS1ImageCodecs.TILED_HEADER_SIZE;
+
+/**
+ * A readable image section. Sections with the encoded image identifier store
+ * the pixel data using an image codec, and the data is decoded on access.
+ * Sections with the tiled image identifier store a grid of independently
+ * encoded tiles. Untiled images are treated as consisting of a single tile.
+ */
+
+public final class IS1SectionReadableImage
+  extends IS1SectionReadableAbstract implements ISSectionReadableImageType
+{
+  private final ISIOOperationType<ISManifest> manifest;
+  private volatile Layout layout;
+
+  /**
+   * The location and encoding of the image data within the section.
+   *
+   * @param info        The image information
+   * @param codec       The codec
+   * @param grid        The tile grid
+   * @param tableOffset The file offset of the tile table, or {@code -1} if
+   *                    the image is not tiled
+   * @param dataOffset  The file offset of the (possibly encoded) data
+   * @param dataSize    The size of the (possibly encoded) data
+   */
+
+  private record Layout(
+    ISImageInfo info,
+    ISImageCodec codec,
+    IS1ImageTileGrid grid,
+    long tableOffset,
+    long dataOffset,
+    long dataSize)
+  {
+    boolean isTiled()
+    {
+      return this.tableOffset >= 0L;
+    }
+  }
+
+  /**
+   * The location of a single encoded tile.
+   *
+   * @param offset The file offset of the tile data
+   * @param size   The size of the tile data
+   */
+
+  private record TileRange(
+    long offset,
+    long size)
+  {
+
+  }
+
+  /**
+   * A readable image section.
+   *
+   * @param inDescription The description
+   * @param inReader      The reader
+   * @param inSource      The data source
+   * @param inRequest     The request
+   * @param inManifest    A function that yields the file's manifest
+   */
+
+  public IS1SectionReadableImage(
+    final BSSReaderRandomAccessType inReader,
+    final IS1DataSourceType inSource,
+    final ISParseRequest inRequest,
+    final ISFileSectionDescription inDescription,
+    final ISIOOperationType<ISManifest> inManifest)
+  {
+    super(inReader, inSource, inRequest, inDescription);
+    this.manifest = Objects.requireNonNull(inManifest, "manifest");
+  }
+
+  @Override
+  public ISImageInfo info()
+    throws IOException
+  {
+    return this.layout().info();
+  }
+
+  @Override
+  public ISImageCodec codec()
+    throws IOException
+  {
+    return this.layout().codec();
+  }
+
+  private Layout layout()
+    throws IOException
+  {
+    var result = this.layout;
+    if (result == null) {
+      result = this.loadLayout();
+      this.layout = result;
+    }
+    return result;
+  }
+
+  /**
+   * Read the ID of the image contained within the section. This does not
+   * require the manifest.
+   *
+   * @return The image ID
+   *
+   * @throws IOException On errors
+   */
+
+  ISImageID imageId()
+    throws IOException
+  {
+    final var sectionSize =
+      this.description().size();
+
+    if (Long.compareUnsigned(sectionSize, 4L) < 0) {
+      throw new IOException(this.errorTooSmall(sectionSize, 4L));
+    }
+
+    return new ISImageID(
+      Integer.toUnsignedLong(
+        this.source()
+          .slice(this.fileSectionDescription().fileOffsetData(), 4L)
+          .getInt(0)
+      )
+    );
+  }
+
+  private Layout loadLayout()
+    throws IOException
+  {
+    final var imageId =
+      this.imageId();
+
+    final var images =
+      this.manifest.execute().images();
+    final var image =
+      images.images().get(imageId);
+
+    if (image == null) {
+      throw new IOException(this.errorNotInManifest(imageId));
+    }
+
+    final var info =
+      new ISImageInfo(
+        imageId,
+        image.semantic(),
+        images.width(),
+        images.height()
+      );
+
+    final var identifier = this.description().identifier();
+    if (identifier == sectionImageEncodedIdentifier()) {
+      return this.loadLayoutEncoded(info);
+    }
+    if (identifier == sectionImageTiledIdentifier()) {
+      return this.loadLayoutTiled(info);
+    }
+    return this.loadLayoutRaw(info);
+  }
+
+  private Layout loadLayoutRaw(
+    final ISImageInfo info)
+    throws IOException
+  {
+    final var sectionSize = this.description().size();
+    final var required = 4L + info.dataSizeOctets();
+    if (Long.compareUnsigned(sectionSize, required) < 0) {
+      throw new IOException(this.errorTooSmall(sectionSize, required));
+    }
+
+    return new Layout(
+      info,
+      ISImageCodec.RAW,
+      IS1ImageTileGrid.untiled(info),
+      -1L,
+      this.fileSectionDescription().fileOffsetData() + 4L,
+      info.dataSizeOctets()
+    );
+  }
+
+  private Layout loadLayoutEncoded(
+    final ISImageInfo info)
+    throws IOException
+  {
+    final var sectionSize = this.description().size();
+    if (Long.compareUnsigned(sectionSize, ENCODED_HEADER_SIZE) < 0) {
+      throw new IOException(
+        this.errorTooSmall(sectionSize, ENCODED_HEADER_SIZE));
+    }
+
+    final var dataStart =
+      this.fileSectionDescription().fileOffsetData();
+    final var header =
+      this.source().slice(dataStart, ENCODED_HEADER_SIZE);
+    final var codec =
+      this.codecOf(header.getInt(4));
+    final var decodedSize =
+      header.getLong(8);
+    final var encodedSize =
+      header.getLong(16);
+
+    if (decodedSize != info.dataSizeOctets()) {
+      throw new IOException(this.errorDecodedSize(info, decodedSize));
+    }
+
+    final var required = ENCODED_HEADER_SIZE + encodedSize;
+    if (Long.compareUnsigned(encodedSize, sectionSize) > 0
+        || Long.compareUnsigned(sectionSize, required) < 0) {
+      throw new IOException(this.errorTooSmall(sectionSize, required));
+    }
+
+    return new Layout(
+      info,
+      codec,
+      IS1ImageTileGrid.untiled(info),
+      -1L,
+      dataStart + ENCODED_HEADER_SIZE,
+      encodedSize
+    );
+  }
+
+  private Layout loadLayoutTiled(
+    final ISImageInfo info)
+    throws IOException
+  {
+    final var sectionSize = this.description().size();
+    if (Long.compareUnsigned(sectionSize, TILED_HEADER_SIZE) < 0) {
+      throw new IOException(
+        this.errorTooSmall(sectionSize, TILED_HEADER_SIZE));
+    }
+
+    final var dataStart =
+      this.fileSectionDescription().fileOffsetData();
+    final var header =
+      this.source().slice(dataStart, TILED_HEADER_SIZE);
+    final var codec =
+      this.codecOf(header.getInt(4));
+
+    final IS1ImageTileGrid grid;
+    try {
+      grid = new IS1ImageTileGrid(
+        info,
+        Integer.toUnsignedLong(header.getInt(8)),
+        Integer.toUnsignedLong(header.getInt(12))
+      );
+    } catch (final IllegalArgumentException e) {
+      throw new IOException(this.errorTileTable(e.getMessage()), e);
+    }
+
+    final long required;
+    try {
+      required = Math.addExact(
+        TILED_HEADER_SIZE,
+        Math.multiplyExact(grid.tileCount() + 1L, 8L)
+      );
+    } catch (final ArithmeticException e) {
+      throw new IOException(this.errorTileTable(e.getMessage()), e);
+    }
+
+    if (Long.compareUnsigned(sectionSize, required) < 0) {
+      throw new IOException(this.errorTooSmall(sectionSize, required));
+    }
+
+    return new Layout(
+      info,
+      codec,
+      grid,
+      dataStart + TILED_HEADER_SIZE,
+      dataStart + required,
+      sectionSize - required
+    );
+  }
+
+  private ISImageCodec codecOf(
+    final int codecCode)
+    throws IOException
+  {
+    return ISImageCodec.ofCode(codecCode)
+      .orElseThrow(() -> {
+        return new IOException(this.errorUnsupportedCodec(codecCode));
+      });
+  }
+
+  private TileRange tileRange(
+    final Layout current,
+    final long index)
+    throws IOException
+  {
+    if (!current.isTiled()) {
+      return new TileRange(current.dataOffset(), current.dataSize());
+    }
+
+    final var entry =
+      this.source().slice(current.tableOffset() + (index * 8L), 16L);
+    final var start =
+      entry.getLong(0);
+    final var end =
+      entry.getLong(8);
+
+    if (Long.compareUnsigned(start, end) > 0
+        || Long.compareUnsigned(end, current.dataSize()) > 0) {
+      throw new IOException(
+        this.errorTileTable(
+          "Tile %d has an invalid range [%s, %s)".formatted(
+            Long.valueOf(index),
+            Long.toUnsignedString(start),
+            Long.toUnsignedString(end))
+        )
+      );
+    }
+
+    return new TileRange(current.dataOffset() + start, end - start);
+  }
+
+  @Override
+  public SeekableByteChannel imageDataChannel()
+    throws IOException
+  {
+    final var current = this.layout();
+    if (current.codec() == ISImageCodec.RAW && !current.isTiled()) {
+      return this.source().channel(current.dataOffset(), current.dataSize());
+    }
+    return new IS1ByteBufferChannel(this.imageData());
+  }
+
+  @Override
+  public ByteBuffer imageData()
+    throws IOException
+  {
+    final var current = this.layout();
+    if (current.codec() == ISImageCodec.RAW && !current.isTiled()) {
+      return this.source().slice(current.dataOffset(), current.dataSize());
+    }
+
+    final var size =
+      current.info().dataSizeOctets();
+    if (Long.compareUnsigned(size, Integer.MAX_VALUE) > 0) {
+      throw new IOException(this.errorTargetTooSmall(size, Integer.MAX_VALUE));
+    }
+
+    final var buffer = ByteBuffer.allocate((int) size);
+    this.decodeInto(current, buffer, ForkJoinPool.commonPool());
+    return buffer.flip().asReadOnlyBuffer();
+  }
+
+  @Override
+  public void imageDataDecode(
+    final ByteBuffer target,
+    final ExecutorService executor)
+    throws IOException
+  {
+    Objects.requireNonNull(target, "target");
+    Objects.requireNonNull(executor, "executor");
+
+    final var current = this.layout();
+    final var size = current.info().dataSizeOctets();
+    if (Long.compareUnsigned(size, target.remaining()) > 0) {
+      throw new IOException(this.errorTargetTooSmall(size, target.remaining()));
+    }
+
+    this.decodeInto(current, target, executor);
+  }
+
+  private void decodeInto(
+    final Layout current,
+    final ByteBuffer target,
+    final ExecutorService executor)
+    throws IOException
+  {
+    if (current.isTiled()) {
+      final var info = current.info();
+      this.decodeRegion(
+        current,
+        new ISImageRegion(0L, 0L, info.width(), info.height()),
+        target,
+        executor
+      );
+      return;
+    }
+
+    final var data =
+      this.source().slice(current.dataOffset(), current.dataSize());
+
+    try {
+      IS1ImageCodecs.forCodec(current.codec())
+        .decode(current.info(), data, target);
+    } catch (final IOException e) {
+      throw new IOException(this.errorDecode(current.codec(), e), e);
+    }
+  }
+
+  @Override
+  public void imageDataDecodeRegion(
+    final ISImageRegion region,
+    final ByteBuffer target,
+    final ExecutorService executor)
+    throws IOException
+  {
+    Objects.requireNonNull(region, "region");
+    Objects.requireNonNull(target, "target");
+    Objects.requireNonNull(executor, "executor");
+
+    final var current = this.layout();
+    final var info = current.info();
+    if (!region.isWithin(info)) {
+      throw new IllegalArgumentException(
+        "Region %s does not lie within the %dx%d image"
+          .formatted(
+            region,
+            Long.valueOf(info.width()),
+            Long.valueOf(info.height()))
+      );
+    }
+
+    final var size =
+      Math.multiplyExact(region.pixelCount(), info.semantic().pixelSizeOctets());
+    if (Long.compareUnsigned(size, target.remaining()) > 0) {
+      throw new IOException(this.errorTargetTooSmall(size, target.remaining()));
+    }
+
+    this.decodeRegion(current, region, target, executor);
+  }
+
+  private void decodeRegion(
+    final Layout current,
+    final ISImageRegion region,
+    final ByteBuffer target,
+    final ExecutorService executor)
+    throws IOException
+  {
+    final var grid =
+      current.grid();
+    final var base =
+      target.position();
+    final var size =
+      (int) (region.pixelCount() * current.info().semantic().pixelSizeOctets());
+
+    final var tileX0 = region.x() / grid.tileWidth();
+    final var tileY0 = region.y() / grid.tileHeight();
+    final var tileX1 = (region.x() + region.width() - 1L) / grid.tileWidth();
+    final var tileY1 = (region.y() + region.height() - 1L) / grid.tileHeight();
+
+    final var tasks = new ArrayList<Callable<Void>>();
+    for (long tileY = tileY0; tileY <= tileY1; ++tileY) {
+      for (long tileX = tileX0; tileX <= tileX1; ++tileX) {
+        final var index = grid.tileIndex(tileX, tileY);
+        tasks.add(() -> {
+          this.decodeTileRegion(current, index, region, target, base);
+          return null;
+        });
+      }
+    }
+
+    /*
+     * Each tile writes to a disjoint part of the target buffer using
+     * absolute operations, so tiles can be decoded concurrently.
+     */
+
+    if (tasks.size() == 1) {
+      this.decodeTileRegion(
+        current,
+        grid.tileIndex(tileX0, tileY0),
+        region,
+        target,
+        base
+      );
+    } else {
+      runAll(executor, tasks);
+    }
+
+    target.position(base + size);
+  }
+
+  private static void runAll(
+    final ExecutorService executor,
+    final ArrayList<Callable<Void>> tasks)
+    throws IOException
+  {
+    try {
+      for (final var future : executor.invokeAll(tasks)) {
+        future.get();
+      }
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException(e.getMessage());
+    } catch (final ExecutionException e) {
+      final var cause = e.getCause();
+      if (cause instanceof final IOException x) {
+        throw x;
+      }
+      if (cause instanceof final RuntimeException x) {
+        throw x;
+      }
+      throw new IOException(cause);
+    }
+  }
+
+  private void decodeTileRegion(
+    final Layout current,
+    final long index,
+    final ISImageRegion region,
+    final ByteBuffer target,
+    final int base)
+    throws IOException
+  {
+    final var grid =
+      current.grid();
+    final var tileInfo =
+      grid.tileInfo(index);
+    final var tileX =
+      grid.tilePixelX(index);
+    final var tileY =
+      grid.tilePixelY(index);
+    final var pixelSize =
+      current.info().semantic().pixelSizeOctets();
+
+    final var x0 = Math.max(region.x(), tileX);
+    final var y0 = Math.max(region.y(), tileY);
+    final var x1 = Math.min(region.x() + region.width(), tileX + tileInfo.width());
+    final var y1 = Math.min(region.y() + region.height(), tileY + tileInfo.height());
+
+    final var rowSize =
+      (int) ((x1 - x0) * pixelSize);
+    final var tileStride =
+      tileInfo.width() * pixelSize;
+    final var regionStride =
+      region.width() * pixelSize;
+    final var sourceStart =
+      (((y0 - tileY) * tileInfo.width()) + (x0 - tileX)) * pixelSize;
+    final var targetStart =
+      base + ((((y0 - region.y()) * region.width()) + (x0 - region.x())) * pixelSize);
+    final var rows =
+      (int) (y1 - y0);
+
+    final var range = this.tileRange(current, index);
+
+    /*
+     * Uncompressed tiles are copied directly from the file, reading only
+     * the rows that intersect the region. If the rows are contiguous in both
+     * the tile and the target, they are copied in a single operation.
+     */
+
+    if (current.codec() == ISImageCodec.RAW) {
+      this.checkRawTileSize(current, index, tileInfo, range);
+
+      if (rowSize == tileStride && rowSize == regionStride) {
+        final var data =
+          this.source().slice(range.offset() + sourceStart, (long) rowSize * rows);
+        target.put((int) targetStart, data, 0, data.remaining());
+        return;
+      }
+
+      for (int row = 0; row < rows; ++row) {
+        final var data =
+          this.source().slice(
+            range.offset() + sourceStart + (row * tileStride),
+            rowSize
+          );
+        target.put((int) (targetStart + (row * regionStride)), data, 0, rowSize);
+      }
+      return;
+    }
+
+    final var decoded =
+      this.decodeTile(current, index, tileInfo, range);
+
+    for (int row = 0; row < rows; ++row) {
+      target.put(
+        (int) (targetStart + (row * regionStride)),
+        decoded,
+        (int) (sourceStart + (row * tileStride)),
+        rowSize
+      );
+    }
+  }
+
+  private ByteBuffer decodeTile(
+    final Layout current,
+    final long index,
+    final ISImageInfo tileInfo,
+    final TileRange range)
+    throws IOException
+  {
+    final var data =
+      this.source().slice(range.offset(), range.size());
+
+    if (current.codec() == ISImageCodec.RAW) {
+      this.checkRawTileSize(current, index, tileInfo, range);
+      return data;
+    }
+
+    final var decoded =
+      ByteBuffer.allocate((int) tileInfo.dataSizeOctets());
+
+    try {
+      IS1ImageCodecs.forCodec(current.codec())
+        .decode(tileInfo, data, decoded);
+    } catch (final IOException e) {
+      throw new IOException(this.errorDecode(current.codec(), e), e);
+    }
+    return decoded.flip();
+  }
+
+  private void checkRawTileSize(
+    final Layout current,
+    final long index,
+    final ISImageInfo tileInfo,
+    final TileRange range)
+    throws IOException
+  {
+    if (range.size() != tileInfo.dataSizeOctets()) {
+      throw new IOException(
+        this.errorDecode(
+          current.codec(),
+          new IOException(
+            "Tile %d has size %s but should have size %s".formatted(
+              Long.valueOf(index),
+              Long.toUnsignedString(range.size()),
+              Long.toUnsignedString(tileInfo.dataSizeOctets())))
+        )
+      );
+    }
+  }
+
+  @Override
+  public void imageDataExpandFloats(
+    final float[] target,
+    final int offset)
+    throws IOException
+  {
+    Objects.requireNonNull(target, "target");
+
+    IS1ImageSamples.expandFloats(
+      this.info().semantic(),
+      this.imageData(),
+      target,
+      offset
+    );
+  }
+
+  @Override
+  public void imageDataExpandShorts(
+    final short[] target,
+    final int offset)
+    throws IOException
+  {
+    Objects.requireNonNull(target, "target");
+
+    IS1ImageSamples.expandShorts(
+      this.info().semantic(),
+      this.imageData(),
+      target,
+      offset
+    );
+  }
+
+  @Override
+  public Optional<ISImagePalette> imageDataPalette()
+    throws IOException
+  {
+    final var current = this.layout();
+    if (!hasPalette(current)) {
+      return Optional.empty();
+    }
+
+    final var data =
+      this.source().slice(current.dataOffset(), current.dataSize());
+
+    try {
+      return Optional.of(IS1ImageCodecPalette.paletteOf(current.info(), data));
+    } catch (final IOException e) {
+      throw new IOException(this.errorDecode(current.codec(), e), e);
+    }
+  }
+
+  @Override
+  public void imageDataPaletteIndices(
+    final ByteBuffer target)
+    throws IOException
+  {
+    Objects.requireNonNull(target, "target");
+
+    final var palette =
+      this.imageDataPalette()
+        .orElseThrow(() -> new IOException(this.errorNoPalette()));
+
+    final var current = this.layout();
+    final var size =
+      current.info().pixelCount() * palette.indexSizeOctets();
+    if (Long.compareUnsigned(size, target.remaining()) > 0) {
+      throw new IOException(this.errorTargetTooSmall(size, target.remaining()));
+    }
+
+    final var data =
+      this.source().slice(current.dataOffset(), current.dataSize());
+
+    try {
+      IS1ImageCodecPalette.decodeIndices(current.info(), data, target);
+    } catch (final IOException e) {
+      throw new IOException(this.errorDecode(current.codec(), e), e);
+    }
+  }
+
+  private static boolean hasPalette(
+    final Layout current)
+  {
+    return current.codec() == ISImageCodec.PALETTE && !current.isTiled();
+  }
+
+  @Override
+  public void imageDataVisitRuns(
+    final ISImageRunVisitorType visitor)
+    throws IOException
+  {
+    Objects.requireNonNull(visitor, "visitor");
+
+    final var current = this.layout();
+    final var grid = current.grid();
+    final var tileCount = grid.tileCount();
+
+    for (long index = 0L; index < tileCount; ++index) {
+      final var tileInfo =
+        grid.tileInfo(index);
+      final var tileX =
+        grid.tilePixelX(index);
+      final var tileY =
+        grid.tilePixelY(index);
+      final var range =
+        this.tileRange(current, index);
+
+      if (current.codec() == ISImageCodec.RLE) {
+        final var data = this.source().slice(range.offset(), range.size());
+        try {
+          IS1ImageCodecRLE.visitRuns(tileInfo, data, tileX, tileY, visitor);
+        } catch (final IOException e) {
+          throw new IOException(this.errorDecode(current.codec(), e), e);
+        }
+        continue;
+      }
+
+      IS1ImageCodecRLE.visitRunsDecoded(
+        tileInfo,
+        this.decodeTile(current, index, tileInfo, range),
+        tileX,
+        tileY,
+        visitor
+      );
+    }
+  }
+
+  private String errorTileTable(
+    final String message)
+  {
+    final var lineSeparator = System.lineSeparator();
+    return new StringBuilder(64)
+      .append("Image section has a malformed tile table.")
+      .append(lineSeparator)
+      .append("  File: ")
+      .append(this.request().source())
+      .append(lineSeparator)
+      .append("  Section: ")
+      .append(this.fileSectionDescription().show())
+      .append(lineSeparator)
+      .append("  Problem: ")
+      .append(message)
+      .append(lineSeparator)
+      .toString();
+  }
+
+  private String errorDecode(
+    final ISImageCodec codec,
+    final IOException e)
+  {
+    final var lineSeparator = System.lineSeparator();
+    return new StringBuilder(64)
+      .append("Image data could not be decoded.")
+      .append(lineSeparator)
+      .append("  File: ")
+      .append(this.request().source())
+      .append(lineSeparator)
+      .append("  Section: ")
+      .append(this.fileSectionDescription().show())
+      .append(lineSeparator)
+      .append("  Codec: ")
+      .append(codec)
+      .append(lineSeparator)
+      .append("  Problem: ")
+      .append(e.getMessage())
+      .append(lineSeparator)
+      .toString();
+  }
+
+  private String errorUnsupportedCodec(
+    final int codecCode)
+  {
+    final var lineSeparator = System.lineSeparator();
+    return new StringBuilder(64)
+      .append("Image section uses an unsupported codec.")
+      .append(lineSeparator)
+      .append("  File: ")
+      .append(this.request().source())
+      .append(lineSeparator)
+      .append("  Section: ")
+      .append(this.fileSectionDescription().show())
+      .append(lineSeparator)
+      .append("  Codec: ")
+      .append(Integer.toUnsignedString(codecCode))
+      .append(lineSeparator)
+      .toString();
+  }
+
+  private String errorDecodedSize(
+    final ISImageInfo info,
+    final long decodedSize)
+  {
+    final var lineSeparator = System.lineSeparator();
+    return new StringBuilder(64)
+      .append("Image section declares a size that does not match the manifest.")
+      .append(lineSeparator)
+      .append("  File: ")
+      .append(this.request().source())
+      .append(lineSeparator)
+      .append("  Section: ")
+      .append(this.fileSectionDescription().show())
+      .append(lineSeparator)
+      .append("  Expected: ")
+      .append(Long.toUnsignedString(info.dataSizeOctets()))
+      .append(lineSeparator)
+      .append("  Received: ")
+      .append(Long.toUnsignedString(decodedSize))
+      .append(lineSeparator)
+      .toString();
+  }
+
+  private String errorTargetTooSmall(
+    final long required,
+    final long remaining)
+  {
+    final var lineSeparator = System.lineSeparator();
+    return new StringBuilder(64)
+      .append("Target buffer is too small to hold the image data.")
+      .append(lineSeparator)
+      .append("  File: ")
+      .append(this.request().source())
+      .append(lineSeparator)
+      .append("  Section: ")
+      .append(this.fileSectionDescription().show())
+      .append(lineSeparator)
+      .append("  Required size: ")
+      .append(Long.toUnsignedString(required))
+      .append(lineSeparator)
+      .append("  Buffer size: ")
+      .append(Long.toUnsignedString(remaining))
+      .append(lineSeparator)
+      .toString();
+  }
+
+  private String errorNoPalette()
+  {
+    final var lineSeparator = System.lineSeparator();
+    return new StringBuilder(64)
+      .append("Image data is not stored with a palette.")
+      .append(lineSeparator)
+      .append("  File: ")
+      .append(this.request().source())
+      .append(lineSeparator)
+      .append("  Section: ")
+      .append(this.fileSectionDescription().show())
+      .append(lineSeparator)
+      .toString();
+  }
+
+  private String errorNotInManifest(
+    final ISImageID imageId)
+  {
+    final var lineSeparator = System.lineSeparator();
+    return new StringBuilder(64)
+      .append("Image section refers to an image not present in the manifest.")
+      .append(lineSeparator)
+      .append("  File: ")
+      .append(this.request().source())
+      .append(lineSeparator)
+      .append("  Section: ")
+      .append(this.fileSectionDescription().show())
+      .append(lineSeparator)
+      .append("  Image ID: ")
+      .append(imageId)
+      .append(lineSeparator)
+      .toString();
+  }
+
+  private String errorTooSmall(
+    final long sectionSize,
+    final long required)
+  {
+    final var lineSeparator = System.lineSeparator();
+    return new StringBuilder(64)
+      .append("Image section is too small.")
+      .append(lineSeparator)
+      .append("  File: ")
+      .append(this.request().source())
+      .append(lineSeparator)
+      .append("  Section: ")
+      .append(this.fileSectionDescription().show())
+      .append(lineSeparator)
+      .append("  Required size: ")
+      .append(Long.toUnsignedString(required))
+      .append(lineSeparator)
+      .append("  Section size: ")
+      .append(Long.toUnsignedString(sectionSize))
+      .append(lineSeparator)
+      .toString();
+  }
+}
@@ -20,97 +20,235 @@ package com.io7m.ironsegment.basic.internal;
 import com.io7m.anethum.api.ParsingException;
 import com.io7m.ironsegment.api.ISFileSectionDescription;
 import com.io7m.ironsegment.api.ISManifest;
+import com.io7m.ironsegment.api.ISManifestVisitorType;
 import com.io7m.ironsegment.api.ISSectionReadableManifestType;
-import com.io7m.ironsegment.basic.ISManifestParsers;
+import com.io7m.ironsegment.parser.api.ISFileIdentity;
+import com.io7m.ironsegment.parser.api.ISManifestCacheKey;
+import com.io7m.ironsegment.parser.api.ISManifestCacheType;
+import com.io7m.ironsegment.parser.api.ISManifestMode;
 import com.io7m.ironsegment.parser.api.ISParseRequest;
 import com.io7m.jbssio.api.BSSReaderRandomAccessType;
-import com.io7m.wendover.core.CloseShieldSeekableByteChannel;
-import com.io7m.wendover.core.ReadOnlySeekableByteChannel;
-import com.io7m.wendover.core.SubrangeSeekableByteChannel;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
 import java.nio.channels.Channels;
+import java.util.Objects;
+import java.util.Optional;
+
+import static com.io7m.ironsegment.api.ISIdentifiers.sectionManifestBinaryIdentifier;
 
 /**
- * A readable manifest section.
+ * A readable manifest section. Binary manifests are structurally checked as
+ * they are decoded, and are not affected by the manifest mode of the parse
+ * request.
  */
 
 public final class IS1SectionReadableManifest
   extends IS1SectionReadableAbstract implements ISSectionReadableManifestType
 {
-  private static final ISManifestParsers PARSERS =
-    new ISManifestParsers();
+  private final ISManifestCacheType manifestCache;
+  private final Optional<ISFileIdentity> identity;
 
   /**
    * A readable manifest section.
    *
-   * @param inDescription The description
-   * @param inReader      The reader
-   * @param inRequest     The request
+   * @param inDescription   The description
+   * @param inReader        The reader
+   * @param inSource        The data source
+   * @param inRequest       The request
+   * @param inManifestCache The manifest cache
+   * @param inIdentity      The identity of the file, if known
    */
 
   public IS1SectionReadableManifest(
     final BSSReaderRandomAccessType inReader,
+    final IS1DataSourceType inSource,
     final ISParseRequest inRequest,
-    final ISFileSectionDescription inDescription)
+    final ISFileSectionDescription inDescription,
+    final ISManifestCacheType inManifestCache,
+    final Optional<ISFileIdentity> inIdentity)
   {
-    super(inReader, inRequest, inDescription);
+    super(inReader, inSource, inRequest, inDescription);
+
+    this.manifestCache =
+      Objects.requireNonNull(inManifestCache, "manifestCache");
+    this.identity =
+      Objects.requireNonNull(inIdentity, "identity");
   }
 
   @Override
   public ISManifest manifest()
     throws IOException
   {
-    final var reader =
-      this.reader();
-    final var fileOffset =
-      this.fileSectionDescription().fileOffset();
-    final var sectionSize =
-      this.description().size();
+    /*
+     * Manifests can only be cached if the identity of the file could be
+     * determined. The manifest mode forms part of the key so that a manifest
+     * decoded in trusted mode is never served to a caller that asked for
+     * validation.
+     */
+
+    final var key =
+      this.identity.map(file -> {
+        return new ISManifestCacheKey(
+          file,
+          this.fileSectionDescription().fileOffset(),
+          this.request().manifestMode()
+        );
+      });
 
-    reader.seekTo(fileOffset);
-    reader.skip(16L);
+    if (key.isPresent()) {
+      final var cached = this.manifestCache.get(key.get());
+      if (cached.isPresent()) {
+        return cached.get();
+      }
+    }
 
-    try (var subReader =
-           reader.createSubReaderAtBounded(
-             "manifest", 0L, sectionSize)) {
+    final var result =
+      decode(
+        this.request().source(),
+        this.description().identifier(),
+        this.request().manifestMode(),
+        this.manifestData()
+      );
+
+    /*
+     * The file may have been rewritten in place while it was being decoded.
+     * If so, the decoded manifest doesn't necessarily belong to the identity
+     * taken when the file was opened, and must not be cached under it.
+     */
+
+    key.filter(k -> IS1FileIdentities.isUnchanged(k.file()))
+      .ifPresent(k -> this.manifestCache.put(k, result));
+    return result;
+  }
 
-      final var dataLength =
-        subReader.readU32BE();
+  @Override
+  public void manifestVisit(
+    final ISManifestVisitorType visitor)
+    throws IOException
+  {
+    Objects.requireNonNull(visitor, "visitor");
+
+    visit(
+      this.request().source(),
+      this.description().identifier(),
+      this.request().manifestMode(),
+      this.manifestData(),
+      visitor
+    );
+  }
 
-      final var baseChannel =
-        this.request().channel();
+  /**
+   * Decode the encoded manifest data of a section with the given identifier.
+   *
+   * @param fileURI    The file URI, for diagnostics
+   * @param identifier The section identifier
+   * @param mode       The manifest mode
+   * @param text       The encoded manifest, excluding the length prefix
+   * @param visitor    The visitor
+   *
+   * @throws IOException On errors
+   */
 
-      final var dataOffset = this.determineFileSectionDataOffset();
-      baseChannel.position(dataOffset);
+  static void visit(
+    final URI fileURI,
+    final long identifier,
+    final ISManifestMode mode,
+    final ByteBuffer text,
+    final ISManifestVisitorType visitor)
+    throws IOException
+  {
+    if (identifier == sectionManifestBinaryIdentifier()) {
+      IS1ManifestBinary.decode(fileURI, text, visitor);
+      return;
+    }
 
-      final var closeShield =
-        new CloseShieldSeekableByteChannel(baseChannel);
-      final var readOnlyChannel =
-        new ReadOnlySeekableByteChannel(closeShield);
-      final var boundedChannel =
-        new SubrangeSeekableByteChannel(
-          readOnlyChannel,
-          dataOffset,
-          dataLength
-        );
+    try {
+      IS1ManifestDecoder.decode(fileURI, streamOf(text), mode, visitor);
+    } catch (final ParsingException e) {
+      throw new IOException(e);
+    }
+  }
+
+  /**
+   * Decode the encoded manifest data of a section with the given identifier
+   * into a manifest.
+   *
+   * @param fileURI    The file URI, for diagnostics
+   * @param identifier The section identifier
+   * @param mode       The manifest mode
+   * @param text       The encoded manifest, excluding the length prefix
+   *
+   * @return The manifest
+   *
+   * @throws IOException On errors
+   */
 
-      final var textStream =
-        Channels.newInputStream(boundedChannel);
+  static ISManifest decode(
+    final URI fileURI,
+    final long identifier,
+    final ISManifestMode mode,
+    final ByteBuffer text)
+    throws IOException
+  {
+    final var collector = new IS1ManifestCollector();
+    visit(fileURI, identifier, mode, text, collector);
 
-      try {
-        return PARSERS.parse(this.request().source(), textStream);
-      } catch (final ParsingException e) {
-        throw new IOException(e);
-      }
+    try {
+      return collector.toManifest();
+    } catch (final IllegalArgumentException e) {
+      throw new IOException(e);
     }
   }
 
-  private long determineFileSectionDataOffset()
+  private ByteBuffer manifestData()
+    throws IOException
+  {
+    final var source =
+      this.source();
+    final var sectionSize =
+      this.description().size();
+
+    if (Long.compareUnsigned(sectionSize, 4L) < 0) {
+      throw new IOException(this.errorTooSmall(sectionSize));
+    }
+
+    final var dataOffset =
+      this.fileSectionDescription().fileOffsetData();
+    final var dataLength =
+      Integer.toUnsignedLong(source.slice(dataOffset, 4L).getInt(0));
+
+    if (Long.compareUnsigned(dataLength, sectionSize - 4L) > 0) {
+      throw new IOException(
+        this.errorLimitExceeded(dataLength, sectionSize - 4L, "section size")
+      );
+    }
+
+    return source.slice(dataOffset + 4L, dataLength);
+  }
+
+  private static InputStream streamOf(
+    final ByteBuffer buffer)
+  {
+    return Channels.newInputStream(
+      new IS1ByteBufferChannel(buffer.duplicate()));
+  }
+
+  private String errorTooSmall(
+    final long sectionSize)
   {
-    final var fileSectionOffset =
-      this.fileSectionDescription()
-        .fileOffset();
-    return fileSectionOffset + 16L + 4L;
+    final var lineSeparator = System.lineSeparator();
+    return new StringBuilder(64)
+      .append("Manifest section is too small.")
+      .append(lineSeparator)
+      .append("  File: ")
+      .append(this.request().source())
+      .append(lineSeparator)
+      .append("  Section size: ")
+      .append(Long.toUnsignedString(sectionSize))
+      .append(lineSeparator)
+      .toString();
   }
 }
@@ -31,14 +31,16 @@ public final class IS1SectionReadableOther extends IS1SectionReadableAbstract
    *
    * @param inDescription The description
    * @param inReader      The reader
+   * @param inSource      The data source
    * @param inRequest     The request
    */
 
   public IS1SectionReadableOther(
     final BSSReaderRandomAccessType inReader,
+    final IS1DataSourceType inSource,
     final ISParseRequest inRequest,
     final ISFileSectionDescription inDescription)
   {
-    super(inReader, inRequest, inDescription);
+    super(inReader, inSource, inRequest, inDescription);
   }
 }
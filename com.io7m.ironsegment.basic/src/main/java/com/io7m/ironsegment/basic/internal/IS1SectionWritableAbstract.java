@@ -25,7 +25,9 @@ import com.io7m.wendover.core.SubrangeSeekableByteChannel;
 import com.io7m.wendover.core.UpperRangeTrackingSeekableByteChannel;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.util.Objects;
 
 /**
@@ -120,10 +122,44 @@ public abstract class IS1SectionWritableAbstract
     );
   }
 
+  /**
+   * Write the whole of the given buffer to the given channel.
+   *
+   * @param channel The channel
+   * @param buffer  The buffer
+   *
+   * @throws IOException On errors
+   */
+
+  protected static void writeFully(
+    final WritableByteChannel channel,
+    final ByteBuffer buffer)
+    throws IOException
+  {
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+  }
+
+  /**
+   * A method called when the section is closed, before the size of the
+   * section is determined. Sections that buffer data write it here.
+   *
+   * @throws IOException On errors
+   */
+
+  protected void onClosing()
+    throws IOException
+  {
+
+  }
+
   @Override
   public final void close()
     throws IOException
   {
+    this.onClosing();
+
     this.writer.seekTo(this.offsetStart);
     this.writer.skip(16L);
     this.writer.skip(this.wrote);
@@ -17,11 +17,16 @@
 package com.io7m.ironsegment.basic.internal;
 
 
+import com.io7m.ironsegment.api.ISFileSectionDescription;
 import com.io7m.ironsegment.api.ISSectionWritableEndType;
 import com.io7m.ironsegment.api.ISSectionWritableType;
 import com.io7m.ironsegment.writer.api.ISWriteRequest;
+import com.io7m.jbssio.api.BSSWriterProviderType;
 import com.io7m.jbssio.api.BSSWriterRandomAccessType;
 
+import java.io.IOException;
+import java.util.Objects;
+
 /**
  * A writable end section.
  */
@@ -29,9 +34,12 @@ import com.io7m.jbssio.api.BSSWriterRandomAccessType;
 public final class IS1SectionWritableEnd extends IS1SectionWritableAbstract
   implements ISSectionWritableEndType
 {
+  private final BSSWriterProviderType writers;
+
   /**
    * A writable end section.
    *
+   * @param inWriters    A writer provider
    * @param inOnClose    A function executed on closing
    * @param inRequest    A write request
    * @param inIdentifier An identifier
@@ -39,11 +47,37 @@ public final class IS1SectionWritableEnd extends IS1SectionWritableAbstract
    */
 
   public IS1SectionWritableEnd(
+    final BSSWriterProviderType inWriters,
     final BSSWriterRandomAccessType inWriter,
     final ISWriteRequest inRequest,
     final long inIdentifier,
     final ISOnCloseOperationType<ISSectionWritableType> inOnClose)
   {
     super(inWriter, inRequest, inIdentifier, inOnClose);
+    this.writers = Objects.requireNonNull(inWriters, "inWriters");
+  }
+
+  /**
+   * Write the location of the table of contents into the section.
+   *
+   * @param tableOfContents The table of contents section
+   *
+   * @throws IOException On errors
+   */
+
+  void writeTableOfContentsLocation(
+    final ISFileSectionDescription tableOfContents)
+    throws IOException
+  {
+    Objects.requireNonNull(tableOfContents, "tableOfContents");
+
+    try (var channel = this.sectionDataChannel()) {
+      final var targetURI = this.request().target();
+      try (var writer =
+             this.writers.createWriterFromChannel(targetURI, channel, "end")) {
+        writer.writeU64BE(tableOfContents.fileOffset());
+        writer.writeU64BE(tableOfContents.description().size());
+      }
+    }
   }
 }
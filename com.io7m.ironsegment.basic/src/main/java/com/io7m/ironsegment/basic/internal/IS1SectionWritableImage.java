@@ -17,7 +17,11 @@
 package com.io7m.ironsegment.basic.internal;
 
 
+import com.io7m.ironsegment.api.ISImageCodec;
+import com.io7m.ironsegment.api.ISImageCodecChoice;
+import com.io7m.ironsegment.api.ISImageCodecPolicy;
 import com.io7m.ironsegment.api.ISImageID;
+import com.io7m.ironsegment.api.ISImageInfo;
 import com.io7m.ironsegment.api.ISImageSemantic;
 import com.io7m.ironsegment.api.ISSectionWritableImageType;
 import com.io7m.ironsegment.api.ISSectionWritableType;
@@ -28,19 +32,41 @@ import com.io7m.jbssio.api.BSSWriterRandomAccessType;
 import com.io7m.wendover.core.CloseShieldSeekableByteChannel;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.channels.SeekableByteChannel;
 import java.nio.channels.WritableByteChannel;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+
+import static com.io7m.ironsegment.api.ISIdentifiers.sectionImageEncodedIdentifier;
+import static com.io7m.ironsegment.basic.internal.IS1ImageCodecs.ENCODED_HEADER_SIZE;
+import static com.io7m.ironsegment.basic.internal.IS1ImageCodecs.ENCODED_MAXIMUM_SIZE;
 
 /**
- * A writable image section.
+ * A writable image section. Sections with the encoded image identifier
+ * buffer the pixel data in memory and encode it when the section is closed.
+ * If the image data was created adaptively, the codec is selected at the
+ * same time. Uncompressed image data is preallocated according to the
+ * request's {@link com.io7m.ironsegment.writer.api.ISImagePreallocation}
+ * mode; in direct mode, the image data channel writes straight into the
+ * section, rejects writes past the end of the image, and any unwritten
+ * remainder is zero-filled on closing.
  */
 
 public final class IS1SectionWritableImage
   extends IS1SectionWritableAbstract
   implements ISSectionWritableImageType
 {
+  private static final ByteBuffer ZEROES =
+    ByteBuffer.allocate(65536).asReadOnlyBuffer();
+
   private final BSSWriterProviderType writers;
+  private SeekableByteChannel direct;
+  private long directSize;
+  private IS1ImageDataBuffered encoded;
+  private ISImageCodecPolicy policy;
+  private ISImageCodecChoice codecChoice;
 
   /**
    * A writable image info section.
@@ -68,17 +94,70 @@ public final class IS1SectionWritableImage
     final ISImageID imageId,
     final long width,
     final long height,
-    final ISImageSemantic semantic)
+    final ISImageSemantic semantic,
+    final ISImageCodec codec)
     throws IOException
   {
     Objects.requireNonNull(imageId, "imageId");
     Objects.requireNonNull(semantic, "semantic");
+    Objects.requireNonNull(codec, "codec");
+
+    if (this.identifier() == sectionImageEncodedIdentifier()) {
+      return this.createImageDataEncoded(
+        new ISImageInfo(imageId, semantic, width, height),
+        codec,
+        null
+      );
+    }
+
+    if (codec != ISImageCodec.RAW) {
+      throw new IllegalArgumentException(
+        "Codec %s requires an encoded image section".formatted(codec)
+      );
+    }
 
     final var pixelCount =
       Math.multiplyExact(width, height);
     final var dataSize =
       Math.multiplyExact(semantic.pixelSizeOctets(), pixelCount);
 
+    this.codecChoice =
+      new ISImageCodecChoice(
+        this.offsetStart(),
+        imageId,
+        ISImageCodec.RAW,
+        false,
+        dataSize,
+        dataSize,
+        Map.of()
+      );
+
+    return switch (this.request().imagePreallocation()) {
+      case PREALLOCATE_SPARSE -> {
+        this.preallocateSparse(imageId, dataSize);
+        yield new ISWritableImageData(
+          this.request().channel(),
+          this.offsetStartData()
+        );
+      }
+      case PREALLOCATE_ZEROED -> {
+        this.preallocateZeroed(imageId, dataSize);
+        yield new ISWritableImageData(
+          this.request().channel(),
+          this.offsetStartData()
+        );
+      }
+      case PREALLOCATE_NONE -> {
+        yield this.createImageDataDirect(imageId, dataSize);
+      }
+    };
+  }
+
+  private void preallocateSparse(
+    final ISImageID imageId,
+    final long dataSize)
+    throws IOException
+  {
     try (var channel = this.sectionDataChannel()) {
       final var targetURI = this.request().target();
       try (var writer =
@@ -94,13 +173,310 @@ public final class IS1SectionWritableImage
         writer.seekTo(4L);
       }
     }
+  }
+
+  private void preallocateZeroed(
+    final ISImageID imageId,
+    final long dataSize)
+    throws IOException
+  {
+    try (var channel = this.sectionDataChannel()) {
+      writeFully(channel, imageIdOf(imageId));
+      writeZeroes(channel, dataSize);
+    }
+  }
+
+  private ISWritableImageDataType createImageDataDirect(
+    final ISImageID imageId,
+    final long dataSize)
+    throws IOException
+  {
+    final var channel = this.sectionDataChannel();
+    writeFully(channel, imageIdOf(imageId));
+
+    this.direct = channel;
+    this.directSize = 4L + dataSize;
+    return new ISWritableImageDataDirect(
+      new DirectChannel(this, imageId, dataSize, channel)
+    );
+  }
+
+  private static ByteBuffer imageIdOf(
+    final ISImageID imageId)
+  {
+    return ByteBuffer.allocate(4)
+      .putInt((int) imageId.value())
+      .flip();
+  }
+
+  private static void writeZeroes(
+    final WritableByteChannel channel,
+    final long count)
+    throws IOException
+  {
+    var remaining = count;
+    while (remaining > 0L) {
+      final var size = (int) Math.min(remaining, ZEROES.capacity());
+      writeFully(channel, ZEROES.duplicate().limit(size));
+      remaining -= size;
+    }
+  }
+
+  @Override
+  public ISWritableImageDataType createImageDataTiled(
+    final ISImageID imageId,
+    final long width,
+    final long height,
+    final ISImageSemantic semantic,
+    final ISImageCodec codec,
+    final long tileWidth,
+    final long tileHeight)
+  {
+    throw new IllegalArgumentException(
+      "Tiled image data requires a tiled image section"
+    );
+  }
+
+  @Override
+  public ISWritableImageDataType createImageDataAdaptive(
+    final ISImageID imageId,
+    final long width,
+    final long height,
+    final ISImageSemantic semantic,
+    final ISImageCodecPolicy codecPolicy)
+    throws IOException
+  {
+    Objects.requireNonNull(imageId, "imageId");
+    Objects.requireNonNull(semantic, "semantic");
+    Objects.requireNonNull(codecPolicy, "codecPolicy");
+
+    if (this.identifier() != sectionImageEncodedIdentifier()) {
+      throw new IllegalArgumentException(
+        "Adaptive codec selection requires an encoded image section"
+      );
+    }
 
-    return new ISWritableImageData(
-      this.request().channel(),
-      this.offsetStartData()
+    return this.createImageDataEncoded(
+      new ISImageInfo(imageId, semantic, width, height),
+      ISImageCodec.RAW,
+      codecPolicy
     );
   }
 
+  /**
+   * @return The codec used by the section, if the section has image data
+   */
+
+  public Optional<ISImageCodecChoice> codecChoice()
+  {
+    return Optional.ofNullable(this.codecChoice);
+  }
+
+  private ISWritableImageDataType createImageDataEncoded(
+    final ISImageInfo info,
+    final ISImageCodec codec,
+    final ISImageCodecPolicy codecPolicy)
+    throws IOException
+  {
+    final var dataSize = info.dataSizeOctets();
+    if (Long.compareUnsigned(dataSize, ENCODED_MAXIMUM_SIZE) > 0) {
+      throw new IOException(this.errorTooLarge(info));
+    }
+
+    final var data =
+      new IS1ImageDataBuffered(
+        info,
+        codec,
+        ByteBuffer.allocate((int) dataSize)
+      );
+    this.encoded = data;
+    this.policy = codecPolicy;
+    return data;
+  }
+
+  @Override
+  protected void onClosing()
+    throws IOException
+  {
+    final var directChannel = this.direct;
+    if (directChannel != null) {
+      this.direct = null;
+      try (directChannel) {
+        writeZeroes(
+          directChannel,
+          this.directSize - directChannel.position()
+        );
+      }
+      return;
+    }
+
+    final var data = this.encoded;
+    if (data == null) {
+      return;
+    }
+    this.encoded = null;
+
+    final var info =
+      data.info();
+    final var selection =
+      this.policy == null
+        ? new IS1ImageCodecSelection(data.codec(), Map.of())
+        : IS1ImageCodecSelector.select(info, data.data(), this.policy);
+    final var codec =
+      selection.codec();
+    final var encodedData =
+      IS1ImageCodecs.forCodec(codec)
+        .encode(info, data.data());
+
+    this.codecChoice =
+      new ISImageCodecChoice(
+        this.offsetStart(),
+        info.imageId(),
+        codec,
+        this.policy != null,
+        info.dataSizeOctets(),
+        encodedData.remaining(),
+        selection.trialSizes()
+      );
+
+    final var header =
+      ByteBuffer.allocate((int) ENCODED_HEADER_SIZE);
+
+    header.putInt((int) info.imageId().value());
+    header.putInt(codec.code());
+    header.putLong(info.dataSizeOctets());
+    header.putLong(encodedData.remaining());
+    header.flip();
+
+    try (var channel = this.sectionDataChannel()) {
+      writeFully(channel, header);
+      writeFully(channel, encodedData);
+    }
+  }
+
+  private String errorTooLarge(
+    final ISImageInfo info)
+  {
+    final var lineSeparator = System.lineSeparator();
+    return new StringBuilder(64)
+      .append("Image is too large to be encoded.")
+      .append(lineSeparator)
+      .append("  File: ")
+      .append(this.request().target())
+      .append(lineSeparator)
+      .append("  Image ID: ")
+      .append(info.imageId())
+      .append(lineSeparator)
+      .append("  Image size: ")
+      .append(Long.toUnsignedString(info.dataSizeOctets()))
+      .append(lineSeparator)
+      .append("  Maximum size: ")
+      .append(Long.toUnsignedString(ENCODED_MAXIMUM_SIZE))
+      .append(lineSeparator)
+      .toString();
+  }
+
+  private String errorImageOverflow(
+    final DirectChannel image,
+    final long size)
+  {
+    final var lineSeparator = System.lineSeparator();
+    return new StringBuilder(64)
+      .append("Too much image data was written.")
+      .append(lineSeparator)
+      .append("  File: ")
+      .append(this.request().target())
+      .append(lineSeparator)
+      .append("  Image ID: ")
+      .append(image.imageId)
+      .append(lineSeparator)
+      .append("  Expected: ")
+      .append(Long.toUnsignedString(image.dataSize))
+      .append(" octets")
+      .append(lineSeparator)
+      .append("  Received: ")
+      .append(Long.toUnsignedString(size))
+      .append(" octets")
+      .append(lineSeparator)
+      .toString();
+  }
+
+  private static final class ISWritableImageDataDirect
+    implements ISWritableImageDataType
+  {
+    private final DirectChannel channel;
+
+    ISWritableImageDataDirect(
+      final DirectChannel inChannel)
+    {
+      this.channel =
+        Objects.requireNonNull(inChannel, "channel");
+    }
+
+    @Override
+    public WritableByteChannel channel()
+    {
+      return this.channel;
+    }
+  }
+
+  /**
+   * The image data channel in direct mode. Writes go straight into the
+   * section, and writes that would exceed the size of the image are
+   * rejected. Closing the channel has no effect; the section data channel
+   * is closed when the section is closed.
+   */
+
+  private static final class DirectChannel implements WritableByteChannel
+  {
+    private final IS1SectionWritableImage section;
+    private final ISImageID imageId;
+    private final long dataSize;
+    private final SeekableByteChannel channel;
+    private long received;
+
+    DirectChannel(
+      final IS1SectionWritableImage inSection,
+      final ISImageID inImageId,
+      final long inDataSize,
+      final SeekableByteChannel inChannel)
+    {
+      this.section = inSection;
+      this.imageId = inImageId;
+      this.dataSize = inDataSize;
+      this.channel = inChannel;
+    }
+
+    @Override
+    public int write(
+      final ByteBuffer source)
+      throws IOException
+    {
+      final var count = source.remaining();
+      final var total = this.received + count;
+      if (Long.compareUnsigned(total, this.dataSize) > 0) {
+        throw new IOException(this.section.errorImageOverflow(this, total));
+      }
+
+      writeFully(this.channel, source);
+      this.received = total;
+      return count;
+    }
+
+    @Override
+    public boolean isOpen()
+    {
+      return this.channel.isOpen();
+    }
+
+    @Override
+    public void close()
+    {
+      // Closing the channel has no effect; the section is completed when
+      // the section is closed.
+    }
+  }
+
   private static final class ISWritableImageData
     implements ISWritableImageDataType
   {
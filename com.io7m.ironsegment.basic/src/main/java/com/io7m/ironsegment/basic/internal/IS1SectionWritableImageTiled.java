@@ -0,0 +1,285 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.ironsegment.basic.internal;
+
+
+import com.io7m.ironsegment.api.ISImageCodec;
+import com.io7m.ironsegment.api.ISImageCodecChoice;
+import com.io7m.ironsegment.api.ISImageCodecPolicy;
+import com.io7m.ironsegment.api.ISImageID;
+import com.io7m.ironsegment.api.ISImageInfo;
+import com.io7m.ironsegment.api.ISImageSemantic;
+import com.io7m.ironsegment.api.ISSectionWritableImageType;
+import com.io7m.ironsegment.api.ISSectionWritableType;
+import com.io7m.ironsegment.api.ISWritableImageDataType;
+import com.io7m.ironsegment.writer.api.ISWriteRequest;
+import com.io7m.jbssio.api.BSSWriterRandomAccessType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+import static com.io7m.ironsegment.basic.internal.IS1ImageCodecs.ENCODED_MAXIMUM_SIZE;
+import static com.io7m.ironsegment.basic.internal.IS1ImageCodecs.TILED_DEFAULT_TILE_SIZE;
+import static com.io7m.ironsegment.basic.internal.IS1ImageCodecs.TILED_HEADER_SIZE;
+
+/**
+ * A writable tiled image section. The pixel data is buffered in memory, and
+ * is divided into tiles and encoded when the section is closed.
+ */
+
+public final class IS1SectionWritableImageTiled
+  extends IS1SectionWritableAbstract
+  implements ISSectionWritableImageType
+{
+  private IS1ImageDataBuffered pending;
+  private IS1ImageTileGrid grid;
+  private ISImageCodecPolicy policy;
+  private ISImageCodecChoice codecChoice;
+
+  /**
+   * A writable tiled image section.
+   *
+   * @param inOnClose    A function executed on closing
+   * @param inRequest    A write request
+   * @param inIdentifier An identifier
+   * @param inWriter     A writer
+   */
+
+  public IS1SectionWritableImageTiled(
+    final BSSWriterRandomAccessType inWriter,
+    final ISWriteRequest inRequest,
+    final long inIdentifier,
+    final ISOnCloseOperationType<ISSectionWritableType> inOnClose)
+  {
+    super(inWriter, inRequest, inIdentifier, inOnClose);
+  }
+
+  @Override
+  public ISWritableImageDataType createImageData(
+    final ISImageID imageId,
+    final long width,
+    final long height,
+    final ISImageSemantic semantic,
+    final ISImageCodec codec)
+    throws IOException
+  {
+    return this.createImageDataTiled(
+      imageId,
+      width,
+      height,
+      semantic,
+      codec,
+      TILED_DEFAULT_TILE_SIZE,
+      TILED_DEFAULT_TILE_SIZE
+    );
+  }
+
+  @Override
+  public ISWritableImageDataType createImageDataTiled(
+    final ISImageID imageId,
+    final long width,
+    final long height,
+    final ISImageSemantic semantic,
+    final ISImageCodec codec,
+    final long tileWidth,
+    final long tileHeight)
+    throws IOException
+  {
+    Objects.requireNonNull(imageId, "imageId");
+    Objects.requireNonNull(semantic, "semantic");
+    Objects.requireNonNull(codec, "codec");
+
+    final var info =
+      new ISImageInfo(imageId, semantic, width, height);
+    final var newGrid =
+      new IS1ImageTileGrid(info, tileWidth, tileHeight);
+
+    final var dataSize =
+      info.dataSizeOctets();
+    final var tableSize =
+      Math.multiplyExact(newGrid.tileCount() + 1L, 8L);
+
+    if (Long.compareUnsigned(dataSize, ENCODED_MAXIMUM_SIZE) > 0
+        || Long.compareUnsigned(tableSize, ENCODED_MAXIMUM_SIZE) > 0) {
+      throw new IOException(this.errorTooLarge(info, tableSize));
+    }
+
+    final var data =
+      new IS1ImageDataBuffered(
+        info,
+        codec,
+        ByteBuffer.allocate((int) dataSize)
+      );
+
+    this.pending = data;
+    this.grid = newGrid;
+    this.policy = null;
+    return data;
+  }
+
+  @Override
+  public ISWritableImageDataType createImageDataAdaptive(
+    final ISImageID imageId,
+    final long width,
+    final long height,
+    final ISImageSemantic semantic,
+    final ISImageCodecPolicy codecPolicy)
+    throws IOException
+  {
+    Objects.requireNonNull(codecPolicy, "codecPolicy");
+
+    final var data =
+      this.createImageDataTiled(
+        imageId,
+        width,
+        height,
+        semantic,
+        ISImageCodec.RAW,
+        TILED_DEFAULT_TILE_SIZE,
+        TILED_DEFAULT_TILE_SIZE
+      );
+
+    this.policy = codecPolicy;
+    return data;
+  }
+
+  /**
+   * @return The codec used by the section, if the section has image data
+   */
+
+  public Optional<ISImageCodecChoice> codecChoice()
+  {
+    return Optional.ofNullable(this.codecChoice);
+  }
+
+  @Override
+  protected void onClosing()
+    throws IOException
+  {
+    final var data = this.pending;
+    if (data == null) {
+      return;
+    }
+    this.pending = null;
+
+    final var info =
+      data.info();
+    final var pixels =
+      data.data();
+    final var selection =
+      this.policy == null
+        ? new IS1ImageCodecSelection(data.codec(), Map.of())
+        : IS1ImageCodecSelector.select(info, pixels, this.policy);
+    final var codec =
+      IS1ImageCodecs.forCodec(selection.codec());
+    final var pixelSize =
+      (int) info.semantic().pixelSizeOctets();
+    final var imageStride =
+      (int) info.width() * pixelSize;
+    final var tileCount =
+      (int) this.grid.tileCount();
+
+    final var tiles =
+      new ArrayList<ByteBuffer>(tileCount);
+    final var table =
+      ByteBuffer.allocate(
+        (int) TILED_HEADER_SIZE + ((tileCount + 1) * 8));
+
+    table.putInt((int) info.imageId().value());
+    table.putInt(selection.codec().code());
+    table.putInt((int) this.grid.tileWidth());
+    table.putInt((int) this.grid.tileHeight());
+
+    long offset = 0L;
+    for (int index = 0; index < tileCount; ++index) {
+      final var tileInfo =
+        this.grid.tileInfo(index);
+      final var tileStride =
+        (int) tileInfo.width() * pixelSize;
+      final var tileX =
+        (int) this.grid.tilePixelX(index);
+      final var tileY =
+        (int) this.grid.tilePixelY(index);
+      final var tilePixels =
+        ByteBuffer.allocate((int) tileInfo.dataSizeOctets());
+
+      for (int row = 0; row < tileInfo.height(); ++row) {
+        tilePixels.put(
+          row * tileStride,
+          pixels,
+          ((tileY + row) * imageStride) + (tileX * pixelSize),
+          tileStride
+        );
+      }
+
+      final var encoded = codec.encode(tileInfo, tilePixels);
+      table.putLong(offset);
+      offset += encoded.remaining();
+      tiles.add(encoded);
+    }
+    table.putLong(offset);
+    table.flip();
+
+    this.codecChoice =
+      new ISImageCodecChoice(
+        this.offsetStart(),
+        info.imageId(),
+        selection.codec(),
+        this.policy != null,
+        info.dataSizeOctets(),
+        offset,
+        selection.trialSizes()
+      );
+
+    try (var channel = this.sectionDataChannel()) {
+      writeFully(channel, table);
+      for (final var tile : tiles) {
+        writeFully(channel, tile);
+      }
+    }
+  }
+
+  private String errorTooLarge(
+    final ISImageInfo info,
+    final long tableSize)
+  {
+    final var lineSeparator = System.lineSeparator();
+    return new StringBuilder(64)
+      .append("Image is too large to be encoded.")
+      .append(lineSeparator)
+      .append("  File: ")
+      .append(this.request().target())
+      .append(lineSeparator)
+      .append("  Image ID: ")
+      .append(info.imageId())
+      .append(lineSeparator)
+      .append("  Image size: ")
+      .append(Long.toUnsignedString(info.dataSizeOctets()))
+      .append(lineSeparator)
+      .append("  Tile table size: ")
+      .append(Long.toUnsignedString(tableSize))
+      .append(lineSeparator)
+      .append("  Maximum size: ")
+      .append(Long.toUnsignedString(ENCODED_MAXIMUM_SIZE))
+      .append(lineSeparator)
+      .toString();
+  }
+}
@@ -27,13 +27,21 @@ import com.io7m.ironsegment.writer.api.ISWriteRequest;
 import com.io7m.jbssio.api.BSSWriterProviderType;
 import com.io7m.jbssio.api.BSSWriterRandomAccessType;
 
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
 import java.util.Objects;
 
+import static com.io7m.ironsegment.api.ISIdentifiers.sectionManifestBinaryIdentifier;
+
 /**
- * A writable image info section.
+ * A writable image info section. The manifest is encoded as XML, or using
+ * the compact binary encoding if the section has the binary manifest
+ * identifier. XML manifests are streamed directly into the section rather
+ * than being assembled in memory first.
  */
 
 public final class IS1SectionWritableManifest
@@ -73,23 +81,114 @@ public final class IS1SectionWritableManifest
   {
     Objects.requireNonNull(info, "info");
 
+    if (this.identifier() != sectionManifestBinaryIdentifier()) {
+      this.writeManifestXML(info);
+      return;
+    }
+
     try (var channel = this.sectionDataChannel()) {
       final var targetURI = this.request().target();
       try (var writer =
              this.writers.createWriterFromChannel(
                targetURI, channel, "manifest")) {
 
-        try (var output = new ByteArrayOutputStream()) {
-          SERIALIZERS.serialize(URI.create("urn:unused"), output, info);
-          output.flush();
-          final var data = output.toByteArray();
-          writer.writeU32BE(data.length);
-          writer.writeBytes(data);
-          writer.align(16);
-        } catch (final SerializationException e) {
-          throw new IOException(e);
-        }
+        final var data = encode(this.identifier(), info);
+        writer.writeU32BE(data.length);
+        writer.writeBytes(data);
+        writer.align(16);
+      }
+    }
+  }
+
+  /**
+   * Serialize the manifest straight into the section. A placeholder length
+   * is written first, and is patched once the size of the serialized XML is
+   * known.
+   */
+
+  private void writeManifestXML(
+    final ISManifest info)
+    throws IOException
+  {
+    try (var channel = this.sectionDataChannel()) {
+      writeFully(channel, ByteBuffer.allocate(4));
+
+      /*
+       * The output stream is deliberately not closed, as that would close
+       * the section channel before the length has been patched.
+       */
+
+      final var output =
+        new BufferedOutputStream(Channels.newOutputStream(channel), 8192);
+
+      try (var serializer = new IS1ManifestSerializer(output)) {
+        serializer.execute(info);
+      } catch (final SerializationException e) {
+        throw new IOException(e);
+      }
+      output.flush();
+
+      final var end =
+        channel.position();
+      final var length =
+        end - 4L;
+
+      if (Long.compareUnsigned(length, 0xffff_ffffL) > 0) {
+        throw new IOException(this.errorTooLarge(length));
       }
+
+      channel.position(0L);
+      writeFully(channel, ByteBuffer.allocate(4).putInt((int) length).flip());
+      channel.position(end);
+      writeFully(channel, ByteBuffer.allocate((int) ((16L - (end % 16L)) % 16L)));
+    }
+  }
+
+  private String errorTooLarge(
+    final long length)
+  {
+    final var lineSeparator = System.lineSeparator();
+    return new StringBuilder(64)
+      .append("Manifest is too large.")
+      .append(lineSeparator)
+      .append("  File: ")
+      .append(this.request().target())
+      .append(lineSeparator)
+      .append("  Manifest size: ")
+      .append(Long.toUnsignedString(length))
+      .append(lineSeparator)
+      .append("  Maximum size: ")
+      .append(Long.toUnsignedString(0xffff_ffffL))
+      .append(lineSeparator)
+      .toString();
+  }
+
+  /**
+   * Encode a manifest for storage in a section with the given identifier.
+   *
+   * @param identifier The section identifier
+   * @param info       The manifest
+   *
+   * @return The encoded manifest
+   *
+   * @throws IOException On errors
+   */
+
+  static byte[] encode(
+    final long identifier,
+    final ISManifest info)
+    throws IOException
+  {
+    if (identifier == sectionManifestBinaryIdentifier()) {
+      return IS1ManifestBinary.encode(info);
+    }
+
+    try (var output = new ByteArrayOutputStream()) {
+      SERIALIZERS.serialize(URI.create("urn:unused"), output, info);
+      output.flush();
+      return output.toByteArray();
+    } catch (final SerializationException e) {
+      throw new IOException(e);
     }
   }
 }
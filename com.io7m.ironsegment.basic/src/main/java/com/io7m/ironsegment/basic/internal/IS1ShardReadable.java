@@ -0,0 +1,353 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package com.io7m.ironsegment.basic.internal;
+
+import com.io7m.ironsegment.api.ISFileReadableType;
+import com.io7m.ironsegment.api.ISShardMember;
+import com.io7m.ironsegment.parser.api.ISChecksumVerification;
+import com.io7m.ironsegment.parser.api.ISManifestMode;
+import com.io7m.ironsegment.parser.api.ISParseRequest;
+import com.io7m.ironsegment.parser.api.ISReadMode;
+import com.io7m.ironsegment.parser.api.ISShardReadableType;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.io7m.ironsegment.api.ISIdentifiers.shardEndIdentifier;
+import static com.io7m.ironsegment.api.ISIdentifiers.shardIdentifier;
+import static com.io7m.ironsegment.api.ISIdentifiers.shardIndexIdentifier;
+
+/**
+ * A readable shard.
+ *
+ * @see IS1ShardWriter
+ */
+
+public final class IS1ShardReadable implements ISShardReadableType
+{
+  private final ISParseRequest request;
+  private final IS1MemberParserFactoryType parsers;
+  private final IS1DataSourceType source;
+  private final List<ISShardMember> members;
+  private final AtomicBoolean closed;
+
+  private IS1ShardReadable(
+    final ISParseRequest inRequest,
+    final IS1MemberParserFactoryType inParsers,
+    final IS1DataSourceType inSource,
+    final List<ISShardMember> inMembers)
+  {
+    this.request =
+      Objects.requireNonNull(inRequest, "request");
+    this.parsers =
+      Objects.requireNonNull(inParsers, "parsers");
+    this.source =
+      Objects.requireNonNull(inSource, "source");
+    this.members =
+      List.copyOf(inMembers);
+    this.closed =
+      new AtomicBoolean(false);
+  }
+
+  /**
+   * Open a shard, reading the header and index.
+   *
+   * @param request The request
+   * @param parsers The parser factory used to open members
+   *
+   * @return A readable shard
+   *
+   * @throws IOException On errors
+   */
+
+  public static IS1ShardReadable open(
+    final ISParseRequest request,
+    final IS1MemberParserFactoryType parsers)
+    throws IOException
+  {
+    Objects.requireNonNull(request, "request");
+    Objects.requireNonNull(parsers, "parsers");
+
+    final var source = IS1DataSources.open(request);
+    final var size = source.size();
+    if (size < 48L) {
+      throw new IOException(errorTooSmall(request, size));
+    }
+
+    checkHeader(request, source);
+    return new IS1ShardReadable(
+      request,
+      parsers,
+      source,
+      readMembers(request, source, size)
+    );
+  }
+
+  private static void checkHeader(
+    final ISParseRequest request,
+    final IS1DataSourceType source)
+    throws IOException
+  {
+    final var header = source.slice(0L, 16L);
+    final var identifier = header.getLong(0);
+    if (identifier != shardIdentifier()) {
+      throw new IOException(errorMagicNumber(request, identifier));
+    }
+    final var major = Integer.toUnsignedLong(header.getInt(8));
+    if (major != 1L) {
+      throw new IOException(errorUnsupportedMajorVersion(request, major));
+    }
+  }
+
+  private static List<ISShardMember> readMembers(
+    final ISParseRequest request,
+    final IS1DataSourceType source,
+    final long size)
+    throws IOException
+  {
+    /*
+     * The end section always occupies the last 32 octets of the shard, and
+     * gives the location of the index.
+     */
+
+    final var end = source.slice(size - 32L, 32L);
+    if (end.getLong(0) != shardEndIdentifier() || end.getLong(8) != 16L) {
+      throw new IOException(
+        errorCorrupt(request, size - 32L, "The end section is missing."));
+    }
+
+    final var indexOffset = end.getLong(16);
+    final var indexSize = end.getLong(24);
+    if (indexSize < 8L || indexSize > Integer.MAX_VALUE - 16L) {
+      throw new IOException(
+        errorCorrupt(request, indexOffset, "The index size is invalid."));
+    }
+    IS1DataSources.checkRange(indexOffset, 16L + indexSize, size - 32L);
+
+    final var index = source.slice(indexOffset, 16L + indexSize);
+    if (index.getLong(0) != shardIndexIdentifier()
+        || index.getLong(8) != indexSize) {
+      throw new IOException(
+        errorCorrupt(request, indexOffset, "The index section is missing."));
+    }
+
+    final var count = index.getLong(16);
+    if (count < 0L || count > (indexSize - 8L) / 16L) {
+      throw new IOException(
+        errorCorrupt(request, indexOffset, "The member count is invalid."));
+    }
+
+    final var members = new ArrayList<ISShardMember>((int) count);
+    for (int memberIndex = 0; memberIndex < count; ++memberIndex) {
+      final var base = 24 + (memberIndex * 16);
+      final var memberOffset = index.getLong(base);
+      final var memberSize = index.getLong(base + 8);
+      IS1DataSources.checkRange(memberOffset, memberSize, indexOffset);
+      members.add(new ISShardMember(memberIndex, memberOffset, memberSize));
+    }
+    return members;
+  }
+
+  @Override
+  public List<ISShardMember> members()
+  {
+    return this.members;
+  }
+
+  @Override
+  public ISFileReadableType openMember(
+    final ISShardMember member)
+    throws IOException
+  {
+    Objects.requireNonNull(member, "member");
+
+    if (this.closed.get()) {
+      throw new IllegalStateException("Shard is closed.");
+    }
+
+    final var index = Objects.checkIndex(member.index(), this.members.size());
+    if (!this.members.get(index).equals(member)) {
+      throw new IllegalArgumentException(
+        "Member %s is not a member of this shard".formatted(member));
+    }
+
+    return openMember(
+      this.parsers,
+      new IS1DataSourceRange(this.source, member.offset(), member.size()),
+      this.request.source(),
+      member,
+      this.request.readMode(),
+      this.request.manifestMode(),
+      this.request.checksumVerification()
+    );
+  }
+
+  /**
+   * Parse a member of a shard from the given data source.
+   *
+   * @param parsers              The parser factory
+   * @param source               A data source covering exactly the member data
+   * @param shard                The shard source
+   * @param member               The member
+   * @param readMode             The read mode used to obtain the source
+   * @param manifestMode         The manifest mode
+   * @param checksumVerification The checksum verification mode
+   *
+   * @return A readable file
+   *
+   * @throws IOException On errors
+   */
+
+  static ISFileReadableType openMember(
+    final IS1MemberParserFactoryType parsers,
+    final IS1DataSourceType source,
+    final URI shard,
+    final ISShardMember member,
+    final ISReadMode readMode,
+    final ISManifestMode manifestMode,
+    final ISChecksumVerification checksumVerification)
+    throws IOException
+  {
+    /*
+     * The member is parsed directly from the given source, so if the shard
+     * was opened in memory-mapped mode, the sections of the member are views
+     * of the same mapping rather than copies. The member source is given a
+     * fragment so that diagnostics identify the member, and so that the
+     * identity of the shard file is never used to cache manifests of
+     * individual members.
+     */
+
+    final var memberRequest =
+      ISParseRequest.builder(
+          source.channel(0L, source.size()),
+          memberSource(shard, member))
+        .setReadMode(readMode)
+        .setManifestMode(manifestMode)
+        .setChecksumVerification(checksumVerification)
+        .build();
+
+    try (var parser = parsers.createParser(memberRequest, source)) {
+      return parser.execute();
+    }
+  }
+
+  private static URI memberSource(
+    final URI shard,
+    final ISShardMember member)
+    throws IOException
+  {
+    try {
+      return new URI(
+        shard.getScheme(),
+        shard.getSchemeSpecificPart(),
+        "member-" + member.index()
+      );
+    } catch (final URISyntaxException e) {
+      throw new IOException(e);
+    }
+  }
+
+  @Override
+  public void close()
+  {
+    this.closed.set(true);
+  }
+
+  private static String errorTooSmall(
+    final ISParseRequest request,
+    final long size)
+  {
+    final var lineSeparator = System.lineSeparator();
+    return new StringBuilder(64)
+      .append("Shard is too small.")
+      .append(lineSeparator)
+      .append("  Shard: ")
+      .append(request.source())
+      .append(lineSeparator)
+      .append("  Size: ")
+      .append(Long.toUnsignedString(size))
+      .append(" octets")
+      .append(lineSeparator)
+      .append("  Minimum: 48 octets")
+      .append(lineSeparator)
+      .toString();
+  }
+
+  private static String errorCorrupt(
+    final ISParseRequest request,
+    final long offset,
+    final String message)
+  {
+    final var lineSeparator = System.lineSeparator();
+    return new StringBuilder(64)
+      .append("Shard is corrupt.")
+      .append(lineSeparator)
+      .append("  Shard: ")
+      .append(request.source())
+      .append(lineSeparator)
+      .append("  Offset: 0x")
+      .append(Long.toUnsignedString(offset, 16))
+      .append(lineSeparator)
+      .append("  Problem: ")
+      .append(message)
+      .append(lineSeparator)
+      .toString();
+  }
+
+  private static String errorUnsupportedMajorVersion(
+    final ISParseRequest request,
+    final long major)
+  {
+    final var lineSeparator = System.lineSeparator();
+    return new StringBuilder(64)
+      .append("Unrecognized major version.")
+      .append(lineSeparator)
+      .append("  Shard: ")
+      .append(request.source())
+      .append(lineSeparator)
+      .append("  Received: Major version ")
+      .append(Long.toUnsignedString(major))
+      .append(lineSeparator)
+      .append("  Expected: Major version 1")
+      .append(lineSeparator)
+      .toString();
+  }
+
+  private static String errorMagicNumber(
+    final ISParseRequest request,
+    final long identifier)
+  {
+    final var lineSeparator = System.lineSeparator();
+    return new StringBuilder(64)
+      .append("Unrecognized shard identifier.")
+      .append(lineSeparator)
+      .append("  Shard: ")
+      .append(request.source())
+      .append(lineSeparator)
+      .append("  Received: 0x")
+      .append(Long.toUnsignedString(identifier, 16))
+      .append(lineSeparator)
+      .append("  Expected: 0x")
+      .append(Long.toUnsignedString(shardIdentifier(), 16))
+      .append(lineSeparator)
+      .toString();
+  }
+}
@@ -0,0 +1,332 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package com.io7m.ironsegment.basic.internal;
+
+import com.io7m.ironsegment.api.ISFileReadableType;
+import com.io7m.ironsegment.api.ISShardMember;
+import com.io7m.ironsegment.parser.api.ISChecksumVerification;
+import com.io7m.ironsegment.parser.api.ISReadMode;
+import com.io7m.ironsegment.parser.api.ISShardStreamParserType;
+import com.io7m.ironsegment.parser.api.ISStreamParseRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Objects;
+import java.util.Optional;
+
+import static com.io7m.ironsegment.api.ISIdentifiers.shardEndIdentifier;
+import static com.io7m.ironsegment.api.ISIdentifiers.shardIdentifier;
+import static com.io7m.ironsegment.api.ISIdentifiers.shardMemberIdentifier;
+
+/**
+ * A parser that reads shards strictly sequentially. The parser tracks the
+ * shard offset itself, and skips sections other than members by reading
+ * them into a scratch buffer.
+ *
+ * @see IS1ShardWriter
+ */
+
+public final class IS1ShardStreamParser implements ISShardStreamParserType
+{
+  private static final Logger LOG =
+    LoggerFactory.getLogger(IS1ShardStreamParser.class);
+
+  private static final int DISCARD_SIZE = 65536;
+  private static final long SECTION_MAXIMUM_SIZE = Long.MAX_VALUE - 64L;
+
+  private final ISStreamParseRequest request;
+  private final IS1MemberParserFactoryType parsers;
+  private final ReadableByteChannel channel;
+  private final ByteBuffer header;
+  private ByteBuffer discard;
+  private ISShardMember member;
+  private int memberIndex;
+  private long offset;
+  private boolean ended;
+
+  private IS1ShardStreamParser(
+    final ISStreamParseRequest inRequest,
+    final IS1MemberParserFactoryType inParsers)
+  {
+    this.request =
+      Objects.requireNonNull(inRequest, "request");
+    this.parsers =
+      Objects.requireNonNull(inParsers, "parsers");
+    this.channel =
+      inRequest.channel();
+    this.header =
+      ByteBuffer.allocate(16);
+    this.offset =
+      16L;
+  }
+
+  /**
+   * Create a streaming shard parser, reading and checking the shard header
+   * immediately.
+   *
+   * @param request The request
+   * @param parsers The parser factory used to open members
+   *
+   * @return A new parser
+   *
+   * @throws IOException On errors
+   */
+
+  public static IS1ShardStreamParser create(
+    final ISStreamParseRequest request,
+    final IS1MemberParserFactoryType parsers)
+    throws IOException
+  {
+    Objects.requireNonNull(request, "request");
+    Objects.requireNonNull(parsers, "parsers");
+
+    final var header = ByteBuffer.allocate(16);
+    if (!readFully(request.channel(), header)) {
+      throw new IOException(errorTruncated(request, 0L));
+    }
+
+    final var identifier =
+      header.getLong(0);
+    final var major =
+      Integer.toUnsignedLong(header.getInt(8));
+
+    if (identifier != shardIdentifier()) {
+      throw new IOException(errorMagicNumber(request, identifier));
+    }
+    if (major != 1L) {
+      throw new IOException(errorUnsupportedMajorVersion(request, major));
+    }
+
+    return new IS1ShardStreamParser(request, parsers);
+  }
+
+  @Override
+  public Optional<ISShardMember> member()
+  {
+    return Optional.ofNullable(this.member);
+  }
+
+  @Override
+  public Optional<ISFileReadableType> next()
+    throws IOException
+  {
+    while (!this.ended) {
+      this.header.clear();
+      final var start = this.offset;
+      final var read = this.channel.read(this.header);
+      if (read < 0) {
+        LOG.warn(
+          "encountered EOF before encountering an 'end' section; shard is likely truncated/damaged");
+        this.ended = true;
+        break;
+      }
+      if (!readFully(this.channel, this.header)) {
+        throw new IOException(errorTruncated(this.request, start));
+      }
+
+      final var identifier = this.header.getLong(0);
+      final var size = this.header.getLong(8);
+      if (Long.compareUnsigned(size, SECTION_MAXIMUM_SIZE) > 0) {
+        throw new IOException(
+          this.errorSectionSize(start, size, SECTION_MAXIMUM_SIZE));
+      }
+
+      final var padded = alignUp(size);
+      this.offset = Math.addExact(start, Math.addExact(16L, padded));
+
+      if (identifier == shardMemberIdentifier()) {
+        return Optional.of(this.readMember(start, size, padded));
+      }
+
+      /*
+       * The index is only needed for random access, and any other sections
+       * are not understood by this version of the parser.
+       */
+
+      this.discard(start, padded);
+      if (identifier == shardEndIdentifier()) {
+        this.ended = true;
+      }
+    }
+    return Optional.empty();
+  }
+
+  private ISFileReadableType readMember(
+    final long start,
+    final long size,
+    final long padded)
+    throws IOException
+  {
+    if (Long.compareUnsigned(size, Integer.MAX_VALUE) > 0) {
+      throw new IOException(
+        this.errorSectionSize(start, size, Integer.MAX_VALUE));
+    }
+
+    final var data = ByteBuffer.allocate((int) size);
+    if (!readFully(this.channel, data)) {
+      throw new IOException(errorTruncated(this.request, start));
+    }
+    this.discard(start, padded - size);
+
+    this.member = new ISShardMember(this.memberIndex, start + 16L, size);
+    ++this.memberIndex;
+
+    return IS1ShardReadable.openMember(
+      this.parsers,
+      new IS1DataSourceChannel(new IS1ByteBufferChannel(data.flip())),
+      this.request.source(),
+      this.member,
+      ISReadMode.READ_VIA_CHANNEL,
+      this.request.manifestMode(),
+      ISChecksumVerification.CHECKSUMS_UNVERIFIED
+    );
+  }
+
+  private void discard(
+    final long start,
+    final long size)
+    throws IOException
+  {
+    if (size == 0L) {
+      return;
+    }
+
+    if (this.discard == null) {
+      this.discard = ByteBuffer.allocate(DISCARD_SIZE);
+    }
+
+    var remaining = size;
+    while (remaining > 0L) {
+      this.discard.clear();
+      this.discard.limit((int) Math.min(remaining, DISCARD_SIZE));
+      final var read = this.channel.read(this.discard);
+      if (read < 0) {
+        throw new IOException(errorTruncated(this.request, start));
+      }
+      remaining -= read;
+    }
+  }
+
+  private static boolean readFully(
+    final ReadableByteChannel channel,
+    final ByteBuffer buffer)
+    throws IOException
+  {
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer) < 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static long alignUp(
+    final long size)
+  {
+    return Math.addExact(size, 15L) & ~15L;
+  }
+
+  @Override
+  public void close()
+  {
+    this.ended = true;
+  }
+
+  private String errorSectionSize(
+    final long start,
+    final long size,
+    final long limit)
+  {
+    final var lineSeparator = System.lineSeparator();
+    return new StringBuilder(64)
+      .append("Section size is invalid.")
+      .append(lineSeparator)
+      .append("  Shard: ")
+      .append(this.request.source())
+      .append(lineSeparator)
+      .append("  Section offset: 0x")
+      .append(Long.toUnsignedString(start, 16))
+      .append(lineSeparator)
+      .append("  Size: ")
+      .append(Long.toUnsignedString(size))
+      .append(" octets")
+      .append(lineSeparator)
+      .append("  Limit: ")
+      .append(Long.toUnsignedString(limit))
+      .append(" octets")
+      .append(lineSeparator)
+      .toString();
+  }
+
+  private static String errorTruncated(
+    final ISStreamParseRequest request,
+    final long offset)
+  {
+    final var lineSeparator = System.lineSeparator();
+    return new StringBuilder(64)
+      .append("Unexpected end of stream.")
+      .append(lineSeparator)
+      .append("  Shard: ")
+      .append(request.source())
+      .append(lineSeparator)
+      .append("  Section offset: 0x")
+      .append(Long.toUnsignedString(offset, 16))
+      .append(lineSeparator)
+      .toString();
+  }
+
+  private static String errorUnsupportedMajorVersion(
+    final ISStreamParseRequest request,
+    final long major)
+  {
+    final var lineSeparator = System.lineSeparator();
+    return new StringBuilder(64)
+      .append("Unrecognized major version.")
+      .append(lineSeparator)
+      .append("  Shard: ")
+      .append(request.source())
+      .append(lineSeparator)
+      .append("  Received: Major version ")
+      .append(Long.toUnsignedString(major))
+      .append(lineSeparator)
+      .append("  Expected: Major version 1")
+      .append(lineSeparator)
+      .toString();
+  }
+
+  private static String errorMagicNumber(
+    final ISStreamParseRequest request,
+    final long identifier)
+  {
+    final var lineSeparator = System.lineSeparator();
+    return new StringBuilder(64)
+      .append("Unrecognized shard identifier.")
+      .append(lineSeparator)
+      .append("  Shard: ")
+      .append(request.source())
+      .append(lineSeparator)
+      .append("  Received: 0x")
+      .append(Long.toUnsignedString(identifier, 16))
+      .append(lineSeparator)
+      .append("  Expected: 0x")
+      .append(Long.toUnsignedString(shardIdentifier(), 16))
+      .append(lineSeparator)
+      .toString();
+  }
+}
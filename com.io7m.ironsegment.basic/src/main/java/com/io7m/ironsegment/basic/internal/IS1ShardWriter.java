@@ -0,0 +1,319 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package com.io7m.ironsegment.basic.internal;
+
+import com.io7m.ironsegment.api.ISShardMember;
+import com.io7m.ironsegment.writer.api.ISShardWriteRequest;
+import com.io7m.ironsegment.writer.api.ISShardWriterType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import static com.io7m.ironsegment.api.ISIdentifiers.fileIdentifier;
+import static com.io7m.ironsegment.api.ISIdentifiers.shardEndIdentifier;
+import static com.io7m.ironsegment.api.ISIdentifiers.shardIdentifier;
+import static com.io7m.ironsegment.api.ISIdentifiers.shardIndexIdentifier;
+import static com.io7m.ironsegment.api.ISIdentifiers.shardMemberIdentifier;
+
+/**
+ * A writer that packs files into shards.
+ *
+ * <p>A shard consists of a 16 octet header (a 64-bit identifier, and 32-bit
+ * major and minor versions) followed by a sequence of sections, each of
+ * which consists of a 64-bit identifier, a 64-bit size, and then the section
+ * data padded with zeroes to a multiple of 16 octets. Each member file is
+ * stored as the data of a {@code member} section, and the size of the section
+ * is the exact size of the file. The members are followed by an
+ * {@code index} section containing a 64-bit member count and then a 64-bit
+ * offset and 64-bit size for each member, and finally an {@code end} section
+ * containing the offset of the index section and the size of its data. The
+ * {@code end} section therefore always occupies the last 32 octets of the
+ * shard.</p>
+ */
+
+public final class IS1ShardWriter implements ISShardWriterType
+{
+  private static final ByteBuffer ZEROES =
+    ByteBuffer.allocate(16).asReadOnlyBuffer();
+  private static final int COPY_SIZE = 65536;
+
+  private final ISShardWriteRequest request;
+  private final WritableByteChannel channel;
+  private final ArrayList<ISShardMember> members;
+  private ByteBuffer copy;
+  private long offset;
+  private boolean finished;
+
+  private IS1ShardWriter(
+    final ISShardWriteRequest inRequest)
+  {
+    this.request =
+      Objects.requireNonNull(inRequest, "request");
+    this.channel =
+      inRequest.channel();
+    this.members =
+      new ArrayList<>();
+  }
+
+  /**
+   * Create a shard writer, writing the shard header immediately.
+   *
+   * @param request The request
+   *
+   * @return A new writer
+   *
+   * @throws IOException On errors
+   */
+
+  public static IS1ShardWriter create(
+    final ISShardWriteRequest request)
+    throws IOException
+  {
+    Objects.requireNonNull(request, "request");
+
+    final var writer = new IS1ShardWriter(request);
+    final var header = ByteBuffer.allocate(16);
+    header.putLong(shardIdentifier());
+    header.putInt(1);
+    header.putInt(0);
+    writer.write(header.flip());
+    return writer;
+  }
+
+  @Override
+  public List<ISShardMember> members()
+  {
+    return List.copyOf(this.members);
+  }
+
+  @Override
+  public ISShardMember append(
+    final SeekableByteChannel file)
+    throws IOException
+  {
+    Objects.requireNonNull(file, "file");
+    this.checkNotFinished();
+
+    final var start = file.position();
+    final var size = file.size() - start;
+    if (size < 16L) {
+      throw new IOException(this.errorNotAFile(size, 0L));
+    }
+
+    /*
+     * The section header and the file header are written together, once the
+     * file header has been checked.
+     */
+
+    final var header = ByteBuffer.allocate(32);
+    header.putLong(shardMemberIdentifier());
+    header.putLong(size);
+    if (!readFully(file, header)) {
+      throw new IOException(this.errorTruncated(size));
+    }
+
+    final var identifier = header.getLong(16);
+    if (identifier != fileIdentifier()) {
+      throw new IOException(this.errorNotAFile(size, identifier));
+    }
+
+    final var member =
+      new ISShardMember(this.members.size(), this.offset + 16L, size);
+
+    this.write(header.flip());
+    this.copyRemaining(file, start + 16L, size - 16L);
+    this.write(ZEROES.duplicate().limit((int) (alignUp(size) - size)));
+    this.members.add(member);
+    return member;
+  }
+
+  private void copyRemaining(
+    final SeekableByteChannel file,
+    final long position,
+    final long size)
+    throws IOException
+  {
+    /*
+     * File channels can transfer their data directly to the target channel,
+     * which avoids copying the data through a buffer entirely on platforms
+     * that support it.
+     */
+
+    if (file instanceof final FileChannel fileChannel) {
+      var remaining = size;
+      while (remaining > 0L) {
+        final var count =
+          fileChannel.transferTo(
+            position + (size - remaining),
+            remaining,
+            this.channel
+          );
+        if (count <= 0L) {
+          throw new IOException(this.errorTruncated(size + 16L));
+        }
+        remaining -= count;
+        this.offset += count;
+      }
+      fileChannel.position(position + size);
+      return;
+    }
+
+    if (this.copy == null) {
+      this.copy = ByteBuffer.allocate(COPY_SIZE);
+    }
+
+    var remaining = size;
+    while (remaining > 0L) {
+      this.copy.clear();
+      this.copy.limit((int) Math.min(remaining, COPY_SIZE));
+      if (!readFully(file, this.copy)) {
+        throw new IOException(this.errorTruncated(size + 16L));
+      }
+      remaining -= this.copy.position();
+      this.write(this.copy.flip());
+    }
+  }
+
+  @Override
+  public List<ISShardMember> finish()
+    throws IOException
+  {
+    this.checkNotFinished();
+    this.finished = true;
+
+    final var count = this.members.size();
+    final var indexSize = alignUp(8L + (16L * count));
+    final var indexOffset = this.offset;
+
+    final var buffer =
+      ByteBuffer.allocate(Math.toIntExact(16L + indexSize + 32L));
+
+    buffer.putLong(shardIndexIdentifier());
+    buffer.putLong(indexSize);
+    buffer.putLong(count);
+    for (final var member : this.members) {
+      buffer.putLong(member.offset());
+      buffer.putLong(member.size());
+    }
+
+    buffer.position(Math.toIntExact(16L + indexSize));
+    buffer.putLong(shardEndIdentifier());
+    buffer.putLong(16L);
+    buffer.putLong(indexOffset);
+    buffer.putLong(indexSize);
+
+    this.write(buffer.flip());
+    return List.copyOf(this.members);
+  }
+
+  @Override
+  public void close()
+    throws IOException
+  {
+    if (!this.finished) {
+      this.finish();
+    }
+  }
+
+  private void checkNotFinished()
+  {
+    if (this.finished) {
+      throw new IllegalStateException(
+        "The closing sections of the shard have already been written.");
+    }
+  }
+
+  private void write(
+    final ByteBuffer buffer)
+    throws IOException
+  {
+    while (buffer.hasRemaining()) {
+      this.offset += this.channel.write(buffer);
+    }
+  }
+
+  private static boolean readFully(
+    final SeekableByteChannel channel,
+    final ByteBuffer buffer)
+    throws IOException
+  {
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer) < 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static long alignUp(
+    final long size)
+  {
+    return Math.addExact(size, 15L) & ~15L;
+  }
+
+  private String errorNotAFile(
+    final long size,
+    final long identifier)
+  {
+    final var lineSeparator = System.lineSeparator();
+    return new StringBuilder(64)
+      .append("Shard members must be complete files.")
+      .append(lineSeparator)
+      .append("  Shard: ")
+      .append(this.request.target())
+      .append(lineSeparator)
+      .append("  Member: ")
+      .append(this.members.size())
+      .append(lineSeparator)
+      .append("  Size: ")
+      .append(Long.toUnsignedString(size))
+      .append(" octets")
+      .append(lineSeparator)
+      .append("  Received: 0x")
+      .append(Long.toUnsignedString(identifier, 16))
+      .append(lineSeparator)
+      .append("  Expected: 0x")
+      .append(Long.toUnsignedString(fileIdentifier(), 16))
+      .append(lineSeparator)
+      .toString();
+  }
+
+  private String errorTruncated(
+    final long size)
+  {
+    final var lineSeparator = System.lineSeparator();
+    return new StringBuilder(64)
+      .append("Member file ended before the expected size was read.")
+      .append(lineSeparator)
+      .append("  Shard: ")
+      .append(this.request.target())
+      .append(lineSeparator)
+      .append("  Member: ")
+      .append(this.members.size())
+      .append(lineSeparator)
+      .append("  Expected: ")
+      .append(Long.toUnsignedString(size))
+      .append(" octets")
+      .append(lineSeparator)
+      .toString();
+  }
+}
@@ -0,0 +1,486 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.ironsegment.basic.internal;
+
+import com.io7m.ironsegment.api.ISFileSectionDescription;
+import com.io7m.ironsegment.api.ISIdentifiers;
+import com.io7m.ironsegment.api.ISImageID;
+import com.io7m.ironsegment.api.ISImageInfo;
+import com.io7m.ironsegment.api.ISImages;
+import com.io7m.ironsegment.api.ISSectionDescription;
+import com.io7m.ironsegment.api.ISVersion;
+import com.io7m.ironsegment.parser.api.ISStreamEventEnd;
+import com.io7m.ironsegment.parser.api.ISStreamEventImage;
+import com.io7m.ironsegment.parser.api.ISStreamEventManifest;
+import com.io7m.ironsegment.parser.api.ISStreamEventSection;
+import com.io7m.ironsegment.parser.api.ISStreamEventType;
+import com.io7m.ironsegment.parser.api.ISStreamParseRequest;
+import com.io7m.ironsegment.parser.api.ISStreamParserType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Objects;
+import java.util.Optional;
+
+import static com.io7m.ironsegment.api.ISIdentifiers.sectionEndIdentifier;
+import static com.io7m.ironsegment.api.ISIdentifiers.sectionImageIdentifier;
+import static com.io7m.ironsegment.api.ISIdentifiers.sectionManifestBinaryIdentifier;
+import static com.io7m.ironsegment.api.ISIdentifiers.sectionManifestIdentifier;
+
+/**
+ * A forward-only parser. The parser tracks the file offset itself, and
+ * skips unwanted data by reading it into a scratch buffer.
+ */
+
+public final class IS1StreamParser implements ISStreamParserType
+{
+  private static final Logger LOG =
+    LoggerFactory.getLogger(IS1StreamParser.class);
+
+  private static final int DISCARD_SIZE = 65536;
+  private static final long MANIFEST_MAXIMUM_SIZE = Integer.MAX_VALUE - 16L;
+  private static final long SECTION_MAXIMUM_SIZE = Long.MAX_VALUE - 64L;
+
+  private final ISStreamParseRequest request;
+  private final ReadableByteChannel channel;
+  private final ISVersion version;
+  private final ByteBuffer header;
+  private ByteBuffer discard;
+  private SectionChannel current;
+  private ISImages images;
+  private long offset;
+  private boolean ended;
+
+  private IS1StreamParser(
+    final ISStreamParseRequest inRequest,
+    final ISVersion inVersion)
+  {
+    this.request =
+      Objects.requireNonNull(inRequest, "request");
+    this.version =
+      Objects.requireNonNull(inVersion, "version");
+    this.channel =
+      inRequest.channel();
+    this.header =
+      ByteBuffer.allocate(16);
+    this.offset =
+      16L;
+  }
+
+  /**
+   * Create a streaming parser, reading and checking the file header
+   * immediately.
+   *
+   * @param request The request
+   *
+   * @return A new parser
+   *
+   * @throws IOException On errors
+   */
+
+  public static IS1StreamParser create(
+    final ISStreamParseRequest request)
+    throws IOException
+  {
+    Objects.requireNonNull(request, "request");
+
+    final var header = ByteBuffer.allocate(16);
+    if (!readFully(request.channel(), header)) {
+      throw new IOException(errorTruncated(request, 0L));
+    }
+
+    final var identifier =
+      header.getLong(0);
+    final var major =
+      Integer.toUnsignedLong(header.getInt(8));
+    final var minor =
+      Integer.toUnsignedLong(header.getInt(12));
+
+    if (identifier != ISIdentifiers.fileIdentifier()) {
+      throw new IOException(errorMagicNumber(request, identifier));
+    }
+    if (major != 1L) {
+      throw new IOException(errorUnsupportedMajorVersion(request, major));
+    }
+
+    return new IS1StreamParser(
+      request,
+      new ISVersion((int) major, (int) minor)
+    );
+  }
+
+  @Override
+  public ISVersion version()
+  {
+    return this.version;
+  }
+
+  @Override
+  public Optional<ISStreamEventType> next()
+    throws IOException
+  {
+    if (this.ended) {
+      return Optional.empty();
+    }
+
+    this.discardCurrent();
+
+    this.header.clear();
+    final var start = this.offset;
+    final var read = this.channel.read(this.header);
+    if (read < 0) {
+      LOG.warn(
+        "encountered EOF before encountering an 'end' section; file is likely truncated/damaged");
+      this.ended = true;
+      return Optional.empty();
+    }
+    if (!readFully(this.channel, this.header)) {
+      throw new IOException(errorTruncated(this.request, start));
+    }
+
+    final var identifier =
+      this.header.getLong(0);
+    final var size =
+      this.header.getLong(8);
+    final var section =
+      new ISFileSectionDescription(
+        start,
+        new ISSectionDescription(identifier, size)
+      );
+
+    if (Long.compareUnsigned(size, SECTION_MAXIMUM_SIZE) > 0) {
+      throw new IOException(
+        this.errorSectionSize(section, size, SECTION_MAXIMUM_SIZE));
+    }
+
+    this.offset = Math.addExact(start, Math.addExact(16L, size));
+    this.current = new SectionChannel(this, start, size);
+
+    if (identifier == sectionEndIdentifier()) {
+      this.discardCurrent();
+      this.ended = true;
+      return Optional.of(new ISStreamEventEnd(section));
+    }
+
+    if (identifier == sectionManifestIdentifier()
+        || identifier == sectionManifestBinaryIdentifier()) {
+      return Optional.of(this.readManifest(section));
+    }
+
+    if (identifier == sectionImageIdentifier()) {
+      return Optional.of(this.readImage(section));
+    }
+
+    return Optional.of(new ISStreamEventSection(section, this.current));
+  }
+
+  private ISStreamEventManifest readManifest(
+    final ISFileSectionDescription section)
+    throws IOException
+  {
+    final var size = section.description().size();
+    if (Long.compareUnsigned(size, 4L) < 0
+        || Long.compareUnsigned(size, MANIFEST_MAXIMUM_SIZE) > 0) {
+      throw new IOException(this.errorSectionSize(section, 4L, MANIFEST_MAXIMUM_SIZE));
+    }
+
+    final var data = ByteBuffer.allocate((int) size);
+    this.current.readFully(data);
+
+    final var length = Integer.toUnsignedLong(data.getInt(0));
+    if (Long.compareUnsigned(length, size - 4L) > 0) {
+      throw new IOException(this.errorSectionSize(section, length + 4L, size));
+    }
+
+    final var manifest =
+      IS1SectionReadableManifest.decode(
+        this.request.source(),
+        section.description().identifier(),
+        this.request.manifestMode(),
+        data.slice(4, (int) length)
+      );
+
+    this.images = manifest.images();
+    return new ISStreamEventManifest(section, manifest);
+  }
+
+  private ISStreamEventImage readImage(
+    final ISFileSectionDescription section)
+    throws IOException
+  {
+    final var size = section.description().size();
+    if (Long.compareUnsigned(size, 4L) < 0) {
+      throw new IOException(this.errorSectionSize(section, 4L, size));
+    }
+
+    final var idBuffer = ByteBuffer.allocate(4);
+    this.current.readFully(idBuffer);
+
+    final var imageId =
+      new ISImageID(Integer.toUnsignedLong(idBuffer.getInt(0)));
+
+    final var info =
+      Optional.ofNullable(this.images)
+        .flatMap(i -> Optional.ofNullable(i.images().get(imageId)))
+        .map(i -> {
+          return new ISImageInfo(
+            imageId,
+            i.semantic(),
+            this.images.width(),
+            this.images.height()
+          );
+        });
+
+    if (info.isPresent()) {
+      final var dataSize = info.get().dataSizeOctets();
+      if (Long.compareUnsigned(dataSize, size - 4L) > 0) {
+        throw new IOException(this.errorSectionSize(section, dataSize + 4L, size));
+      }
+      this.current.restrict(dataSize);
+    }
+
+    return new ISStreamEventImage(section, imageId, info, this.current);
+  }
+
+  private void discardCurrent()
+    throws IOException
+  {
+    final var section = this.current;
+    if (section == null) {
+      return;
+    }
+
+    this.current = null;
+    section.open = false;
+
+    if (section.remaining == 0L) {
+      return;
+    }
+
+    if (this.discard == null) {
+      this.discard = ByteBuffer.allocate(DISCARD_SIZE);
+    }
+
+    while (section.remaining > 0L) {
+      this.discard.clear();
+      this.discard.limit((int) Math.min(section.remaining, DISCARD_SIZE));
+      final var read = this.channel.read(this.discard);
+      if (read < 0) {
+        throw new IOException(errorTruncated(this.request, section.start));
+      }
+      section.remaining -= read;
+    }
+  }
+
+  private static boolean readFully(
+    final ReadableByteChannel channel,
+    final ByteBuffer buffer)
+    throws IOException
+  {
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer) < 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public void close()
+  {
+    this.ended = true;
+    if (this.current != null) {
+      this.current.open = false;
+      this.current = null;
+    }
+  }
+
+  private String errorSectionSize(
+    final ISFileSectionDescription section,
+    final long required,
+    final long limit)
+  {
+    final var lineSeparator = System.lineSeparator();
+    return new StringBuilder(64)
+      .append("Section size is invalid.")
+      .append(lineSeparator)
+      .append("  File: ")
+      .append(this.request.source())
+      .append(lineSeparator)
+      .append("  Section: ")
+      .append(section.show())
+      .append(lineSeparator)
+      .append("  Required: ")
+      .append(Long.toUnsignedString(required))
+      .append(" octets")
+      .append(lineSeparator)
+      .append("  Limit: ")
+      .append(Long.toUnsignedString(limit))
+      .append(" octets")
+      .append(lineSeparator)
+      .toString();
+  }
+
+  private static String errorTruncated(
+    final ISStreamParseRequest request,
+    final long offset)
+  {
+    final var lineSeparator = System.lineSeparator();
+    return new StringBuilder(64)
+      .append("Unexpected end of stream.")
+      .append(lineSeparator)
+      .append("  File: ")
+      .append(request.source())
+      .append(lineSeparator)
+      .append("  Section offset: 0x")
+      .append(Long.toUnsignedString(offset, 16))
+      .append(lineSeparator)
+      .toString();
+  }
+
+  private static String errorUnsupportedMajorVersion(
+    final ISStreamParseRequest request,
+    final long major)
+  {
+    final var lineSeparator = System.lineSeparator();
+    return new StringBuilder(64)
+      .append("Unrecognized major version.")
+      .append(lineSeparator)
+      .append("  File: ")
+      .append(request.source())
+      .append(lineSeparator)
+      .append("  Received: Major version ")
+      .append(Long.toUnsignedString(major))
+      .append(lineSeparator)
+      .append("  Expected: Major version 1")
+      .append(lineSeparator)
+      .toString();
+  }
+
+  private static String errorMagicNumber(
+    final ISStreamParseRequest request,
+    final long identifier)
+  {
+    final var lineSeparator = System.lineSeparator();
+    return new StringBuilder(64)
+      .append("Unrecognized file identifier.")
+      .append(lineSeparator)
+      .append("  File: ")
+      .append(request.source())
+      .append(lineSeparator)
+      .append("  Received: 0x")
+      .append(Long.toUnsignedString(identifier, 16))
+      .append(lineSeparator)
+      .append("  Expected: ")
+      .append(Long.toUnsignedString(ISIdentifiers.fileIdentifier(), 16))
+      .append(lineSeparator)
+      .toString();
+  }
+
+  /**
+   * A channel over the data of the current section. The channel delivers at
+   * most {@code visible} octets; the remainder of the section is discarded
+   * when the next section is read.
+   */
+
+  private static final class SectionChannel implements ReadableByteChannel
+  {
+    private final IS1StreamParser parser;
+    private final long start;
+    private long remaining;
+    private long visible;
+    private boolean open;
+
+    SectionChannel(
+      final IS1StreamParser inParser,
+      final long inStart,
+      final long inSize)
+    {
+      this.parser = inParser;
+      this.start = inStart;
+      this.remaining = inSize;
+      this.visible = inSize;
+      this.open = true;
+    }
+
+    void restrict(
+      final long size)
+    {
+      this.visible = Math.min(this.visible, size);
+    }
+
+    void readFully(
+      final ByteBuffer buffer)
+      throws IOException
+    {
+      while (buffer.hasRemaining()) {
+        if (this.read(buffer) < 0) {
+          throw new IOException(
+            errorTruncated(this.parser.request, this.start));
+        }
+      }
+    }
+
+    @Override
+    public int read(
+      final ByteBuffer target)
+      throws IOException
+    {
+      if (!this.open) {
+        throw new ClosedChannelException();
+      }
+      if (this.visible == 0L) {
+        return -1;
+      }
+      if (!target.hasRemaining()) {
+        return 0;
+      }
+
+      final var count =
+        (int) Math.min(target.remaining(), this.visible);
+      final var view =
+        target.slice(target.position(), count);
+
+      final var read = this.parser.channel.read(view);
+      if (read < 0) {
+        throw new IOException(
+          errorTruncated(this.parser.request, this.start));
+      }
+
+      target.position(target.position() + read);
+      this.remaining -= read;
+      this.visible -= read;
+      return read;
+    }
+
+    @Override
+    public boolean isOpen()
+    {
+      return this.open;
+    }
+
+    @Override
+    public void close()
+    {
+      // The section remains readable until the next event is requested.
+    }
+  }
+}
@@ -0,0 +1,382 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.ironsegment.basic.internal;
+
+import com.io7m.ironsegment.api.ISFileSectionDescription;
+import com.io7m.ironsegment.api.ISIdentifiers;
+import com.io7m.ironsegment.api.ISImageInfo;
+import com.io7m.ironsegment.api.ISManifest;
+import com.io7m.ironsegment.api.ISSectionDescription;
+import com.io7m.ironsegment.writer.api.ISChecksumMode;
+import com.io7m.ironsegment.writer.api.ISStreamWriteRequest;
+import com.io7m.ironsegment.writer.api.ISStreamWriterType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.zip.CRC32C;
+
+import static com.io7m.ironsegment.api.ISIdentifiers.sectionImageIdentifier;
+import static com.io7m.ironsegment.api.ISIdentifiers.sectionManifestIdentifier;
+
+/**
+ * A writer that writes files strictly sequentially. The writer tracks the
+ * file offset itself, and so never needs to query or change the position
+ * of the channel.
+ */
+
+public final class IS1StreamWriter implements ISStreamWriterType
+{
+  private static final ByteBuffer ZEROES =
+    ByteBuffer.allocate(16).asReadOnlyBuffer();
+
+  private final ISStreamWriteRequest request;
+  private final WritableByteChannel channel;
+  private final ArrayList<ISFileSectionDescription> sections;
+  private final TreeMap<Long, Long> checksums;
+  private final boolean checksummed;
+  private ImageChannel imageOpen;
+  private long offset;
+  private boolean finished;
+
+  private IS1StreamWriter(
+    final ISStreamWriteRequest inRequest)
+  {
+    this.request =
+      Objects.requireNonNull(inRequest, "request");
+    this.channel =
+      inRequest.channel();
+    this.sections =
+      new ArrayList<>();
+    this.checksums =
+      new TreeMap<>();
+    this.checksummed =
+      inRequest.checksumMode() == ISChecksumMode.CHECKSUMS_CRC32C;
+  }
+
+  /**
+   * Create a streaming writer, writing the file header immediately.
+   *
+   * @param request The request
+   *
+   * @return A new writer
+   *
+   * @throws IOException On errors
+   */
+
+  public static IS1StreamWriter create(
+    final ISStreamWriteRequest request)
+    throws IOException
+  {
+    Objects.requireNonNull(request, "request");
+
+    final var version = request.version();
+    if (version.major() != 1L) {
+      throw new IOException(
+        errorUnsupportedMajorVersion(request, version.major()));
+    }
+
+    final var writer = new IS1StreamWriter(request);
+    final var header = ByteBuffer.allocate(16);
+    header.putLong(ISIdentifiers.fileIdentifier());
+    header.putInt(version.major());
+    header.putInt(version.minor());
+    writer.write(header.flip());
+    return writer;
+  }
+
+  @Override
+  public List<ISFileSectionDescription> sections()
+  {
+    return List.copyOf(this.sections);
+  }
+
+  @Override
+  public void writeManifest(
+    final ISManifest manifest)
+    throws IOException
+  {
+    Objects.requireNonNull(manifest, "manifest");
+    this.checkCanWriteSection();
+
+    final var data =
+      IS1SectionWritableManifest.encode(sectionManifestIdentifier(), manifest);
+    final var sectionSize =
+      alignUp(4L + data.length);
+
+    final var buffer = ByteBuffer.allocate(Math.toIntExact(16L + sectionSize));
+    buffer.putLong(sectionManifestIdentifier());
+    buffer.putLong(sectionSize);
+    buffer.putInt(data.length);
+    buffer.put(data);
+    buffer.clear();
+
+    final var crc = new CRC32C();
+    crc.update(buffer.duplicate().position(16));
+    this.write(buffer);
+    this.sectionCompleted(sectionManifestIdentifier(), sectionSize, crc);
+  }
+
+  @Override
+  public WritableByteChannel writeImage(
+    final ISImageInfo info)
+    throws IOException
+  {
+    Objects.requireNonNull(info, "info");
+    this.checkCanWriteSection();
+
+    final var dataSize =
+      info.dataSizeOctets();
+    final var sectionSize =
+      alignUp(Math.addExact(4L, dataSize));
+
+    final var header = ByteBuffer.allocate(20);
+    header.putLong(sectionImageIdentifier());
+    header.putLong(sectionSize);
+    header.putInt((int) info.imageId().value());
+    header.clear();
+
+    final var crc = new CRC32C();
+    crc.update(header.duplicate().position(16));
+    this.write(header);
+
+    this.imageOpen = new ImageChannel(this, info, sectionSize, crc);
+    return this.imageOpen;
+  }
+
+  @Override
+  public List<ISFileSectionDescription> finish()
+    throws IOException
+  {
+    this.checkCanWriteSection();
+    this.finished = true;
+
+    this.write(
+      IS1BulkWriter.encodeClosingSections(
+        this.offset,
+        this.sections,
+        this.checksummed ? this.checksums : null
+      )
+    );
+    return List.copyOf(this.sections);
+  }
+
+  @Override
+  public void close()
+    throws IOException
+  {
+    if (!this.finished) {
+      this.finish();
+    }
+  }
+
+  private void checkCanWriteSection()
+    throws IOException
+  {
+    if (this.finished) {
+      throw new IllegalStateException(
+        "The closing sections of the file have already been written.");
+    }
+
+    final var image = this.imageOpen;
+    if (image == null) {
+      return;
+    }
+
+    if (image.received != image.info.dataSizeOctets()) {
+      throw new IOException(this.errorImageIncomplete(image));
+    }
+
+    this.imageOpen = null;
+    image.open = false;
+
+    final var padding =
+      ZEROES.duplicate()
+        .limit((int) (image.sectionSize - (4L + image.received)));
+
+    image.crc.update(padding.duplicate());
+    this.write(padding);
+    this.sectionCompleted(sectionImageIdentifier(), image.sectionSize, image.crc);
+  }
+
+  private void sectionCompleted(
+    final long identifier,
+    final long sectionSize,
+    final CRC32C crc)
+  {
+    final var sectionOffset = this.offset - (16L + sectionSize);
+    this.sections.add(
+      new ISFileSectionDescription(
+        sectionOffset,
+        new ISSectionDescription(identifier, sectionSize)
+      )
+    );
+    if (this.checksummed) {
+      this.checksums.put(
+        Long.valueOf(sectionOffset),
+        Long.valueOf(crc.getValue())
+      );
+    }
+  }
+
+  private void write(
+    final ByteBuffer buffer)
+    throws IOException
+  {
+    while (buffer.hasRemaining()) {
+      this.offset += this.channel.write(buffer);
+    }
+  }
+
+  private static long alignUp(
+    final long size)
+  {
+    return Math.addExact(size, 15L) & ~15L;
+  }
+
+  private String errorImageIncomplete(
+    final ImageChannel image)
+  {
+    final var lineSeparator = System.lineSeparator();
+    return new StringBuilder(64)
+      .append("Image data is incomplete.")
+      .append(lineSeparator)
+      .append("  File: ")
+      .append(this.request.target())
+      .append(lineSeparator)
+      .append("  Image ID: ")
+      .append(image.info.imageId())
+      .append(lineSeparator)
+      .append("  Expected: ")
+      .append(Long.toUnsignedString(image.info.dataSizeOctets()))
+      .append(" octets")
+      .append(lineSeparator)
+      .append("  Received: ")
+      .append(Long.toUnsignedString(image.received))
+      .append(" octets")
+      .append(lineSeparator)
+      .toString();
+  }
+
+  private String errorImageOverflow(
+    final ImageChannel image,
+    final long size)
+  {
+    final var lineSeparator = System.lineSeparator();
+    return new StringBuilder(64)
+      .append("Too much image data was written.")
+      .append(lineSeparator)
+      .append("  File: ")
+      .append(this.request.target())
+      .append(lineSeparator)
+      .append("  Image ID: ")
+      .append(image.info.imageId())
+      .append(lineSeparator)
+      .append("  Expected: ")
+      .append(Long.toUnsignedString(image.info.dataSizeOctets()))
+      .append(" octets")
+      .append(lineSeparator)
+      .append("  Received: ")
+      .append(Long.toUnsignedString(size))
+      .append(" octets")
+      .append(lineSeparator)
+      .toString();
+  }
+
+  private static String errorUnsupportedMajorVersion(
+    final ISStreamWriteRequest request,
+    final long major)
+  {
+    final var lineSeparator = System.lineSeparator();
+    return new StringBuilder(64)
+      .append("Unsupported major version.")
+      .append(lineSeparator)
+      .append("  File: ")
+      .append(request.target())
+      .append(lineSeparator)
+      .append("  Received: Major version ")
+      .append(Long.toUnsignedString(major))
+      .append(lineSeparator)
+      .append("  Expected: Major version 1")
+      .append(lineSeparator)
+      .toString();
+  }
+
+  private static final class ImageChannel implements WritableByteChannel
+  {
+    private final IS1StreamWriter writer;
+    private final ISImageInfo info;
+    private final long sectionSize;
+    private final CRC32C crc;
+    private long received;
+    private boolean open;
+
+    ImageChannel(
+      final IS1StreamWriter inWriter,
+      final ISImageInfo inInfo,
+      final long inSectionSize,
+      final CRC32C inCrc)
+    {
+      this.writer = inWriter;
+      this.info = inInfo;
+      this.sectionSize = inSectionSize;
+      this.crc = inCrc;
+      this.open = true;
+    }
+
+    @Override
+    public int write(
+      final ByteBuffer source)
+      throws IOException
+    {
+      if (!this.open) {
+        throw new ClosedChannelException();
+      }
+
+      final var count = source.remaining();
+      final var total = this.received + count;
+      if (Long.compareUnsigned(total, this.info.dataSizeOctets()) > 0) {
+        throw new IOException(this.writer.errorImageOverflow(this, total));
+      }
+
+      if (this.writer.checksummed) {
+        this.crc.update(source.duplicate());
+      }
+      this.writer.write(source);
+      this.received = total;
+      return count;
+    }
+
+    @Override
+    public boolean isOpen()
+    {
+      return this.open;
+    }
+
+    @Override
+    public void close()
+    {
+      // Closing the channel has no effect; the section is completed when
+      // the next section is started.
+    }
+  }
+}
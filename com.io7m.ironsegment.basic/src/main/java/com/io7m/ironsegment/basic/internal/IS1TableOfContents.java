@@ -0,0 +1,264 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.ironsegment.basic.internal;
+
+import com.io7m.ironsegment.api.ISFileSectionDescription;
+import com.io7m.ironsegment.api.ISSectionDescription;
+import com.io7m.jbssio.api.BSSWriterRandomAccessType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static com.io7m.ironsegment.api.ISIdentifiers.sectionEndIdentifier;
+import static com.io7m.ironsegment.api.ISIdentifiers.sectionTableOfContentsIdentifier;
+
+/**
+ * Functions to read and write table of contents sections.
+ *
+ * <p>A table of contents section contains an unsigned 64-bit count of
+ * sections, followed by that many entries of the form
+ * {@code (offset : u64, identifier : u64, size : u64)}, in file order. The
+ * table of contents is written directly before the end section, and the end
+ * section then contains the file offset and data size of the table of
+ * contents as two unsigned 64-bit values. This allows for locating the table
+ * of contents by reading the fixed-size end section at the end of the
+ * file.</p>
+ */
+
+public final class IS1TableOfContents
+{
+  private static final Logger LOG =
+    LoggerFactory.getLogger(IS1TableOfContents.class);
+
+  /**
+   * The size of the data of an end section that refers to a table of contents.
+   */
+
+  public static final long END_SECTION_DATA_SIZE = 16L;
+
+  private static final long ENTRY_SIZE = 24L;
+
+  private IS1TableOfContents()
+  {
+
+  }
+
+  /**
+   * Write a table of contents section at the writer's current offset. The
+   * section is written with a single write.
+   *
+   * @param writer   The writer
+   * @param sections The sections that precede the table of contents
+   *
+   * @return The description of the table of contents section
+   *
+   * @throws IOException On errors
+   */
+
+  public static ISFileSectionDescription write(
+    final BSSWriterRandomAccessType writer,
+    final List<ISFileSectionDescription> sections)
+    throws IOException
+  {
+    final var offset =
+      writer.offsetCurrentAbsolute();
+    final var buffer =
+      encode(sections);
+
+    writer.writeBytes(buffer.array());
+    return new ISFileSectionDescription(
+      offset,
+      new ISSectionDescription(
+        sectionTableOfContentsIdentifier(),
+        buffer.capacity() - 16L)
+    );
+  }
+
+  /**
+   * Encode a complete table of contents section, including the section
+   * header.
+   *
+   * @param sections The sections that precede the table of contents
+   *
+   * @return A buffer containing the section
+   */
+
+  public static ByteBuffer encode(
+    final List<ISFileSectionDescription> sections)
+  {
+    final var count =
+      sections.size();
+    final var dataSize =
+      alignUp(8L + (ENTRY_SIZE * count));
+
+    final var buffer = ByteBuffer.allocate(Math.toIntExact(16L + dataSize));
+    buffer.putLong(sectionTableOfContentsIdentifier());
+    buffer.putLong(dataSize);
+    buffer.putLong(count);
+    for (final var section : sections) {
+      buffer.putLong(section.fileOffset());
+      buffer.putLong(section.description().identifier());
+      buffer.putLong(section.description().size());
+    }
+    return buffer.clear();
+  }
+
+  /**
+   * Attempt to read the table of contents of a file. The end section is read
+   * from the end of the file, and the table of contents is then loaded with a
+   * single read. If the file does not have a table of contents, or the table
+   * of contents is inconsistent in any way, nothing is returned and the
+   * caller is expected to fall back to reading section headers individually.
+   *
+   * @param file   The file URI, for diagnostics
+   * @param source The data source
+   *
+   * @return The sections of the file, including the table of contents and
+   * end sections, if a valid table of contents is present
+   *
+   * @throws IOException On I/O errors
+   */
+
+  public static Optional<List<ISFileSectionDescription>> read(
+    final URI file,
+    final IS1DataSourceType source)
+    throws IOException
+  {
+    final var fileSize = source.size();
+    if (fileSize < 16L + 32L + 16L + END_SECTION_DATA_SIZE) {
+      return Optional.empty();
+    }
+
+    final var endOffset =
+      fileSize - (16L + END_SECTION_DATA_SIZE);
+    final var end =
+      source.slice(endOffset, 16L + END_SECTION_DATA_SIZE);
+
+    if (end.getLong(0) != sectionEndIdentifier()
+        || end.getLong(8) != END_SECTION_DATA_SIZE) {
+      LOG.debug("{}: no table of contents is present", file);
+      return Optional.empty();
+    }
+
+    final var tocOffset = end.getLong(16);
+    final var tocSize = end.getLong(24);
+    if (!isValidRange(tocOffset, tocSize, endOffset)) {
+      return invalid(file, "the end section refers to an invalid range");
+    }
+
+    final var toc = source.slice(tocOffset, 16L + tocSize);
+    if (toc.getLong(0) != sectionTableOfContentsIdentifier()
+        || toc.getLong(8) != tocSize
+        || tocOffset + 16L + tocSize != endOffset) {
+      return invalid(file, "the section header is not consistent");
+    }
+
+    final var count = toc.getLong(16);
+    if (count < 0L || count > (tocSize - 8L) / ENTRY_SIZE) {
+      return invalid(file, "the section count is out of range");
+    }
+
+    return readEntries(file, toc, (int) count, tocOffset, tocSize, endOffset);
+  }
+
+  private static boolean isValidRange(
+    final long tocOffset,
+    final long tocSize,
+    final long endOffset)
+  {
+    return tocOffset >= 16L
+           && tocOffset % 16L == 0L
+           && tocSize >= 8L
+           && tocSize <= endOffset - 16L - tocOffset;
+  }
+
+  private static Optional<List<ISFileSectionDescription>> readEntries(
+    final URI file,
+    final ByteBuffer toc,
+    final int count,
+    final long tocOffset,
+    final long tocSize,
+    final long endOffset)
+  {
+    final var sections =
+      new ArrayList<ISFileSectionDescription>(count + 2);
+
+    var expectedOffset = 16L;
+    for (int index = 0; index < count; ++index) {
+      final var base = 24 + (index * (int) ENTRY_SIZE);
+      final var offset = toc.getLong(base);
+      final var identifier = toc.getLong(base + 8);
+      final var size = toc.getLong(base + 16);
+
+      if (offset != expectedOffset
+          || size < 0L
+          || size > tocOffset - 16L - offset) {
+        return invalid(
+          file,
+          "entry %d does not describe a contiguous section".formatted(index)
+        );
+      }
+
+      sections.add(
+        new ISFileSectionDescription(
+          offset,
+          new ISSectionDescription(identifier, size))
+      );
+      expectedOffset = offset + 16L + size;
+    }
+
+    if (expectedOffset != tocOffset) {
+      return invalid(file, "the entries do not cover the file");
+    }
+
+    sections.add(
+      new ISFileSectionDescription(
+        tocOffset,
+        new ISSectionDescription(sectionTableOfContentsIdentifier(), tocSize))
+    );
+    sections.add(
+      new ISFileSectionDescription(
+        endOffset,
+        new ISSectionDescription(sectionEndIdentifier(), END_SECTION_DATA_SIZE))
+    );
+    return Optional.of(sections);
+  }
+
+  private static Optional<List<ISFileSectionDescription>> invalid(
+    final URI file,
+    final String reason)
+  {
+    LOG.warn(
+      "{}: ignoring table of contents because {}; falling back to a linear scan",
+      file,
+      reason
+    );
+    return Optional.empty();
+  }
+
+  private static long alignUp(
+    final long size)
+  {
+    return (size + 15L) & ~15L;
+  }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.ironsegment.basic.internal;
+
+import com.io7m.ironsegment.api.ISFileSectionDescription;
+import com.io7m.ironsegment.api.ISImageInfo;
+import com.io7m.ironsegment.api.ISWritableImageReservedType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The pixel data of a reserved image section. Writes are positional writes
+ * to the underlying {@link FileChannel}, and so neither contend with each
+ * other nor disturb the channel position used by the file writer.
+ */
+
+public final class IS1WritableImageReserved
+  implements ISWritableImageReservedType
+{
+  private final FileChannel fileChannel;
+  private final ISFileSectionDescription section;
+  private final ISImageInfo info;
+  private final AtomicBoolean finished;
+  private final long dataOffset;
+  private final long dataSize;
+
+  /**
+   * The pixel data of a reserved image section.
+   *
+   * @param inChannel  The file channel
+   * @param inSection  The reserved section
+   * @param inInfo     The image information
+   * @param inFinished A flag that is set when the file's end section is
+   *                   created
+   */
+
+  public IS1WritableImageReserved(
+    final FileChannel inChannel,
+    final ISFileSectionDescription inSection,
+    final ISImageInfo inInfo,
+    final AtomicBoolean inFinished)
+  {
+    this.fileChannel =
+      Objects.requireNonNull(inChannel, "channel");
+    this.section =
+      Objects.requireNonNull(inSection, "section");
+    this.info =
+      Objects.requireNonNull(inInfo, "info");
+    this.finished =
+      Objects.requireNonNull(inFinished, "finished");
+    this.dataOffset =
+      this.section.fileOffsetData() + 4L;
+    this.dataSize =
+      this.info.dataSizeOctets();
+  }
+
+  @Override
+  public ISImageInfo info()
+  {
+    return this.info;
+  }
+
+  @Override
+  public ISFileSectionDescription section()
+  {
+    return this.section;
+  }
+
+  @Override
+  public void write(
+    final long offset,
+    final ByteBuffer data)
+    throws IOException
+  {
+    Objects.requireNonNull(data, "data");
+    Objects.checkFromIndexSize(offset, data.remaining(), this.dataSize);
+
+    if (this.finished.get()) {
+      throw new IllegalStateException(
+        "The end section of the file has already been created.");
+    }
+
+    var position = this.dataOffset + offset;
+    while (data.hasRemaining()) {
+      position += this.fileChannel.write(data, position);
+    }
+  }
+
+  @Override
+  public WritableByteChannel channel()
+  {
+    return new ReservedChannel(this);
+  }
+
+  private static final class ReservedChannel implements WritableByteChannel
+  {
+    private final IS1WritableImageReserved image;
+    private long position;
+    private boolean open;
+
+    ReservedChannel(
+      final IS1WritableImageReserved inImage)
+    {
+      this.image = Objects.requireNonNull(inImage, "image");
+      this.open = true;
+    }
+
+    @Override
+    public int write(
+      final ByteBuffer source)
+      throws IOException
+    {
+      if (!this.open) {
+        throw new ClosedChannelException();
+      }
+
+      final var count = source.remaining();
+      this.image.write(this.position, source);
+      this.position += count;
+      return count;
+    }
+
+    @Override
+    public boolean isOpen()
+    {
+      return this.open;
+    }
+
+    @Override
+    public void close()
+    {
+      this.open = false;
+    }
+  }
+}
@@ -20,33 +20,26 @@ package com.io7m.ironsegment.basic.internal;
 import com.io7m.anethum.api.ParseSeverity;
 import com.io7m.anethum.api.ParseStatus;
 import com.io7m.anethum.api.ParsingException;
-import com.io7m.blackthorne.core.BTException;
-import com.io7m.blackthorne.core.BTParseError;
-import com.io7m.blackthorne.core.BTPreserveLexical;
-import com.io7m.blackthorne.jxe.BlackthorneJXE;
 import com.io7m.ironsegment.api.ISManifest;
-import com.io7m.ironsegment.basic.ISManifestSchemas;
 import com.io7m.ironsegment.parser.api.ISManifestParserType;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 import java.util.function.Consumer;
 
-import static com.io7m.ironsegment.basic.internal.IS1Names.qName;
-import static java.util.Map.entry;
+import static com.io7m.ironsegment.parser.api.ISManifestMode.MANIFEST_VALIDATED;
 
 /**
- * A parser.
+ * A parser. Manifests are validated against the cached manifest schema as
+ * they are decoded.
  */
 
 public final class ISManifestParser
   implements ISManifestParserType
 {
-  private final BTPreserveLexical lexical;
   private final URI source;
   private final InputStream stream;
   private final Consumer<ParseStatus> statusConsumer;
@@ -54,20 +47,16 @@ public final class ISManifestParser
   /**
    * A parser.
    *
-   * @param context The parse context
    * @param inSource The source URI
    * @param inStatusConsumer The status consumer
    * @param inStream The input stream
    */
 
   public ISManifestParser(
-    final BTPreserveLexical context,
     final URI inSource,
     final InputStream inStream,
     final Consumer<ParseStatus> inStatusConsumer)
   {
-    this.lexical =
-      Objects.requireNonNull(context, "context");
     this.source =
       Objects.requireNonNull(inSource, "source");
     this.stream =
@@ -80,29 +69,25 @@ public final class ISManifestParser
   public ISManifest execute()
     throws ParsingException
   {
-    try {
-      return BlackthorneJXE.parse(
-        this.source,
-        this.stream,
-        Map.ofEntries(
-          entry(qName("Manifest"), IS1EManifest::new)
-        ),
-        ISManifestSchemas.schemas(),
-        this.lexical
-      );
-    } catch (final BTException e) {
-      final var statuses =
-        e.errors()
-          .stream()
-          .map(ISManifestParser::mapParseError)
-          .toList();
+    final var collector = new IS1ManifestCollector();
+    IS1ManifestDecoder.decode(
+      this.source,
+      this.stream,
+      MANIFEST_VALIDATED,
+      collector,
+      this.statusConsumer
+    );
 
-      for (final var status : statuses) {
-        this.statusConsumer.accept(status);
-      }
+    try {
+      return collector.toManifest();
+    } catch (final IllegalArgumentException e) {
+      final var status =
+        ParseStatus.builder("parse-error", e.getMessage())
+          .withSeverity(ParseSeverity.PARSE_ERROR)
+          .build();
 
-      final var ex =
-        new ParsingException(e.getMessage(), List.copyOf(statuses));
+      this.statusConsumer.accept(status);
+      final var ex = new ParsingException(e.getMessage(), List.of(status));
       ex.addSuppressed(e);
       throw ex;
     }
@@ -114,22 +99,4 @@ public final class ISManifestParser
   {
     this.stream.close();
   }
-
-  private static ParseStatus mapParseError(
-    final BTParseError error)
-  {
-    return ParseStatus.builder("parse-error", error.message())
-      .withSeverity(mapSeverity(error.severity()))
-      .withLexical(error.lexical())
-      .build();
-  }
-
-  private static ParseSeverity mapSeverity(
-    final BTParseError.Severity severity)
-  {
-    return switch (severity) {
-      case ERROR -> ParseSeverity.PARSE_ERROR;
-      case WARNING -> ParseSeverity.PARSE_WARNING;
-    };
-  }
 }
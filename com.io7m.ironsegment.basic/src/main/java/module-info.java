@@ -32,12 +32,13 @@ module com.io7m.ironsegment.basic
   requires com.io7m.jaffirm.core;
   requires com.io7m.jbssio.api;
   requires com.io7m.jbssio.vanilla;
+  requires com.io7m.jlexing.core;
   requires com.io7m.jxe.core;
   requires com.io7m.lanark.core;
   requires com.io7m.wendover.core;
   requires java.xml;
+  requires org.lz4.java;
   requires org.slf4j;
-  requires com.io7m.blackthorne.jxe;
 
   uses com.io7m.jbssio.api.BSSWriterProviderType;
   uses com.io7m.jbssio.api.BSSReaderProviderType;
@@ -0,0 +1,39 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.ironsegment.parser.api;
+
+/**
+ * The means by which section checksums are verified.
+ */
+
+public enum ISChecksumVerification
+{
+  /**
+   * Section checksums are not verified unless explicitly requested.
+   */
+
+  CHECKSUMS_UNVERIFIED,
+
+  /**
+   * The checksum of each section is verified the first time that the data
+   * of the section is accessed, and the result is remembered for the
+   * lifetime of the readable file. Files that do not contain a checksum
+   * section are read without verification.
+   */
+
+  CHECKSUMS_VERIFIED_ON_ACCESS
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.ironsegment.parser.api;
+
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * The identity of a file on a filesystem. Two identities are equal if they
+ * refer to the same path, the same underlying file (where the filesystem
+ * supports file keys), and the file had the same size and modification time
+ * when each identity was taken.
+ *
+ * @param path         The absolute, normalized path of the file
+ * @param fileKey      The filesystem's key for the file, if supported
+ * @param size         The size of the file
+ * @param lastModified The last modification time of the file
+ *
+ * @see java.nio.file.attribute.BasicFileAttributes#fileKey()
+ */
+
+public record ISFileIdentity(
+  Path path,
+  Optional<Object> fileKey,
+  long size,
+  FileTime lastModified)
+{
+  /**
+   * The identity of a file on a filesystem.
+   *
+   * @param path         The absolute, normalized path of the file
+   * @param fileKey      The filesystem's key for the file, if supported
+   * @param size         The size of the file
+   * @param lastModified The last modification time of the file
+   */
+
+  public ISFileIdentity
+  {
+    Objects.requireNonNull(path, "path");
+    Objects.requireNonNull(fileKey, "fileKey");
+    Objects.requireNonNull(lastModified, "lastModified");
+  }
+}
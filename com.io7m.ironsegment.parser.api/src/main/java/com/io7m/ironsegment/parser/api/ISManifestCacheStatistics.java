@@ -0,0 +1,37 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.ironsegment.parser.api;
+
+/**
+ * Statistics for a manifest cache.
+ *
+ * @param hits        The number of lookups that found a manifest
+ * @param misses      The number of lookups that did not find a manifest
+ * @param evictions   The number of manifests evicted to make room for others
+ * @param size        The number of manifests currently cached
+ * @param maximumSize The maximum number of manifests that can be cached
+ */
+
+public record ISManifestCacheStatistics(
+  long hits,
+  long misses,
+  long evictions,
+  int size,
+  int maximumSize)
+{
+
+}
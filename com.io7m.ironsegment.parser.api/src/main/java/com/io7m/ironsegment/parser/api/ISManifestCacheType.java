@@ -0,0 +1,71 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.ironsegment.parser.api;
+
+import com.io7m.ironsegment.api.ISManifest;
+
+import java.util.Optional;
+
+/**
+ * A cache of parsed manifests, keyed by file identity. A cache may be shared
+ * between any number of parsers and readable files, and implementations
+ * must be safe for concurrent use.
+ *
+ * <p>File identities are taken from the path of a file when it is parsed. A
+ * manifest is only cached if the file still has the same identity after the
+ * manifest is decoded, so files rewritten during decoding are not cached.
+ * However, if the file at a path is replaced after a channel was opened on
+ * it but before parsing begins, the identity describes the replacement while
+ * the channel reads the original file, and the cache cannot detect this.</p>
+ */
+
+public interface ISManifestCacheType
+{
+  /**
+   * Look up a manifest.
+   *
+   * @param key The key
+   *
+   * @return The cached manifest, if any
+   */
+
+  Optional<ISManifest> get(
+    ISManifestCacheKey key);
+
+  /**
+   * Cache a manifest.
+   *
+   * @param key      The key
+   * @param manifest The manifest
+   */
+
+  void put(
+    ISManifestCacheKey key,
+    ISManifest manifest);
+
+  /**
+   * Remove all cached manifests. Statistics are not reset.
+   */
+
+  void clear();
+
+  /**
+   * @return The current cache statistics
+   */
+
+  ISManifestCacheStatistics statistics();
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.ironsegment.parser.api;
+
+/**
+ * The means by which manifests are parsed.
+ */
+
+public enum ISManifestMode
+{
+  /**
+   * Manifests are validated against the manifest schema as they are
+   * decoded, in a single pass over the manifest. The compiled schema is
+   * shared between all parses.
+   */
+
+  MANIFEST_VALIDATED,
+
+  /**
+   * Manifests are decoded without schema validation. This mode is
+   * appropriate for files produced by trusted writers; a malformed manifest
+   * is still rejected, but the errors reported may be less precise.
+   */
+
+  MANIFEST_TRUSTED
+}
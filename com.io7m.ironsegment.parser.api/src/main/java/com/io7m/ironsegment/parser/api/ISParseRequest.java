@@ -24,25 +24,82 @@ import java.util.Objects;
 /**
  * A parse request.
  *
- * @param channel The file channel
- * @param source  The data source
+ * @param channel  The file channel
+ * @param source   The data source
+ * @param readMode     The means by which section data is read
+ * @param manifestMode The means by which manifests are parsed
+ * @param checksumVerification The means by which section checksums are
+ *                             verified
  */
 
 public record ISParseRequest(
   SeekableByteChannel channel,
-  URI source)
+  URI source,
+  ISReadMode readMode,
+  ISManifestMode manifestMode,
+  ISChecksumVerification checksumVerification)
 {
   /**
    * A parse request.
    *
-   * @param channel The file channel
-   * @param source  The data source
+   * @param channel      The file channel
+   * @param source       The data source
+   * @param readMode     The means by which section data is read
+   * @param manifestMode The means by which manifests are parsed
+   * @param checksumVerification The means by which section checksums are
+   *                             verified
    */
 
   public ISParseRequest
   {
     Objects.requireNonNull(channel, "channel");
     Objects.requireNonNull(source, "source");
+    Objects.requireNonNull(readMode, "readMode");
+    Objects.requireNonNull(manifestMode, "manifestMode");
+    Objects.requireNonNull(checksumVerification, "checksumVerification");
+  }
+
+  /**
+   * A parse request that does not verify section checksums.
+   *
+   * @param inChannel      The file channel
+   * @param inSource       The data source
+   * @param inReadMode     The means by which section data is read
+   * @param inManifestMode The means by which manifests are parsed
+   */
+
+  public ISParseRequest(
+    final SeekableByteChannel inChannel,
+    final URI inSource,
+    final ISReadMode inReadMode,
+    final ISManifestMode inManifestMode)
+  {
+    this(
+      inChannel,
+      inSource,
+      inReadMode,
+      inManifestMode,
+      ISChecksumVerification.CHECKSUMS_UNVERIFIED
+    );
+  }
+
+  /**
+   * A parse request that reads data via the given channel.
+   *
+   * @param inChannel The file channel
+   * @param inSource  The data source
+   */
+
+  public ISParseRequest(
+    final SeekableByteChannel inChannel,
+    final URI inSource)
+  {
+    this(
+      inChannel,
+      inSource,
+      ISReadMode.READ_VIA_CHANNEL,
+      ISManifestMode.MANIFEST_VALIDATED
+    );
   }
 
   /**
@@ -66,6 +123,9 @@ public record ISParseRequest(
   {
     private SeekableByteChannel channel;
     private URI source;
+    private ISReadMode readMode;
+    private ISManifestMode manifestMode;
+    private ISChecksumVerification checksumVerification;
 
     private Builder(
       final SeekableByteChannel inChannel,
@@ -75,6 +135,12 @@ public record ISParseRequest(
         Objects.requireNonNull(inChannel, "channel");
       this.source =
         Objects.requireNonNull(inSource, "source");
+      this.readMode =
+        ISReadMode.READ_VIA_CHANNEL;
+      this.manifestMode =
+        ISManifestMode.MANIFEST_VALIDATED;
+      this.checksumVerification =
+        ISChecksumVerification.CHECKSUMS_UNVERIFIED;
     }
 
     @Override
@@ -105,12 +171,59 @@ public record ISParseRequest(
       return this;
     }
 
+    @Override
+    public ISReadMode readMode()
+    {
+      return this.readMode;
+    }
+
+    @Override
+    public ISParseRequestBuilderType setReadMode(
+      final ISReadMode inReadMode)
+    {
+      this.readMode = Objects.requireNonNull(inReadMode, "readMode");
+      return this;
+    }
+
+    @Override
+    public ISManifestMode manifestMode()
+    {
+      return this.manifestMode;
+    }
+
+    @Override
+    public ISParseRequestBuilderType setManifestMode(
+      final ISManifestMode inManifestMode)
+    {
+      this.manifestMode =
+        Objects.requireNonNull(inManifestMode, "manifestMode");
+      return this;
+    }
+
+    @Override
+    public ISChecksumVerification checksumVerification()
+    {
+      return this.checksumVerification;
+    }
+
+    @Override
+    public ISParseRequestBuilderType setChecksumVerification(
+      final ISChecksumVerification inChecksumVerification)
+    {
+      this.checksumVerification =
+        Objects.requireNonNull(inChecksumVerification, "checksumVerification");
+      return this;
+    }
+
     @Override
     public ISParseRequest build()
     {
       return new ISParseRequest(
         this.channel,
-        this.source
+        this.source,
+        this.readMode,
+        this.manifestMode,
+        this.checksumVerification
       );
     }
   }
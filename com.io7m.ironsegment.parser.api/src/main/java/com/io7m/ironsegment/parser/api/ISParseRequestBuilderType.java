@@ -61,6 +61,57 @@ public interface ISParseRequestBuilderType
   ISParseRequestBuilderType setSource(
     URI inSource);
 
+  /**
+   * @return The read mode
+   */
+
+  ISReadMode readMode();
+
+  /**
+   * Set the read mode.
+   *
+   * @param inReadMode The read mode
+   *
+   * @return this
+   */
+
+  ISParseRequestBuilderType setReadMode(
+    ISReadMode inReadMode);
+
+  /**
+   * @return The manifest mode
+   */
+
+  ISManifestMode manifestMode();
+
+  /**
+   * Set the manifest mode.
+   *
+   * @param inManifestMode The manifest mode
+   *
+   * @return this
+   */
+
+  ISParseRequestBuilderType setManifestMode(
+    ISManifestMode inManifestMode);
+
+  /**
+   * @return The checksum verification mode
+   */
+
+  ISChecksumVerification checksumVerification();
+
+  /**
+   * Set the checksum verification mode.
+   *
+   * @param inChecksumVerification The checksum verification mode
+   *
+   * @return this
+   */
+
+  ISParseRequestBuilderType setChecksumVerification(
+    ISChecksumVerification inChecksumVerification);
+
   /**
    * @return An immutable parse request
    */
@@ -49,4 +49,49 @@ public interface ISParserFactoryType
   ISParserType createParser(
     ISParseRequest request)
     throws IOException;
+
+  /**
+   * Create a new streaming parser for the given request. The file header is
+   * read and checked immediately.
+   *
+   * @param request A parse request
+   *
+   * @return A new parser
+   *
+   * @throws IOException On errors
+   */
+
+  ISStreamParserType createStreamParser(
+    ISStreamParseRequest request)
+    throws IOException;
+
+  /**
+   * Open a shard for random access. The shard header and index are read and
+   * checked immediately.
+   *
+   * @param request A parse request
+   *
+   * @return A readable shard
+   *
+   * @throws IOException On errors
+   */
+
+  ISShardReadableType openShard(
+    ISParseRequest request)
+    throws IOException;
+
+  /**
+   * Create a new streaming shard parser for the given request. The shard
+   * header is read and checked immediately.
+   *
+   * @param request A parse request
+   *
+   * @return A new parser
+   *
+   * @throws IOException On errors
+   */
+
+  ISShardStreamParserType createShardStreamParser(
+    ISStreamParseRequest request)
+    throws IOException;
 }
@@ -0,0 +1,40 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.ironsegment.parser.api;
+
+/**
+ * The means by which section data is read from a file.
+ */
+
+public enum ISReadMode
+{
+  /**
+   * Section data is read by issuing reads against the underlying channel.
+   * Data is copied into buffers as it is read.
+   */
+
+  READ_VIA_CHANNEL,
+
+  /**
+   * The file is mapped into memory, and section data is exposed as read-only
+   * views of the mapping. No data is copied. This mode requires that the
+   * underlying channel is a {@link java.nio.channels.FileChannel}.
+   */
+
+  READ_VIA_MEMORY_MAP
+}
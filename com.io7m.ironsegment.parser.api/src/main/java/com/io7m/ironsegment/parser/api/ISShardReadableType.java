@@ -0,0 +1,57 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package com.io7m.ironsegment.parser.api;
+
+import com.io7m.ironsegment.api.ISFileReadableType;
+import com.io7m.ironsegment.api.ISShardMember;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * A readable shard. The index of the shard is read when the shard is
+ * opened, and members are opened directly from their location within the
+ * shard without being copied.
+ *
+ * <p>Members are read using the read mode, manifest mode, and checksum
+ * verification mode of the request used to open the shard. Members that are
+ * opened in order are read in the order in which they are stored. Closing a
+ * member does not close the shard, and the underlying channel is not closed
+ * when the shard is closed.</p>
+ */
+
+public interface ISShardReadableType extends Closeable
+{
+  /**
+   * @return The members of the shard, in the order in which they are stored
+   */
+
+  List<ISShardMember> members();
+
+  /**
+   * Open a member of the shard.
+   *
+   * @param member The member
+   *
+   * @return A readable file
+   *
+   * @throws IOException On errors
+   */
+
+  ISFileReadableType openMember(ISShardMember member)
+    throws IOException;
+}
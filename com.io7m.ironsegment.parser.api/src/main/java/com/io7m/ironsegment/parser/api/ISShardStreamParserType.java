@@ -0,0 +1,56 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package com.io7m.ironsegment.parser.api;
+
+import com.io7m.ironsegment.api.ISFileReadableType;
+import com.io7m.ironsegment.api.ISShardMember;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * A parser that reads a shard strictly sequentially, producing one readable
+ * file per member. The data of each member is read into memory in full
+ * before the member is parsed, and the index at the end of the shard is
+ * never consulted; the parser never seeks.
+ *
+ * <p>Parsers are not thread-safe. Each member returned by the parser is
+ * independent of the parser and of the other members, and may be used
+ * after the parser has moved on. The underlying channel is not closed when
+ * the parser is closed.</p>
+ */
+
+public interface ISShardStreamParserType extends Closeable
+{
+  /**
+   * @return The member most recently returned by {@link #next()}, if any
+   */
+
+  Optional<ISShardMember> member();
+
+  /**
+   * Read and parse the next member of the shard.
+   *
+   * @return The next member, or nothing if the end of the shard has been
+   * reached
+   *
+   * @throws IOException On errors, or if the stream ends within a section
+   */
+
+  Optional<ISFileReadableType> next()
+    throws IOException;
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.ironsegment.parser.api;
+
+import com.io7m.ironsegment.api.ISFileSectionDescription;
+import com.io7m.ironsegment.api.ISImageID;
+import com.io7m.ironsegment.api.ISImageInfo;
+
+import java.nio.channels.ReadableByteChannel;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * An uncompressed image section was encountered. The pixel data can be read
+ * from the given channel until the next event is requested; any data that
+ * has not been read by then is discarded.
+ *
+ * @param section The section
+ * @param imageId The image ID
+ * @param info    The image information, if the image was declared in a
+ *                manifest that preceded the section
+ * @param data    A channel delivering the pixel data. If the image
+ *                information is known, the channel delivers exactly
+ *                {@link ISImageInfo#dataSizeOctets()} octets; otherwise it
+ *                delivers the remainder of the section, including any
+ *                trailing alignment padding.
+ */
+
+public record ISStreamEventImage(
+  ISFileSectionDescription section,
+  ISImageID imageId,
+  Optional<ISImageInfo> info,
+  ReadableByteChannel data)
+  implements ISStreamEventType
+{
+  /**
+   * An uncompressed image section was encountered.
+   *
+   * @param section The section
+   * @param imageId The image ID
+   * @param info    The image information, if known
+   * @param data    A channel delivering the pixel data
+   */
+
+  public ISStreamEventImage
+  {
+    Objects.requireNonNull(section, "section");
+    Objects.requireNonNull(imageId, "imageId");
+    Objects.requireNonNull(info, "info");
+    Objects.requireNonNull(data, "data");
+  }
+}
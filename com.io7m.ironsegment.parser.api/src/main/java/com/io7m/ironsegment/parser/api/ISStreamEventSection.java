@@ -0,0 +1,52 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.ironsegment.parser.api;
+
+import com.io7m.ironsegment.api.ISFileSectionDescription;
+
+import java.nio.channels.ReadableByteChannel;
+import java.util.Objects;
+
+/**
+ * A section that has no dedicated event type was encountered. This includes
+ * encoded and tiled image sections, the table of contents, and sections
+ * with unrecognized identifiers. The section data can be read from the
+ * given channel until the next event is requested; any data that has not
+ * been read by then is discarded.
+ *
+ * @param section The section
+ * @param data    A channel delivering the section data
+ */
+
+public record ISStreamEventSection(
+  ISFileSectionDescription section,
+  ReadableByteChannel data)
+  implements ISStreamEventType
+{
+  /**
+   * A section that has no dedicated event type was encountered.
+   *
+   * @param section The section
+   * @param data    A channel delivering the section data
+   */
+
+  public ISStreamEventSection
+  {
+    Objects.requireNonNull(section, "section");
+    Objects.requireNonNull(data, "data");
+  }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.ironsegment.parser.api;
+
+import java.net.URI;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Objects;
+
+/**
+ * A request to parse a file from a channel that cannot seek, such as
+ * standard input or a network stream.
+ *
+ * @param channel      The readable channel
+ * @param source       The data source, for diagnostics
+ * @param manifestMode The means by which manifests are parsed
+ *
+ * @see ISStreamParserType
+ */
+
+public record ISStreamParseRequest(
+  ReadableByteChannel channel,
+  URI source,
+  ISManifestMode manifestMode)
+{
+  /**
+   * A request to parse a file from a channel that cannot seek.
+   *
+   * @param channel      The readable channel
+   * @param source       The data source, for diagnostics
+   * @param manifestMode The means by which manifests are parsed
+   */
+
+  public ISStreamParseRequest
+  {
+    Objects.requireNonNull(channel, "channel");
+    Objects.requireNonNull(source, "source");
+    Objects.requireNonNull(manifestMode, "manifestMode");
+  }
+
+  /**
+   * A request to parse a file from a channel that cannot seek, validating
+   * manifests.
+   *
+   * @param inChannel The readable channel
+   * @param inSource  The data source, for diagnostics
+   */
+
+  public ISStreamParseRequest(
+    final ReadableByteChannel inChannel,
+    final URI inSource)
+  {
+    this(inChannel, inSource, ISManifestMode.MANIFEST_VALIDATED);
+  }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.ironsegment.parser.api;
+
+import com.io7m.ironsegment.api.ISVersion;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * A parser that reads a file strictly sequentially, producing one event per
+ * section. Sections that are not of interest are skipped by reading and
+ * discarding their data; the parser never seeks.
+ *
+ * <p>Parsers are not thread-safe. The underlying channel is not closed when
+ * the parser is closed.</p>
+ */
+
+public interface ISStreamParserType extends Closeable
+{
+  /**
+   * @return The version of the file being parsed
+   */
+
+  ISVersion version();
+
+  /**
+   * Read the next section of the file. Any data of the previous section that
+   * has not been consumed is discarded first.
+   *
+   * @return The event for the next section, or nothing if the end section
+   * has been read or the stream ended at a section boundary
+   *
+   * @throws IOException On errors, or if the stream ends within a section
+   */
+
+  Optional<ISStreamEventType> next()
+    throws IOException;
+}
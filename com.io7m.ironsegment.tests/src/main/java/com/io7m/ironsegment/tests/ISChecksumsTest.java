@@ -0,0 +1,163 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.ironsegment.tests;
+
+import com.io7m.ironsegment.api.ISFileSectionDescription;
+import com.io7m.ironsegment.api.ISImageCodec;
+import com.io7m.ironsegment.api.ISImageInfo;
+import com.io7m.ironsegment.api.ISSectionReadableImageType;
+import com.io7m.ironsegment.api.ISVersion;
+import com.io7m.ironsegment.basic.IS1Readers;
+import com.io7m.ironsegment.basic.IS1Writers;
+import com.io7m.ironsegment.parser.api.ISChecksumVerification;
+import com.io7m.ironsegment.parser.api.ISParseRequest;
+import com.io7m.ironsegment.writer.api.ISChecksumMode;
+import com.io7m.ironsegment.writer.api.ISWriteRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+import static com.io7m.ironsegment.api.ISIdentifiers.sectionChecksumsIdentifier;
+import static com.io7m.ironsegment.api.ISIdentifiers.sectionImageIdentifier;
+import static com.io7m.ironsegment.parser.api.ISReadMode.READ_VIA_CHANNEL;
+import static com.io7m.ironsegment.tests.ISTestFiles.HEIGHT;
+import static com.io7m.ironsegment.tests.ISTestFiles.WIDTH;
+import static com.io7m.ironsegment.tests.ISTestFiles.manifest;
+import static com.io7m.ironsegment.tests.ISTestFiles.openFile;
+import static com.io7m.ironsegment.tests.ISTestFiles.pixelsFor;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class ISChecksumsTest
+{
+  private Path directory;
+  private Path file;
+
+  @BeforeEach
+  public void setup(
+    final @TempDir Path inDirectory)
+  {
+    this.directory = inDirectory;
+    this.file = this.directory.resolve("out.isb");
+  }
+
+  @Test
+  public void testChecksums()
+    throws Exception
+  {
+    final var manifest = manifest();
+
+    try (var channel = FileChannel.open(this.file, CREATE, TRUNCATE_EXISTING, READ, WRITE);
+         var writer = new IS1Writers().createWriter(
+           ISWriteRequest.builder(channel, this.file.toUri(), new ISVersion(1, 0))
+             .setChecksumMode(ISChecksumMode.CHECKSUMS_CRC32C)
+             .build());
+         var writable = writer.execute()) {
+
+      try (var section = writable.createSectionInfo()) {
+        section.setManifest(manifest);
+      }
+      for (final var image : manifest.images().images().values()) {
+        final var info =
+          new ISImageInfo(image.imageId(), image.semantic(), WIDTH, HEIGHT);
+        try (var section = writable.createSectionImage()) {
+          section.createImageData(
+            info.imageId(),
+            info.width(),
+            info.height(),
+            info.semantic(),
+            ISImageCodec.RAW
+          ).channel().write(ByteBuffer.wrap(pixelsFor(info)));
+        }
+      }
+      try (var section = writable.createSectionEnd()) {
+
+      }
+    }
+
+    final ISFileSectionDescription damaged;
+    try (var readable = openFile(this.file, READ_VIA_CHANNEL)) {
+      assertEquals(
+        1,
+        readable.sectionsWithIdentifier(sectionChecksumsIdentifier()).size()
+      );
+
+      final var results = readable.verifyChecksums();
+      assertEquals(1 + manifest.images().images().size(), results.size());
+      for (final var result : results) {
+        assertTrue(result.isValid(), result.toString());
+      }
+      damaged = readable.sectionsWithIdentifier(sectionImageIdentifier()).get(0);
+    }
+
+    /*
+     * Flip a byte inside the pixel data of the first image.
+     */
+
+    try (var channel = FileChannel.open(this.file, READ, WRITE)) {
+      final var offset = damaged.fileOffsetData() + damaged.description().size() - 1L;
+      final var octet = ByteBuffer.allocate(1);
+      channel.read(octet, offset);
+      octet.put(0, (byte) ~octet.get(0));
+      octet.rewind();
+      channel.write(octet, offset);
+    }
+
+    try (var readable = openFile(this.file, READ_VIA_CHANNEL)) {
+      final var invalid =
+        readable.verifyChecksums()
+          .stream()
+          .filter(r -> !r.isValid())
+          .toList();
+      assertEquals(1, invalid.size());
+      assertEquals(damaged, invalid.get(0).section());
+    }
+
+    final var channel = FileChannel.open(this.file, READ);
+    final var request =
+      ISParseRequest.builder(channel, this.file.toUri())
+        .setChecksumVerification(
+          ISChecksumVerification.CHECKSUMS_VERIFIED_ON_ACCESS)
+        .build();
+
+    try (var parser = new IS1Readers().createParser(request);
+         var readable = parser.execute()) {
+      try (var section = readable.openSection(damaged)) {
+        final var image = (ISSectionReadableImageType) section;
+        assertThrows(IOException.class, image::imageData);
+      }
+
+      final var intact =
+        readable.sectionsWithIdentifier(sectionImageIdentifier()).get(1);
+      try (var section = readable.openSection(intact)) {
+        final var image = (ISSectionReadableImageType) section;
+        assertTrue(image.imageData().hasRemaining());
+      }
+    }
+  }
+}
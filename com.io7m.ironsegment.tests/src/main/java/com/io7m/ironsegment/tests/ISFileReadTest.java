@@ -0,0 +1,162 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.ironsegment.tests;
+
+import com.io7m.ironsegment.api.ISImageSemantic;
+import com.io7m.ironsegment.api.ISSectionReadableImageType;
+import com.io7m.ironsegment.api.ISSectionReadableManifestType;
+import com.io7m.ironsegment.parser.api.ISReadMode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.io7m.ironsegment.parser.api.ISReadMode.READ_VIA_CHANNEL;
+import static com.io7m.ironsegment.parser.api.ISReadMode.READ_VIA_MEMORY_MAP;
+import static com.io7m.ironsegment.tests.ISTestFiles.HEIGHT;
+import static com.io7m.ironsegment.tests.ISTestFiles.WIDTH;
+import static com.io7m.ironsegment.tests.ISTestFiles.bytesOf;
+import static com.io7m.ironsegment.tests.ISTestFiles.manifest;
+import static com.io7m.ironsegment.tests.ISTestFiles.openFile;
+import static com.io7m.ironsegment.tests.ISTestFiles.pixelsFor;
+import static com.io7m.ironsegment.tests.ISTestFiles.writeFile;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public final class ISFileReadTest
+{
+  private Path directory;
+  private Path file;
+
+  @BeforeEach
+  public void setup(
+    final @TempDir Path inDirectory)
+  {
+    this.directory = inDirectory;
+    this.file = this.directory.resolve("out.isb");
+  }
+
+  @Test
+  public void testImagesChannel()
+    throws Exception
+  {
+    this.checkImages(READ_VIA_CHANNEL);
+  }
+
+  @Test
+  public void testImagesMapped()
+    throws Exception
+  {
+    this.checkImages(READ_VIA_MEMORY_MAP);
+  }
+
+  @Test
+  public void testConcurrentReadsChannel()
+    throws Exception
+  {
+    this.checkConcurrentReads(READ_VIA_CHANNEL);
+  }
+
+  @Test
+  public void testConcurrentReadsMapped()
+    throws Exception
+  {
+    this.checkConcurrentReads(READ_VIA_MEMORY_MAP);
+  }
+
+  private void checkConcurrentReads(
+    final ISReadMode mode)
+    throws Exception
+  {
+    final var manifest = writeFile(this.file);
+    final var images = List.copyOf(manifest.images().images().values());
+
+    try (var readable = openFile(this.file, mode);
+         var executor = Executors.newFixedThreadPool(4)) {
+      final var tasks = new ArrayList<Future<?>>();
+
+      for (int task = 0; task < 16; ++task) {
+        final var start = task;
+        tasks.add(executor.submit(() -> {
+          for (int index = 0; index < images.size() * 4; ++index) {
+            final var image = images.get((start + index) % images.size());
+            try (var section = readable.openImage(image.imageId())) {
+              final var info = section.info();
+              final var expected = pixelsFor(info);
+              assertArrayEquals(expected, bytesOf(section.imageData()));
+
+              final var buffer = ByteBuffer.allocate(expected.length);
+              try (var channel = section.imageDataChannel()) {
+                while (channel.read(buffer) > 0) {
+                  // Read until the end of the image data.
+                }
+              }
+              assertArrayEquals(expected, buffer.array());
+            }
+          }
+          return null;
+        }));
+      }
+
+      for (final var task : tasks) {
+        task.get();
+      }
+    }
+  }
+
+  private void checkImages(
+    final ISReadMode mode)
+    throws Exception
+  {
+    final var manifest = writeFile(this.file);
+
+    try (var readable = openFile(this.file, mode)) {
+      var imagesSeen = 0;
+
+      for (final var section : readable.sections()) {
+        try (var opened = readable.openSection(section)) {
+          switch (opened) {
+            case final ISSectionReadableManifestType m -> {
+              assertEquals(manifest, m.manifest());
+            }
+            case final ISSectionReadableImageType image -> {
+              final var info = image.info();
+              final var expected = manifest.images().images().get(info.imageId());
+              assertEquals(expected.semantic(), info.semantic());
+              assertEquals(WIDTH, info.width());
+              assertEquals(HEIGHT, info.height());
+              assertArrayEquals(pixelsFor(info), bytesOf(image.imageData()));
+              ++imagesSeen;
+            }
+            default -> {
+
+            }
+          }
+        }
+      }
+
+      assertEquals(ISImageSemantic.values().length, imagesSeen);
+    }
+  }
+}
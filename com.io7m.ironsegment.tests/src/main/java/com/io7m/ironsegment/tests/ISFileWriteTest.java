@@ -0,0 +1,426 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.ironsegment.tests;
+
+import com.io7m.ironsegment.api.ISFileSectionDescription;
+import com.io7m.ironsegment.api.ISImageCodec;
+import com.io7m.ironsegment.api.ISImageInfo;
+import com.io7m.ironsegment.api.ISSectionReadableManifestType;
+import com.io7m.ironsegment.api.ISVersion;
+import com.io7m.ironsegment.api.ISWritableImageReservedType;
+import com.io7m.ironsegment.basic.IS1Writers;
+import com.io7m.ironsegment.writer.api.ISBulkImage;
+import com.io7m.ironsegment.writer.api.ISChecksumMode;
+import com.io7m.ironsegment.writer.api.ISImagePreallocation;
+import com.io7m.ironsegment.writer.api.ISWriteRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.io7m.ironsegment.api.ISIdentifiers.sectionEndIdentifier;
+import static com.io7m.ironsegment.api.ISIdentifiers.sectionManifestIdentifier;
+import static com.io7m.ironsegment.parser.api.ISReadMode.READ_VIA_CHANNEL;
+import static com.io7m.ironsegment.tests.ISTestFiles.HEIGHT;
+import static com.io7m.ironsegment.tests.ISTestFiles.WIDTH;
+import static com.io7m.ironsegment.tests.ISTestFiles.bytesOf;
+import static com.io7m.ironsegment.tests.ISTestFiles.manifest;
+import static com.io7m.ironsegment.tests.ISTestFiles.openFile;
+import static com.io7m.ironsegment.tests.ISTestFiles.pixelsFor;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class ISFileWriteTest
+{
+  private Path directory;
+  private Path file;
+
+  @BeforeEach
+  public void setup(
+    final @TempDir Path inDirectory)
+  {
+    this.directory = inDirectory;
+    this.file = this.directory.resolve("out.isb");
+  }
+
+  @Test
+  public void testImagesReservedConcurrent()
+    throws Exception
+  {
+    final var manifest = manifest();
+
+    try (var channel = FileChannel.open(this.file, CREATE, TRUNCATE_EXISTING, READ, WRITE);
+         var writer = new IS1Writers().createWriter(
+           ISWriteRequest.builder(channel, this.file.toUri(), new ISVersion(1, 0))
+             .setChecksumMode(ISChecksumMode.CHECKSUMS_CRC32C)
+             .build());
+         var writable = writer.execute()) {
+
+      try (var section = writable.createSectionInfo()) {
+        section.setManifest(manifest);
+      }
+
+      final var reserved = new ArrayList<ISWritableImageReservedType>();
+      for (final var image : manifest.images().images().values()) {
+        reserved.add(
+          writable.reserveImage(image.imageId(), WIDTH, HEIGHT, image.semantic())
+        );
+      }
+
+      /*
+       * Every image is filled in concurrently, one row at a time, in
+       * reverse row order.
+       */
+
+      final var executor = Executors.newFixedThreadPool(4);
+      try {
+        final var futures = new ArrayList<Future<?>>();
+        for (final var image : reserved) {
+          futures.add(executor.submit(() -> {
+            final var pixels = pixelsFor(image.info());
+            final var rowSize = pixels.length / (int) HEIGHT;
+            for (int row = (int) HEIGHT - 1; row >= 0; --row) {
+              image.write(
+                (long) row * rowSize,
+                ByteBuffer.wrap(pixels, row * rowSize, rowSize)
+              );
+            }
+            return null;
+          }));
+        }
+        for (final var future : futures) {
+          future.get();
+        }
+      } finally {
+        executor.shutdown();
+      }
+    }
+
+    try (var readable = openFile(this.file, READ_VIA_CHANNEL)) {
+      assertEquals(1, readable.sectionsWithIdentifier(sectionEndIdentifier()).size());
+      for (final var result : readable.verifyChecksums()) {
+        assertTrue(result.isValid(), result.toString());
+      }
+      for (final var image : manifest.images().images().values()) {
+        try (var section = readable.openImage(image.imageId())) {
+          assertArrayEquals(
+            pixelsFor(section.info()),
+            bytesOf(section.imageData())
+          );
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testImagesReservedRequireFileChannel()
+    throws Exception
+  {
+    final var image =
+      manifest().images().images().values().iterator().next();
+
+    try (var channel = new DelegatingChannel(
+           FileChannel.open(this.file, CREATE, TRUNCATE_EXISTING, READ, WRITE));
+         var writer = new IS1Writers().createWriter(
+           new ISWriteRequest(channel, this.file.toUri(), new ISVersion(1, 0)));
+         var writable = writer.execute()) {
+
+      assertThrows(IOException.class, () -> {
+        writable.reserveImage(image.imageId(), WIDTH, HEIGHT, image.semantic());
+      });
+    }
+  }
+
+  @Test
+  public void testImagesReservedCloseWithSectionOpen()
+    throws Exception
+  {
+    final var image =
+      manifest().images().images().values().iterator().next();
+
+    try (var channel = FileChannel.open(this.file, CREATE, TRUNCATE_EXISTING, READ, WRITE);
+         var writer = new IS1Writers().createWriter(
+           new ISWriteRequest(channel, this.file.toUri(), new ISVersion(1, 0)))) {
+
+      final var writable = writer.execute();
+      writable.reserveImage(image.imageId(), WIDTH, HEIGHT, image.semantic());
+      writable.createSectionInfo();
+      assertThrows(IllegalStateException.class, writable::close);
+    }
+  }
+
+  @Test
+  public void testImagesDirectOverflow()
+    throws Exception
+  {
+    final var manifest = manifest();
+
+    try (var channel = FileChannel.open(this.file, CREATE, TRUNCATE_EXISTING, READ, WRITE);
+         var writer = new IS1Writers().createWriter(
+           ISWriteRequest.builder(channel, this.file.toUri(), new ISVersion(1, 0))
+             .setImagePreallocation(ISImagePreallocation.PREALLOCATE_NONE)
+             .build());
+         var writable = writer.execute()) {
+
+      try (var section = writable.createSectionInfo()) {
+        section.setManifest(manifest);
+      }
+
+      /*
+       * Writes past the end of the image are rejected without writing
+       * anything, and the image can then be completed as normal.
+       */
+
+      for (final var image : manifest.images().images().values()) {
+        final var info =
+          new ISImageInfo(image.imageId(), image.semantic(), WIDTH, HEIGHT);
+        final var pixels = pixelsFor(info);
+        try (var section = writable.createSectionImage()) {
+          final var data =
+            section.createImageData(
+              info.imageId(),
+              info.width(),
+              info.height(),
+              info.semantic(),
+              ISImageCodec.RAW
+            ).channel();
+
+          assertThrows(IOException.class, () -> {
+            data.write(ByteBuffer.allocate(pixels.length + 1));
+          });
+          data.write(ByteBuffer.wrap(pixels, 0, pixels.length - 1));
+          assertThrows(IOException.class, () -> {
+            data.write(ByteBuffer.allocate(2));
+          });
+          data.write(ByteBuffer.wrap(pixels, pixels.length - 1, 1));
+        }
+      }
+
+      try (var section = writable.createSectionEnd()) {
+
+      }
+    }
+
+    try (var readable = openFile(this.file, READ_VIA_CHANNEL)) {
+      for (final var image : manifest.images().images().values()) {
+        try (var section = readable.openImage(image.imageId())) {
+          assertArrayEquals(
+            pixelsFor(section.info()),
+            bytesOf(section.imageData())
+          );
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testBulkWrite()
+    throws Exception
+  {
+    final var manifest = manifest();
+    final var images = new ArrayList<ISBulkImage>();
+    for (final var image : manifest.images().images().values()) {
+      final var info =
+        new ISImageInfo(image.imageId(), image.semantic(), WIDTH, HEIGHT);
+      final var pixels = pixelsFor(info);
+      final var data = ByteBuffer.allocateDirect(pixels.length);
+      data.put(pixels);
+      images.add(new ISBulkImage(info, data.flip()));
+    }
+
+    final List<ISFileSectionDescription> written;
+    try (var channel = FileChannel.open(this.file, CREATE, TRUNCATE_EXISTING, WRITE)) {
+      written = new IS1Writers().writeBulk(
+        ISWriteRequest.builder(channel, this.file.toUri(), new ISVersion(1, 0))
+          .setChecksumMode(ISChecksumMode.CHECKSUMS_CRC32C)
+          .build(),
+        manifest,
+        images
+      );
+    }
+
+    try (var readable = openFile(this.file, READ_VIA_CHANNEL)) {
+      assertEquals(written, readable.sections());
+      for (final var result : readable.verifyChecksums()) {
+        assertTrue(result.isValid(), result.toString());
+      }
+      for (final var image : images) {
+        assertEquals(0, image.data().position());
+        try (var section = readable.openImage(image.info().imageId())) {
+          assertEquals(image.info(), section.info());
+          assertArrayEquals(
+            pixelsFor(image.info()),
+            bytesOf(section.imageData())
+          );
+        }
+      }
+
+      final var manifestSection =
+        readable.sectionsWithIdentifier(sectionManifestIdentifier()).get(0);
+      try (var section = readable.openSection(manifestSection)) {
+        assertEquals(
+          manifest,
+          ((ISSectionReadableManifestType) section).manifest()
+        );
+      }
+    }
+  }
+
+  @Test
+  public void testImagesPreallocation()
+    throws Exception
+  {
+    final var manifest = manifest();
+    final var sizes = new ArrayList<Long>();
+
+    for (final var preallocation : ISImagePreallocation.values()) {
+      try (var channel = FileChannel.open(this.file, CREATE, TRUNCATE_EXISTING, WRITE);
+           var writer = new IS1Writers().createWriter(
+             ISWriteRequest.builder(channel, this.file.toUri(), new ISVersion(1, 0))
+               .setImagePreallocation(preallocation)
+               .build());
+           var writable = writer.execute()) {
+
+        try (var section = writable.createSectionInfo()) {
+          section.setManifest(manifest);
+        }
+        for (final var image : manifest.images().images().values()) {
+          final var info =
+            new ISImageInfo(image.imageId(), image.semantic(), WIDTH, HEIGHT);
+          try (var section = writable.createSectionImage()) {
+            section.createImageData(
+              info.imageId(),
+              info.width(),
+              info.height(),
+              info.semantic(),
+              ISImageCodec.RAW
+            ).channel().write(ByteBuffer.wrap(pixelsFor(info)));
+          }
+        }
+        try (var section = writable.createSectionEnd()) {
+
+        }
+        sizes.add(Long.valueOf(channel.size()));
+      }
+
+      try (var readable = openFile(this.file, READ_VIA_CHANNEL)) {
+        for (final var image : manifest.images().images().values()) {
+          try (var section = readable.openImage(image.imageId())) {
+            assertArrayEquals(
+              pixelsFor(section.info()),
+              bytesOf(section.imageData())
+            );
+          }
+        }
+      }
+    }
+
+    assertEquals(1L, sizes.stream().distinct().count());
+  }
+
+  /**
+   * A seekable channel that is not a {@link FileChannel}.
+   */
+
+  private static final class DelegatingChannel implements SeekableByteChannel
+  {
+    private final SeekableByteChannel delegate;
+
+    DelegatingChannel(
+      final SeekableByteChannel inDelegate)
+    {
+      this.delegate = inDelegate;
+    }
+
+    @Override
+    public int read(
+      final ByteBuffer dst)
+      throws IOException
+    {
+      return this.delegate.read(dst);
+    }
+
+    @Override
+    public int write(
+      final ByteBuffer src)
+      throws IOException
+    {
+      return this.delegate.write(src);
+    }
+
+    @Override
+    public long position()
+      throws IOException
+    {
+      return this.delegate.position();
+    }
+
+    @Override
+    public SeekableByteChannel position(
+      final long newPosition)
+      throws IOException
+    {
+      this.delegate.position(newPosition);
+      return this;
+    }
+
+    @Override
+    public long size()
+      throws IOException
+    {
+      return this.delegate.size();
+    }
+
+    @Override
+    public SeekableByteChannel truncate(
+      final long size)
+      throws IOException
+    {
+      this.delegate.truncate(size);
+      return this;
+    }
+
+    @Override
+    public boolean isOpen()
+    {
+      return this.delegate.isOpen();
+    }
+
+    @Override
+    public void close()
+      throws IOException
+    {
+      this.delegate.close();
+    }
+  }
+}
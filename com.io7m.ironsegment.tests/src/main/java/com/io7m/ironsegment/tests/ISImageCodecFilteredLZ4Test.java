@@ -0,0 +1,410 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+
+package com.io7m.ironsegment.tests;
+
+import com.io7m.ironsegment.api.ISImage;
+import com.io7m.ironsegment.api.ISImageCodec;
+import com.io7m.ironsegment.api.ISImageID;
+import com.io7m.ironsegment.api.ISImageSemantic;
+import com.io7m.ironsegment.api.ISImages;
+import com.io7m.ironsegment.api.ISManifest;
+import com.io7m.ironsegment.api.ISVersion;
+import com.io7m.ironsegment.basic.IS1Writers;
+import com.io7m.ironsegment.parser.api.ISReadMode;
+import com.io7m.ironsegment.writer.api.ISWriteRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeMap;
+
+import static com.io7m.ironsegment.api.ISIdentifiers.sectionImageEncodedIdentifier;
+import static com.io7m.ironsegment.parser.api.ISReadMode.READ_VIA_CHANNEL;
+import static com.io7m.ironsegment.tests.ISTestFiles.bytesOf;
+import static com.io7m.ironsegment.tests.ISTestFiles.openFile;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class ISImageCodecFilteredLZ4Test
+{
+  private static final int FILTER_NONE = 0;
+  private static final int FILTER_SUB = 1;
+  private static final int FILTER_UP = 2;
+  private static final int FILTER_AVERAGE = 3;
+  private static final int FILTER_PAETH = 4;
+
+  private static final List<ISImageSemantic> DEPTHS =
+    List.of(ISImageSemantic.DEPTH_16, ISImageSemantic.DEPTH_32);
+
+  /**
+   * Rows of depth values constructed so that each row is best predicted by
+   * a specific filter, given the row above it.
+   */
+
+  private static final long[][] FILTER_ROWS = {
+    // Zero everywhere: all filters are free, and the first (None) wins.
+    {0L, 0L, 0L, 0L, 0L, 0L, 0L, 0L},
+    // A horizontal ramp below a zero row is predicted exactly by Sub.
+    {0L, 1000L, 2000L, 3000L, 4000L, 5000L, 6000L, 7000L},
+    // The same ramp again is predicted exactly by Up.
+    {0L, 1000L, 2000L, 3000L, 4000L, 5000L, 6000L, 7000L},
+    // A constant row, predicted best by Sub.
+    {2000L, 2000L, 2000L, 2000L, 2000L, 2000L, 2000L, 2000L},
+    // Each value is the mean of its left and upper neighbours.
+    {1000L, 1500L, 1750L, 1875L, 1937L, 1968L, 1984L, 1992L},
+    // A vertical edge.
+    {0L, 0L, 0L, 0L, 9000L, 9000L, 9000L, 9000L},
+    // Flat horizontally on the left and flat vertically on the right, so
+    // Paeth chooses the left neighbour on one side and the upper neighbour
+    // on the other.
+    {1000L, 1000L, 1000L, 1000L, 9000L, 9000L, 9000L, 9000L},
+  };
+
+  private static final int[] FILTER_ROWS_EXPECTED = {
+    FILTER_NONE,
+    FILTER_SUB,
+    FILTER_UP,
+    FILTER_SUB,
+    FILTER_AVERAGE,
+    // The filter used for the edge itself doesn't matter.
+    -1,
+    FILTER_PAETH,
+  };
+
+  private Path directory;
+  private Path file;
+
+  @BeforeEach
+  public void setup(
+    final @TempDir Path inDirectory)
+  {
+    this.directory = inDirectory;
+    this.file = this.directory.resolve("out.isb");
+  }
+
+  @Test
+  public void testFilterTypes()
+    throws Exception
+  {
+    for (final var semantic : DEPTHS) {
+      final var sampleSize = (int) semantic.pixelSizeOctets();
+      final var pixels = pixelsOf(semantic, FILTER_ROWS);
+      final var width = FILTER_ROWS[0].length;
+
+      writeImage(
+        this.file,
+        semantic,
+        width,
+        FILTER_ROWS.length,
+        ISImageCodec.FILTERED_LZ4,
+        pixels
+      );
+
+      /*
+       * Each filtered row consists of a filter type octet followed by the
+       * residuals of the row.
+       */
+
+      final var filtered =
+        decompressLZ4(
+          encodedBlock(this.file),
+          FILTER_ROWS.length * (1 + (width * sampleSize))
+        );
+
+      for (int row = 0; row < FILTER_ROWS.length; ++row) {
+        final var expected = FILTER_ROWS_EXPECTED[row];
+        if (expected >= 0) {
+          assertEquals(
+            expected,
+            filtered[row * (1 + (width * sampleSize))],
+            "Filter type of row %d (%s)".formatted(
+              Integer.valueOf(row),
+              semantic)
+          );
+        }
+      }
+
+      for (final var mode : ISReadMode.values()) {
+        try (var readable = openFile(this.file, mode);
+             var section = readable.openImage(new ISImageID(1L))) {
+          assertEquals(ISImageCodec.FILTERED_LZ4, section.codec());
+          assertArrayEquals(pixels, bytesOf(section.imageData()));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testGradients()
+    throws Exception
+  {
+    for (final var semantic : DEPTHS) {
+      final var pixels = pixelsOf(semantic, gradient(37, 23));
+      writeImage(
+        this.file,
+        semantic,
+        37L,
+        23L,
+        ISImageCodec.FILTERED_LZ4,
+        pixels
+      );
+
+      try (var readable = openFile(this.file, READ_VIA_CHANNEL);
+           var section = readable.openImage(new ISImageID(1L))) {
+        assertArrayEquals(pixels, bytesOf(section.imageData()));
+      }
+    }
+  }
+
+  @Test
+  public void testCorruptFilterType()
+    throws Exception
+  {
+    final var semantic = ISImageSemantic.DEPTH_16;
+    writeImage(
+      this.file,
+      semantic,
+      FILTER_ROWS[0].length,
+      FILTER_ROWS.length,
+      ISImageCodec.FILTERED_LZ4,
+      pixelsOf(semantic, FILTER_ROWS)
+    );
+
+    /*
+     * The first sequence of the LZ4 block begins with literals, and the
+     * first literal is the filter type of the first row.
+     */
+
+    final var offset = encodedBlockOffset(this.file);
+    try (var channel = FileChannel.open(this.file, READ, WRITE)) {
+      final var token = ByteBuffer.allocate(1);
+      channel.read(token, offset);
+      final var literals = (token.get(0) & 0xff) >>> 4;
+      assertTrue(literals > 0 && literals < 15);
+
+      channel.write(ByteBuffer.wrap(new byte[]{(byte) 0x7f}), offset + 1L);
+    }
+
+    try (var readable = openFile(this.file, READ_VIA_CHANNEL);
+         var section = readable.openImage(new ISImageID(1L))) {
+      final var ex =
+        assertThrows(IOException.class, section::imageData);
+      assertTrue(
+        ex.getCause().getMessage().contains("Unrecognized filter type"),
+        ex.getMessage()
+      );
+    }
+  }
+
+  @Test
+  public void testSmallerThanLZ4()
+    throws Exception
+  {
+    for (final var semantic : DEPTHS) {
+      final var pixels = pixelsOf(semantic, gradient(64, 64));
+
+      writeImage(this.file, semantic, 64L, 64L, ISImageCodec.LZ4, pixels);
+      final var plain = encodedBlock(this.file).length;
+
+      writeImage(
+        this.file,
+        semantic,
+        64L,
+        64L,
+        ISImageCodec.FILTERED_LZ4,
+        pixels
+      );
+      final var filtered = encodedBlock(this.file).length;
+
+      assertTrue(
+        filtered < plain,
+        "%s: FILTERED_LZ4 %d octets, LZ4 %d octets".formatted(
+          semantic,
+          Integer.valueOf(filtered),
+          Integer.valueOf(plain))
+      );
+    }
+  }
+
+  private static long[][] gradient(
+    final int width,
+    final int height)
+  {
+    final var rows = new long[height][width];
+    for (int y = 0; y < height; ++y) {
+      for (int x = 0; x < width; ++x) {
+        rows[y][x] = 1000L + (x * 3L) + (y * 5L);
+      }
+    }
+    return rows;
+  }
+
+  private static byte[] pixelsOf(
+    final ISImageSemantic semantic,
+    final long[][] rows)
+  {
+    final var sampleSize = (int) semantic.pixelSizeOctets();
+    final var buffer =
+      ByteBuffer.allocate(rows.length * rows[0].length * sampleSize);
+
+    for (final var row : rows) {
+      for (final var value : row) {
+        if (sampleSize == 2) {
+          buffer.putShort((short) value);
+        } else {
+          buffer.putInt((int) value);
+        }
+      }
+    }
+    return buffer.array();
+  }
+
+  private static void writeImage(
+    final Path file,
+    final ISImageSemantic semantic,
+    final long width,
+    final long height,
+    final ISImageCodec codec,
+    final byte[] pixels)
+    throws IOException
+  {
+    final var id = new ISImageID(1L);
+    final var images = new TreeMap<ISImageID, ISImage>();
+    images.put(id, new ISImage(id, semantic));
+
+    final var manifest =
+      new ISManifest(
+        new ISImages(images, width, height),
+        new TreeMap<>(),
+        new TreeMap<>()
+      );
+
+    try (var channel = FileChannel.open(file, CREATE, TRUNCATE_EXISTING, WRITE);
+         var writer = new IS1Writers().createWriter(
+           new ISWriteRequest(channel, file.toUri(), new ISVersion(1, 0)));
+         var writable = writer.execute()) {
+
+      try (var section = writable.createSectionInfo()) {
+        section.setManifest(manifest);
+      }
+
+      try (var section = writable.createSectionImageEncoded()) {
+        final var data =
+          section.createImageData(id, width, height, semantic, codec);
+        data.channel().write(ByteBuffer.wrap(pixels));
+      }
+
+      try (var section = writable.createSectionEnd()) {
+
+      }
+    }
+  }
+
+  /**
+   * An encoded image section begins with the image ID, the codec, the
+   * decoded size, and the encoded size, followed by the encoded data.
+   */
+
+  private static long encodedBlockOffset(
+    final Path file)
+    throws IOException
+  {
+    try (var readable = openFile(file, READ_VIA_CHANNEL)) {
+      final var section =
+        readable.sectionsWithIdentifier(sectionImageEncodedIdentifier())
+          .get(0);
+      return section.fileOffsetData() + 24L;
+    }
+  }
+
+  private static byte[] encodedBlock(
+    final Path file)
+    throws IOException
+  {
+    final var offset = (int) encodedBlockOffset(file);
+    final var data = ByteBuffer.wrap(Files.readAllBytes(file));
+    final var size = (int) data.getLong(offset - 8);
+    return Arrays.copyOfRange(data.array(), offset, offset + size);
+  }
+
+  /**
+   * A minimal decoder for the LZ4 block format, used to inspect the
+   * filtered rows that the codec compresses.
+   */
+
+  private static byte[] decompressLZ4(
+    final byte[] block,
+    final int size)
+  {
+    final var input = ByteBuffer.wrap(block);
+    final var output = new byte[size];
+    var outputIndex = 0;
+
+    while (true) {
+      final var token = input.get() & 0xff;
+      final var literals = lengthOf(input, token >>> 4);
+      input.get(output, outputIndex, literals);
+      outputIndex += literals;
+
+      if (!input.hasRemaining()) {
+        break;
+      }
+
+      final var distance = (input.get() & 0xff) | ((input.get() & 0xff) << 8);
+      final var match = lengthOf(input, token & 0xf) + 4;
+      for (int index = 0; index < match; ++index) {
+        output[outputIndex] = output[outputIndex - distance];
+        outputIndex += 1;
+      }
+    }
+
+    assertEquals(size, outputIndex);
+    return output;
+  }
+
+  private static int lengthOf(
+    final ByteBuffer input,
+    final int initial)
+  {
+    var length = initial;
+    if (length == 15) {
+      while (true) {
+        final var octet = input.get() & 0xff;
+        length += octet;
+        if (octet != 255) {
+          break;
+        }
+      }
+    }
+    return length;
+  }
+}
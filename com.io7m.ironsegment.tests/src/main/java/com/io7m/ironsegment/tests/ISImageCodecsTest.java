@@ -0,0 +1,416 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.ironsegment.tests;
+
+import com.io7m.ironsegment.api.ISImageCodec;
+import com.io7m.ironsegment.api.ISImageCodecGoal;
+import com.io7m.ironsegment.api.ISImageCodecPolicy;
+import com.io7m.ironsegment.api.ISImageRegion;
+import com.io7m.ironsegment.api.ISImageSemantic;
+import com.io7m.ironsegment.parser.api.ISReadMode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.io7m.ironsegment.api.ISIdentifiers.sectionImageIdentifier;
+import static com.io7m.ironsegment.parser.api.ISReadMode.READ_VIA_CHANNEL;
+import static com.io7m.ironsegment.tests.ISTestFiles.HEIGHT;
+import static com.io7m.ironsegment.tests.ISTestFiles.WIDTH;
+import static com.io7m.ironsegment.tests.ISTestFiles.bytesOf;
+import static com.io7m.ironsegment.tests.ISTestFiles.cropOf;
+import static com.io7m.ironsegment.tests.ISTestFiles.openFile;
+import static com.io7m.ironsegment.tests.ISTestFiles.pixelsFor;
+import static com.io7m.ironsegment.tests.ISTestFiles.writeFileAdaptive;
+import static com.io7m.ironsegment.tests.ISTestFiles.writer;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class ISImageCodecsTest
+{
+  private Path directory;
+  private Path file;
+
+  @BeforeEach
+  public void setup(
+    final @TempDir Path inDirectory)
+  {
+    this.directory = inDirectory;
+    this.file = this.directory.resolve("out.isb");
+  }
+
+  @Test
+  public void testImagesEncoded()
+    throws Exception
+  {
+    for (final var codec : ISImageCodec.values()) {
+      final var manifest =
+        writer(this.file).setCodec(codec).write();
+
+      for (final var mode : ISReadMode.values()) {
+        try (var readable = openFile(this.file, mode)) {
+          assertEquals(
+            List.of(),
+            readable.sectionsWithIdentifier(sectionImageIdentifier())
+          );
+
+          /*
+           * A single buffer is reused for every image, and decoding must
+           * respect the buffer's position.
+           */
+
+          final var buffer = ByteBuffer.allocate(8192);
+          for (final var image : manifest.images().images().values()) {
+            try (var section = readable.openImage(image.imageId())) {
+              final var info = section.info();
+              final var expected = pixelsFor(info);
+              assertEquals(codec, section.codec());
+              assertArrayEquals(expected, bytesOf(section.imageData()));
+
+              buffer.clear();
+              buffer.position(3);
+              section.imageDataDecode(buffer);
+              assertEquals(3 + expected.length, buffer.position());
+              assertArrayEquals(
+                expected,
+                bytesOf(buffer.flip().position(3))
+              );
+
+              assertThrows(IOException.class, () -> {
+                section.imageDataDecode(ByteBuffer.allocate(1));
+              });
+            }
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testImageRunsRLE()
+    throws Exception
+  {
+    for (final var tiled : List.of(Boolean.FALSE, Boolean.TRUE)) {
+      final var manifest =
+        writer(this.file)
+          .setCodec(ISImageCodec.RLE)
+          .setTiled(tiled.booleanValue())
+          .write();
+
+      try (var readable = openFile(this.file, READ_VIA_CHANNEL)) {
+        for (final var image : manifest.images().images().values()) {
+          try (var section = readable.openImage(image.imageId())) {
+            final var info = section.info();
+            final var pixelSize = (int) info.semantic().pixelSizeOctets();
+            final var expected = pixelsFor(info);
+            final var received = ByteBuffer.allocate(expected.length);
+
+            section.imageDataVisitRuns((x, y, length, value) -> {
+              for (long index = 0L; index < length; ++index) {
+                final var offset =
+                  (int) (((y * info.width()) + x + index) * pixelSize);
+                for (int octet = 0; octet < pixelSize; ++octet) {
+                  final var shift = (pixelSize - 1 - octet) * 8;
+                  received.put(offset + octet, (byte) (value >>> shift));
+                }
+              }
+            });
+
+            assertEquals(ISImageCodec.RLE, section.codec());
+            assertArrayEquals(expected, received.array());
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testImagesTiledRegions()
+    throws Exception
+  {
+    final var regions =
+      List.of(
+        new ISImageRegion(0L, 0L, WIDTH, HEIGHT),
+        new ISImageRegion(0L, 0L, 1L, 1L),
+        new ISImageRegion(3L, 2L, 7L, 5L),
+        new ISImageRegion(5L, 3L, 5L, 3L),
+        new ISImageRegion(WIDTH - 2L, HEIGHT - 4L, 2L, 4L)
+      );
+
+    for (final var codec : ISImageCodec.values()) {
+      final var manifest =
+        writer(this.file).setCodec(codec).setTiled(true).write();
+
+      for (final var mode : ISReadMode.values()) {
+        try (var readable = openFile(this.file, mode)) {
+          for (final var image : manifest.images().images().values()) {
+            try (var section = readable.openImage(image.imageId())) {
+              final var info = section.info();
+              final var expected = pixelsFor(info);
+              assertEquals(codec, section.codec());
+              assertArrayEquals(expected, bytesOf(section.imageData()));
+
+              for (final var region : regions) {
+                final var buffer =
+                  ByteBuffer.allocate(
+                    (int) (region.pixelCount()
+                           * info.semantic().pixelSizeOctets()));
+                section.imageDataDecodeRegion(region, buffer);
+                assertEquals(buffer.capacity(), buffer.position());
+                assertArrayEquals(
+                  cropOf(info, expected, region),
+                  buffer.array()
+                );
+              }
+
+              assertThrows(IllegalArgumentException.class, () -> {
+                section.imageDataDecodeRegion(
+                  new ISImageRegion(WIDTH - 1L, 0L, 2L, 1L),
+                  ByteBuffer.allocate(1024)
+                );
+              });
+            }
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testImagesTiledRegionsExecutor()
+    throws Exception
+  {
+    final var manifest =
+      writer(this.file).setCodec(ISImageCodec.LZ4).setTiled(true).write();
+    final var region =
+      new ISImageRegion(0L, 0L, WIDTH, HEIGHT);
+
+    /*
+     * Tiles must be decoded on the executor supplied by the caller rather
+     * than on the common pool.
+     */
+
+    final var threads = new AtomicInteger(0);
+    final var executor = Executors.newFixedThreadPool(2, runnable -> {
+      threads.incrementAndGet();
+      return new Thread(runnable);
+    });
+
+    try (var readable = openFile(this.file, READ_VIA_CHANNEL)) {
+      for (final var image : manifest.images().images().values()) {
+        try (var section = readable.openImage(image.imageId())) {
+          final var info = section.info();
+          final var buffer =
+            ByteBuffer.allocate(
+              (int) (region.pixelCount() * info.semantic().pixelSizeOctets()));
+          section.imageDataDecodeRegion(region, buffer, executor);
+          assertArrayEquals(pixelsFor(info), buffer.array());
+        }
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    assertTrue(threads.get() > 0);
+  }
+
+  @Test
+  public void testImagesAdaptive()
+    throws Exception
+  {
+    final var policies =
+      List.of(
+        ISImageCodecPolicy.smallest(),
+        ISImageCodecPolicy.fastestDecode(0.5),
+        new ISImageCodecPolicy(
+          ISImageCodecGoal.FASTEST_DECODE,
+          Set.of(ISImageCodec.RLE, ISImageCodec.FILTERED_LZ4),
+          1.0,
+          2L
+        )
+      );
+
+    for (final var policy : policies) {
+      for (final var tiled : List.of(Boolean.FALSE, Boolean.TRUE)) {
+        final var statistics =
+          writeFileAdaptive(this.file, policy, tiled.booleanValue());
+        final var choices =
+          statistics.imageCodecChoices();
+
+        assertEquals(ISImageSemantic.values().length, choices.size());
+
+        try (var readable = openFile(this.file, READ_VIA_CHANNEL)) {
+          for (final var choice : choices) {
+            assertTrue(choice.adaptive());
+            assertTrue(policy.codecs().contains(choice.codec()));
+            assertEquals(policy.codecs(), choice.trialSizes().keySet());
+
+            if (policy.goal() == ISImageCodecGoal.SMALLEST_OUTPUT) {
+              assertEquals(
+                Collections.min(choice.trialSizes().values()),
+                choice.trialSizes().get(choice.codec())
+              );
+            }
+
+            try (var section = readable.openImage(choice.imageId())) {
+              assertEquals(choice.codec(), section.codec());
+              assertEquals(
+                choice.decodedSize(),
+                section.info().dataSizeOctets()
+              );
+              assertArrayEquals(
+                pixelsFor(section.info()),
+                bytesOf(section.imageData())
+              );
+            }
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testImagesExpanded()
+    throws Exception
+  {
+    final var manifest =
+      writer(this.file).setCodec(ISImageCodec.LZ4).write();
+
+    try (var readable = openFile(this.file, READ_VIA_CHANNEL)) {
+      for (final var image : manifest.images().images().values()) {
+        try (var section = readable.openImage(image.imageId())) {
+          final var info = section.info();
+          final var pixels = ByteBuffer.wrap(pixelsFor(info));
+
+          switch (info.semantic()) {
+            case DENOISE_RGBAF16, DENOISE_RGBF16, DEPTHF16 -> {
+              final var count = pixels.capacity() / 2;
+              final var shorts = new short[count + 1];
+              final var floats = new float[count + 1];
+              section.imageDataExpandShorts(shorts, 1);
+              section.imageDataExpandFloats(floats, 1);
+
+              for (int index = 0; index < count; ++index) {
+                final var bits = pixels.getShort(index * 2);
+                assertEquals(bits, shorts[index + 1]);
+                assertEquals(
+                  Float.float16ToFloat(bits),
+                  floats[index + 1]
+                );
+              }
+
+              assertThrows(IndexOutOfBoundsException.class, () -> {
+                section.imageDataExpandFloats(new float[count], 1);
+              });
+            }
+            case DEPTH_16 -> {
+              final var count = pixels.capacity() / 2;
+              final var floats = new float[count];
+              section.imageDataExpandFloats(floats, 0);
+
+              for (int index = 0; index < count; ++index) {
+                assertEquals(
+                  (float) (pixels.getShort(index * 2) & 0xffff) / 65535.0f,
+                  floats[index]
+                );
+              }
+            }
+            case OBJECT_ID_32 -> {
+              assertThrows(IllegalArgumentException.class, () -> {
+                section.imageDataExpandFloats(new float[1024], 0);
+              });
+              assertThrows(IllegalArgumentException.class, () -> {
+                section.imageDataExpandShorts(new short[1024], 0);
+              });
+            }
+            default -> {
+
+            }
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testImagesPalette()
+    throws Exception
+  {
+    final var manifest =
+      writer(this.file).setCodec(ISImageCodec.PALETTE).write();
+
+    try (var readable = openFile(this.file, READ_VIA_CHANNEL)) {
+      for (final var image : manifest.images().images().values()) {
+        try (var section = readable.openImage(image.imageId())) {
+          final var info = section.info();
+          final var pixelSize = (int) info.semantic().pixelSizeOctets();
+          final var expected = pixelsFor(info);
+          final var palette = section.imageDataPalette().orElseThrow();
+          assertEquals(1, palette.indexSizeOctets());
+
+          /*
+           * Widening the indices through the palette by hand must yield the
+           * same pixels as decoding the image.
+           */
+
+          final var indices = ByteBuffer.allocate((int) info.pixelCount());
+          section.imageDataPaletteIndices(indices);
+          assertEquals(indices.capacity(), indices.position());
+
+          final var widened = ByteBuffer.allocate(expected.length);
+          for (int index = 0; index < indices.capacity(); ++index) {
+            final var value = palette.value(indices.get(index) & 0xff);
+            for (int octet = 0; octet < pixelSize; ++octet) {
+              final var shift = (pixelSize - 1 - octet) * 8;
+              widened.put((byte) (value >>> shift));
+            }
+          }
+          assertArrayEquals(expected, widened.array());
+          assertArrayEquals(expected, bytesOf(section.imageData()));
+        }
+      }
+    }
+
+    writer(this.file)
+      .setCodec(ISImageCodec.PALETTE)
+      .setTiled(true)
+      .write();
+
+    try (var readable = openFile(this.file, READ_VIA_CHANNEL)) {
+      for (final var image : manifest.images().images().values()) {
+        try (var section = readable.openImage(image.imageId())) {
+          assertEquals(Optional.empty(), section.imageDataPalette());
+          assertThrows(IOException.class, () -> {
+            section.imageDataPaletteIndices(ByteBuffer.allocate(8192));
+          });
+        }
+      }
+    }
+  }
+}
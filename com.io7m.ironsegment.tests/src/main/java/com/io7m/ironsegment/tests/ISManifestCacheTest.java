@@ -0,0 +1,173 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.ironsegment.tests;
+
+import com.io7m.ironsegment.api.ISSectionReadableManifestType;
+import com.io7m.ironsegment.basic.IS1Readers;
+import com.io7m.ironsegment.basic.ISManifestCaches;
+import com.io7m.lanark.core.RDottedName;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static com.io7m.ironsegment.api.ISIdentifiers.sectionManifestBinaryIdentifier;
+import static com.io7m.ironsegment.api.ISIdentifiers.sectionManifestIdentifier;
+import static com.io7m.ironsegment.parser.api.ISReadMode.READ_VIA_CHANNEL;
+import static com.io7m.ironsegment.tests.ISTestFiles.manifest;
+import static com.io7m.ironsegment.tests.ISTestFiles.openFile;
+import static com.io7m.ironsegment.tests.ISTestFiles.writeFile;
+import static com.io7m.ironsegment.tests.ISTestFiles.writer;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+public final class ISManifestCacheTest
+{
+  private Path directory;
+  private Path file;
+
+  @BeforeEach
+  public void setup(
+    final @TempDir Path inDirectory)
+  {
+    this.directory = inDirectory;
+    this.file = this.directory.resolve("out.isb");
+  }
+
+  @Test
+  public void testManifestCacheReused()
+    throws Exception
+  {
+    final var cache = ISManifestCaches.createLRU(4);
+    final var readers = new IS1Readers(cache);
+
+    final var manifest = writeFile(this.file);
+    for (int index = 0; index < 3; ++index) {
+      try (var readable = openFile(readers, this.file, READ_VIA_CHANNEL)) {
+        final var section =
+          readable.sectionsWithIdentifier(sectionManifestIdentifier()).get(0);
+        try (var opened = (ISSectionReadableManifestType)
+          readable.openSection(section)) {
+          assertEquals(manifest, opened.manifest());
+        }
+      }
+    }
+
+    assertEquals(1L, cache.statistics().misses());
+    assertEquals(2L, cache.statistics().hits());
+    assertEquals(1, cache.statistics().size());
+
+    /*
+     * Replacing the file changes its identity, so the stale manifest must
+     * not be returned.
+     */
+
+    final var replaced = writer(this.file).setBinaryManifest(true).write();
+    try (var readable = openFile(readers, this.file, READ_VIA_CHANNEL)) {
+      final var section =
+        readable.sectionsWithIdentifier(sectionManifestBinaryIdentifier())
+          .get(0);
+      try (var opened = (ISSectionReadableManifestType)
+        readable.openSection(section)) {
+        assertEquals(replaced, opened.manifest());
+      }
+    }
+
+    assertEquals(2L, cache.statistics().misses());
+    assertEquals(2, cache.statistics().size());
+  }
+
+  @Test
+  public void testManifestCacheRewrittenInPlace()
+    throws Exception
+  {
+    final var cache = ISManifestCaches.createLRU(4);
+    final var readers = new IS1Readers(cache);
+
+    final var manifest = writeFile(this.file);
+    final var original = Files.readAllBytes(this.file);
+    final var originalTime = Files.getLastModifiedTime(this.file);
+    final var rewritten =
+      replaceText(original, "An example value.", "An EXAMPLE value.");
+    final var key = new RDottedName("com.io7m.example");
+
+    /*
+     * Rewrite the file in place with the same size after the file has been
+     * opened but before the manifest is decoded. The decoded manifest
+     * belongs to the new contents and must not be cached under the identity
+     * taken when the file was opened.
+     */
+
+    try (var readable = openFile(readers, this.file, READ_VIA_CHANNEL)) {
+      final var section =
+        readable.sectionsWithIdentifier(sectionManifestIdentifier()).get(0);
+      try (var opened = (ISSectionReadableManifestType)
+        readable.openSection(section)) {
+        Files.write(this.file, rewritten);
+        Files.setLastModifiedTime(
+          this.file,
+          FileTime.fromMillis(originalTime.toMillis() + 60_000L)
+        );
+        assertEquals(
+          "An EXAMPLE value.",
+          opened.manifest().metadata().get(key)
+        );
+      }
+    }
+
+    assertEquals(0, cache.statistics().size());
+
+    /*
+     * Restoring the original contents and modification time gives the file
+     * the identity it had when it was first opened, and the original
+     * manifest must be decoded.
+     */
+
+    Files.write(this.file, original);
+    Files.setLastModifiedTime(this.file, originalTime);
+
+    try (var readable = openFile(readers, this.file, READ_VIA_CHANNEL)) {
+      final var section =
+        readable.sectionsWithIdentifier(sectionManifestIdentifier()).get(0);
+      try (var opened = (ISSectionReadableManifestType)
+        readable.openSection(section)) {
+        assertEquals(manifest, opened.manifest());
+      }
+    }
+
+    assertEquals(1, cache.statistics().size());
+  }
+
+  private static byte[] replaceText(
+    final byte[] data,
+    final String search,
+    final String replacement)
+  {
+    final var text = new String(data, StandardCharsets.ISO_8859_1);
+    final var result =
+      text.replace(search, replacement).getBytes(StandardCharsets.ISO_8859_1);
+
+    assertEquals(data.length, result.length);
+    assertNotEquals(-1, text.indexOf(search));
+    return result;
+  }
+}
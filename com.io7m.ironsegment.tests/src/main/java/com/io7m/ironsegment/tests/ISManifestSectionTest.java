@@ -0,0 +1,348 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.ironsegment.tests;
+
+import com.io7m.ironsegment.api.ISImage;
+import com.io7m.ironsegment.api.ISImageSemantic;
+import com.io7m.ironsegment.api.ISImages;
+import com.io7m.ironsegment.api.ISManifest;
+import com.io7m.ironsegment.api.ISManifestVisitResult;
+import com.io7m.ironsegment.api.ISManifestVisitorType;
+import com.io7m.ironsegment.api.ISObject;
+import com.io7m.ironsegment.api.ISObjectID;
+import com.io7m.ironsegment.api.ISSectionReadableManifestType;
+import com.io7m.ironsegment.api.ISVersion;
+import com.io7m.ironsegment.basic.IS1Writers;
+import com.io7m.ironsegment.basic.ISManifestParsers;
+import com.io7m.ironsegment.basic.ISManifestSerializers;
+import com.io7m.ironsegment.parser.api.ISManifestMode;
+import com.io7m.ironsegment.parser.api.ISReadMode;
+import com.io7m.ironsegment.writer.api.ISWriteRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.TreeMap;
+
+import static com.io7m.ironsegment.api.ISIdentifiers.sectionManifestBinaryIdentifier;
+import static com.io7m.ironsegment.api.ISIdentifiers.sectionManifestIdentifier;
+import static com.io7m.ironsegment.api.ISManifestVisitResult.CONTINUE;
+import static com.io7m.ironsegment.api.ISManifestVisitResult.STOP;
+import static com.io7m.ironsegment.parser.api.ISManifestMode.MANIFEST_TRUSTED;
+import static com.io7m.ironsegment.parser.api.ISReadMode.READ_VIA_CHANNEL;
+import static com.io7m.ironsegment.parser.api.ISReadMode.READ_VIA_MEMORY_MAP;
+import static com.io7m.ironsegment.tests.ISTestFiles.manifest;
+import static com.io7m.ironsegment.tests.ISTestFiles.openFile;
+import static com.io7m.ironsegment.tests.ISTestFiles.writeFile;
+import static com.io7m.ironsegment.tests.ISTestFiles.writer;
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class ISManifestSectionTest
+{
+  private Path directory;
+  private Path file;
+
+  @BeforeEach
+  public void setup(
+    final @TempDir Path inDirectory)
+  {
+    this.directory = inDirectory;
+    this.file = this.directory.resolve("out.isb");
+  }
+
+  @Test
+  public void testManifestTrusted()
+    throws Exception
+  {
+    final var manifest = writeFile(this.file);
+
+    for (final var mode : ISManifestMode.values()) {
+      try (var readable = openFile(this.file, READ_VIA_CHANNEL, mode)) {
+        final var section =
+          readable.sectionsWithIdentifier(sectionManifestIdentifier()).get(0);
+        try (var opened = (ISSectionReadableManifestType)
+          readable.openSection(section)) {
+          assertEquals(manifest, opened.manifest());
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testManifestVersions()
+    throws Exception
+  {
+    final var binary16 =
+      EnumSet.of(
+        ISImageSemantic.DENOISE_RGBAF16,
+        ISImageSemantic.DENOISE_RGBF16,
+        ISImageSemantic.DEPTHF16
+      );
+
+    final var full = manifest();
+    final var images = new TreeMap<>(full.images().images());
+    images.values().removeIf(image -> binary16.contains(image.semantic()));
+    final var older =
+      new ISManifest(
+        new ISImages(images, full.images().width(), full.images().height()),
+        full.objects(),
+        full.metadata()
+      );
+
+    /*
+     * Manifests are written in version 1.0 of the schema unless they use
+     * a semantic that was introduced in version 1.1.
+     */
+
+    final var parsers = new ISManifestParsers();
+    final var serializers = new ISManifestSerializers();
+    for (final var manifest : List.of(older, full)) {
+      final var output = new ByteArrayOutputStream();
+      serializers.serialize(this.file.toUri(), output, manifest);
+      final var text = output.toString(UTF_8);
+
+      assertEquals(
+        manifest == full,
+        text.contains("\"urn:com.io7m.ironsegment:manifest:1.1\"")
+      );
+      assertEquals(
+        manifest == older,
+        text.contains("\"urn:com.io7m.ironsegment:manifest:1\"")
+      );
+      assertEquals(
+        manifest,
+        parsers.parse(
+          this.file.toUri(),
+          new ByteArrayInputStream(output.toByteArray()))
+      );
+    }
+
+    /*
+     * A version 1.0 manifest that uses a version 1.1 semantic is rejected,
+     * whether or not it is validated.
+     */
+
+    writeFile(this.file);
+    final var text =
+      new String(Files.readAllBytes(this.file), ISO_8859_1);
+    Files.write(
+      this.file,
+      text.replace("manifest:1.1\"", "manifest:1\" ").getBytes(ISO_8859_1)
+    );
+
+    for (final var mode : ISManifestMode.values()) {
+      try (var readable = openFile(this.file, READ_VIA_CHANNEL, mode)) {
+        final var section =
+          readable.sectionsWithIdentifier(sectionManifestIdentifier()).get(0);
+        try (var opened = (ISSectionReadableManifestType)
+          readable.openSection(section)) {
+          assertThrows(IOException.class, opened::manifest);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testManifestLarge()
+    throws Exception
+  {
+    final var base = manifest();
+    final var objects = new TreeMap<>(base.objects());
+    for (long index = 100L; index < 2100L; ++index) {
+      final var id = new ISObjectID(index);
+      objects.put(
+        id,
+        new ISObject(id, "A large object <%d> & more text.".formatted(index))
+      );
+    }
+    final var manifest =
+      new ISManifest(base.images(), objects, base.metadata());
+
+    try (var channel = FileChannel.open(this.file, CREATE, TRUNCATE_EXISTING, WRITE);
+         var writer = new IS1Writers().createWriter(
+           new ISWriteRequest(channel, this.file.toUri(), new ISVersion(1, 0)));
+         var writable = writer.execute()) {
+      try (var section = writable.createSectionInfo()) {
+        section.setManifest(manifest);
+      }
+      try (var section = writable.createSectionEnd()) {
+
+      }
+    }
+
+    /*
+     * The manifest is many times larger than the buffer used to stream it
+     * into the section, and the sections that follow it must remain
+     * aligned.
+     */
+
+    for (final var mode : ISReadMode.values()) {
+      try (var readable = openFile(this.file, mode)) {
+        for (final var section : readable.sections()) {
+          assertEquals(0L, section.fileOffset() % 16L);
+          assertEquals(0L, section.description().size() % 16L);
+        }
+
+        final var section =
+          readable.sectionsWithIdentifier(sectionManifestIdentifier()).get(0);
+        assertTrue(section.description().size() > 8L * 8192L);
+
+        try (var opened = (ISSectionReadableManifestType)
+          readable.openSection(section)) {
+          assertEquals(manifest, opened.manifest());
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testManifestBinary()
+    throws Exception
+  {
+    final var manifest = writer(this.file).setBinaryManifest(true).write();
+
+    try (var readable = openFile(this.file, READ_VIA_MEMORY_MAP)) {
+      assertEquals(
+        List.of(),
+        readable.sectionsWithIdentifier(sectionManifestIdentifier())
+      );
+
+      final var section =
+        readable.sectionsWithIdentifier(sectionManifestBinaryIdentifier())
+          .get(0);
+      try (var opened = (ISSectionReadableManifestType)
+        readable.openSection(section)) {
+        assertEquals(manifest, opened.manifest());
+      }
+
+      for (final var image : manifest.images().images().values()) {
+        try (var opened = readable.openImage(image.imageId())) {
+          assertEquals(image.semantic(), opened.info().semantic());
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testManifestVisitStopsEarly()
+    throws Exception
+  {
+    for (final var binary : List.of(Boolean.FALSE, Boolean.TRUE)) {
+      final var manifest =
+        writer(this.file)
+          .setBinaryManifest(binary.booleanValue())
+          .write();
+
+      try (var readable =
+             openFile(this.file, READ_VIA_CHANNEL, MANIFEST_TRUSTED)) {
+        final var section =
+          readable.sections().get(0);
+        final var images =
+          new ArrayList<ISImage>();
+        final var objectsSeen =
+          new ArrayList<ISObject>();
+
+        try (var opened = (ISSectionReadableManifestType)
+          readable.openSection(section)) {
+          opened.manifestVisit(new ISManifestVisitorType()
+          {
+            @Override
+            public ISManifestVisitResult onImage(
+              final ISImage image)
+            {
+              images.add(image);
+              return CONTINUE;
+            }
+
+            @Override
+            public ISManifestVisitResult onObjectsStart()
+            {
+              return STOP;
+            }
+
+            @Override
+            public ISManifestVisitResult onObject(
+              final ISObject object)
+            {
+              objectsSeen.add(object);
+              return CONTINUE;
+            }
+          });
+        }
+
+        assertEquals(
+          List.copyOf(manifest.images().images().values()),
+          images
+        );
+        assertEquals(List.of(), objectsSeen);
+      }
+    }
+  }
+
+  @Test
+  public void testManifestMapsAreSortedMaps()
+    throws Exception
+  {
+    final var manifest = writeFile(this.file);
+
+    try (var readable = openFile(this.file, READ_VIA_CHANNEL)) {
+      final var section = readable.sections().get(0);
+      try (var opened = (ISSectionReadableManifestType)
+        readable.openSection(section)) {
+        final var read = opened.manifest();
+        final var objects = read.objects();
+        final var expected = new TreeMap<>(manifest.objects());
+        final var id2 = new ISObjectID(2L);
+
+        assertEquals(expected, objects);
+        assertEquals(expected.hashCode(), objects.hashCode());
+        assertEquals(expected.headMap(id2), objects.headMap(id2));
+        assertEquals(expected.tailMap(id2), objects.tailMap(id2));
+        assertEquals(expected.firstKey(), objects.firstKey());
+        assertEquals(expected.lastKey(), objects.lastKey());
+        assertEquals(expected.get(id2), objects.get(id2));
+        assertEquals(null, objects.get(new ISObjectID(1000L)));
+        assertEquals(null, objects.get("not a key"));
+        assertEquals(
+          List.copyOf(expected.keySet()),
+          List.copyOf(objects.keySet())
+        );
+        assertThrows(
+          UnsupportedOperationException.class,
+          () -> objects.put(id2, new ISObject(id2, "x"))
+        );
+      }
+    }
+  }
+}
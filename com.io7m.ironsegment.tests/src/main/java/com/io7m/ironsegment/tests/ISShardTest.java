@@ -0,0 +1,189 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.ironsegment.tests;
+
+import com.io7m.ironsegment.api.ISFileReadableType;
+import com.io7m.ironsegment.api.ISManifest;
+import com.io7m.ironsegment.api.ISSectionReadableManifestType;
+import com.io7m.ironsegment.api.ISShardMember;
+import com.io7m.ironsegment.basic.IS1Readers;
+import com.io7m.ironsegment.basic.IS1Writers;
+import com.io7m.ironsegment.parser.api.ISParseRequest;
+import com.io7m.ironsegment.parser.api.ISReadMode;
+import com.io7m.ironsegment.parser.api.ISStreamParseRequest;
+import com.io7m.ironsegment.writer.api.ISShardWriteRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.io7m.ironsegment.api.ISIdentifiers.sectionManifestBinaryIdentifier;
+import static com.io7m.ironsegment.api.ISIdentifiers.sectionManifestIdentifier;
+import static com.io7m.ironsegment.tests.ISTestFiles.bytesOf;
+import static com.io7m.ironsegment.tests.ISTestFiles.manifest;
+import static com.io7m.ironsegment.tests.ISTestFiles.pixelsFor;
+import static com.io7m.ironsegment.tests.ISTestFiles.writer;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class ISShardTest
+{
+  private Path directory;
+  private Path file;
+
+  @BeforeEach
+  public void setup(
+    final @TempDir Path inDirectory)
+  {
+    this.directory = inDirectory;
+    this.file = this.directory.resolve("out.isb");
+  }
+
+  @Test
+  public void testShard()
+    throws Exception
+  {
+    final var files = new ArrayList<Path>();
+    final var manifests = new ArrayList<ISManifest>();
+    for (int index = 0; index < 3; ++index) {
+      final var memberFile = this.directory.resolve("member%d.isb".formatted(index));
+      manifests.add(
+        writer(memberFile)
+          .setBinaryManifest(index % 2 == 1)
+          .write()
+      );
+      files.add(memberFile);
+    }
+
+    final var shardFile = this.directory.resolve("out.iss");
+
+    final List<ISShardMember> written;
+    try (var channel = FileChannel.open(shardFile, CREATE, TRUNCATE_EXISTING, WRITE);
+         var writer = new IS1Writers().createShardWriter(
+           new ISShardWriteRequest(channel, shardFile.toUri()))) {
+
+      for (final var memberFile : files) {
+        try (var memberChannel = FileChannel.open(memberFile, READ)) {
+          writer.append(memberChannel);
+        }
+      }
+
+      final var notAFile = this.directory.resolve("garbage.bin");
+      Files.write(notAFile, new byte[32]);
+      try (var garbage = FileChannel.open(notAFile, READ)) {
+        assertThrows(IOException.class, () -> writer.append(garbage));
+      }
+      written = writer.finish();
+    }
+
+    assertEquals(files.size(), written.size());
+    for (final var member : written) {
+      assertEquals(Files.size(files.get(member.index())), member.size());
+    }
+
+    for (final var mode : ISReadMode.values()) {
+      try (var channel = FileChannel.open(shardFile, READ);
+           var shard = new IS1Readers().openShard(
+             ISParseRequest.builder(channel, shardFile.toUri())
+               .setReadMode(mode)
+               .build())) {
+
+        assertEquals(written, shard.members());
+        for (final var member : shard.members()) {
+          try (var readable = shard.openMember(member)) {
+            checkMember(manifests.get(member.index()), readable);
+
+            /*
+             * Members of a mapped shard are views of the shard mapping.
+             */
+
+            if (mode == ISReadMode.READ_VIA_MEMORY_MAP) {
+              final var image =
+                manifests.get(member.index()).images().images().firstKey();
+              try (var section = readable.openImage(image)) {
+                assertTrue(section.imageData().isDirect());
+              }
+            }
+          }
+        }
+      }
+    }
+
+    var membersRead = 0;
+    try (var input = Files.newInputStream(shardFile);
+         var parser = new IS1Readers().createShardStreamParser(
+           new ISStreamParseRequest(Channels.newChannel(input), shardFile.toUri()))) {
+
+      while (true) {
+        final var readableOpt = parser.next();
+        if (readableOpt.isEmpty()) {
+          break;
+        }
+
+        final var member = parser.member().orElseThrow();
+        assertEquals(written.get(membersRead), member);
+        try (var readable = readableOpt.get()) {
+          checkMember(manifests.get(member.index()), readable);
+        }
+        ++membersRead;
+      }
+    }
+
+    assertEquals(files.size(), membersRead);
+  }
+
+  private static void checkMember(
+    final ISManifest manifest,
+    final ISFileReadableType readable)
+    throws IOException
+  {
+    final var manifestSection =
+      readable.sections()
+        .stream()
+        .filter(s -> s.description().identifier() == sectionManifestIdentifier()
+                     || s.description().identifier() == sectionManifestBinaryIdentifier())
+        .findFirst()
+        .orElseThrow();
+
+    try (var section = (ISSectionReadableManifestType)
+      readable.openSection(manifestSection)) {
+      assertEquals(manifest, section.manifest());
+    }
+    for (final var image : manifest.images().images().values()) {
+      try (var section = readable.openImage(image.imageId())) {
+        assertArrayEquals(
+          pixelsFor(section.info()),
+          bytesOf(section.imageData())
+        );
+      }
+    }
+  }
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.ironsegment.tests;
+
+import com.io7m.ironsegment.api.ISFileSectionDescription;
+import com.io7m.ironsegment.api.ISImageInfo;
+import com.io7m.ironsegment.api.ISImageSemantic;
+import com.io7m.ironsegment.api.ISVersion;
+import com.io7m.ironsegment.basic.IS1Readers;
+import com.io7m.ironsegment.basic.IS1Writers;
+import com.io7m.ironsegment.parser.api.ISStreamEventEnd;
+import com.io7m.ironsegment.parser.api.ISStreamEventImage;
+import com.io7m.ironsegment.parser.api.ISStreamEventManifest;
+import com.io7m.ironsegment.parser.api.ISStreamEventSection;
+import com.io7m.ironsegment.parser.api.ISStreamParseRequest;
+import com.io7m.ironsegment.writer.api.ISChecksumMode;
+import com.io7m.ironsegment.writer.api.ISStreamWriteRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static com.io7m.ironsegment.parser.api.ISReadMode.READ_VIA_CHANNEL;
+import static com.io7m.ironsegment.tests.ISTestFiles.HEIGHT;
+import static com.io7m.ironsegment.tests.ISTestFiles.WIDTH;
+import static com.io7m.ironsegment.tests.ISTestFiles.bytesOf;
+import static com.io7m.ironsegment.tests.ISTestFiles.manifest;
+import static com.io7m.ironsegment.tests.ISTestFiles.openFile;
+import static com.io7m.ironsegment.tests.ISTestFiles.pixelsFor;
+import static com.io7m.ironsegment.tests.ISTestFiles.writeFile;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class ISStreamTest
+{
+  private Path directory;
+  private Path file;
+
+  @BeforeEach
+  public void setup(
+    final @TempDir Path inDirectory)
+  {
+    this.directory = inDirectory;
+    this.file = this.directory.resolve("out.isb");
+  }
+
+  @Test
+  public void testStreamWrite()
+    throws Exception
+  {
+    final var manifest = manifest();
+    final var output = new ByteArrayOutputStream();
+
+    final List<ISFileSectionDescription> written;
+    try (var writer = new IS1Writers().createStreamWriter(
+      new ISStreamWriteRequest(
+        Channels.newChannel(output),
+        this.file.toUri(),
+        new ISVersion(1, 0),
+        ISChecksumMode.CHECKSUMS_CRC32C))) {
+
+      writer.writeManifest(manifest);
+      for (final var image : manifest.images().images().values()) {
+        final var info =
+          new ISImageInfo(image.imageId(), image.semantic(), WIDTH, HEIGHT);
+        final var pixels = pixelsFor(info);
+        final var channel = writer.writeImage(info);
+        channel.write(ByteBuffer.wrap(pixels, 0, 3));
+        channel.write(ByteBuffer.wrap(pixels, 3, pixels.length - 3));
+      }
+      written = writer.finish();
+    }
+
+    Files.write(this.file, output.toByteArray());
+
+    try (var readable = openFile(this.file, READ_VIA_CHANNEL)) {
+      assertEquals(written, readable.sections());
+      for (final var result : readable.verifyChecksums()) {
+        assertTrue(result.isValid(), result.toString());
+      }
+      for (final var image : manifest.images().images().values()) {
+        try (var section = readable.openImage(image.imageId())) {
+          assertArrayEquals(
+            pixelsFor(section.info()),
+            bytesOf(section.imageData())
+          );
+        }
+      }
+    }
+
+    try (var writer = new IS1Writers().createStreamWriter(
+      new ISStreamWriteRequest(
+        Channels.newChannel(new ByteArrayOutputStream()),
+        this.file.toUri(),
+        new ISVersion(1, 0)))) {
+
+      final var image =
+        manifest.images().images().values().iterator().next();
+      final var info =
+        new ISImageInfo(image.imageId(), image.semantic(), WIDTH, HEIGHT);
+      final var channel = writer.writeImage(info);
+      assertThrows(IOException.class, () -> {
+        channel.write(ByteBuffer.allocate((int) info.dataSizeOctets() + 1));
+      });
+      channel.write(ByteBuffer.allocate(1));
+      assertThrows(IOException.class, writer::finish);
+      channel.write(ByteBuffer.allocate((int) info.dataSizeOctets() - 1));
+    }
+  }
+
+  @Test
+  public void testStreamParse()
+    throws Exception
+  {
+    final var manifest = writeFile(this.file);
+
+    final List<ISFileSectionDescription> expected;
+    try (var readable = openFile(this.file, READ_VIA_CHANNEL)) {
+      expected = readable.sections();
+    }
+
+    final var seen = new ArrayList<ISFileSectionDescription>();
+    var imagesRead = 0;
+
+    try (var input = Files.newInputStream(this.file);
+         var parser = new IS1Readers().createStreamParser(
+           new ISStreamParseRequest(Channels.newChannel(input), this.file.toUri()))) {
+
+      assertEquals(new ISVersion(1, 0), parser.version());
+
+      while (true) {
+        final var eventOpt = parser.next();
+        if (eventOpt.isEmpty()) {
+          break;
+        }
+
+        final var event = eventOpt.get();
+        seen.add(event.section());
+
+        switch (event) {
+          case final ISStreamEventManifest m -> {
+            assertEquals(manifest, m.manifest());
+          }
+          case final ISStreamEventImage image -> {
+            final var info = image.info().orElseThrow();
+
+            /*
+             * Only every other image is read; the rest are skipped.
+             */
+
+            if (image.imageId().value() % 2L == 0L) {
+              final var data = ByteBuffer.allocate((int) info.dataSizeOctets() + 16);
+              while (image.data().read(data) >= 0) {
+                // Read until the end of the image data.
+              }
+              assertArrayEquals(pixelsFor(info), bytesOf(data.flip()));
+              ++imagesRead;
+            }
+          }
+          case final ISStreamEventSection section -> {
+
+          }
+          case final ISStreamEventEnd end -> {
+
+          }
+        }
+      }
+
+      assertEquals(Optional.empty(), parser.next());
+    }
+
+    assertEquals(expected, seen);
+    assertEquals(ISImageSemantic.values().length / 2, imagesRead);
+
+    /*
+     * Section sizes that cannot be valid are rejected before any of the
+     * section data is read.
+     */
+
+    final var bytes = Files.readAllBytes(this.file);
+    for (final var size : List.of(Long.MIN_VALUE, -1L, Long.MAX_VALUE)) {
+      ByteBuffer.wrap(bytes).putLong(24, size);
+
+      try (var parser = new IS1Readers().createStreamParser(
+        new ISStreamParseRequest(
+          Channels.newChannel(new ByteArrayInputStream(bytes)),
+          this.file.toUri()))) {
+        assertThrows(IOException.class, parser::next);
+      }
+    }
+  }
+}
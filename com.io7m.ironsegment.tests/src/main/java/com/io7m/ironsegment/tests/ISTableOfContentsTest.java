@@ -0,0 +1,140 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.ironsegment.tests;
+
+import com.io7m.ironsegment.api.ISFileSectionDescription;
+import com.io7m.ironsegment.api.ISImageID;
+import com.io7m.ironsegment.api.ISSectionDescription;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import static com.io7m.ironsegment.api.ISIdentifiers.sectionEndIdentifier;
+import static com.io7m.ironsegment.api.ISIdentifiers.sectionImageIdentifier;
+import static com.io7m.ironsegment.api.ISIdentifiers.sectionManifestIdentifier;
+import static com.io7m.ironsegment.api.ISIdentifiers.sectionTableOfContentsIdentifier;
+import static com.io7m.ironsegment.parser.api.ISReadMode.READ_VIA_CHANNEL;
+import static com.io7m.ironsegment.parser.api.ISReadMode.READ_VIA_MEMORY_MAP;
+import static com.io7m.ironsegment.tests.ISTestFiles.bytesOf;
+import static com.io7m.ironsegment.tests.ISTestFiles.openFile;
+import static com.io7m.ironsegment.tests.ISTestFiles.pixelsFor;
+import static com.io7m.ironsegment.tests.ISTestFiles.writeFile;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class ISTableOfContentsTest
+{
+  private Path directory;
+  private Path file;
+
+  @BeforeEach
+  public void setup(
+    final @TempDir Path inDirectory)
+  {
+    this.directory = inDirectory;
+    this.file = this.directory.resolve("out.isb");
+  }
+
+  @Test
+  public void testOpenImageByID()
+    throws Exception
+  {
+    final var manifest = writeFile(this.file);
+
+    try (var readable = openFile(this.file, READ_VIA_MEMORY_MAP)) {
+      assertEquals(
+        manifest.images().images().size(),
+        readable.sectionsWithIdentifier(sectionImageIdentifier()).size()
+      );
+      assertEquals(
+        1,
+        readable.sectionsWithIdentifier(sectionManifestIdentifier()).size()
+      );
+
+      for (final var image : manifest.images().images().values()) {
+        try (var section = readable.openImage(image.imageId())) {
+          final var info = section.info();
+          assertEquals(image.imageId(), info.imageId());
+          assertEquals(image.semantic(), info.semantic());
+          assertArrayEquals(pixelsFor(info), bytesOf(section.imageData()));
+        }
+      }
+
+      final var missing = new ISImageID(1000L);
+      assertEquals(Optional.empty(), readable.sectionForImage(missing));
+      assertThrows(IOException.class, () -> readable.openImage(missing));
+    }
+  }
+
+  @Test
+  public void testTableOfContentsMatchesLinearScan()
+    throws Exception
+  {
+    writeFile(this.file);
+
+    final List<ISFileSectionDescription> sectionsIndexed;
+    try (var readable = openFile(this.file, READ_VIA_CHANNEL)) {
+      sectionsIndexed = readable.sections();
+    }
+
+    final var last = sectionsIndexed.get(sectionsIndexed.size() - 1);
+    final var toc = sectionsIndexed.get(sectionsIndexed.size() - 2);
+    assertEquals(sectionEndIdentifier(), last.description().identifier());
+    assertEquals(
+      sectionTableOfContentsIdentifier(),
+      toc.description().identifier()
+    );
+
+    /*
+     * Damage the table of contents header so that the parser has to fall
+     * back to walking the section headers.
+     */
+
+    try (var channel = FileChannel.open(this.file, WRITE)) {
+      channel.write(ByteBuffer.allocate(8), toc.fileOffset());
+    }
+
+    final var damagedToc =
+      new ISFileSectionDescription(
+        toc.fileOffset(),
+        new ISSectionDescription(0L, toc.description().size())
+      );
+
+    try (var readable = openFile(this.file, READ_VIA_CHANNEL)) {
+      final var sectionsScanned = readable.sections();
+      assertEquals(sectionsIndexed.size(), sectionsScanned.size());
+      for (int index = 0; index < sectionsIndexed.size(); ++index) {
+        final var expected = sectionsIndexed.get(index);
+        if (expected.equals(toc)) {
+          assertEquals(damagedToc, sectionsScanned.get(index));
+        } else {
+          assertEquals(expected, sectionsScanned.get(index));
+        }
+      }
+    }
+  }
+}
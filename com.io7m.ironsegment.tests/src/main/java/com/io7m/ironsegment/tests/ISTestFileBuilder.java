@@ -0,0 +1,177 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.ironsegment.tests;
+
+import com.io7m.ironsegment.api.ISImageCodec;
+import com.io7m.ironsegment.api.ISImageInfo;
+import com.io7m.ironsegment.api.ISManifest;
+import com.io7m.ironsegment.api.ISVersion;
+import com.io7m.ironsegment.basic.IS1Writers;
+import com.io7m.ironsegment.writer.api.ISWriteRequest;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.Optional;
+
+import static com.io7m.ironsegment.tests.ISTestFiles.HEIGHT;
+import static com.io7m.ironsegment.tests.ISTestFiles.TILE_HEIGHT;
+import static com.io7m.ironsegment.tests.ISTestFiles.TILE_WIDTH;
+import static com.io7m.ironsegment.tests.ISTestFiles.WIDTH;
+import static com.io7m.ironsegment.tests.ISTestFiles.manifest;
+import static com.io7m.ironsegment.tests.ISTestFiles.pixelsFor;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * A builder for test files containing one image per semantic.
+ */
+
+final class ISTestFileBuilder
+{
+  private final Path file;
+  private boolean binaryManifest;
+  private Optional<ISImageCodec> codec;
+  private boolean tiled;
+
+  ISTestFileBuilder(
+    final Path inFile)
+  {
+    this.file = Objects.requireNonNull(inFile, "file");
+    this.binaryManifest = false;
+    this.codec = Optional.empty();
+    this.tiled = false;
+  }
+
+  /**
+   * Write the manifest as a binary manifest section.
+   *
+   * @param inBinaryManifest {@code true} for a binary manifest
+   *
+   * @return this
+   */
+
+  ISTestFileBuilder setBinaryManifest(
+    final boolean inBinaryManifest)
+  {
+    this.binaryManifest = inBinaryManifest;
+    return this;
+  }
+
+  /**
+   * Write images as encoded sections using the given codec. By default,
+   * images are written as plain image sections.
+   *
+   * @param inCodec The codec
+   *
+   * @return this
+   */
+
+  ISTestFileBuilder setCodec(
+    final ISImageCodec inCodec)
+  {
+    this.codec = Optional.of(inCodec);
+    return this;
+  }
+
+  /**
+   * Write images as tiled sections.
+   *
+   * @param inTiled {@code true} for tiled sections
+   *
+   * @return this
+   */
+
+  ISTestFileBuilder setTiled(
+    final boolean inTiled)
+  {
+    this.tiled = inTiled;
+    return this;
+  }
+
+  /**
+   * Write the file.
+   *
+   * @return The manifest that was written
+   *
+   * @throws IOException On errors
+   */
+
+  ISManifest write()
+    throws IOException
+  {
+    final var manifest = manifest();
+    final var images = manifest.images().images();
+
+    try (var channel = FileChannel.open(this.file, CREATE, TRUNCATE_EXISTING, WRITE);
+         var writer = new IS1Writers().createWriter(
+           new ISWriteRequest(channel, this.file.toUri(), new ISVersion(1, 0)));
+         var writable = writer.execute()) {
+
+      try (var section = this.binaryManifest
+        ? writable.createSectionInfoBinary()
+        : writable.createSectionInfo()) {
+        section.setManifest(manifest);
+      }
+
+      for (final var image : images.values()) {
+        final var info =
+          new ISImageInfo(image.imageId(), image.semantic(), WIDTH, HEIGHT);
+
+        if (this.tiled) {
+          try (var section = writable.createSectionImageTiled()) {
+            final var data =
+              section.createImageDataTiled(
+                info.imageId(),
+                info.width(),
+                info.height(),
+                info.semantic(),
+                this.codec.orElse(ISImageCodec.RAW),
+                TILE_WIDTH,
+                TILE_HEIGHT
+              );
+            data.channel().write(ByteBuffer.wrap(pixelsFor(info)));
+          }
+          continue;
+        }
+
+        try (var section = this.codec.isPresent()
+          ? writable.createSectionImageEncoded()
+          : writable.createSectionImage()) {
+          final var data =
+            section.createImageData(
+              info.imageId(),
+              info.width(),
+              info.height(),
+              info.semantic(),
+              this.codec.orElse(ISImageCodec.RAW)
+            );
+          data.channel().write(ByteBuffer.wrap(pixelsFor(info)));
+        }
+      }
+
+      try (var section = writable.createSectionEnd()) {
+
+      }
+    }
+    return manifest;
+  }
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.ironsegment.tests;
+
+import com.io7m.ironsegment.api.ISFileReadableType;
+import com.io7m.ironsegment.api.ISFileWriteStatistics;
+import com.io7m.ironsegment.api.ISImage;
+import com.io7m.ironsegment.api.ISImageCodecPolicy;
+import com.io7m.ironsegment.api.ISImageID;
+import com.io7m.ironsegment.api.ISImageInfo;
+import com.io7m.ironsegment.api.ISImageRegion;
+import com.io7m.ironsegment.api.ISImageSemantic;
+import com.io7m.ironsegment.api.ISImages;
+import com.io7m.ironsegment.api.ISManifest;
+import com.io7m.ironsegment.api.ISObject;
+import com.io7m.ironsegment.api.ISObjectID;
+import com.io7m.ironsegment.api.ISVersion;
+import com.io7m.ironsegment.basic.IS1Readers;
+import com.io7m.ironsegment.basic.IS1Writers;
+import com.io7m.ironsegment.parser.api.ISManifestMode;
+import com.io7m.ironsegment.parser.api.ISParseRequest;
+import com.io7m.ironsegment.parser.api.ISReadMode;
+import com.io7m.ironsegment.writer.api.ISWriteRequest;
+import com.io7m.lanark.core.RDottedName;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.TreeMap;
+
+import static com.io7m.ironsegment.parser.api.ISManifestMode.MANIFEST_VALIDATED;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+final class ISTestFiles
+{
+  static final long WIDTH = 32L;
+  static final long HEIGHT = 16L;
+  static final long TILE_WIDTH = 5L;
+  static final long TILE_HEIGHT = 3L;
+
+  private ISTestFiles()
+  {
+
+  }
+
+  static ISFileReadableType openFile(
+    final Path file,
+    final ISReadMode mode)
+    throws IOException
+  {
+    return openFile(file, mode, MANIFEST_VALIDATED);
+  }
+
+  static ISFileReadableType openFile(
+    final Path file,
+    final ISReadMode mode,
+    final ISManifestMode manifestMode)
+    throws IOException
+  {
+    final var channel =
+      FileChannel.open(file, READ);
+    final var request =
+      ISParseRequest.builder(channel, file.toUri())
+        .setReadMode(mode)
+        .setManifestMode(manifestMode)
+        .build();
+
+    try (var parser = new IS1Readers().createParser(request)) {
+      return parser.execute();
+    }
+  }
+
+  static ISFileReadableType openFile(
+    final IS1Readers readers,
+    final Path file,
+    final ISReadMode mode)
+    throws IOException
+  {
+    final var channel =
+      FileChannel.open(file, READ);
+    final var request =
+      ISParseRequest.builder(channel, file.toUri())
+        .setReadMode(mode)
+        .build();
+
+    try (var parser = readers.createParser(request)) {
+      return parser.execute();
+    }
+  }
+
+  static ISTestFileBuilder writer(
+    final Path file)
+  {
+    return new ISTestFileBuilder(file);
+  }
+
+  static ISManifest writeFile(
+    final Path file)
+    throws IOException
+  {
+    return writer(file).write();
+  }
+
+  static ISManifest manifest()
+  {
+    final var images = new TreeMap<ISImageID, ISImage>();
+    long index = 1L;
+    for (final var semantic : ISImageSemantic.values()) {
+      final var id = new ISImageID(index);
+      images.put(id, new ISImage(id, semantic));
+      ++index;
+    }
+
+    final var objects = new TreeMap<ISObjectID, ISObject>();
+    for (long objectIndex = 1L; objectIndex <= 3L; ++objectIndex) {
+      final var id = new ISObjectID(objectIndex);
+      final var text = "Object <%d> & more.".formatted(objectIndex);
+      objects.put(id, new ISObject(id, text));
+    }
+
+    final var metadata = new TreeMap<RDottedName, String>();
+    metadata.put(new RDottedName("com.io7m.example"), "An example value.");
+    metadata.put(new RDottedName("com.io7m.other"), "Another <value> & more.");
+
+    return new ISManifest(
+      new ISImages(images, WIDTH, HEIGHT),
+      objects,
+      metadata
+    );
+  }
+
+  static ISFileWriteStatistics writeFileAdaptive(
+    final Path file,
+    final ISImageCodecPolicy policy,
+    final boolean tiled)
+    throws IOException
+  {
+    final var manifest = manifest();
+
+    try (var channel = FileChannel.open(file, CREATE, TRUNCATE_EXISTING, WRITE);
+         var writer = new IS1Writers().createWriter(
+           new ISWriteRequest(channel, file.toUri(), new ISVersion(1, 0)));
+         var writable = writer.execute()) {
+
+      try (var section = writable.createSectionInfo()) {
+        section.setManifest(manifest);
+      }
+
+      for (final var image : manifest.images().images().values()) {
+        final var info =
+          new ISImageInfo(image.imageId(), image.semantic(), WIDTH, HEIGHT);
+
+        try (var section = tiled
+          ? writable.createSectionImageTiled()
+          : writable.createSectionImageEncoded()) {
+          final var data =
+            section.createImageDataAdaptive(
+              info.imageId(),
+              info.width(),
+              info.height(),
+              info.semantic(),
+              policy
+            );
+          data.channel().write(ByteBuffer.wrap(pixelsFor(info)));
+        }
+      }
+
+      try (var section = writable.createSectionEnd()) {
+
+      }
+      return writable.statistics();
+    }
+  }
+
+  static byte[] pixelsFor(
+    final ISImageInfo info)
+  {
+    final var data = new byte[(int) info.dataSizeOctets()];
+    for (int index = 0; index < data.length; ++index) {
+      data[index] = (byte) ((index * 7) + info.imageId().value());
+    }
+    return data;
+  }
+
+  static byte[] cropOf(
+    final ISImageInfo info,
+    final byte[] pixels,
+    final ISImageRegion region)
+  {
+    final var pixelSize = (int) info.semantic().pixelSizeOctets();
+    final var rowSize = (int) region.width() * pixelSize;
+    final var data = new byte[(int) region.height() * rowSize];
+    for (int row = 0; row < region.height(); ++row) {
+      System.arraycopy(
+        pixels,
+        (int) (((region.y() + row) * info.width()) + region.x()) * pixelSize,
+        data,
+        row * rowSize,
+        rowSize
+      );
+    }
+    return data;
+  }
+
+  static byte[] bytesOf(
+    final ByteBuffer buffer)
+  {
+    final var data = new byte[buffer.remaining()];
+    buffer.duplicate().get(data);
+    return data;
+  }
+}
@@ -160,12 +160,26 @@ OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
                   dataBuffer.put((byte) (pixel + 2));
                   dataBuffer.put((byte) (pixel + 3));
                 }
+                case DENOISE_RGBAF16 -> {
+                  dataBuffer.putShort(Float.floatToFloat16(pixel / 512.0f));
+                  dataBuffer.putShort(Float.floatToFloat16(pixel / 256.0f));
+                  dataBuffer.putShort(Float.floatToFloat16(pixel / 128.0f));
+                  dataBuffer.putShort(Float.floatToFloat16(1.0f));
+                }
+                case DENOISE_RGBF16 -> {
+                  dataBuffer.putShort(Float.floatToFloat16(pixel / 512.0f));
+                  dataBuffer.putShort(Float.floatToFloat16(pixel / 256.0f));
+                  dataBuffer.putShort(Float.floatToFloat16(pixel / 128.0f));
+                }
                 case DEPTH_16 -> {
                   dataBuffer.putChar((char) pixel);
                 }
                 case DEPTH_32 -> {
                   dataBuffer.putInt(pixel);
                 }
+                case DEPTHF16 -> {
+                  dataBuffer.putShort(Float.floatToFloat16(pixel / 512.0f));
+                }
                 case MONOCHROME_LINES_8 -> {
                   dataBuffer.put((byte) pixel);
                 }
@@ -25,6 +25,7 @@ open module com.io7m.ironsegment.tests
 
   requires com.io7m.ironsegment.api;
   requires com.io7m.ironsegment.basic;
+  requires com.io7m.ironsegment.parser.api;
   requires com.io7m.ironsegment.writer.api;
 
   requires com.io7m.jmulticlose.core;
@@ -0,0 +1,58 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.ironsegment.writer.api;
+
+import com.io7m.ironsegment.api.ISImageInfo;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * An image held in memory, to be written by a bulk writer. The pixel data
+ * is the content of the buffer between its position and limit; the buffer
+ * itself is not modified.
+ *
+ * @param info The image information
+ * @param data The uncompressed pixel data
+ *
+ * @see ISWriterFactoryType#writeBulk(ISWriteRequest, com.io7m.ironsegment.api.ISManifest, java.util.List)
+ */
+
+public record ISBulkImage(
+  ISImageInfo info,
+  ByteBuffer data)
+{
+  /**
+   * An image held in memory, to be written by a bulk writer.
+   *
+   * @param info The image information
+   * @param data The uncompressed pixel data
+   */
+
+  public ISBulkImage
+  {
+    Objects.requireNonNull(info, "info");
+    Objects.requireNonNull(data, "data");
+
+    if (data.remaining() != info.dataSizeOctets()) {
+      throw new IllegalArgumentException(
+        "Image %s requires %d octets of data, but %d were provided"
+          .formatted(info.imageId(), info.dataSizeOctets(), data.remaining())
+      );
+    }
+  }
+}
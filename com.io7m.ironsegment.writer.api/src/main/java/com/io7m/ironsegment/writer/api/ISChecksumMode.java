@@ -0,0 +1,41 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.ironsegment.writer.api;
+
+/**
+ * The means by which section checksums are written.
+ */
+
+public enum ISChecksumMode
+{
+  /**
+   * No checksums are written.
+   */
+
+  CHECKSUMS_NONE,
+
+  /**
+   * A CRC32C checksum of the data of every section is computed as each
+   * section is closed, and the checksums are written to a checksum section
+   * directly before the table of contents. The checksum of each section is
+   * computed by reading the section data back from the channel immediately
+   * after the section is closed, and so the channel must be open for reading
+   * as well as writing.
+   */
+
+  CHECKSUMS_CRC32C
+}
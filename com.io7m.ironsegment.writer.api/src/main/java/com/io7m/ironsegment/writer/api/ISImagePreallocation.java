@@ -0,0 +1,53 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.ironsegment.writer.api;
+
+/**
+ * The means by which space for uncompressed image data is allocated when
+ * image data is created in an image section.
+ */
+
+public enum ISImagePreallocation
+{
+  /**
+   * Space is reserved by writing the image ID and the final octet of the
+   * image data, and the image data is then written into the gap. This leaves
+   * the gap sparse on filesystems that support sparse files, which can
+   * result in fragmented files once the gap is filled in.
+   */
+
+  PREALLOCATE_SPARSE,
+
+  /**
+   * Space is reserved by writing zeroes over the whole of the image data
+   * before the image data is written. This forces the filesystem to allocate
+   * real blocks for the image up front, at the cost of writing the image
+   * data twice.
+   */
+
+  PREALLOCATE_ZEROED,
+
+  /**
+   * No space is reserved. The image data is written directly after the image
+   * ID, and so must be written sequentially from the start of the image.
+   * Any part of the image that has not been written when the section is
+   * closed is filled with zeroes. This writes the image data exactly once
+   * and produces contiguous files.
+   */
+
+  PREALLOCATE_NONE
+}
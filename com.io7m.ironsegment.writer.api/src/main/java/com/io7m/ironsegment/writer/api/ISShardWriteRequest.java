@@ -0,0 +1,48 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package com.io7m.ironsegment.writer.api;
+
+import java.net.URI;
+import java.nio.channels.WritableByteChannel;
+import java.util.Objects;
+
+/**
+ * A request to write a shard. Shards are written strictly sequentially, and
+ * so the channel may be a pipe or a socket.
+ *
+ * @param channel The writable channel
+ * @param target  The target shard, for diagnostics
+ *
+ * @see ISShardWriterType
+ */
+
+public record ISShardWriteRequest(
+  WritableByteChannel channel,
+  URI target)
+{
+  /**
+   * A request to write a shard.
+   *
+   * @param channel The writable channel
+   * @param target  The target shard, for diagnostics
+   */
+
+  public ISShardWriteRequest
+  {
+    Objects.requireNonNull(channel, "channel");
+    Objects.requireNonNull(target, "target");
+  }
+}
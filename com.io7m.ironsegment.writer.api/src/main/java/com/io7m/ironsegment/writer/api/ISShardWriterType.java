@@ -0,0 +1,80 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package com.io7m.ironsegment.writer.api;
+
+import com.io7m.ironsegment.api.ISShardMember;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.SeekableByteChannel;
+import java.util.List;
+
+/**
+ * A writer that packs complete files back-to-back into a single shard. Each
+ * member is preceded by a small header giving its size, and an index of the
+ * members is written when the shard is finished, so that a shard can be
+ * read either sequentially or by seeking directly to any member.
+ *
+ * <p>Writers are not thread-safe. The underlying channel is not closed when
+ * the writer is closed.</p>
+ */
+
+public interface ISShardWriterType extends Closeable
+{
+  /**
+   * @return The members written so far
+   */
+
+  List<ISShardMember> members();
+
+  /**
+   * Append a complete file to the shard. The file data is copied from the
+   * current position of the given channel to the end of the channel. The
+   * channel is not closed.
+   *
+   * @param file The file
+   *
+   * @return The new member
+   *
+   * @throws IOException On errors, or if the data is not a file
+   */
+
+  ISShardMember append(SeekableByteChannel file)
+    throws IOException;
+
+  /**
+   * Write the index and closing section of the shard. No further members
+   * may be appended afterwards.
+   *
+   * @return The members of the written shard
+   *
+   * @throws IOException On errors
+   */
+
+  List<ISShardMember> finish()
+    throws IOException;
+
+  /**
+   * Close the writer, calling {@link #finish()} if it has not yet been
+   * called.
+   *
+   * @throws IOException On errors
+   */
+
+  @Override
+  void close()
+    throws IOException;
+}
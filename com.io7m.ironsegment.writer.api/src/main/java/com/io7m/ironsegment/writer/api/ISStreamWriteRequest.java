@@ -0,0 +1,76 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.ironsegment.writer.api;
+
+import com.io7m.ironsegment.api.ISVersion;
+
+import java.net.URI;
+import java.nio.channels.WritableByteChannel;
+import java.util.Objects;
+
+/**
+ * A request to write a file to a channel that cannot seek, such as a pipe or
+ * a socket.
+ *
+ * @param channel      The writable channel
+ * @param target       The target file, for diagnostics
+ * @param version      The file version
+ * @param checksumMode The means by which section checksums are written
+ *
+ * @see ISStreamWriterType
+ */
+
+public record ISStreamWriteRequest(
+  WritableByteChannel channel,
+  URI target,
+  ISVersion version,
+  ISChecksumMode checksumMode)
+{
+  /**
+   * A request to write a file to a channel that cannot seek.
+   *
+   * @param channel      The writable channel
+   * @param target       The target file, for diagnostics
+   * @param version      The file version
+   * @param checksumMode The means by which section checksums are written
+   */
+
+  public ISStreamWriteRequest
+  {
+    Objects.requireNonNull(channel, "channel");
+    Objects.requireNonNull(target, "target");
+    Objects.requireNonNull(version, "version");
+    Objects.requireNonNull(checksumMode, "checksumMode");
+  }
+
+  /**
+   * A request to write a file to a channel that cannot seek, without
+   * checksums.
+   *
+   * @param inChannel The writable channel
+   * @param inTarget  The target file, for diagnostics
+   * @param inVersion The file version
+   */
+
+  public ISStreamWriteRequest(
+    final WritableByteChannel inChannel,
+    final URI inTarget,
+    final ISVersion inVersion)
+  {
+    this(inChannel, inTarget, inVersion, ISChecksumMode.CHECKSUMS_NONE);
+  }
+}
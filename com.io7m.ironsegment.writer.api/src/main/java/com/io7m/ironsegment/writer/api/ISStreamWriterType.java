@@ -0,0 +1,97 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.ironsegment.writer.api;
+
+import com.io7m.ironsegment.api.ISFileSectionDescription;
+import com.io7m.ironsegment.api.ISImageInfo;
+import com.io7m.ironsegment.api.ISManifest;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+
+/**
+ * A writer that produces a file strictly sequentially, without ever seeking
+ * or revisiting data that has already been written. The size of every
+ * section is declared before any of its data is written: manifests are
+ * encoded in memory before being written, and the size of uncompressed image
+ * data follows from the image dimensions and semantic. Checksums, if
+ * requested, are computed as the data passes through the writer.
+ *
+ * <p>Writers are not thread-safe. The underlying channel is not closed when
+ * the writer is closed.</p>
+ */
+
+public interface ISStreamWriterType extends Closeable
+{
+  /**
+   * @return The sections written so far
+   */
+
+  List<ISFileSectionDescription> sections();
+
+  /**
+   * Write an XML manifest section.
+   *
+   * @param manifest The manifest
+   *
+   * @throws IOException On errors
+   */
+
+  void writeManifest(ISManifest manifest)
+    throws IOException;
+
+  /**
+   * Start an uncompressed image section. The section header and image ID are
+   * written immediately, and exactly {@link ISImageInfo#dataSizeOctets()}
+   * octets of pixel data must then be written to the returned channel before
+   * any other section is written.
+   *
+   * @param info The image information
+   *
+   * @return A channel that accepts the pixel data
+   *
+   * @throws IOException On errors
+   */
+
+  WritableByteChannel writeImage(ISImageInfo info)
+    throws IOException;
+
+  /**
+   * Write the closing sections of the file. No further sections may be
+   * written afterwards.
+   *
+   * @return The sections of the written file
+   *
+   * @throws IOException On errors
+   */
+
+  List<ISFileSectionDescription> finish()
+    throws IOException;
+
+  /**
+   * Close the writer, calling {@link #finish()} if it has not yet been
+   * called.
+   *
+   * @throws IOException On errors
+   */
+
+  @Override
+  void close()
+    throws IOException;
+}
@@ -25,22 +25,30 @@ import java.util.Objects;
 /**
  * A write request.
  *
- * @param channel The writable channel
- * @param version The file version
- * @param target  The target file
+ * @param channel      The writable channel
+ * @param version      The file version
+ * @param target       The target file
+ * @param checksumMode The means by which section checksums are written
+ * @param imagePreallocation The means by which space for image data is
+ *                           allocated
  */
 
 public record ISWriteRequest(
   SeekableByteChannel channel,
   URI target,
-  ISVersion version)
+  ISVersion version,
+  ISChecksumMode checksumMode,
+  ISImagePreallocation imagePreallocation)
 {
   /**
    * A write request.
    *
-   * @param channel The writable channel
-   * @param version The file version
-   * @param target  The target file
+   * @param channel      The writable channel
+   * @param version      The file version
+   * @param target       The target file
+   * @param checksumMode The means by which section checksums are written
+   * @param imagePreallocation The means by which space for image data is
+   *                           allocated
    */
 
   public ISWriteRequest
@@ -48,5 +56,134 @@ public record ISWriteRequest(
     Objects.requireNonNull(channel, "channel");
     Objects.requireNonNull(target, "target");
     Objects.requireNonNull(version, "version");
+    Objects.requireNonNull(checksumMode, "checksumMode");
+    Objects.requireNonNull(imagePreallocation, "imagePreallocation");
+  }
+
+  /**
+   * A write request that does not write checksums.
+   *
+   * @param inChannel The writable channel
+   * @param inTarget  The target file
+   * @param inVersion The file version
+   */
+
+  public ISWriteRequest(
+    final SeekableByteChannel inChannel,
+    final URI inTarget,
+    final ISVersion inVersion)
+  {
+    this(
+      inChannel,
+      inTarget,
+      inVersion,
+      ISChecksumMode.CHECKSUMS_NONE,
+      ISImagePreallocation.PREALLOCATE_SPARSE
+    );
+  }
+
+  /**
+   * Create a new mutable request builder.
+   *
+   * @param inChannel The writable channel
+   * @param inTarget  The target file
+   * @param inVersion The file version
+   *
+   * @return A request builder
+   */
+
+  public static ISWriteRequestBuilderType builder(
+    final SeekableByteChannel inChannel,
+    final URI inTarget,
+    final ISVersion inVersion)
+  {
+    return new Builder(inChannel, inTarget, inVersion);
+  }
+
+  private static final class Builder
+    implements ISWriteRequestBuilderType
+  {
+    private final SeekableByteChannel channel;
+    private final URI target;
+    private final ISVersion version;
+    private ISChecksumMode checksumMode;
+    private ISImagePreallocation imagePreallocation;
+
+    private Builder(
+      final SeekableByteChannel inChannel,
+      final URI inTarget,
+      final ISVersion inVersion)
+    {
+      this.channel =
+        Objects.requireNonNull(inChannel, "channel");
+      this.target =
+        Objects.requireNonNull(inTarget, "target");
+      this.version =
+        Objects.requireNonNull(inVersion, "version");
+      this.checksumMode =
+        ISChecksumMode.CHECKSUMS_NONE;
+      this.imagePreallocation =
+        ISImagePreallocation.PREALLOCATE_SPARSE;
+    }
+
+    @Override
+    public SeekableByteChannel channel()
+    {
+      return this.channel;
+    }
+
+    @Override
+    public URI target()
+    {
+      return this.target;
+    }
+
+    @Override
+    public ISVersion version()
+    {
+      return this.version;
+    }
+
+    @Override
+    public ISChecksumMode checksumMode()
+    {
+      return this.checksumMode;
+    }
+
+    @Override
+    public ISWriteRequestBuilderType setChecksumMode(
+      final ISChecksumMode inChecksumMode)
+    {
+      this.checksumMode =
+        Objects.requireNonNull(inChecksumMode, "checksumMode");
+      return this;
+    }
+
+    @Override
+    public ISImagePreallocation imagePreallocation()
+    {
+      return this.imagePreallocation;
+    }
+
+    @Override
+    public ISWriteRequestBuilderType setImagePreallocation(
+      final ISImagePreallocation inImagePreallocation)
+    {
+      this.imagePreallocation =
+        Objects.requireNonNull(inImagePreallocation, "imagePreallocation");
+      return this;
+    }
+
+    @Override
+    public ISWriteRequest build()
+    {
+      return new ISWriteRequest(
+        this.channel,
+        this.target,
+        this.version,
+        this.checksumMode,
+        this.imagePreallocation
+      );
+    }
   }
 }
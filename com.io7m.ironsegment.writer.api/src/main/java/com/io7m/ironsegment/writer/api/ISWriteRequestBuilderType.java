@@ -0,0 +1,89 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.ironsegment.writer.api;
+
+import com.io7m.ironsegment.api.ISVersion;
+
+import java.net.URI;
+import java.nio.channels.SeekableByteChannel;
+
+/**
+ * A mutable write request builder.
+ *
+ * @see ISWriteRequest
+ */
+
+public interface ISWriteRequestBuilderType
+{
+  /**
+   * @return The writable channel
+   */
+
+  SeekableByteChannel channel();
+
+  /**
+   * @return The target file
+   */
+
+  URI target();
+
+  /**
+   * @return The file version
+   */
+
+  ISVersion version();
+
+  /**
+   * @return The checksum mode
+   */
+
+  ISChecksumMode checksumMode();
+
+  /**
+   * Set the checksum mode.
+   *
+   * @param inChecksumMode The checksum mode
+   *
+   * @return this
+   */
+
+  ISWriteRequestBuilderType setChecksumMode(
+    ISChecksumMode inChecksumMode);
+
+  /**
+   * @return The image preallocation mode
+   */
+
+  ISImagePreallocation imagePreallocation();
+
+  /**
+   * Set the image preallocation mode.
+   *
+   * @param inImagePreallocation The image preallocation mode
+   *
+   * @return this
+   */
+
+  ISWriteRequestBuilderType setImagePreallocation(
+    ISImagePreallocation inImagePreallocation);
+
+  /**
+   * @return An immutable write request
+   */
+
+  ISWriteRequest build();
+}
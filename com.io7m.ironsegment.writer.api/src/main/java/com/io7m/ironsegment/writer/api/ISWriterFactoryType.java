@@ -16,7 +16,11 @@
 
 package com.io7m.ironsegment.writer.api;
 
+import com.io7m.ironsegment.api.ISFileSectionDescription;
+import com.io7m.ironsegment.api.ISManifest;
+
 import java.io.IOException;
+import java.util.List;
 
 /**
  * The type of writer factories.
@@ -49,4 +53,57 @@ public interface ISWriterFactoryType
   ISWriterType createWriter(
     ISWriteRequest request)
     throws IOException;
+
+  /**
+   * Write a complete file in a single pass. The file consists of an XML
+   * manifest section followed by one uncompressed image section for each of
+   * the given images, in order, and then the closing sections. Because all
+   * of the data is available up front, the location of every section is
+   * computed before anything is written, and the file is written with a
+   * small number of gathering writes and no seeking.
+   *
+   * @param request  The request
+   * @param manifest The manifest
+   * @param images   The images
+   *
+   * @return The sections of the written file
+   *
+   * @throws IOException On errors
+   */
+
+  List<ISFileSectionDescription> writeBulk(
+    ISWriteRequest request,
+    ISManifest manifest,
+    List<ISBulkImage> images)
+    throws IOException;
+
+  /**
+   * Create a new streaming writer for the given request. The file header is
+   * written immediately.
+   *
+   * @param request The request
+   *
+   * @return A new writer
+   *
+   * @throws IOException On errors
+   */
+
+  ISStreamWriterType createStreamWriter(
+    ISStreamWriteRequest request)
+    throws IOException;
+
+  /**
+   * Create a new shard writer for the given request. The shard header is
+   * written immediately.
+   *
+   * @param request The request
+   *
+   * @return A new writer
+   *
+   * @throws IOException On errors
+   */
+
+  ISShardWriterType createShardWriter(
+    ISShardWriteRequest request)
+    throws IOException;
 }